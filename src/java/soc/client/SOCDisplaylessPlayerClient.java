@@ -46,6 +46,7 @@ import soc.game.SOCVillage;
 import soc.message.*;
 import soc.robot.SOCRobotClient;
 import soc.server.genericServer.LocalStringConnection;
+import soc.util.BinaryMessageCodec;
 import soc.util.SOCServerFeatures;
 import soc.util.Version;
 
@@ -139,6 +140,14 @@ public class SOCDisplaylessPlayerClient implements Runnable
      */
     protected Hashtable<String, SOCGame> games = new Hashtable<String, SOCGame>();
 
+    /**
+     * Game handle fields given by the server, keyed by game name;
+     * {@link #put(String)} sends these instead of the game name.
+     * See {@link SOCMessage#GAME_HANDLE_MARKER}.
+     * @since 2.0.00
+     */
+    protected Hashtable<String, String> gameHandles = new Hashtable<String, String>();
+
     /**
      * Create a SOCDisplaylessPlayerClient, which would connect to localhost port 8889.
      * Does not actually connect; subclass must connect, such as {@link soc.robot.SOCRobotClient#init()}
@@ -205,11 +214,14 @@ public class SOCDisplaylessPlayerClient implements Runnable
         
         try
         {
+            // Reads text or binary frames; new for each connection, since it has a per-connection intern table
+            final BinaryMessageCodec.Decoder dec = new BinaryMessageCodec.Decoder();
+
             while (connected)
             {
                 String s;
                 if (sLocal == null)
-                    s = in.readUTF();
+                    s = dec.readFrame(in);
                 else
                     s = sLocal.readNext();
                 treat(SOCMessage.toMsg(s));
@@ -269,12 +281,13 @@ public class SOCDisplaylessPlayerClient implements Runnable
 
         try
         {
+            final String sh = SOCMessage.toCmdWithGameHandle(s, gameHandles);
             if (sLocal == null)
             {
-                out.writeUTF(s);
+                out.writeUTF(sh);
                 out.flush();
             } else {
-                sLocal.put(s);
+                sLocal.put(sh);
             }
         }
         catch (InterruptedIOException x)
@@ -865,6 +878,13 @@ public class SOCDisplaylessPlayerClient implements Runnable
         // Clients v1.1.07 and later send SOCVersion right away at connect,
         // so no need to reply here with our client version.
 
+        // Ask for binary frames and compression if offered; run() can already read them.
+        // Server's replies are ignored.
+        if ((! isLocal) && feats.isActive(SOCServerFeatures.FEAT_BINARY_PROTOCOL))
+            put(SOCBinaryProtocol.toCmd(BinaryMessageCodec.FORMAT_VERSION));
+        if ((! isLocal) && feats.isActive(SOCServerFeatures.FEAT_COMPRESSION))
+            put(SOCCompression.toCmd(BinaryMessageCodec.COMPRESSION_FORMAT_VERSION));
+
         // Don't check for game options different at version, unlike SOCPlayerClient.handleVERSION.
     }
 
@@ -938,6 +958,9 @@ public class SOCDisplaylessPlayerClient implements Runnable
             ga.isPractice = isPractice;
             games.put(mes.getGame(), ga);
         }
+
+        if (mes.getGameHandle() != 0)
+            gameHandles.put(mes.getGame(), SOCMessage.gameHandleField(mes.getGameHandle()));
     }
 
     /**
@@ -2514,6 +2537,7 @@ public class SOCDisplaylessPlayerClient implements Runnable
     {
         games.remove(ga.getName());
         put(SOCLeaveGame.toCmd(nickname, host, ga.getName()));
+        gameHandles.remove(ga.getName());
     }
 
     /**
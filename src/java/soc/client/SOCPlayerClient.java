@@ -95,6 +95,7 @@ import soc.server.genericServer.LocalStringConnection;
 import soc.server.genericServer.LocalStringServerSocket;
 import soc.server.genericServer.StringConnection;
 
+import soc.util.BinaryMessageCodec;
 import soc.util.I18n;
 import soc.util.SOCGameList;
 import soc.util.SOCServerFeatures;
@@ -3465,6 +3466,13 @@ public class SOCPlayerClient
                 : new SOCServerFeatures(true);
 
             gameDisplay.showVersion(vers, mes.getVersionString(), mes.getBuild(), sFeatures);
+
+            // Ask for binary frames and compression if offered; NetReadTask can already read them.
+            // Server's replies are ignored.
+            if (sFeatures.isActive(SOCServerFeatures.FEAT_BINARY_PROTOCOL))
+                gmgr.put(SOCBinaryProtocol.toCmd(BinaryMessageCodec.FORMAT_VERSION), false);
+            if (sFeatures.isActive(SOCServerFeatures.FEAT_COMPRESSION))
+                gmgr.put(SOCCompression.toCmd(BinaryMessageCodec.COMPRESSION_FORMAT_VERSION), false);
         }
 
         // If we ever require a minimum server version, would check that here.
@@ -3802,6 +3810,9 @@ public class SOCPlayerClient
             clientListeners.put(gaName, clientListener);
             games.put(gaName, ga);
         }
+
+        if ((mes.getGameHandle() != 0) && ! isPractice)
+            net.gameHandles.put(gaName, SOCMessage.gameHandleField(mes.getGameHandle()));
         System.err.println("L2332 handlejoin done at " + System.currentTimeMillis());
     }
 
@@ -5744,6 +5755,8 @@ public class SOCPlayerClient
         client.clientListeners.remove(ga.getName());
         client.games.remove(ga.getName());
         put(SOCLeaveGame.toCmd(client.nickname, net.getHost(), ga.getName()), ga.isPractice);
+        if (! ga.isPractice)
+            net.gameHandles.remove(ga.getName());
     }
 
     /**
@@ -6388,6 +6401,14 @@ public class SOCPlayerClient
         /** For debug, our last messages sent, over the net or practice server (pipes) */
         protected String lastMessage_N, lastMessage_P;
 
+        /**
+         * Game handle fields for games on the TCP server, keyed by game name;
+         * {@link #putNet(String)} sends these instead of the game name.
+         * See {@link SOCMessage#GAME_HANDLE_MARKER}. Not used for practice games.
+         * @since 2.0.00
+         */
+        final Hashtable<String, String> gameHandles = new Hashtable<String, String>();
+
         /**
          * Server for practice games via {@link #prCli}; not connected to the network,
          * not suited for hosting multi-player games. Use {@link #localTCPServer}
@@ -6710,7 +6731,7 @@ public class SOCPlayerClient
 
             try
             {
-                out.writeUTF(s);
+                out.writeUTF(SOCMessage.toCmdWithGameHandle(s, gameHandles));
                 out.flush();
             }
             catch (IOException e)
@@ -6819,9 +6840,12 @@ public class SOCPlayerClient
                 Thread.currentThread().setName("cli-netread");  // Thread name for debug
                 try
                 {
+                    // Reads text or binary frames; new for each connection, since it has a per-connection intern table
+                    final BinaryMessageCodec.Decoder dec = new BinaryMessageCodec.Decoder();
+
                     while (net.isConnected())
                     {
-                        String s = net.in.readUTF();
+                        String s = dec.readFrame(net.in);
                         client.treater.treat(SOCMessage.toMsg(s), false);
                     }
                 }
@@ -23,6 +23,7 @@ package soc.game;
 
 import java.io.Serializable;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.HashMap;
 import java.util.Map;
@@ -829,6 +830,36 @@ public class SOCBoard implements Serializable, Cloneable
      */
     protected Vector<SOCCity> cities;
 
+    /**
+     * Occupancy index of {@link #settlements} and {@link #cities}, for {@link #settlementAtNode(int)}:
+     * The settlement or city at each node, indexed by node coordinate, or null.
+     * If a node briefly has both (while {@link SOCGame} upgrades a settlement to a city),
+     * holds the settlement like the older linear search did.
+     *<P>
+     * Kept current by {@link #putPiece(SOCPlayingPiece)} and {@link #removePiece(SOCPlayingPiece)}.
+     * Grown as needed by {@link #ensureIndexLength(int)}, since {@link SOCBoardLarge}'s
+     * bounds may be set after construction.
+     * @since 2.0.00
+     */
+    private SOCPlayingPiece[] nodePieces;
+
+    /**
+     * Occupancy index of {@link #roads}, for {@link #roadAtEdge(int)}:
+     * The road or ship at each edge, indexed by edge coordinate, or null.
+     * Kept current like {@link #nodePieces}, and always the same length.
+     * @since 2.0.00
+     */
+    private SOCRoad[] edgeRoads;
+
+    /**
+     * This board geometry's shared adjacency tables, or null if not yet needed
+     * or if {@link #setBoardBounds(int, int)} has changed the geometry since then.
+     * Read through {@link #getAdjacency()}. Not serialized; a deserialized board
+     * looks up its tables again when first needed.
+     * @since 2.0.00
+     */
+    private transient SOCBoardAdjacency adjacency;
+
     /**
      * random number generator
      */
@@ -886,6 +917,8 @@ public class SOCBoard implements Serializable, Cloneable
         roads = new Vector<SOCRoad>(60);
         settlements = new Vector<SOCSettlement>(20);
         cities = new Vector<SOCCity>(16);
+        nodePieces = new SOCPlayingPiece[0x100];  // enough for v1 and v2 coordinates
+        edgeRoads = new SOCRoad[0x100];
 
         /**
          * initialize the port vector
@@ -2310,25 +2343,35 @@ public class SOCBoard implements Serializable, Cloneable
      * for each player.
      *
      * @param pp  Piece to place on the board; coordinates are not checked for validity
+     *     except that they must not be negative
      * @see #removePiece(SOCPlayingPiece)
      */
     public void putPiece(SOCPlayingPiece pp)
     {
+        final int coord = pp.getCoordinates();
+
         switch (pp.getType())
         {
         case SOCPlayingPiece.SHIP:  // fall through to ROAD
         case SOCPlayingPiece.ROAD:
             roads.addElement((SOCRoad)pp);
+            ensureIndexLength(coord);
+            edgeRoads[coord] = (SOCRoad) pp;
 
             break;
 
         case SOCPlayingPiece.SETTLEMENT:
             settlements.addElement((SOCSettlement)pp);
+            ensureIndexLength(coord);
+            nodePieces[coord] = pp;
 
             break;
 
         case SOCPlayingPiece.CITY:
             cities.addElement((SOCCity)pp);
+            ensureIndexLength(coord);
+            if (! (nodePieces[coord] instanceof SOCSettlement))
+                nodePieces[coord] = pp;  // else, keep settlement until its removePiece call
 
             break;
 
@@ -2351,23 +2394,161 @@ public class SOCBoard implements Serializable, Cloneable
         // Even if piece isn't the same object (reference) as the one in
         // the vector, it's removed from the vector if those fields are equal.
 
+        final int coord = piece.getCoordinates();
+        final boolean indexed = (coord >= 0) && (coord < nodePieces.length);
+
         switch (piece.getType())
         {
         case SOCPlayingPiece.SHIP:  // fall through to ROAD
         case SOCPlayingPiece.ROAD:
-            roads.removeElement(piece);
+            if (roads.removeElement(piece) && indexed && piece.equals(edgeRoads[coord]))
+            {
+                edgeRoads[coord] = null;
+                for (SOCRoad p : roads)
+                    if (coord == p.getCoordinates())
+                    {
+                        edgeRoads[coord] = p;
+                        break;
+                    }
+            }
             break;
 
         case SOCPlayingPiece.SETTLEMENT:
-            settlements.removeElement(piece);
+            if (settlements.removeElement(piece) && indexed && piece.equals(nodePieces[coord]))
+                reindexNode(coord);
             break;
 
         case SOCPlayingPiece.CITY:
-            cities.removeElement(piece);
+            if (cities.removeElement(piece) && indexed && piece.equals(nodePieces[coord]))
+                reindexNode(coord);
             break;
         }
     }
 
+    /**
+     * Grow {@link #nodePieces} and {@link #edgeRoads} if needed to index this coordinate.
+     * @param coord  Node or edge coordinate about to be indexed; not negative
+     * @since 2.0.00
+     */
+    private void ensureIndexLength(final int coord)
+    {
+        if (coord < nodePieces.length)
+            return;
+
+        int len = nodePieces.length;
+        while (len <= coord)
+            len <<= 1;
+        nodePieces = Arrays.copyOf(nodePieces, len);
+        edgeRoads = Arrays.copyOf(edgeRoads, len);
+    }
+
+    /**
+     * After removing a settlement or city from {@link #nodePieces} at this node,
+     * index any other piece still in {@link #settlements} or {@link #cities} there,
+     * in the same order as the older linear search in {@link #settlementAtNode(int)}.
+     * @param coord  Node coordinate; must be within the current index length
+     * @since 2.0.00
+     */
+    private void reindexNode(final int coord)
+    {
+        nodePieces[coord] = null;
+
+        for (SOCSettlement p : settlements)
+            if (coord == p.getCoordinates())
+            {
+                nodePieces[coord] = p;
+                return;
+            }
+
+        for (SOCCity p : cities)
+            if (coord == p.getCoordinates())
+            {
+                nodePieces[coord] = p;
+                return;
+            }
+    }
+
+    /**
+     * Copy this board for a copy of its game, for {@link SOCGame#SOCGame(SOCGame)}.
+     * Copies the hex and number layouts, ports, nodes on land, occupancy index and piece lists,
+     * mostly as flat array copies. Arrays which are never changed in place once the board is
+     * constructed, such as the hex ID to number mapping, are shared with the copy.
+     * The copy has its own random number generator.
+     *<P>
+     * The copy's piece lists and occupancy index hold this board's pieces
+     * until the copied game calls {@link #copyPiecesForGame(SOCGame, Map)}.
+     *<P>
+     * Subclasses with object fields which can change must override this method to copy them
+     * after calling {@code super.clone()}.
+     *
+     * @return  A copy of this board
+     * @since 2.0.00
+     */
+    @Override
+    protected SOCBoard clone()
+    {
+        final SOCBoard b;
+        try
+        {
+            b = (SOCBoard) super.clone();
+        } catch (CloneNotSupportedException e) {
+            // Should not occur: SOCBoard implements Cloneable
+            throw new IllegalStateException("Internal error, boards should be cloneable", e);
+        }
+
+        if (hexLayout != null)
+            b.hexLayout = hexLayout.clone();
+        if (numberLayout != null)
+            b.numberLayout = numberLayout.clone();
+        if (portsLayout != null)
+            b.portsLayout = portsLayout.clone();
+        if (nodeIDtoPortType != null)
+            b.nodeIDtoPortType = new HashMap<Integer, Integer>(nodeIDtoPortType);
+        @SuppressWarnings("unchecked")
+        final Vector<Integer>[] bPorts = (Vector<Integer>[]) new Vector<?>[ports.length];
+        for (int i = 0; i < ports.length; ++i)
+            bPorts[i] = new Vector<Integer>(ports[i]);
+        b.ports = bPorts;
+        b.roads = new Vector<SOCRoad>(roads);
+        b.settlements = new Vector<SOCSettlement>(settlements);
+        b.cities = new Vector<SOCCity>(cities);
+        b.nodePieces = nodePieces.clone();
+        b.edgeRoads = edgeRoads.clone();
+        b.rand = new Random();
+        b.nodesOnLand = new HashSet<Integer>(nodesOnLand);
+
+        return b;
+    }
+
+    /**
+     * For a copy of the game, replace the pieces in this {@link #clone()} of its board
+     * with copies that belong to the copied game, so that neither game's changes affect the other's.
+     * Called by {@link SOCGame#SOCGame(SOCGame)} after the copied game's players are set.
+     * Subclasses with other pieces should override to also copy those.
+     * @param ga  Copy of the game, whose board is this board
+     * @param copies  Each original piece copied so far, mapped to its copy, by identity;
+     *     new copies are added here
+     * @see SOCPlayingPiece#getCopy(SOCPlayingPiece, SOCGame, Map)
+     * @since 2.0.00
+     */
+    void copyPiecesForGame(final SOCGame ga, final Map<Object, Object> copies)
+    {
+        for (int i = roads.size() - 1; i >= 0; --i)
+            roads.set(i, SOCPlayingPiece.getCopy(roads.get(i), ga, copies));
+        for (int i = settlements.size() - 1; i >= 0; --i)
+            settlements.set(i, SOCPlayingPiece.getCopy(settlements.get(i), ga, copies));
+        for (int i = cities.size() - 1; i >= 0; --i)
+            cities.set(i, SOCPlayingPiece.getCopy(cities.get(i), ga, copies));
+
+        for (int i = 0; i < nodePieces.length; ++i)
+        {
+            if (nodePieces[i] != null)
+                nodePieces[i] = SOCPlayingPiece.getCopy(nodePieces[i], ga, copies);
+            if (edgeRoads[i] != null)
+                edgeRoads[i] = SOCPlayingPiece.getCopy(edgeRoads[i], ga, copies);
+        }
+    }
+
     /**
      * get the list of roads and ships
      */
@@ -2426,6 +2607,25 @@ public class SOCBoard implements Serializable, Cloneable
     {
         boardHeight = boardH;
         boardWidth = boardW;
+        adjacency = null;
+    }
+
+    /**
+     * Get the shared precomputed adjacency tables for this board's current geometry,
+     * for the non-allocating adjacency accessors such as {@link #getAdjacentNodesToNode_arr(int, int[])}.
+     * @return  This geometry's tables; looked up from {@link SOCBoardAdjacency#forBoard(SOCBoard)} when first called
+     * @since 2.0.00
+     */
+    private SOCBoardAdjacency getAdjacency()
+    {
+        SOCBoardAdjacency adj = adjacency;
+        if (adj == null)
+        {
+            adj = SOCBoardAdjacency.forBoard(this);
+            adjacency = adj;
+        }
+
+        return adj;
     }
 
     /**
@@ -2493,9 +2693,35 @@ public class SOCBoard implements Serializable, Cloneable
         return nodes;
     }
 
+    /**
+     * Adjacent node coordinates to an edge, without allocating:
+     * Same results as {@link #getAdjacentNodesToEdge_arr(int)}, copied from this board geometry's
+     * shared precomputed table into the caller's array.
+     * @param coord  Edge coordinate; not checked for validity
+     * @param nodes  Array of length 2 or more to fill with the 2 nodes that touch this edge
+     * @return  {@code nodes}, for convenience
+     * @since 2.0.00
+     */
+    public final int[] getAdjacentNodesToEdge_arr(final int coord, final int[] nodes)
+    {
+        final SOCBoardAdjacency adj = getAdjacency();
+        final int i = adj.indexOf(coord);
+        if (i != -1)
+        {
+            nodes[0] = adj.edgeToNodes[2 * i];
+            nodes[1] = adj.edgeToNodes[2 * i + 1];
+        } else {
+            final int[] narr = getAdjacentNodesToEdge_arr(coord);
+            nodes[0] = narr[0];
+            nodes[1] = narr[1];
+        }
+
+        return nodes;
+    }
+
     /**
      * Get an edge's other adjacent node (its other end).
-     * Calls {@link #getAdjacentNodesToEdge_arr(int)} and
+     * Looks up the ends like {@link #getAdjacentNodesToEdge_arr(int, int[])} and
      * returns the node that isn't <tt>nodeCoord</tt>.
      * @param edgeCoord  Edge coordinate; not checked for validity
      * @param nodeCoord  Node at one end of <tt>edgeCoord</tt>; the opposite end node
@@ -2505,11 +2731,16 @@ public class SOCBoard implements Serializable, Cloneable
      */
     public int getAdjacentNodeFarEndOfEdge(final int edgeCoord, final int nodeCoord)
     {
-        final int[] nodes = getAdjacentNodesToEdge_arr(edgeCoord);
-        if (nodeCoord == nodes[0])
-            return nodes[1];
-        else
-            return nodes[0];
+        final SOCBoardAdjacency adj = getAdjacency();
+        final int i = adj.indexOf(edgeCoord);
+        if (i == -1)
+        {
+            final int[] nodes = getAdjacentNodesToEdge_arr(edgeCoord);
+            return (nodeCoord == nodes[0]) ? nodes[1] : nodes[0];
+        }
+
+        final int node0 = adj.edgeToNodes[2 * i];
+        return (nodeCoord == node0) ? adj.edgeToNodes[2 * i + 1] : node0;
     }
 
     /**
@@ -2630,11 +2861,38 @@ public class SOCBoard implements Serializable, Cloneable
         return edges;
     }
 
+    /**
+     * Get the edge coordinates of the 2 to 4 edges adjacent to this edge, without allocating:
+     * Same results in the same order as {@link #getAdjacentEdgesToEdge(int)}, copied from
+     * this board geometry's shared precomputed table into the caller's array.
+     * @param coord  Edge coordinate; not checked for validity
+     * @param edges  Array of length 4 or more to fill with the valid adjacent edges;
+     *    unused elements of the first 4 are set to -9
+     * @return  {@code edges}, for convenience
+     * @since 2.0.00
+     */
+    public final int[] getAdjacentEdgesToEdge_arr(final int coord, final int[] edges)
+    {
+        final SOCBoardAdjacency adj = getAdjacency();
+        final int i = adj.indexOf(coord);
+        if (i != -1)
+        {
+            System.arraycopy(adj.edgeToEdges, 4 * i, edges, 0, 4);
+        } else {
+            final Vector<Integer> ev = getAdjacentEdgesToEdge(coord);
+            for (int j = 0; j < 4; ++j)
+                edges[j] = (j < ev.size()) ? ev.get(j).intValue() : -9;
+        }
+
+        return edges;
+    }
+
     /**
      * Get the coordinates of the valid hexes adjacent to this node.
      * These hexes may contain land or water.
      * @param coord  Node coordinate.  Is not checked for validity.
      * @return the coordinates (Integers) of the 1 to 3 hexes touching this node
+     * @see #getAdjacentHexesToNode_arr(int, int[])
      */
     public Vector<Integer> getAdjacentHexesToNode(int coord)
     {
@@ -2699,6 +2957,32 @@ public class SOCBoard implements Serializable, Cloneable
         return hexes;
     }
 
+    /**
+     * Get the coordinates of the valid hexes adjacent to this node, without allocating:
+     * Same results in the same order as {@link #getAdjacentHexesToNode(int)}, copied from
+     * this board geometry's shared precomputed table into the caller's array.
+     * @param coord  Node coordinate.  Is not checked for validity.
+     * @param hexes  Array of length 3 or more to fill with the 1 to 3 hexes touching this node;
+     *    unused elements of the first 3 are set to -9
+     * @return  {@code hexes}, for convenience
+     * @since 2.0.00
+     */
+    public final int[] getAdjacentHexesToNode_arr(final int coord, final int[] hexes)
+    {
+        final SOCBoardAdjacency adj = getAdjacency();
+        final int i = adj.indexOf(coord);
+        if (i != -1)
+        {
+            System.arraycopy(adj.nodeToHexes, 3 * i, hexes, 0, 3);
+        } else {
+            final Vector<Integer> hv = getAdjacentHexesToNode(coord);
+            for (int j = 0; j < 3; ++j)
+                hexes[j] = (j < hv.size()) ? hv.get(j).intValue() : -9;
+        }
+
+        return hexes;
+    }
+
     /**
      * Get the valid edge coordinates adjacent to this node.
      * Calls {@link #getAdjacentEdgeToNode(int, int)}.
@@ -2721,17 +3005,37 @@ public class SOCBoard implements Serializable, Cloneable
      * found on the outer ring of the board coordinate
      * system, but some of their adjacent nodes/edges may be
      * "off the board" and thus invalid.
-     * Calls {@link #getAdjacentEdgeToNode(int, int)}.
+     * Same results as {@link #getAdjacentEdgeToNode(int, int)} in each direction.
      * @param coord  Node coordinate.  Is not checked for validity.
      * @return the edges touching this node, as an array of 3 coordinates.
      *    Unused elements of the array are set to -9.
+     * @see #getAdjacentEdgesToNode_arr(int, int[])
      * @since 1.1.08
      */
     public final int[] getAdjacentEdgesToNode_arr(final int coord)
     {
-        int[] edges = new int[3];
-        for (int i = 0; i < 3; ++i)
-            edges[i] = getAdjacentEdgeToNode(coord, i);
+        return getAdjacentEdgesToNode_arr(coord, new int[3]);
+    }
+
+    /**
+     * Get the valid edge coordinates adjacent to this node, without allocating:
+     * Same results as {@link #getAdjacentEdgesToNode_arr(int)}, copied from this board
+     * geometry's shared precomputed table into the caller's array.
+     * @param coord  Node coordinate.  Is not checked for validity.
+     * @param edges  Array of length 3 or more to fill with the edges touching this node
+     *    in directions 0, 1, 2; unused elements of the first 3 are set to -9
+     * @return  {@code edges}, for convenience
+     * @since 2.0.00
+     */
+    public final int[] getAdjacentEdgesToNode_arr(final int coord, final int[] edges)
+    {
+        final SOCBoardAdjacency adj = getAdjacency();
+        final int i = adj.indexOf(coord);
+        if (i != -1)
+            System.arraycopy(adj.nodeToEdges, 3 * i, edges, 0, 3);
+        else
+            for (int dir = 0; dir < 3; ++dir)
+                edges[dir] = getAdjacentEdgeToNode(coord, dir);
 
         return edges;
     }
@@ -2958,18 +3262,38 @@ public class SOCBoard implements Serializable, Cloneable
      * system, but some of their adjacent nodes/edges may be
      * "off the board" and thus invalid.
      *<P>
-     * Calls {@link #getAdjacentNodeToNode(int, int)}.
+     * Same results as {@link #getAdjacentNodeToNode(int, int)} in each direction.
      * @param coord  Node coordinate.  Is not checked for validity.
      * @return the nodes touching this node, as an array of 3 coordinates.
      *    Unused elements of the array are set to -9.
      * @see #isNodeAdjacentToNode(int, int)
+     * @see #getAdjacentNodesToNode_arr(int, int[])
      * @since 1.1.08
      */
     public final int[] getAdjacentNodesToNode_arr(final int coord)
     {
-        int nodes[] = new int[3];
-        for (int i = 0; i < 3; ++i)
-            nodes[i] = getAdjacentNodeToNode(coord, i);
+        return getAdjacentNodesToNode_arr(coord, new int[3]);
+    }
+
+    /**
+     * Get the valid node coordinates adjacent to this node, without allocating:
+     * Same results as {@link #getAdjacentNodesToNode_arr(int)}, copied from this board
+     * geometry's shared precomputed table into the caller's array.
+     * @param coord  Node coordinate.  Is not checked for validity.
+     * @param nodes  Array of length 3 or more to fill with the nodes touching this node
+     *    in directions 0, 1, 2; unused elements of the first 3 are set to -9
+     * @return  {@code nodes}, for convenience
+     * @since 2.0.00
+     */
+    public final int[] getAdjacentNodesToNode_arr(final int coord, final int[] nodes)
+    {
+        final SOCBoardAdjacency adj = getAdjacency();
+        final int i = adj.indexOf(coord);
+        if (i != -1)
+            System.arraycopy(adj.nodeToNodes, 3 * i, nodes, 0, 3);
+        else
+            for (int dir = 0; dir < 3; ++dir)
+                nodes[dir] = getAdjacentNodeToNode(coord, dir);
 
         return nodes;
     }
@@ -3408,29 +3732,19 @@ public class SOCBoard implements Serializable, Cloneable
 
     /**
      * If there's a settlement or city at this node, find it.
+     *<P>
+     * Before v2.0.00 this searched the lists of pieces on the board;
+     * it now looks up the node in an occupancy index kept by {@link #putPiece(SOCPlayingPiece)}.
      * 
      * @param nodeCoord Location coordinate (as returned by SOCBoardPanel.findNode)
      * @return  Settlement or city at <tt>nodeCoord</tt>, or null
      */
     public SOCPlayingPiece settlementAtNode(final int nodeCoord)
     {
-        for (SOCSettlement p : settlements)
-        {
-            if (nodeCoord == p.getCoordinates())
-            {
-                return p;  // <-- Early return: Found it ---
-            }
-        }
-
-        for (SOCCity p : cities)
-        {
-            if (nodeCoord == p.getCoordinates())
-            {
-                return p;  // <-- Early return: Found it ---
-            }
-        }
+        if ((nodeCoord < 0) || (nodeCoord >= nodePieces.length))
+            return null;
 
-        return null;
+        return nodePieces[nodeCoord];
     }
     
     /**
@@ -3443,15 +3757,10 @@ public class SOCBoard implements Serializable, Cloneable
      */
     public SOCRoad roadAtEdge(int edgeCoord)
     {
-        for (SOCRoad p : roads)
-        {
-            if (edgeCoord == p.getCoordinates())
-            {
-                return p;  // <-- Early return: Found it ---
-            }
-        }
-        
-        return null;
+        if ((edgeCoord < 0) || (edgeCoord >= edgeRoads.length))
+            return null;
+
+        return edgeRoads[edgeCoord];
     }
 
     /**
@@ -0,0 +1,178 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.game;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Precomputed node, edge, and hex adjacency tables for one board geometry:
+ * An encoding format and board size. Adjacency depends only on the geometry, not on the layout
+ * or pieces, so one immutable instance is built the first time it's needed and is then
+ * shared by every board with that geometry, in all games; see {@link #forBoard(SOCBoard)}.
+ *<P>
+ * Each table is a flat {@code int[]} with a fixed number of entries per coordinate,
+ * at the coordinate's index as mapped by {@link SOCCoordSet}: The coordinate itself
+ * for v1 and v2 encodings, {@code r * (width + 1) + c} for v3. Unused entries are -9,
+ * like {@link SOCBoard#getAdjacentNodesToNode_arr(int)}. Entries are in the same order
+ * as the board's on-the-fly methods which built them.
+ *<P>
+ * Read by {@link SOCBoard}'s non-allocating accessors such as
+ * {@link SOCBoard#getAdjacentNodesToNode_arr(int, int[])}, which fall back to
+ * computing on the fly for coordinates outside the table's range.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+final class SOCBoardAdjacency
+{
+    /**
+     * Tables built so far, keyed by {@link #geometryKey(SOCBoard)}.
+     * Synchronize on this map to read or add.
+     */
+    private static final HashMap<Integer, SOCBoardAdjacency> tables = new HashMap<Integer, SOCBoardAdjacency>();
+
+    /** Index stride per row coordinate: 0x100 for v1 and v2 boards, board width + 1 for v3 */
+    private final int stride;
+
+    /** Number of coordinate indexes: 0x100 for v1 and v2, (board height + 1) * {@link #stride} for v3 */
+    private final int limit;
+
+    /**
+     * Each node's 3 adjacent nodes, from {@link SOCBoard#getAdjacentNodeToNode(int, int)}
+     * with directions 0, 1, 2; -9 if none in that direction.
+     */
+    final int[] nodeToNodes;
+
+    /**
+     * Each node's 3 adjacent edges, from {@link SOCBoard#getAdjacentEdgeToNode(int, int)}
+     * with directions 0, 1, 2; -9 if none in that direction.
+     */
+    final int[] nodeToEdges;
+
+    /** Each edge's 2 end nodes, from {@link SOCBoard#getAdjacentNodesToEdge_arr(int)}. */
+    final int[] edgeToNodes;
+
+    /** Each node's 1 to 3 adjacent hexes, from {@link SOCBoard#getAdjacentHexesToNode(int)}, padded with -9. */
+    final int[] nodeToHexes;
+
+    /** Each edge's 2 to 4 adjacent edges, from {@link SOCBoard#getAdjacentEdgesToEdge(int)}, padded with -9. */
+    final int[] edgeToEdges;
+
+    /**
+     * Get the shared adjacency tables for this board's geometry, building them if this is
+     * the first board seen with that geometry.
+     * @param board  Board whose encoding format and size are set
+     * @return  Tables for {@code board}'s geometry
+     */
+    static SOCBoardAdjacency forBoard(final SOCBoard board)
+    {
+        final Integer key = Integer.valueOf(geometryKey(board));
+        synchronized (tables)
+        {
+            SOCBoardAdjacency adj = tables.get(key);
+            if (adj == null)
+            {
+                adj = new SOCBoardAdjacency(board);
+                tables.put(key, adj);
+            }
+            return adj;
+        }
+    }
+
+    /**
+     * Key for a board's geometry: Its encoding format, height, and width.
+     * Boards with the same key have identical adjacencies.
+     */
+    private static int geometryKey(final SOCBoard board)
+    {
+        return (board.getBoardEncodingFormat() << 16) | (board.getBoardHeight() << 8) | board.getBoardWidth();
+    }
+
+    /**
+     * Build the tables by calling the board's adjacency methods for every coordinate in its range.
+     * @param board  Board with the geometry to build for
+     */
+    private SOCBoardAdjacency(final SOCBoard board)
+    {
+        if (board.getBoardEncodingFormat() == SOCBoard.BOARD_ENCODING_LARGE)
+        {
+            stride = board.getBoardWidth() + 1;
+            limit = (board.getBoardHeight() + 1) * stride;
+        } else {
+            stride = 0x100;
+            limit = 0x100;
+        }
+
+        nodeToNodes = new int[3 * limit];
+        nodeToEdges = new int[3 * limit];
+        edgeToNodes = new int[2 * limit];
+        nodeToHexes = new int[3 * limit];
+        edgeToEdges = new int[4 * limit];
+
+        for (int i = 0; i < limit; ++i)
+        {
+            final int coord = ((i / stride) << 8) | (i % stride);
+
+            for (int dir = 0; dir < 3; ++dir)
+            {
+                nodeToNodes[3 * i + dir] = board.getAdjacentNodeToNode(coord, dir);
+                nodeToEdges[3 * i + dir] = board.getAdjacentEdgeToNode(coord, dir);
+            }
+
+            final int[] nodes = board.getAdjacentNodesToEdge_arr(coord);
+            edgeToNodes[2 * i] = nodes[0];
+            edgeToNodes[2 * i + 1] = nodes[1];
+
+            fill(nodeToHexes, 3 * i, 3, board.getAdjacentHexesToNode(coord));
+            fill(edgeToEdges, 4 * i, 4, board.getAdjacentEdgesToEdge(coord));
+        }
+    }
+
+    /**
+     * Copy a list of coordinates into a table's entries for one coordinate, padding with -9.
+     * @param table  Table to fill
+     * @param at  Index of the coordinate's first entry
+     * @param n  Number of entries per coordinate
+     * @param coords  Coordinates to copy; at most {@code n}
+     */
+    private static void fill(final int[] table, final int at, final int n, final List<Integer> coords)
+    {
+        final int size = coords.size();
+        for (int j = 0; j < n; ++j)
+            table[at + j] = (j < size) ? coords.get(j).intValue() : -9;
+    }
+
+    /**
+     * Get this coordinate's index into the tables.
+     * @param coord  Node or edge coordinate
+     * @return  Index, or -1 if outside this geometry's range
+     */
+    int indexOf(final int coord)
+    {
+        final int c = coord & 0xFF;
+        if ((coord < 0) || (c >= stride))
+            return -1;
+
+        final int i = (coord >> 8) * stride + c;
+        return (i < limit) ? i : -1;
+    }
+
+}
@@ -710,6 +710,64 @@ public class SOCBoardLarge extends SOCBoard
         prevPirateHex = 0;
     }
 
+    /**
+     * Copy this board for a copy of its game; see {@link SOCBoard#clone()}.
+     * Also copies the hex and number layouts, land hexes, legal nodes and edges,
+     * special edges, fog, and villages.
+     * @return  A copy of this board
+     * @since 2.0.00
+     */
+    @Override
+    protected SOCBoard clone()
+    {
+        final SOCBoardLarge b = (SOCBoardLarge) super.clone();
+
+        b.hexLayoutLg = new int[hexLayoutLg.length][];
+        b.numberLayoutLg = new int[numberLayoutLg.length][];
+        for (int r = 0; r < hexLayoutLg.length; ++r)
+        {
+            b.hexLayoutLg[r] = hexLayoutLg[r].clone();
+            b.numberLayoutLg[r] = numberLayoutLg[r].clone();
+        }
+        b.landHexLayout = new HashSet<Integer>(landHexLayout);
+        if (landAreasLegalNodes != null)
+        {
+            @SuppressWarnings("unchecked")
+            final HashSet<Integer>[] bLegalNodes = (HashSet<Integer>[]) new HashSet<?>[landAreasLegalNodes.length];
+            for (int i = 0; i < landAreasLegalNodes.length; ++i)
+                if (landAreasLegalNodes[i] != null)
+                    bLegalNodes[i] = new HashSet<Integer>(landAreasLegalNodes[i]);
+            b.landAreasLegalNodes = bLegalNodes;
+        }
+        b.legalRoadEdges = new HashSet<Integer>(legalRoadEdges);
+        b.legalShipEdges = new HashSet<Integer>(legalShipEdges);
+        if (addedLayoutParts != null)
+            b.addedLayoutParts = new HashMap<String, int[]>(addedLayoutParts);  // parts are replaced, not changed
+        b.specialEdges = new HashMap<Integer, Integer>(specialEdges);
+        if (fogHiddenHexes != null)
+            b.fogHiddenHexes = new HashMap<Integer, Integer>(fogHiddenHexes);
+        if (villages != null)
+            b.villages = new HashMap<Integer, SOCVillage>(villages);
+
+        return b;
+    }
+
+    /**
+     * For a copy of the game, replace the pieces in this {@link #clone()} of its board
+     * with copies that belong to the copied game, including villages.
+     * See {@link SOCBoard#copyPiecesForGame(SOCGame, Map)}.
+     * @since 2.0.00
+     */
+    @Override
+    void copyPiecesForGame(final SOCGame ga, final Map<Object, Object> copies)
+    {
+        super.copyPiecesForGame(ga, copies);
+
+        if (villages != null)
+            for (Map.Entry<Integer, SOCVillage> ent : villages.entrySet())
+                ent.setValue(SOCPlayingPiece.getCopy(ent.getValue(), ga, copies));
+    }
+
     /**
      * Get the board size for client's constructor:
      * Default size {@link #BOARDHEIGHT_LARGE} by {@link #BOARDWIDTH_LARGE},
@@ -0,0 +1,361 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.game;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of node or edge coordinates on one board, stored as a bitmap.
+ * Used by {@link SOCPlayer} for its legal and potential piece locations
+ * in place of a {@code HashSet<Integer>}: Membership tests and changes are a bit operation with no boxing,
+ * copying the set is a {@code long[]} copy, and the set takes a few dozen bytes instead of
+ * an object per coordinate.
+ *<P>
+ * Each coordinate maps to a dense bit index by the board's geometry, which is fixed when the board
+ * is constructed:
+ *<UL>
+ *<LI> {@link SOCBoard#BOARD_ENCODING_ORIGINAL v1} and {@link SOCBoard#BOARD_ENCODING_6PLAYER v2}:
+ *     Coordinates are 0x00 - 0xFF, and the index is the coordinate.
+ *<LI> {@link SOCBoard#BOARD_ENCODING_LARGE v3}: Coordinates are {@code (r << 8) | c} with
+ *     {@code r} from 0 to {@link SOCBoard#getBoardHeight()} and {@code c} from 0 to
+ *     {@link SOCBoard#getBoardWidth()}; the index is {@code r * (width + 1) + c}.
+ *</UL>
+ * Nodes and edges are in the same coordinate space, so one mapping serves both.
+ * Coordinates outside the board's range are never contained; adding one throws
+ * {@link IllegalArgumentException}.
+ *<P>
+ * Iterates in ascending bit index order, which is ascending coordinate order.
+ * Also a {@code Set<Integer>} for callers which want a collection, such as the server
+ * when it sends a player's potential settlements. Like {@code HashSet}, not thread-safe,
+ * and iterators are fail-fast except through their own {@code remove()}.
+ * Serializable, like the {@link SOCPlayer} which holds it.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCCoordSet extends AbstractSet<Integer>
+    implements Serializable
+{
+    private static final long serialVersionUID = 2000L;  // last structural change v2.0.00
+
+    /** Index stride per row coordinate: 0x100 for v1 and v2 boards, board width + 1 for v3 */
+    private final int stride;
+
+    /** Number of valid indexes: 0x100 for v1 and v2, (board height + 1) * {@link #stride} for v3 */
+    private final int limit;
+
+    /** Bitmap of the set's indexes; bit {@code i % 64} of {@code words[i / 64]} */
+    private final long[] words;
+
+    /** Number of coordinates in the set */
+    private int size;
+
+    /** Count of changes, for fail-fast iterators */
+    private transient int modCount;
+
+    /**
+     * Create an empty set for coordinates on this board.
+     * @param board  Board whose geometry maps coordinates to indexes; its size won't change later
+     */
+    public SOCCoordSet(final SOCBoard board)
+    {
+        if (board.getBoardEncodingFormat() == SOCBoard.BOARD_ENCODING_LARGE)
+        {
+            stride = board.getBoardWidth() + 1;
+            limit = (board.getBoardHeight() + 1) * stride;
+        } else {
+            stride = 0x100;
+            limit = 0x100;
+        }
+        words = new long[(limit + 63) >> 6];
+    }
+
+    /**
+     * Create a set for coordinates on this board, containing some coordinates.
+     * @param board  Board whose geometry maps coordinates to indexes
+     * @param coords  Coordinates to add, such as {@link SOCBoard#initPlayerLegalRoads()}
+     * @throws IllegalArgumentException if any coordinate is outside the board's range
+     */
+    public SOCCoordSet(final SOCBoard board, final Iterable<Integer> coords)
+        throws IllegalArgumentException
+    {
+        this(board);
+        for (Integer c : coords)
+            add(c.intValue());
+    }
+
+    /**
+     * Copy constructor: Copies the other set's bitmap.
+     * @param other  Set to copy
+     */
+    public SOCCoordSet(final SOCCoordSet other)
+    {
+        stride = other.stride;
+        limit = other.limit;
+        words = other.words.clone();
+        size = other.size;
+    }
+
+    /**
+     * Get this coordinate's bit index.
+     * @param coord  Node or edge coordinate
+     * @return  Index, or -1 if outside this board's range
+     */
+    private int indexOf(final int coord)
+    {
+        final int c = coord & 0xFF;
+        if ((coord < 0) || (c >= stride))
+            return -1;
+
+        final int i = (coord >> 8) * stride + c;
+        return (i < limit) ? i : -1;
+    }
+
+    /** Get the coordinate at this bit index; the inverse of {@link #indexOf(int)}. */
+    private int coordOf(final int i)
+    {
+        return ((i / stride) << 8) | (i % stride);
+    }
+
+    /**
+     * Is this coordinate in the set?
+     * @param coord  Node or edge coordinate; if outside the board's range, returns false
+     * @return  true if contained
+     */
+    public boolean contains(final int coord)
+    {
+        final int i = indexOf(coord);
+        return (i != -1) && ((words[i >> 6] & (1L << i)) != 0);
+    }
+
+    /**
+     * Add a coordinate to the set.
+     * @param coord  Node or edge coordinate
+     * @return  true if the set didn't already contain {@code coord}
+     * @throws IllegalArgumentException if {@code coord} is outside the board's range
+     */
+    public boolean add(final int coord)
+        throws IllegalArgumentException
+    {
+        final int i = indexOf(coord);
+        if (i == -1)
+            throw new IllegalArgumentException("coord: 0x" + Integer.toHexString(coord));
+
+        final long w = words[i >> 6], bit = 1L << i;
+        if ((w & bit) != 0)
+            return false;
+
+        words[i >> 6] = w | bit;
+        ++size;
+        ++modCount;
+        return true;
+    }
+
+    /**
+     * Remove a coordinate from the set.
+     * @param coord  Node or edge coordinate; if outside the board's range, does nothing
+     * @return  true if the set contained {@code coord}
+     */
+    public boolean remove(final int coord)
+    {
+        final int i = indexOf(coord);
+        if (i == -1)
+            return false;
+
+        final long w = words[i >> 6], bit = 1L << i;
+        if ((w & bit) == 0)
+            return false;
+
+        words[i >> 6] = w & ~bit;
+        --size;
+        ++modCount;
+        return true;
+    }
+
+    /**
+     * Add all coordinates of another set for the same board, with one bitwise OR per word.
+     * @param other  Set to add; must have been created for a board with the same geometry
+     * @return  true if this set changed
+     * @throws IllegalArgumentException if {@code other}'s geometry differs from this set's
+     */
+    public boolean addAll(final SOCCoordSet other)
+        throws IllegalArgumentException
+    {
+        if ((other.stride != stride) || (other.limit != limit))
+            throw new IllegalArgumentException("geometry");
+
+        final int prevSize = size;
+        size = 0;
+        for (int w = 0; w < words.length; ++w)
+        {
+            words[w] |= other.words[w];
+            size += Long.bitCount(words[w]);
+        }
+        if (size == prevSize)
+            return false;
+
+        ++modCount;
+        return true;
+    }
+
+    /**
+     * Get the set's coordinates as an array, in ascending order.
+     * @return  Array of coordinates, or {@code null} if the set is empty
+     */
+    public int[] toIntArray()
+    {
+        if (size == 0)
+            return null;
+
+        final int[] arr = new int[size];
+        int n = 0;
+        for (int w = 0; w < words.length; ++w)
+        {
+            long bits = words[w];
+            while (bits != 0)
+            {
+                arr[n++] = coordOf((w << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        return arr;
+    }
+
+    // Set<Integer> methods
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return (size == 0);
+    }
+
+    @Override
+    public boolean contains(final Object o)
+    {
+        return (o instanceof Integer) && contains(((Integer) o).intValue());
+    }
+
+    /**
+     * Add a coordinate to the set.
+     * @throws IllegalArgumentException if {@code coord} is outside the board's range
+     * @throws NullPointerException if {@code coord} is null
+     */
+    @Override
+    public boolean add(final Integer coord)
+        throws IllegalArgumentException, NullPointerException
+    {
+        return add(coord.intValue());
+    }
+
+    @Override
+    public boolean remove(final Object o)
+    {
+        return (o instanceof Integer) && remove(((Integer) o).intValue());
+    }
+
+    @Override
+    public void clear()
+    {
+        if (size == 0)
+            return;
+
+        for (int w = 0; w < words.length; ++w)
+            words[w] = 0;
+        size = 0;
+        ++modCount;
+    }
+
+    @Override
+    public Iterator<Integer> iterator()
+    {
+        return new Iterator<Integer>()
+        {
+            /** Index of the next set bit, or -1 if none */
+            private int next = nextIndex(0);
+
+            /** Index returned by the most recent {@link #next()}, or -1 */
+            private int last = -1;
+
+            private int expectedModCount = modCount;
+
+            public boolean hasNext()
+            {
+                return (next != -1);
+            }
+
+            public Integer next()
+            {
+                if (modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                if (next == -1)
+                    throw new NoSuchElementException();
+
+                last = next;
+                next = nextIndex(next + 1);
+                return Integer.valueOf(coordOf(last));
+            }
+
+            public void remove()
+            {
+                if (last == -1)
+                    throw new IllegalStateException();
+                if (modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+
+                SOCCoordSet.this.remove(coordOf(last));
+                expectedModCount = modCount;
+                last = -1;
+            }
+        };
+    }
+
+    /**
+     * Find the next set bit at or after this index.
+     * @param from  Index to start at; may be past the end
+     * @return  Index of next set bit, or -1 if none
+     */
+    private int nextIndex(final int from)
+    {
+        int w = from >> 6;
+        if (w >= words.length)
+            return -1;
+
+        long bits = words[w] & (-1L << from);
+        while (bits == 0)
+        {
+            if (++w == words.length)
+                return -1;
+            bits = words[w];
+        }
+
+        return (w << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+}
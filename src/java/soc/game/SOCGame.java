@@ -35,6 +35,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -1311,6 +1312,163 @@ public class SOCGame implements Serializable, Cloneable
         lastActionTime = System.currentTimeMillis();
     }
 
+    /**
+     * Deep copy constructor: Create a snapshot of an in-progress game, including its board and pieces,
+     * players and their resources and inventories, dev card deck, robber and pirate, and game state.
+     * Changes to either game afterwards won't affect the other, so the copy can be played forward
+     * for simulations such as a robot trying out many possible turns, or kept as a checkpoint
+     * to later replay from. Unlike {@link #resetAsCopy()}, nothing is reset and {@code ga} isn't changed.
+     *<P>
+     * The copy is made from flat array copies where possible. Each piece, player and special item is copied once,
+     * and copied pieces, special items, villages, and robbery results refer to the copied game's players.
+     *<P>
+     * Not copied:
+     *<UL>
+     *<LI> The game's {@link #scenarioEventListener}, so the copy doesn't report events to the server
+     *<LI> {@link #boardResetOngoingInfo} and the game's monitor ({@link #takeMonitor()})
+     *<LI> Messages in {@link #pendingMessagesOut}; the copy has an empty list if {@code ga} has a list
+     *<LI> Random number generators: The copy and its board have their own
+     *</UL>
+     * The game options map is shared, since options don't change once the game is created.
+     *<P>
+     * To avoid inconsistent data, don't copy a game while another thread is changing it.
+     *
+     * @param ga  Game to copy
+     * @throws IllegalStateException if a player's dev cards or a special item can't be cloned (internal error);
+     *     should not possibly occur
+     * @since 2.0.00
+     */
+    public SOCGame(final SOCGame ga)
+        throws IllegalStateException
+    {
+        name = ga.name;
+        inUse = false;
+        isAtServer = ga.isAtServer;
+        if (ga.pendingMessagesOut != null)
+            pendingMessagesOut = new ArrayList<Object>();
+        ownerName = ga.ownerName;
+        ownerLocale = ga.ownerLocale;
+        active = ga.active;
+        vp_winner = ga.vp_winner;
+        hasScenarioWinCondition = ga.hasScenarioWinCondition;
+        isPractice = ga.isPractice;
+        isBotsOnly = ga.isBotsOnly;
+        hasBuiltCity = ga.hasBuiltCity;
+        hasOldClients = ga.hasOldClients;
+        clientVersionLowest = ga.clientVersionLowest;
+        clientVersionHighest = ga.clientVersionHighest;
+        clientVersionMinRequired = ga.clientVersionMinRequired;
+        hasMultiLocales = ga.hasMultiLocales;
+        debugFreePlacement = ga.debugFreePlacement;
+        debugFreePlacementStartPlaced = ga.debugFreePlacementStartPlaced;
+        isFromBoardReset = ga.isFromBoardReset;
+        boardResetVoteRequester = ga.boardResetVoteRequester;
+        boardResetVotes = ga.boardResetVotes.clone();
+        boardResetVotesWaiting = ga.boardResetVotesWaiting;
+        opts = ga.opts;
+        maxPlayers = ga.maxPlayers;
+        hasSeaBoard = ga.hasSeaBoard;
+
+        /**
+         * Board and players first, then pieces and special items, which refer to both
+         */
+        board = ga.board.clone();
+        players = new SOCPlayer[maxPlayers];
+        for (int i = 0; i < maxPlayers; ++i)
+            players[i] = new SOCPlayer(ga.players[i], this);
+        final Map<Object, Object> copies = new IdentityHashMap<Object, Object>();
+        for (int i = 0; i < maxPlayers; ++i)
+            players[i].copyPiecesForGame(ga.players[i], copies);
+        board.copyPiecesForGame(this, copies);
+        spItems = SOCSpecialItem.copyForGame(ga.spItems, this, copies);
+
+        seats = ga.seats.clone();
+        seatLocks = ga.seatLocks.clone();
+        currentPlayerNumber = ga.currentPlayerNumber;
+        firstPlayerNumber = ga.firstPlayerNumber;
+        lastPlayerNumber = ga.lastPlayerNumber;
+        currentDice = ga.currentDice;
+
+        currentRoll = new RollResult();
+        currentRoll.diceA = ga.currentRoll.diceA;
+        currentRoll.diceB = ga.currentRoll.diceB;
+        if (ga.currentRoll.cloth != null)
+            currentRoll.cloth = ga.currentRoll.cloth.clone();
+        currentRoll.sc_robPossibleVictims = copyPlayerList(ga.currentRoll.sc_robPossibleVictims);
+        if (ga.currentRoll.sc_piri_fleetAttackVictim != null)
+            currentRoll.sc_piri_fleetAttackVictim
+                = players[ga.currentRoll.sc_piri_fleetAttackVictim.getPlayerNumber()];
+        if (ga.currentRoll.sc_piri_fleetAttackRsrcs != null)
+            currentRoll.sc_piri_fleetAttackRsrcs = ga.currentRoll.sc_piri_fleetAttackRsrcs.copy();
+
+        if (ga.robberResult != null)
+        {
+            robberResult = new SOCMoveRobberResult();
+            robberResult.victims = copyPlayerList(ga.robberResult.victims);
+            robberResult.loot = ga.robberResult.loot;
+            if (ga.robberResult.sc_piri_loot != null)
+                robberResult.sc_piri_loot = ga.robberResult.sc_piri_loot.copy();
+        }
+
+        gameState = ga.gameState;
+        oldGameState = ga.oldGameState;
+        placingRobberForKnightCard = ga.placingRobberForKnightCard;
+        forcingEndTurn = ga.forcingEndTurn;
+        askedSpecialBuildPhase = ga.askedSpecialBuildPhase;
+        specialBuildPhase_afterPlayerNumber = ga.specialBuildPhase_afterPlayerNumber;
+        playerWithLargestArmy = ga.playerWithLargestArmy;
+        oldPlayerWithLargestArmy = ga.oldPlayerWithLargestArmy;
+        playerWithLongestRoad = ga.playerWithLongestRoad;
+        oldPlayerWithLongestRoad = new Stack<SOCOldLRStats>();
+        for (SOCOldLRStats stats : ga.oldPlayerWithLongestRoad)
+            oldPlayerWithLongestRoad.push(new SOCOldLRStats(stats, this));
+        playerWithWin = ga.playerWithWin;
+        numDevCards = ga.numDevCards;
+        if (ga.devCardDeck != null)
+            devCardDeck = ga.devCardDeck.clone();
+
+        allOriginalPlayers = ga.allOriginalPlayers;
+        if (ga.startTime != null)
+            startTime = new Date(ga.startTime.getTime());
+        expiration = ga.expiration;
+        lastActionTime = ga.lastActionTime;
+        lastActionWasBankTrade = ga.lastActionWasBankTrade;
+        robberyWithPirateNotRobber = ga.robberyWithPirateNotRobber;
+        movedShipThisTurn = ga.movedShipThisTurn;
+        if (ga.placedShipsThisTurn != null)
+            placedShipsThisTurn = new Vector<Integer>(ga.placedShipsThisTurn);
+        if (ga.placingItem != null)
+        {
+            try
+            {
+                placingItem = ga.placingItem.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException("Internal error, items should be cloneable", e);
+            }
+        }
+        turnCount = ga.turnCount;
+        roundCount = ga.roundCount;
+    }
+
+    /**
+     * For {@link #SOCGame(SOCGame)}, copy a list of another game's players
+     * as this game's players with the same player numbers.
+     * @param pls  List of players from the game being copied, or null
+     * @return  A new list of this game's players, or null if {@code pls} is null
+     * @since 2.0.00
+     */
+    private Vector<SOCPlayer> copyPlayerList(final Vector<SOCPlayer> pls)
+    {
+        if (pls == null)
+            return null;
+
+        final Vector<SOCPlayer> copy = new Vector<SOCPlayer>(pls.size());
+        for (SOCPlayer pl : pls)
+            copy.addElement(players[pl.getPlayerNumber()]);
+
+        return copy;
+    }
+
     /**
      * Take the synchronization monitor for this game.
      * When done, release it with {@link #releaseMonitor()}.
@@ -0,0 +1,476 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.game;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+
+import soc.util.IntPair;
+
+/**
+ * Incremental longest road / longest trade route calculation for {@link SOCPlayer#calcLongestRoad2()}.
+ *<P>
+ * The player's road and ship nodes ({@link SOCPlayer#getRoadNodes()}) are split into connected components
+ * along their roads and ships. A path can't leave its component, so each component's longest paths
+ * are found independently by the same depth-first search that {@code calcLongestRoad2} used before v2.0.00.
+ * Each component's results are kept along with a signature of everything the search reads:
+ * Its nodes in {@code getRoadNodes()} order, which of their adjacent nodes are connected by the player's
+ * roads or ships (and which of those are ships), and whether a settlement or city at each node
+ * is the player's or an opponent's. At the next call, a component with the same signature reuses its results,
+ * so only components touched by a new road, ship, settlement or city are searched again.
+ * Comparing signatures instead of tracking piece placement events keeps this correct for player copies
+ * and temporary pieces, whichever methods changed the board.
+ *<P>
+ * The search marks visited edges in a {@link SOCCoordSet} instead of copying a {@code Vector} of
+ * visited node pairs at each step. Results are identical to the older search, including the
+ * {@link SOCLRPathData} paths and their order in {@link SOCPlayer#getLRPaths()}: Paths are kept
+ * in the order they would be found, grouped by starting node in {@code getRoadNodes()} order.
+ *<P>
+ * {@link SOCLRPathData} objects are shared between results and player copies; treat them as read-only.
+ * Not thread-safe; each {@link SOCPlayer} has its own instance.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+final class SOCLongestRoadCalc
+    implements Serializable
+{
+    private static final long serialVersionUID = 2000L;  // last structural change v2.0.00
+
+    /** Flags for a node in a {@link Component#sig}: Player's settlement or city at node */
+    private static final int SIG_OWN_SETTLEMENT = 0x01;
+
+    /** Flags for a node in a {@link Component#sig}: Opponent's settlement or city at node */
+    private static final int SIG_OPP_SETTLEMENT = 0x02;
+
+    /**
+     * Flags for a node in a {@link Component#sig}: Connected to its adjacent node <em>i</em>
+     * ({@link SOCBoard#getAdjacentNodesToNode_arr(int)}[i]) is {@code SIG_CONNECTED << i}
+     */
+    private static final int SIG_CONNECTED = 0x04;
+
+    /** Flags for a node in a {@link Component#sig}: Connected by a ship to adjacent node <em>i</em> is {@code SIG_SHIP << i} */
+    private static final int SIG_SHIP = 0x20;
+
+    /** Flags for a node in a {@link Component#sig}: No road or ship found to adjacent node <em>i</em> is {@code SIG_NOPIECE << i} */
+    private static final int SIG_NOPIECE = 0x100;
+
+    /**
+     * Results for each component from the previous call to {@link #calc(SOCPlayer, Vector)}, or empty.
+     * Elements are never changed once created, so copies of this calculator can share them.
+     */
+    private Component[] comps = new Component[0];
+
+    /** Number of components searched, not reused, by the most recent {@link #calc(SOCPlayer, Vector)} */
+    private int numSearched;
+
+    // Search state, used only during calc:
+
+    private transient SOCPlayer pl;
+    private transient SOCBoard board;
+    private transient boolean hasSeaBoard;
+
+    /** Visited edges of the current search path */
+    private transient SOCCoordSet visited;
+
+    /** Nodes of the current search path; {@code pathNodes[0]} is its start */
+    private transient int[] pathNodes;
+
+    /** Edges of the current search path; {@code pathEdges[i]} connects {@code pathNodes[i]} and {@code [i+1]} */
+    private transient int[] pathEdges;
+
+    /** Adjacent nodes of each node in {@link #pathNodes}, filled by {@link SOCBoard#getAdjacentNodesToNode_arr(int, int[])} */
+    private transient int[][] pathAdjacNodes;
+
+    /** Paths found so far in the current component's search, in order found */
+    private transient List<SOCLRPathData> foundPaths;
+
+    /** Visited edges of each path in {@link #foundPaths} */
+    private transient List<SOCCoordSet> foundPathEdges;
+
+    /** Longest path length found so far in the current component's search */
+    private transient int foundLongest;
+
+    /**
+     * Create a new calculator with no previous results.
+     */
+    SOCLongestRoadCalc()
+    {
+    }
+
+    /**
+     * Copy constructor, for {@link SOCPlayer#SOCPlayer(SOCPlayer)}:
+     * Shares the other calculator's previous results, which are read-only.
+     * @param other  Calculator to copy
+     */
+    SOCLongestRoadCalc(final SOCLongestRoadCalc other)
+    {
+        comps = other.comps;
+    }
+
+    /**
+     * Get the number of components searched by the most recent {@link #calc(SOCPlayer, Vector)},
+     * not counting those whose results were reused. For benchmarks and tests.
+     * @return  Number of components searched
+     */
+    int getNumSearched()
+    {
+        return numSearched;
+    }
+
+    /**
+     * Forget all previous results, so the next {@link #calc(SOCPlayer, Vector)} searches every component.
+     */
+    void clear()
+    {
+        comps = new Component[0];
+    }
+
+    /**
+     * Calculate this player's longest road / longest trade route, searching only the components
+     * which have changed since the previous call.
+     * @param player  Player to calculate; always the same player, or a copy of it
+     * @param lrPaths  The player's longest-path data, to clear and fill
+     * @return  Length of the player's longest road or trade route
+     */
+    int calc(final SOCPlayer player, final Vector<SOCLRPathData> lrPaths)
+    {
+        pl = player;
+        board = player.getGame().getBoard();
+        hasSeaBoard = player.getGame().hasSeaBoard;
+        final int pn = player.getPlayerNumber();
+
+        final Vector<Integer> roadNodes = player.getRoadNodes();
+        final int n = roadNodes.size();
+        final int[] coords = new int[n];
+        for (int i = 0; i < n; ++i)
+            coords[i] = roadNodes.get(i).intValue();
+
+        /**
+         * Label each node's component, and find its signature flags.
+         */
+        final int[] label = new int[n], flags = new int[n], queue = new int[n];
+        final int[] adjacNodes = new int[3];
+        Arrays.fill(label, -1);
+        int numComps = 0;
+        for (int i = 0; i < n; ++i)
+        {
+            if (label[i] != -1)
+                continue;
+
+            label[i] = numComps;
+            queue[0] = i;
+            for (int qHead = 0, qTail = 1; qHead < qTail; ++qHead)
+            {
+                final int q = queue[qHead];
+                final int node = coords[q];
+                int f = 0;
+
+                final SOCPlayingPiece pp = board.settlementAtNode(node);
+                if (pp != null)
+                    f = (pp.getPlayerNumber() == pn) ? SIG_OWN_SETTLEMENT : SIG_OPP_SETTLEMENT;
+
+                board.getAdjacentNodesToNode_arr(node, adjacNodes);
+                for (int ni = 0; ni < adjacNodes.length; ++ni)
+                {
+                    final int adj = adjacNodes[ni];
+                    if ((adj == -9) || ! player.isConnectedByRoad(node, adj))
+                        continue;
+
+                    f |= (SIG_CONNECTED << ni);
+                    if (hasSeaBoard)
+                    {
+                        final SOCRoad rs = player.getRoadOrShip(board.getEdgeBetweenAdjacentNodes(node, adj));
+                        if (rs == null)
+                            f |= (SIG_NOPIECE << ni);
+                        else if (! rs.isRoadNotShip())
+                            f |= (SIG_SHIP << ni);
+                    }
+
+                    final int j = indexOf(coords, adj);
+                    if ((j != -1) && (label[j] == -1))
+                    {
+                        label[j] = numComps;
+                        queue[qTail++] = j;
+                    }
+                }
+
+                flags[q] = f;
+            }
+
+            ++numComps;
+        }
+
+        /**
+         * Build each component's signature, then reuse or search it.
+         */
+        final int[] compSize = new int[numComps];
+        for (int i = 0; i < n; ++i)
+            ++compSize[label[i]];
+
+        final int[][] sigs = new int[numComps][];
+        for (int c = 0; c < numComps; ++c)
+            sigs[c] = new int[2 * compSize[c]];
+        final int[] fill = new int[numComps];
+        for (int i = 0; i < n; ++i)
+        {
+            final int[] sig = sigs[label[i]];
+            final int k = fill[label[i]];
+            sig[k] = coords[i];
+            sig[k + 1] = flags[i];
+            fill[label[i]] = k + 2;
+        }
+
+        final Component[] newComps = new Component[numComps];
+        numSearched = 0;
+        for (int c = 0; c < numComps; ++c)
+        {
+            final int[] sig = sigs[c];
+            for (final Component old : comps)
+            {
+                if (Arrays.equals(old.sig, sig))
+                {
+                    newComps[c] = old;
+                    break;
+                }
+            }
+
+            if (newComps[c] == null)
+            {
+                newComps[c] = search(sig, pn);
+                ++numSearched;
+            }
+        }
+        comps = newComps;
+
+        /**
+         * Gather all components' paths, in the order the older search would find them:
+         * Grouped by starting node, in roadNodes order.
+         */
+        lrPaths.removeAllElements();
+        int longest = 0;
+        final int[] next = new int[numComps];
+        for (int i = 0; i < n; ++i)
+        {
+            final int c = label[i];
+            final SOCLRPathData[] paths = newComps[c].paths;
+            int k = next[c];
+            while ((k < paths.length) && (paths[k].getBeginning() == coords[i]))
+                lrPaths.addElement(paths[k++]);
+            next[c] = k;
+        }
+        for (int c = 0; c < numComps; ++c)
+            if (newComps[c].longest > longest)
+                longest = newComps[c].longest;
+
+        pl = null;
+        board = null;
+
+        return longest;
+    }
+
+    /** Find {@code coord}'s index in {@code coords}, or -1. */
+    private static int indexOf(final int[] coords, final int coord)
+    {
+        for (int i = 0; i < coords.length; ++i)
+            if (coords[i] == coord)
+                return i;
+
+        return -1;
+    }
+
+    /**
+     * Search all paths of one component, starting at each of its nodes in order.
+     * @param sig  Component's signature, with its nodes in roadNodes order
+     * @param pn  Player number
+     * @return  The component's results
+     */
+    private Component search(final int[] sig, final int pn)
+    {
+        if (visited == null)
+            visited = new SOCCoordSet(board);  // player's board never changes
+        final int maxLen = pl.getRoads().size() + 1;
+        if ((pathNodes == null) || (pathNodes.length < maxLen + 1))
+        {
+            pathNodes = new int[maxLen + 1];
+            pathEdges = new int[maxLen + 1];
+            pathAdjacNodes = new int[maxLen + 1][3];
+        }
+        foundPaths = new ArrayList<SOCLRPathData>();
+        foundPathEdges = new ArrayList<SOCCoordSet>();
+        foundLongest = 0;
+
+        for (int k = 0; k < sig.length; k += 2)
+            searchFrom(sig[k], 0, false, pn);
+
+        final Component comp = new Component
+            (sig, foundPaths.toArray(new SOCLRPathData[foundPaths.size()]), foundLongest);
+        foundPaths = null;
+        foundPathEdges = null;
+
+        return comp;
+    }
+
+    /**
+     * Depth-first search of paths continuing from this node, in the same order
+     * as the older stack-based search: Adjacent nodes in ascending index order.
+     * At each path end, calls {@link #pathEnd(int, int)}.
+     * @param node  Node coordinate; {@code pathNodes[len]} will be set to this
+     * @param len  Length of path so far
+     * @param inboundIsRoad  If {@code len > 0} on the sea board, is the path's latest edge a road, not a ship?
+     * @param pn  Player number
+     */
+    private void searchFrom(final int node, final int len, final boolean inboundIsRoad, final int pn)
+    {
+        pathNodes[len] = node;
+
+        final SOCPlayingPiece settlementAtNode;
+        if (len > 0)
+        {
+            settlementAtNode = board.settlementAtNode(node);
+            if ((settlementAtNode != null) && (settlementAtNode.getPlayerNumber() != pn))
+            {
+                pathEnd(node, len);  // road blocked by opponent's settlement
+                return;
+            }
+        } else {
+            settlementAtNode = null;
+        }
+
+        boolean isPathEnd = true;
+        final int[] adjacNodes = board.getAdjacentNodesToNode_arr(node, pathAdjacNodes[len]);
+        for (int ni = 0; ni < adjacNodes.length; ++ni)
+        {
+            final int j = adjacNodes[ni];
+            if ((j == -9) || ! pl.isConnectedByRoad(node, j))
+                continue;
+
+            final int edge = board.getEdgeBetweenAdjacentNodes(node, j);
+            boolean isRoad = true;
+            if (hasSeaBoard)
+            {
+                // Check for road<->ship transitions,
+                // which require a settlement/city at node.
+                final SOCRoad roadFromNode = pl.getRoadOrShip(edge);
+                if (roadFromNode != null)
+                    isRoad = roadFromNode.isRoadNotShip();
+                if (len > 0)
+                {
+                    if (roadFromNode == null)  // shouldn't happen
+                        continue;
+
+                    if ((isRoad != inboundIsRoad) && (settlementAtNode == null))
+                        continue;  // Requires settlement/city to connect road to ship
+                }
+            }
+
+            if (visited.contains(edge))
+                continue;
+
+            isPathEnd = false;
+            visited.add(edge);
+            pathEdges[len] = edge;
+            searchFrom(j, len + 1, isRoad, pn);
+            visited.remove(edge);
+        }
+
+        if (isPathEnd)
+            pathEnd(node, len);
+    }
+
+    /**
+     * At the end of a search path, update the longest length and keep the path
+     * unless it shares an edge with an already-found path at least as long.
+     * Any shorter found paths sharing an edge with this one are discarded.
+     * @param node  Path's end node
+     * @param len  Path's length
+     */
+    private void pathEnd(final int node, final int len)
+    {
+        if (len > foundLongest)
+            foundLongest = len;
+
+        boolean addNewPath = true;
+        for (int i = foundPaths.size() - 1; i >= 0; --i)
+        {
+            final SOCLRPathData oldPath = foundPaths.get(i);
+            final SOCCoordSet oldEdges = foundPathEdges.get(i);
+            boolean intersection = false;
+            for (int k = 0; k < len; ++k)
+            {
+                if (oldEdges.contains(pathEdges[k]))
+                {
+                    intersection = true;
+                    break;
+                }
+            }
+
+            if (intersection)
+            {
+                // only keep the longer of the two paths
+                if (oldPath.getLength() < len)
+                {
+                    foundPaths.remove(i);
+                    foundPathEdges.remove(i);
+                } else {
+                    addNewPath = false;
+                }
+            }
+        }
+
+        if (addNewPath)
+        {
+            final Vector<IntPair> pairs = new Vector<IntPair>(len);
+            for (int k = 0; k < len; ++k)
+                pairs.addElement(new IntPair(pathNodes[k], pathNodes[k + 1]));
+            foundPaths.add(new SOCLRPathData(pathNodes[0], node, len, pairs));
+            foundPathEdges.add(new SOCCoordSet(visited));
+        }
+    }
+
+    /**
+     * One connected component's search results and signature. Read-only once constructed.
+     */
+    private static final class Component
+        implements Serializable
+    {
+        private static final long serialVersionUID = 2000L;
+
+        /** Pairs of (node coordinate, SIG_* flags) for each node in the component, in roadNodes order */
+        final int[] sig;
+
+        /** Paths kept by the search, in the order found */
+        final SOCLRPathData[] paths;
+
+        /** Longest path length found */
+        final int longest;
+
+        Component(final int[] sig, final SOCLRPathData[] paths, final int longest)
+        {
+            this.sig = sig;
+            this.paths = paths;
+            this.longest = longest;
+        }
+    }
+
+}
@@ -65,6 +65,19 @@ public class SOCOldLRStats
         }
     }
 
+    /**
+     * Copy constructor for a copy of the game, for {@link SOCGame#SOCGame(SOCGame)}.
+     *
+     * @param  stats  the stats to copy
+     * @param  ga  the copy of the game which {@code stats} was from
+     * @since 2.0.00
+     */
+    SOCOldLRStats(final SOCOldLRStats stats, final SOCGame ga)
+    {
+        lrLengths = stats.lrLengths.clone();
+        playerWithLR = (stats.playerWithLR != null) ? ga.getPlayer(stats.playerWithLR.getPlayerNumber()) : null;
+    }
+
     /**
      * Restores the old LR stats within game state, from this object's saved data,
      * after removing a temporary piece.
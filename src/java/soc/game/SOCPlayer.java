@@ -24,8 +24,6 @@ package soc.game;
 import soc.disableDebug.D;
 
 import soc.message.SOCMessage;
-import soc.util.IntPair;
-import soc.util.NodeLenVis;
 
 import java.io.Serializable;
 
@@ -35,10 +33,8 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;  // for javadoc
-import java.util.Stack;
+import java.util.Map;
 import java.util.Vector;
 
 
@@ -186,6 +182,13 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     private Vector<SOCLRPathData> lrPaths;
 
+    /**
+     * Incremental calculator for {@link #calcLongestRoad2()}, which keeps
+     * results for each connected group of our roads and ships.
+     * @since 2.0.00
+     */
+    private SOCLongestRoadCalc lrCalc;
+
     /**
      * how many of each resource this player has
      */
@@ -325,8 +328,12 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * If {@link SOCGame#hasSeaBoard}, empty until {@link SOCBoard#makeNewBoard(Map)}
      * and {@link SOCGame#startGame()}, because the board layout and legal settlements
      * vary from game to game.
+     *<P>
+     * Before v2.0.00 this and the other legal and potential sets were {@code HashSet<Integer>}.
+     * They're now bitmaps indexed by the board's geometry, so that the copy constructor
+     * and {@link #updatePotentials(SOCPlayingPiece)} work a word at a time without boxing.
      */
-    private HashSet<Integer> legalRoads;
+    private SOCCoordSet legalRoads;
 
     /**
      * a set of nodes where it is legal to place a
@@ -334,8 +341,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * can ever be placed there.
      * Placing a settlement will clear its node and adjacent nodes.
      *<P>
-     * Key = node coordinate, as {@link Integer}.
-     * If {@link HashSet#contains(Object) legalSettlements.contains(new Integer(nodeCoord))},
+     * If {@link SOCCoordSet#contains(int) legalSettlements.contains(nodeCoord)},
      * then <tt>nodeCoord</tt> is a legal settlement.
      *<P>
      * If not {@link SOCGame#hasSeaBoard}, initialized in constructor
@@ -349,7 +355,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * @see #potentialSettlements
      * @see SOCBoard#nodesOnLand
      */
-    private HashSet<Integer> legalSettlements;
+    private SOCCoordSet legalSettlements;
 
     /**
      * The most recently added node from {@link #addLegalSettlement(int, boolean)}, or 0.
@@ -369,7 +375,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * @see #legalShipsRestricted
      * @since 2.0.00
      */
-    private HashSet<Integer> legalShips;
+    private SOCCoordSet legalShips;
 
     /**
      * A list of edges if the legal sea edges for ships are restricted
@@ -392,7 +398,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * {@link #updatePotentials(SOCPlayingPiece)}.
      * Elements are set false when a road or ship is placed on their edge.
      */
-    private HashSet<Integer> potentialRoads;
+    private SOCCoordSet potentialRoads;
 
     /**
      * a set of nodes where a settlement could be
@@ -402,14 +408,13 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * and then re-set via {@link #updatePotentials(SOCPlayingPiece) updatePotentials(SOCRoad)}.
      * Placing a settlement will clear its node and adjacent nodes.
      *<P>
-     * Key = node coordinate, as {@link Integer}.
-     * If {@link HashSet#contains(Object) potentialSettlements.contains(new Integer(nodeCoord))},
+     * If {@link SOCCoordSet#contains(int) potentialSettlements.contains(nodeCoord)},
      * then this is a potential settlement.
      * @see #legalSettlements
      * @see #setPotentialAndLegalSettlements(Collection, boolean, HashSet[])
      * @see SOCBoard#nodesOnLand
      */
-    private HashSet<Integer> potentialSettlements;
+    private SOCCoordSet potentialSettlements;
 
     /**
      * a set of nodes where a city could be
@@ -422,7 +427,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * because we use {@link #legalSettlements} before placing a settlement,
      * and settlements can always become cities.
      */
-    private HashSet<Integer> potentialCities;
+    private SOCCoordSet potentialCities;
 
     /**
      * a set of edges where a ship could be placed
@@ -436,7 +441,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * this set is empty but non-null.
      * @since 2.0.00
      */
-    private HashSet<Integer> potentialShips;
+    private SOCCoordSet potentialShips;
 
     /**
      * a boolean array stating wheather this player is touching a
@@ -598,6 +603,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         numWarships = player.numWarships;
         longestRoadLength = player.longestRoadLength;
         lrPaths = new Vector<SOCLRPathData>(player.lrPaths);
+        lrCalc = new SOCLongestRoadCalc(player.lrCalc);
         resources = player.resources.copy();
         resourceStats = new int[player.resourceStats.length];
         System.arraycopy(player.resourceStats, 0, resourceStats, 0, player.resourceStats.length);
@@ -643,13 +649,13 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         /**
          * init legal and potential arrays
          */
-        legalRoads = new HashSet<Integer>(player.legalRoads);
-        legalSettlements = new HashSet<Integer>(player.legalSettlements);
-        legalShips = new HashSet<Integer>(player.legalShips);
-        potentialRoads = new HashSet<Integer>(player.potentialRoads);
-        potentialSettlements = new HashSet<Integer>(player.potentialSettlements);
-        potentialCities = new HashSet<Integer>(player.potentialCities);
-        potentialShips = new HashSet<Integer>(player.potentialShips);
+        legalRoads = new SOCCoordSet(player.legalRoads);
+        legalSettlements = new SOCCoordSet(player.legalSettlements);
+        legalShips = new SOCCoordSet(player.legalShips);
+        potentialRoads = new SOCCoordSet(player.potentialRoads);
+        potentialSettlements = new SOCCoordSet(player.potentialSettlements);
+        potentialCities = new SOCCoordSet(player.potentialCities);
+        potentialShips = new SOCCoordSet(player.potentialShips);
         addedLegalSettlement = player.addedLegalSettlement;
         if (player.legalShipsRestricted != null)
             legalShipsRestricted = new HashSet<Integer>(player.legalShipsRestricted);
@@ -669,6 +675,66 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         startingLandArea2 = player.startingLandArea2;
     }
 
+    /**
+     * Create a copy of the player for a copy of its game, for {@link SOCGame#SOCGame(SOCGame)}.
+     * Unlike {@link #SOCPlayer(SOCPlayer)}, also copies the player's name, cloth,
+     * last placements and bank trade, and final VP total, and belongs to {@code ga}.
+     *<P>
+     * Until {@link #copyPiecesForGame(SOCPlayer, Map)} is called, the copy's pieces and special items
+     * are still those of {@code player}, so call that method once all of {@code ga}'s players are set.
+     *
+     * @param player  the player to copy
+     * @param ga  the copy of {@code player}'s game
+     * @throws IllegalStateException if player's dev cards can't be cloned (internal error); should not possibly occur
+     * @since 2.0.00
+     */
+    SOCPlayer(final SOCPlayer player, final SOCGame ga)
+        throws IllegalStateException
+    {
+        this(player);
+
+        game = ga;
+        name = player.name;
+        lastSettlementCoord = player.lastSettlementCoord;
+        lastRoadCoord = player.lastRoadCoord;
+        if (player.lastActionBankTrade_give != null)
+            lastActionBankTrade_give = player.lastActionBankTrade_give.copy();
+        if (player.lastActionBankTrade_get != null)
+            lastActionBankTrade_get = player.lastActionBankTrade_get.copy();
+        if (player.svpInfo != null)
+            svpInfo = new ArrayList<SpecialVPInfo>(player.svpInfo);  // SpecialVPInfo fields are final
+        finalTotalVP = player.finalTotalVP;
+        numCloth = player.numCloth;
+    }
+
+    /**
+     * For a copy of the game made with {@link SOCPlayer#SOCPlayer(SOCPlayer, SOCGame)},
+     * replace this player's pieces and special items with copies that belong to the copied game,
+     * so that neither game's changes affect the other's.
+     * Call this only after all of the copied game's players and its board are set.
+     * @param player  the player this one was copied from
+     * @param copies  Each original piece and special item copied so far, mapped to its copy, by identity;
+     *     new copies are added here
+     * @throws IllegalStateException if a special item can't be cloned (internal error); should not possibly occur
+     * @since 2.0.00
+     */
+    void copyPiecesForGame(final SOCPlayer player, final Map<Object, Object> copies)
+        throws IllegalStateException
+    {
+        final int L = player.pieces.size();
+        for (int i = 0; i < L; ++i)
+            pieces.set(i, SOCPlayingPiece.getCopy(player.pieces.get(i), game, copies));
+        for (int i = roads.size() - 1; i >= 0; --i)
+            roads.set(i, SOCPlayingPiece.getCopy(player.roads.get(i), game, copies));
+        for (int i = settlements.size() - 1; i >= 0; --i)
+            settlements.set(i, SOCPlayingPiece.getCopy(player.settlements.get(i), game, copies));
+        for (int i = cities.size() - 1; i >= 0; --i)
+            cities.set(i, SOCPlayingPiece.getCopy(player.cities.get(i), game, copies));
+        fortress = SOCPlayingPiece.getCopy(player.fortress, game, copies);
+
+        spItems = SOCSpecialItem.copyForGame(player.spItems, game, copies);
+    }
+
     /**
      * Create a new player for a new empty board.
      *<P>
@@ -709,6 +775,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         spItems = new HashMap<String, ArrayList<SOCSpecialItem>>();
         longestRoadLength = 0;
         lrPaths = new Vector<SOCLRPathData>();
+        lrCalc = new SOCLongestRoadCalc();
         resources = new SOCResourceSet();
         resourceStats = new int[1 + SOCResourceConstants.GOLD_LOCAL];
         rolledResources = new SOCResourceSet();
@@ -745,21 +812,21 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
          * If game.hasSeaBoard, these are initialized later, after board.makeNewBoard
          * and game.startGame, because the layout varies from game to game.
          */
-        potentialRoads = new HashSet<Integer>();
-        potentialCities = new HashSet<Integer>();
-        potentialShips = new HashSet<Integer>();
+        potentialRoads = new SOCCoordSet(board);
+        potentialCities = new SOCCoordSet(board);
+        potentialShips = new SOCCoordSet(board);
 
         if (! game.hasSeaBoard)
         {
-            legalRoads = board.initPlayerLegalRoads();
-            legalSettlements = board.initPlayerLegalAndPotentialSettlements();
-            legalShips = new HashSet<Integer>();  // will remain empty
-            potentialSettlements = new HashSet<Integer>(legalSettlements);
+            legalRoads = new SOCCoordSet(board, board.initPlayerLegalRoads());
+            legalSettlements = new SOCCoordSet(board, board.initPlayerLegalAndPotentialSettlements());
+            legalShips = new SOCCoordSet(board);  // will remain empty
+            potentialSettlements = new SOCCoordSet(legalSettlements);
         } else {
-            legalRoads = new HashSet<Integer>();
-            legalSettlements = new HashSet<Integer>();
-            legalShips = new HashSet<Integer>();
-            potentialSettlements = new HashSet<Integer>();
+            legalRoads = new SOCCoordSet(board);
+            legalSettlements = new SOCCoordSet(board);
+            legalShips = new SOCCoordSet(board);
+            potentialSettlements = new SOCCoordSet(board);
         }
 
         currentOffer = null;
@@ -2898,15 +2965,15 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                 final boolean isCoastline = game.hasSeaBoard && ((SOCBoardLarge) board).isEdgeCoastline(pieceCoord);
                 if (piece.getType() == SOCPlayingPiece.ROAD)
                 {
-                    legalRoads.add(pieceCoordInt);
+                    legalRoads.add(pieceCoord);
                     if (isCoastline &&
                         ((legalShipsRestricted == null) || legalShipsRestricted.contains(pieceCoordInt)))
-                        legalShips.add(pieceCoordInt);
+                        legalShips.add(pieceCoord);
                 } else {
                     if ((legalShipsRestricted == null) || legalShipsRestricted.contains(pieceCoordInt))
-                        legalShips.add(pieceCoordInt);
+                        legalShips.add(pieceCoord);
                     if (isCoastline)
-                        legalRoads.add(pieceCoordInt);
+                        legalRoads.add(pieceCoord);
                 }
 
                 //
@@ -2914,15 +2981,15 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                 // on our roads/ships that are adjacent to
                 // this edge
                 //
-                Vector<Integer> adjEdges = board.getAdjacentEdgesToEdge(pieceCoord);
+                final int[] adjEdges = board.getAdjacentEdgesToEdge_arr(pieceCoord, new int[4]);
 
                 for (SOCRoad road : roads)
                 {
-                    for (Integer edgeObj : adjEdges)
+                    for (int i = 0; i < 4; ++i)
                     {
-                        final int edge = edgeObj.intValue();
+                        final int edge = adjEdges[i];
 
-                        if (road.getCoordinates() == edge)
+                        if ((edge != -9) && (road.getCoordinates() == edge))
                             updatePotentials(road);
                     }
                 }
@@ -2982,7 +3049,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
             if (ours)
             {
                 removePiece(piece, null);
-                potentialCities.add(pieceCoordInt);
+                potentialCities.add(pieceCoord);
 
                 /**
                  * update what numbers we're touching
@@ -3004,8 +3071,6 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     protected void undoPutPieceAuxSettlement(int settlementNode)
     {
-        final Integer settleNodeInt = new Integer(settlementNode);
-
         //D.ebugPrintln("))))) undoPutPieceAuxSettlement : node = "+Integer.toHexString(settlementNode));
         //
         // if this node doesn't have any neighboring settlements or cities, make it legal
@@ -3066,7 +3131,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                 //
                 if (board.isNodeOnLand(settlementNode))
                 {
-                    legalSettlements.add(settleNodeInt);
+                    legalSettlements.add(settlementNode);
 
                     //
                     // if it's the beginning of the game, make it potential
@@ -3075,7 +3140,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                     //
                     if (game.getGameState() < SOCGame.PLAY)
                     {
-                        potentialSettlements.add(settleNodeInt);
+                        potentialSettlements.add(settlementNode);
 
                         //D.ebugPrintln(")))) potentialSettlements["+Integer.toHexString(settlementNode)+"] = true");
                     }
@@ -3111,7 +3176,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
 
                         if (adjRoad)
                         {
-                            potentialSettlements.add(settleNodeInt);
+                            potentialSettlements.add(settlementNode);
 
                             //D.ebugPrintln(")))) potentialSettlements["+Integer.toHexString(settlementNode)+"] = true");
                         }
@@ -3287,21 +3352,21 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
 
                     if (ptype == SOCPlayingPiece.ROAD)
                     {
-                        potentialRoads.add(pieceCoordInt);
-                        legalRoads.add(pieceCoordInt);
+                        potentialRoads.add(pieceCoord);
+                        legalRoads.add(pieceCoord);
                         if (isCoastlineTransition &&
                             ((legalShipsRestricted == null) || legalShipsRestricted.contains(pieceCoordInt)))
                         {
-                            potentialShips.add(pieceCoordInt);
-                            legalShips.add(pieceCoordInt);
+                            potentialShips.add(pieceCoord);
+                            legalShips.add(pieceCoord);
                         }
                     } else {
-                        potentialShips.add(pieceCoordInt);
-                        legalShips.add(pieceCoordInt);
+                        potentialShips.add(pieceCoord);
+                        legalShips.add(pieceCoord);
                         if (isCoastlineTransition)
                         {
-                            potentialRoads.add(pieceCoordInt);
-                            legalRoads.add(pieceCoordInt);
+                            potentialRoads.add(pieceCoord);
+                            legalRoads.add(pieceCoord);
                         }
                         // (Since we're removing a ship, skip checking legalShipsRestricted.)
                     }
@@ -3312,11 +3377,14 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                      * potential road
                      */
                     // TODO roads/ships are not interchangeable here
-                    Collection<Integer> adjEdgesEnum = board.getAdjacentEdgesToEdge(pieceCoord);
+                    final int[] adjEdges = board.getAdjacentEdgesToEdge_arr(pieceCoord, new int[4]);
+                    final int[] adjNodes = new int[2], adjAdjEdges = new int[3];
 
-                    for (Integer adjEdge : adjEdgesEnum)
+                    for (int ei = 0; ei < 4; ++ei)
                     {
-                        if (! (potentialRoads.contains(adjEdge) || potentialShips.contains(adjEdge)))
+                        final int adjEdge = adjEdges[ei];
+                        if ((adjEdge == -9)
+                            || ! (potentialRoads.contains(adjEdge) || potentialShips.contains(adjEdge)))
                             continue;
 
                         boolean isPotentialRoad = false;  // or, isPotentialShip
@@ -3325,8 +3393,8 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                          * check each adjacent node for blocking
                          * settlements or cities
                          */
-                        final int adjEdgeID = adjEdge.intValue();
-                        final int[] adjNodes = board.getAdjacentNodesToEdge_arr(adjEdgeID);
+                        final int adjEdgeID = adjEdge;
+                        board.getAdjacentNodesToEdge_arr(adjEdgeID, adjNodes);
 
                         for (int ni = 0; (ni < 2) && ! isPotentialRoad; ++ni)
                         {
@@ -3344,13 +3412,13 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
 
                             if (! blocked)
                             {
-                                Collection<Integer> adjAdjEdgesEnum = board.getAdjacentEdgesToNode(adjNode);
+                                board.getAdjacentEdgesToNode_arr(adjNode, adjAdjEdges);
 
-                                for (Integer adjAdjEdgesObj : adjAdjEdgesEnum)
+                                for (int ai = 0; ai < 3; ++ai)
                                 {
-                                    final int adjAdjEdge = adjAdjEdgesObj.intValue();
+                                    final int adjAdjEdge = adjAdjEdges[ai];
 
-                                    if (adjAdjEdge != adjEdgeID)
+                                    if ((adjAdjEdge != -9) && (adjAdjEdge != adjEdgeID))
                                     {
                                         for (SOCRoad ourRoad : roads)
                                         {
@@ -3512,9 +3580,8 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
             final int edge = sides[i];
             if ((htype == SOCBoard.WATER_HEX) || board.isEdgeCoastline(edge))
             {
-                final Integer edgeInt = Integer.valueOf(edge);
-                if ((legalShipsRestricted == null) || legalShipsRestricted.contains(edgeInt))
-                    legalShips.add(edgeInt);
+                if ((legalShipsRestricted == null) || legalShipsRestricted.contains(Integer.valueOf(edge)))
+                    legalShips.add(edge);
             }
         }
     }
@@ -3541,7 +3608,6 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         final boolean ours;
         boolean blocked;
         final int id = piece.getCoordinates();
-        final Integer idInt = new Integer(id);
         SOCBoard board = game.getBoard();
 
         /**
@@ -3560,11 +3626,11 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
 
             // remove non-potentials;
             // if not in that set, does nothing
-            potentialRoads.remove(idInt);
-            legalRoads.remove(idInt);
+            potentialRoads.remove(id);
+            legalRoads.remove(id);
 
-            potentialShips.remove(idInt);
-            legalShips.remove(idInt);
+            potentialShips.remove(id);
+            legalShips.remove(id);
 
             if (ours)
             {
@@ -3572,6 +3638,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                 // and the far end isn't blocked by
                 // another player.
                 final int[] nodes = board.getAdjacentNodesToEdge_arr(id);
+                final int[] edges = new int[3];
 
                 for (int ni = 0; ni < 2; ++ni)
                 {
@@ -3590,28 +3657,26 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
 
                     if (! blocked)
                     {
-                        int[] edges = board.getAdjacentEdgesToNode_arr(node);
+                        board.getAdjacentEdgesToNode_arr(node, edges);
                         for (int i = 0; i < 3; ++i)
                         {
                             int edge = edges[i];
                             if (edge != -9)
                             {
-                                final Integer edgeInt = new Integer(edge);
                                 if (ptype == SOCPlayingPiece.ROAD)
                                 {
-                                    if (legalRoads.contains(edgeInt))
-                                        potentialRoads.add(edgeInt);
+                                    if (legalRoads.contains(edge))
+                                        potentialRoads.add(edge);
                                 } else {
-                                    if (legalShips.contains(edgeInt))
-                                        potentialShips.add(edgeInt);
+                                    if (legalShips.contains(edge))
+                                        potentialShips.add(edge);
                                 }
                             }
                         }
 
-                        final Integer nodeInt = new Integer(node);
-                        if (legalSettlements.contains(nodeInt))
+                        if (legalSettlements.contains(node))
                         {
-                            potentialSettlements.add(nodeInt);
+                            potentialSettlements.add(node);
                         }
                     }
                 }
@@ -3631,7 +3696,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                         final int node = nodes[ni];
                         boolean foundOtherShips = false;
 
-                        final int[] edges = board.getAdjacentEdgesToNode_arr(node);
+                        board.getAdjacentEdgesToNode_arr(node, edges);
                         for (int i = 0; i < 3; ++i)
                         {
                             final int edge = edges[i];
@@ -3648,9 +3713,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                         {
                             for (int i = 0; i < 3; ++i)
                             {
-                                final Integer edgeInt = Integer.valueOf(edges[i]);
-                                if (potentialShips.contains(edgeInt))
-                                    potentialShips.remove(edgeInt);
+                                potentialShips.remove(edges[i]);
                             }
                         }
                     }
@@ -3667,16 +3730,15 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
             // remove non-potentials:
             // no settlement at this node coordinate,
             // no settlement in its adjacent nodes.
-            potentialSettlements.remove(idInt);
-            legalSettlements.remove(idInt);
+            potentialSettlements.remove(id);
+            legalSettlements.remove(id);
             int[] adjac = board.getAdjacentNodesToNode_arr(id);
             for (int i = 0; i < 3; ++i)
             {
                 if (adjac[i] != -9)
                 {
-                    final Integer adjacNodeInt = new Integer(adjac[i]);
-                    potentialSettlements.remove(adjacNodeInt);
-                    legalSettlements.remove(adjacNodeInt);
+                    potentialSettlements.remove(adjac[i]);
+                    legalSettlements.remove(adjac[i]);
                 }
             }
 
@@ -3685,19 +3747,18 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
 
             if (ours)
             {
-                potentialCities.add(idInt);
+                potentialCities.add(id);
 
-                adjac = board.getAdjacentEdgesToNode_arr(id);
+                board.getAdjacentEdgesToNode_arr(id, adjac);
                 for (int i = 0; i < 3; ++i)
                 {
                     tmp = adjac[i];
                     if (tmp != -9)
                     {
-                        final Integer tmpEdgeInt = new Integer(tmp);
-                        if (legalRoads.contains(tmpEdgeInt))
-                            potentialRoads.add(tmpEdgeInt);
-                        if (legalShips.contains(tmpEdgeInt))
-                            potentialShips.add(tmpEdgeInt);
+                        if (legalRoads.contains(tmp))
+                            potentialRoads.add(tmp);
+                        if (legalShips.contains(tmp))
+                            potentialShips.add(tmp);
                     }
                 }
             }
@@ -3715,36 +3776,26 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                 // ourRoads contains both roads and ships.
                 //  TODO may need to separate them and check twice,
                 //       or differentiate far-side roads vs ships.
-                HashSet<Integer> ourRoads = new HashSet<Integer>();  // TODO more efficient way of looking this up, with fewer temp objs
-                for (SOCPlayingPiece p : this.pieces)
-                {
-                    if (p instanceof SOCRoad)   // roads and ships
-                        ourRoads.add(Integer.valueOf(p.getCoordinates()));
-                }
+                final SOCCoordSet ourRoads = new SOCCoordSet(board);
+                for (SOCRoad p : roads)   // roads and ships
+                    ourRoads.add(p.getCoordinates());
 
-                adjac = board.getAdjacentEdgesToNode_arr(id);
+                board.getAdjacentEdgesToNode_arr(id, adjac);
+                final int[] farEdges = new int[3];
                 for (int i = 0; i < 3; ++i)
                 {
                     tmp = adjac[i];  // edge coordinate
                     if (tmp == -9)
                         continue;
-                    final Integer tmpInt = Integer.valueOf(tmp);
-                    if (! (potentialRoads.contains(tmpInt)
-                           || potentialShips.contains(tmpInt)))
+                    if (! (potentialRoads.contains(tmp)
+                           || potentialShips.contains(tmp)))
                     {
                         continue;  // We don't have a potential road here, so
                                    // there's nothing to be potentially broken.
                     }
 
                     // find the far-end node coordinate
-                    final int farNode;
-                    {
-                        final int[] enodes = board.getAdjacentNodesToEdge_arr(tmp);
-                        if (enodes[0] == id)
-                            farNode = enodes[1];
-                        else
-                            farNode = enodes[0];
-                    }
+                    final int farNode = board.getAdjacentNodeFarEndOfEdge(tmp, id);
 
                     // now find the 2 other edges past that node;
                     // we may have actual roads/ships on them already.
@@ -3752,12 +3803,12 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                     // which connects that node with the new settlement's node,
                     // from tmp edge's far node.
 
-                    final int[] farEdges = board.getAdjacentEdgesToNode_arr(farNode);
+                    board.getAdjacentEdgesToNode_arr(farNode, farEdges);
                     boolean foundOurRoad = false;
                     for (int ie = 0; ie < 3; ++ie)
                     {
                         int farEdge = farEdges[ie];
-                        if ((farEdge != tmp) && ourRoads.contains(Integer.valueOf(farEdge)))
+                        if ((farEdge != tmp) && ourRoads.contains(farEdge))
                         {
                             foundOurRoad = true;
                             break;
@@ -3766,8 +3817,8 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                     if (! foundOurRoad)
                     {
                         // the potential road is no longer connected
-                        potentialRoads.remove(tmpInt);
-                        potentialShips.remove(tmpInt);
+                        potentialRoads.remove(tmp);
+                        potentialShips.remove(tmp);
                     }
                 }
             }
@@ -3780,7 +3831,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         case SOCPlayingPiece.CITY:
 
             // remove non-potentials
-            potentialCities.remove(idInt);
+            potentialCities.remove(id);
 
             break;
 
@@ -3792,12 +3843,29 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * At the start of the game (before/during initial placement), this is all legal nodes.
      * Afterwards it's mostly empty, and follows from the player's road locations.
      *<P>
-     * Please make no changes, treat the returned set as read-only.
-     * @return the player's set of {@link Integer} potential-settlement node coordinates
+     * Returns a new copy of the set, so changing it won't change the player's potentials.
+     * To read them without copying, call {@link #getPotentialSettlementsSet()} instead.
+     * @return a copy of the player's set of {@link Integer} potential-settlement node coordinates
      * @see #getPotentialSettlements_arr()
      * @since 2.0.00
      */
     public HashSet<Integer> getPotentialSettlements()
+    {
+        return new HashSet<Integer>(potentialSettlements);
+    }
+
+    /**
+     * Get this player's current potential settlement nodes, without copying them.
+     * At the start of the game (before/during initial placement), this is all legal nodes.
+     * Afterwards it's mostly empty, and follows from the player's road locations.
+     *<P>
+     * Please make no changes, treat the returned set as read-only.
+     * @return the player's set of potential-settlement node coordinates
+     * @see #getPotentialSettlements()
+     * @see #getPotentialSettlements_arr()
+     * @since 2.0.00
+     */
+    public SOCCoordSet getPotentialSettlementsSet()
     {
         return potentialSettlements;
     }
@@ -3815,15 +3883,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public int[] getPotentialSettlements_arr()
     {
-        int L = potentialSettlements.size();
-        if (L == 0)
-            return null;
-
-        int[] pset = new int[L];
-        Iterator<Integer> it = potentialSettlements.iterator();
-        for (int i = 0; it.hasNext(); ++i)
-            pset[i] = it.next().intValue();
-        return pset;
+        return potentialSettlements.toIntArray();
     }
 
     /**
@@ -3880,11 +3940,12 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                     legalSettlements.addAll(legalLandAreaNodes[i]);
             }
 
-            legalRoads = game.getBoard().initPlayerLegalRoads();
+            legalRoads.clear();
+            legalRoads.addAll(game.getBoard().initPlayerLegalRoads());
+            legalShips.clear();
             if (! game.isGameOptionSet(SOCGameOption.K_SC_PIRI))
-                legalShips = ((SOCBoardLarge) game.getBoard()).initPlayerLegalShips();
-            else
-                legalShips.clear();  // caller must soon call setRestrictedLegalShips
+                legalShips.addAll(((SOCBoardLarge) game.getBoard()).initPlayerLegalShips());
+            // else, caller must soon call setRestrictedLegalShips
         }
     }
 
@@ -3916,7 +3977,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                     return;  // <--- Early return: adjacent settlement/city found ---
         }
 
-        legalSettlements.add(Integer.valueOf(node));
+        legalSettlements.add(node);
         addedLegalSettlement = node;
     }
 
@@ -3958,7 +4019,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public boolean isPotentialSettlement(final int node)
     {
-        return potentialSettlements.contains(Integer.valueOf(node));
+        return potentialSettlements.contains(node);
     }
 
     /**
@@ -3971,7 +4032,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public void clearPotentialSettlement(final int node)
     {
-        potentialSettlements.remove(Integer.valueOf(node));
+        potentialSettlements.remove(node);
     }
 
     /**
@@ -3983,7 +4044,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public boolean isLegalSettlement(final int node)
     {
-        return legalSettlements.contains(Integer.valueOf(node));
+        return legalSettlements.contains(node);
     }
 
     /**
@@ -4009,7 +4070,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public boolean isPotentialCity(final int node)
     {
-        return potentialCities.contains(Integer.valueOf(node));
+        return potentialCities.contains(node);
     }
 
     /**
@@ -4022,7 +4083,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public void clearPotentialCity(final int node)
     {
-        potentialCities.remove(Integer.valueOf(node));
+        potentialCities.remove(node);
     }
 
     /**
@@ -4037,7 +4098,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
     {
         if (edge == -1)
             edge = 0x00;
-        return potentialRoads.contains(Integer.valueOf(edge));
+        return potentialRoads.contains(edge);
     }
 
     /**
@@ -4052,7 +4113,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
     {
         if (edge == -1)
             edge = 0x00;
-        potentialRoads.remove(Integer.valueOf(edge));
+        potentialRoads.remove(edge);
     }
 
     /**
@@ -4066,7 +4127,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
             edge = 0x00;
         else if (edge < 0)
             return false;
-        return legalRoads.contains(Integer.valueOf(edge));
+        return legalRoads.contains(edge);
     }
 
     /**
@@ -4098,7 +4159,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public boolean isPotentialShipMoveTo(final int toEdge, final int fromEdge)
     {
-        if (! potentialShips.contains(Integer.valueOf(toEdge)))
+        if (! potentialShips.contains(toEdge))
         {
             if (game.isGameOptionSet(SOCGameOption.K_SC_PIRI)
                 && (null != legalShipsRestricted))
@@ -4153,7 +4214,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public boolean isPotentialShip(int edge)
     {
-        return potentialShips.contains(Integer.valueOf(edge));
+        return potentialShips.contains(edge);
     }
 
     /**
@@ -4166,7 +4227,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      */
     public void clearPotentialShip(int edge)
     {
-        potentialShips.remove(Integer.valueOf(edge));
+        potentialShips.remove(edge);
     }
 
     /**
@@ -4180,7 +4241,7 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         if (edge < 0)
             return false;
 
-        return legalShips.contains(Integer.valueOf(edge));
+        return legalShips.contains(edge);
     }
 
     /**
@@ -4342,215 +4403,22 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
     }
 
     /**
-     * Calculates the longest road / longest trade route for this player
+     * Calculates the longest road / longest trade route for this player,
+     * and updates {@link #getLongestRoadLength()} and {@link #getLRPaths()}.
+     *<P>
+     * This is a depth-first search of all possible road paths.
+     * Before v2.0.00 it searched all of the player's roads and ships at each call;
+     * it now searches only the connected groups of roads and ships which have changed
+     * since the previous call, with identical results. See {@link SOCLongestRoadCalc} for details.
+     * For similar code, see soc.robot.SOCRobotDM.recalcLongestRoadETAAux.
      *
      * @return the length of the longest road for this player
      */
     public int calcLongestRoad2()
     {
-        //Date startTime = new Date();
-        //
-        // clear the lr paths vector so that we have an accurate
-        // representation.  if someone cut our longest path in two
-        // we won't catch it unless we clear the vector
-        //
-        //D.ebugPrintln("CLEARING PATH DATA");
-        lrPaths.removeAllElements();
-
-        /**
-         * we're doing a depth first search of all possible road paths.
-         * For similar code, see soc.robot.SOCRobotDM.recalcLongestRoadETAAux.
-         * Both methods rely on a stack holding NodeLenVis (pop to curNode in loop);
-         * they differ in actual element type within the stack because they are
-         * gathering slightly different results (length or a stack of edges).
-         */
-        SOCBoard board = game.getBoard();
-        Stack<NodeLenVis<IntPair>> pending = new Stack<NodeLenVis<IntPair>>();
-        int longest = 0;
-
-        for (Integer rn : roadNodes)
-        {
-            final int pathStartNodeCoord = rn.intValue();
-            pending.push(new NodeLenVis<IntPair>(pathStartNodeCoord, 0, new Vector<IntPair>()));
-
-            while (! pending.isEmpty())
-            {
-                NodeLenVis<IntPair> curNode = pending.pop();
-                final int coord = curNode.node;
-                final int len = curNode.len;
-                Vector<IntPair> visited = curNode.vis;
-                boolean pathEnd = false;
-                final SOCPlayingPiece settlementAtNodeCoord;
-
-                /**
-                 * check for road blocks
-                 */
-                if (len > 0)
-                {
-                    settlementAtNodeCoord = board.settlementAtNode(coord);
-                    if ((settlementAtNodeCoord != null)
-                        && (settlementAtNodeCoord.getPlayerNumber() != playerNumber))
-                    {
-                        pathEnd = true;
-
-                        //D.ebugPrintln("^^^ path end at "+Integer.toHexString(coord));
-                    }
-                } else {
-                    settlementAtNodeCoord = null;
-                }
-
-                if (! pathEnd)
-                {
-                    /**
-                     * Check if this road path continues to adjacent connected nodes.
-                     */
-
-                    pathEnd = true;  // may be set false in loop
+        longestRoadLength = lrCalc.calc(this, lrPaths);
 
-                    final int[] adjacNodes = board.getAdjacentNodesToNode_arr(coord);
-                    for (int ni = adjacNodes.length - 1; ni>=0; --ni)
-                    {
-                        final int j = adjacNodes[ni];
-                        if (j == -9)
-                            continue;
-
-                        if (isConnectedByRoad(coord, j))
-                        {
-                            final SOCRoad roadFromNode;  // sea board: road/ship from node to j
-
-                            if (game.hasSeaBoard)
-                            {
-                                // Check for road<->ship transitions,
-                                // which require a settlement/city at node.
-                                // If len==0, inboundRoad is null because we're just starting.
-
-                                roadFromNode = getRoadOrShip
-                                (board.getEdgeBetweenAdjacentNodes(coord, j));
-                                if (len > 0)
-                                {
-                                    if (roadFromNode == null)  // shouldn't happen
-                                        continue;
-
-                                    if ((roadFromNode.isRoadNotShip() != curNode.inboundRoad.isRoadNotShip())
-                                        && (settlementAtNodeCoord == null))
-                                    {
-                                        continue;  // Requires settlement/city to connect road to ship
-                                    }
-                                }
-                            } else {
-                                roadFromNode = null;
-                            }
-
-                            IntPair pair = new IntPair(coord, j);
-                            boolean match = false;
-
-                            for (IntPair vis : visited)
-                            {
-                                if (vis.equals(pair))
-                                {
-                                    match = true;
-                                    break;
-                                }
-                            }
-
-                            if (! match)
-                            {
-                                Vector<IntPair> newVis = new Vector<IntPair>(visited);
-                                newVis.addElement(pair);
-                                pending.push(new NodeLenVis<IntPair>(j, len + 1, newVis, roadFromNode));
-                                pathEnd = false;
-                            }
-                        }
-                    }  // foreach(adjacNodes)
-                }
-
-                if (pathEnd)
-                {
-                    if (len > longest)
-                    {
-                        longest = len;
-                    }
-
-                    //
-                    // we want to store the longest path for a single set of nodes
-                    // check to make sure that we don't save two paths that share a node
-                    //
-                    boolean intersection;
-                    boolean addNewPath = true;
-                    Vector<SOCLRPathData> trash = new Vector<SOCLRPathData>();
-
-                    for (SOCLRPathData oldPathData : lrPaths)
-                    {
-                        //D.ebugPrintln("oldPathData = " + oldPathData);
-
-                        Vector<IntPair> nodePairs = oldPathData.getNodePairs();
-                        intersection = false;
-
-                        for (IntPair vis : visited)
-                        {
-                            //D.ebugPrintln("vis = " + vis);
-
-                            for (IntPair np : nodePairs)
-                            {
-                                //D.ebugPrintln("np = " + np);
-
-                                if (np.equals(vis))
-                                {
-                                    //D.ebugPrintln("oldPathData.nodePairs.contains(vis)");
-                                    intersection = true;
-
-                                    break;
-                                }
-                            }
-
-                            if (intersection)
-                            {
-                                break;
-                            }
-                        }
-
-                        if (intersection)
-                        {
-                            //
-                            // only keep the longer of the two paths
-                            //
-                            if (oldPathData.getLength() < len)
-                            {
-                                //D.ebugPrintln("REMOVING OLDPATHDATA");
-                                trash.addElement(oldPathData);
-                            }
-                            else
-                            {
-                                addNewPath = false;
-                                //D.ebugPrintln("NOT ADDING NEW PATH");
-                            }
-                        }
-                    }
-
-                    if (! trash.isEmpty())
-                    {
-                        for (SOCLRPathData oldPathData : trash)
-                        {
-                            lrPaths.removeElement(oldPathData);
-                        }
-                    }
-
-                    if (addNewPath)
-                    {
-                        SOCLRPathData newPathData = new SOCLRPathData(pathStartNodeCoord, coord, len, visited);
-                        //D.ebugPrintln("ADDING PATH: " + newPathData);
-                        lrPaths.addElement(newPathData);
-                    }
-                }
-            }
-        }
-
-        longestRoadLength = longest;
-
-        //Date stopTime = new Date();
-        //long elapsed = stopTime.getTime() - startTime.getTime();
-        //System.out.println("LONGEST FOR "+name+" IS "+longest+" TIME = "+elapsed+"ms");
-        return longest;
+        return longestRoadLength;
     }
 
     /**
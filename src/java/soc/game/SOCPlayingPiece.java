@@ -22,6 +22,7 @@
 package soc.game;
 
 import java.io.Serializable;
+import java.util.Map;
 import java.util.Vector;
 
 
@@ -185,6 +186,61 @@ public abstract class SOCPlayingPiece implements Serializable, Cloneable
         board = pboard;
     }
 
+    /**
+     * Copy this piece for a copy of its game, for {@link SOCGame#SOCGame(SOCGame)}.
+     * The copy has this piece's type, coordinate and other fields, and belongs to the
+     * copied game's board and to its player with the same player number.
+     * Subclasses with object fields which refer to the game's players or can change
+     * must override this method to copy them.
+     * @param ga  Copy of this piece's game; its board and players must already be set
+     * @return  A copy of this piece
+     * @see #getCopy(SOCPlayingPiece, SOCGame, Map)
+     * @since 2.0.00
+     */
+    SOCPlayingPiece copyForGame(final SOCGame ga)
+    {
+        final SOCPlayingPiece pp;
+        try
+        {
+            pp = (SOCPlayingPiece) clone();
+        } catch (CloneNotSupportedException e) {
+            // Should not occur: SOCPlayingPiece implements Cloneable
+            throw new IllegalStateException("Internal error, pieces should be cloneable", e);
+        }
+        if (player != null)
+            pp.player = ga.getPlayer(player.getPlayerNumber());
+        pp.board = ga.getBoard();
+
+        return pp;
+    }
+
+    /**
+     * Get a piece's copy for a copy of its game, copying the piece if it hasn't already been copied.
+     * The same piece object is often in several lists, such as the board's and its player's,
+     * so {@link SOCGame#SOCGame(SOCGame)} uses this to give all of the copied lists the same copy.
+     * @param pp  Piece to copy, or null
+     * @param ga  Copy of the piece's game, for {@link #copyForGame(SOCGame)}
+     * @param copies  Each original piece copied so far, mapped to its copy, by identity;
+     *     {@code pp}'s new copy is added here
+     * @return  {@code pp}'s copy, or null if {@code pp} is null
+     * @since 2.0.00
+     */
+    @SuppressWarnings("unchecked")
+    static <P extends SOCPlayingPiece> P getCopy(final P pp, final SOCGame ga, final Map<Object, Object> copies)
+    {
+        if (pp == null)
+            return null;
+
+        Object cp = copies.get(pp);
+        if (cp == null)
+        {
+            cp = pp.copyForGame(ga);
+            copies.put(pp, cp);
+        }
+
+        return (P) cp;
+    }
+
     /**
      * Which edges touch this piece's node on the board?
      * Should not be called for roads, because they aren't placed at a node.
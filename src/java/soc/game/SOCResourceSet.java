@@ -503,7 +503,7 @@ public class SOCResourceSet implements Serializable, Cloneable
     public SOCResourceSet copy()
     {
         SOCResourceSet copy = new SOCResourceSet();
-        copy.add(this);
+        System.arraycopy(resources, 0, copy.resources, 0, resources.length);
 
         return copy;
     }
@@ -20,7 +20,9 @@
 package soc.game;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import soc.message.SOCMessage;  // strictly for isSingleLineAndSafe
 
@@ -684,10 +686,59 @@ public class SOCSpecialItem
         throws CloneNotSupportedException
     {
         SOCSpecialItem cl = (SOCSpecialItem) super.clone();
-        cl.cost = cost.copy();
+        if (cost != null)
+            cl.cost = cost.copy();
         return cl;
     }
 
+    /**
+     * Copy a game's or player's special item lists for a copy of the game, for {@link SOCGame#SOCGame(SOCGame)}.
+     * Each item is cloned and owned by the copied game's player with the same number.
+     * An item can be in the game's list and its owner's list; both copied lists get the same copy.
+     * @param items  Special items to copy, from {@link SOCGame} or {@link SOCPlayer}; lists may contain nulls
+     * @param ga  Copy of the items' game; its players must already be set
+     * @param copies  Each original item copied so far, mapped to its copy, by identity;
+     *     new copies are added here
+     * @return  A copy of {@code items}
+     * @throws IllegalStateException if an item can't be cloned (internal error); should not possibly occur
+     * @since 2.0.00
+     */
+    static HashMap<String, ArrayList<SOCSpecialItem>> copyForGame
+        (final Map<String, ArrayList<SOCSpecialItem>> items, final SOCGame ga, final Map<Object, Object> copies)
+        throws IllegalStateException
+    {
+        final HashMap<String, ArrayList<SOCSpecialItem>> copy = new HashMap<String, ArrayList<SOCSpecialItem>>();
+        for (final Map.Entry<String, ArrayList<SOCSpecialItem>> ent : items.entrySet())
+        {
+            final ArrayList<SOCSpecialItem> old = ent.getValue();
+            final ArrayList<SOCSpecialItem> anew = new ArrayList<SOCSpecialItem>(old.size());
+            for (final SOCSpecialItem itm : old)
+            {
+                SOCSpecialItem cp = null;
+                if (itm != null)
+                {
+                    cp = (SOCSpecialItem) copies.get(itm);
+                    if (cp == null)
+                    {
+                        try
+                        {
+                            cp = itm.clone();
+                        } catch (CloneNotSupportedException e) {
+                            throw new IllegalStateException("Internal error, items should be cloneable", e);
+                        }
+                        if (itm.player != null)
+                            cp.player = ga.getPlayer(itm.player.getPlayerNumber());
+                        copies.put(itm, cp);
+                    }
+                }
+                anew.add(cp);
+            }
+            copy.put(ent.getKey(), anew);
+        }
+
+        return copy;
+    }
+
     /**
      * Data structure and parser for a special item's requirements.
      *<P>
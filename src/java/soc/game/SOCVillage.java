@@ -92,6 +92,25 @@ public class SOCVillage extends SOCPlayingPiece
         numCloth = cloth;
     }
 
+    /**
+     * Copy this village for a copy of its game, including its trading players
+     * from the copied game. See {@link SOCPlayingPiece#copyForGame(SOCGame)}.
+     * @since 2.0.00
+     */
+    @Override
+    SOCPlayingPiece copyForGame(final SOCGame ga)
+    {
+        final SOCVillage v = (SOCVillage) super.copyForGame(ga);
+        if (traders != null)
+        {
+            v.traders = new ArrayList<SOCPlayer>(traders.size());
+            for (final SOCPlayer pl : traders)
+                v.traders.add(ga.getPlayer(pl.getPlayerNumber()));
+        }
+
+        return v;
+    }
+
     /**
      * Get how many cloth this village currently has.
      * @see #takeCloth(int)
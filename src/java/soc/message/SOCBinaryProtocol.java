@@ -0,0 +1,122 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.message;
+
+import soc.util.BinaryMessageCodec;  // for javadocs only
+import soc.util.SOCServerFeatures;  // for javadocs only
+
+/**
+ * This message from client asks the server to send it {@link BinaryMessageCodec binary frames}
+ * instead of text; the server replies with the same message type.
+ *<P>
+ * The client sends this only if the server's {@link SOCVersion} listed the
+ * {@link SOCServerFeatures#FEAT_BINARY_PROTOCOL} feature, and must be ready to read binary frames
+ * (with a {@link BinaryMessageCodec.Decoder}) before sending it.
+ * The server replies with the format version it will use, or 0 if it will keep sending text.
+ * Since each frame is marked as text or binary, the client needn't wait for the reply before reading.
+ *<P>
+ * Only messages from server to client are affected; the client always sends text.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCBinaryProtocol extends SOCMessage
+{
+    private static final long serialVersionUID = 2000L;  // last structural change v2.0.00
+
+    /**
+     * Binary format version requested or accepted, such as {@link BinaryMessageCodec#FORMAT_VERSION},
+     * or 0 if server declines
+     */
+    private final int formatVersion;
+
+    /**
+     * Create a BinaryProtocol message.
+     *
+     * @param fv  Binary format version requested or accepted, or 0 if server declines
+     */
+    public SOCBinaryProtocol(final int fv)
+    {
+        messageType = BINARYPROTOCOL;
+        formatVersion = fv;
+    }
+
+    /**
+     * @return the binary format version requested or accepted, or 0 if server declines
+     */
+    public int getFormatVersion()
+    {
+        return formatVersion;
+    }
+
+    /**
+     * BINARYPROTOCOL sep formatVersion
+     *
+     * @return the command String
+     */
+    public String toCmd()
+    {
+        return toCmd(formatVersion);
+    }
+
+    /**
+     * BINARYPROTOCOL sep formatVersion
+     *
+     * @param fv  the binary format version
+     * @return the command String
+     */
+    public static String toCmd(final int fv)
+    {
+        return BINARYPROTOCOL + sep + fv;
+    }
+
+    /**
+     * Parse the command String into a BinaryProtocol message
+     *
+     * @param s   the String to parse
+     * @return    a BinaryProtocol message, or null if the data is garbled
+     */
+    public static SOCBinaryProtocol parseDataStr(final String s)
+    {
+        try
+        {
+            return new SOCBinaryProtocol(Integer.parseInt(s));
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Minimum version where this message type is used: 2000 for v2.0.00.
+     * @return Version number, 2000 for JSettlers 2.0.00
+     */
+    public final int getMinimumVersion() { return 2000; }
+
+    /**
+     * @return a human readable form of the message
+     */
+    public String toString()
+    {
+        return "SOCBinaryProtocol:formatVersion=" + formatVersion;
+    }
+
+}
@@ -19,8 +19,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
-
 import soc.game.SOCBoardLarge;  // for javadocs
 
 /**
@@ -70,17 +68,27 @@ public class SOCBoardSpecialEdge extends SOCMessageTemplate2i
      * @return    a SOCBoardSpecialEdge message, or {@code null} if the data is garbled
      */
     public static SOCBoardSpecialEdge parseDataStr(final String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a BOARDSPECIALEDGE message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a SOCBoardSpecialEdge message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCBoardSpecialEdge parseDataStr(final SOCMessageFieldReader fr)
     {
         final String ga; // the game name
         final int edge, seType;  // edge coord, special edge type
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            ga = st.nextToken();
-            edge = Integer.parseInt(st.nextToken());
-            seType = Integer.parseInt(st.nextToken());
+            ga = fr.next();
+            edge = fr.nextInt();
+            seType = fr.nextInt();
         }
         catch (Exception e)
         {
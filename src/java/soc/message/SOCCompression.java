@@ -0,0 +1,126 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.message;
+
+import soc.util.BinaryMessageCodec;  // for javadocs only
+import soc.util.SOCServerFeatures;  // for javadocs only
+
+/**
+ * This message from client asks the server to compress the messages it sends,
+ * as {@link BinaryMessageCodec#DEFLATE_MARKER compressed chunks} of a deflate stream;
+ * the server replies with the same message type.
+ * Compression helps most with the large repetitive messages sent while connecting and joining games,
+ * such as game option info, scenario info, localized strings, and board layouts.
+ *<P>
+ * The client sends this only if the server's {@link SOCVersion} listed the
+ * {@link SOCServerFeatures#FEAT_COMPRESSION} feature, and must be ready to inflate compressed chunks
+ * (with a {@link BinaryMessageCodec.Decoder}) before sending it.
+ * The server replies with the format version it will use, or 0 if it won't compress.
+ * Since each chunk is marked, the client needn't wait for the reply before reading.
+ *<P>
+ * Only messages from server to client are affected; the client never compresses.
+ * Compression can be used with or without {@link SOCBinaryProtocol binary frames}.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCCompression extends SOCMessage
+{
+    private static final long serialVersionUID = 2000L;  // last structural change v2.0.00
+
+    /**
+     * Compression format version requested or accepted, such as {@link BinaryMessageCodec#COMPRESSION_FORMAT_VERSION},
+     * or 0 if server declines
+     */
+    private final int formatVersion;
+
+    /**
+     * Create a Compression message.
+     *
+     * @param fv  Compression format version requested or accepted, or 0 if server declines
+     */
+    public SOCCompression(final int fv)
+    {
+        messageType = COMPRESSION;
+        formatVersion = fv;
+    }
+
+    /**
+     * @return the compression format version requested or accepted, or 0 if server declines
+     */
+    public int getFormatVersion()
+    {
+        return formatVersion;
+    }
+
+    /**
+     * COMPRESSION sep formatVersion
+     *
+     * @return the command String
+     */
+    public String toCmd()
+    {
+        return toCmd(formatVersion);
+    }
+
+    /**
+     * COMPRESSION sep formatVersion
+     *
+     * @param fv  the compression format version
+     * @return the command String
+     */
+    public static String toCmd(final int fv)
+    {
+        return COMPRESSION + sep + fv;
+    }
+
+    /**
+     * Parse the command String into a Compression message
+     *
+     * @param s   the String to parse
+     * @return    a Compression message, or null if the data is garbled
+     */
+    public static SOCCompression parseDataStr(final String s)
+    {
+        try
+        {
+            return new SOCCompression(Integer.parseInt(s));
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Minimum version where this message type is used: 2000 for v2.0.00.
+     * @return Version number, 2000 for JSettlers 2.0.00
+     */
+    public final int getMinimumVersion() { return 2000; }
+
+    /**
+     * @return a human readable form of the message
+     */
+    public String toString()
+    {
+        return "SOCCompression:formatVersion=" + formatVersion;
+    }
+
+}
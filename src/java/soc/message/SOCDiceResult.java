@@ -20,9 +20,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
-
-
 /**
  * This message reports total of what was rolled on the dice.
  * The two individual dice amounts can be reported in a text message.
@@ -89,16 +86,26 @@ public class SOCDiceResult extends SOCMessageTemplate1i
      * @return    a DiceResult message, or null if the data is garbled
      */
     public static SOCDiceResult parseDataStr(String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a DICERESULT message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a DICERESULT message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCDiceResult parseDataStr(final SOCMessageFieldReader fr)
     {
         String ga; // the game name
         int dr; // the dice result
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            ga = st.nextToken();
-            dr = Integer.parseInt(st.nextToken());
+            ga = fr.next();
+            dr = fr.nextInt();
         }
         catch (Exception e)
         {
@@ -20,7 +20,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
 import soc.game.SOCGame;  // for javadoc's use
 
 
@@ -116,16 +115,26 @@ public class SOCGameState extends SOCMessage
      * @return    a GameState message, or null of the data is garbled
      */
     public static SOCGameState parseDataStr(String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a GAMESTATE message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a GAMESTATE message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCGameState parseDataStr(final SOCMessageFieldReader fr)
     {
         String ga;
         int gs;
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            ga = st.nextToken();
-            gs = Integer.parseInt(st.nextToken());
+            ga = fr.next();
+            gs = fr.nextInt();
         }
         catch (Exception e)
         {
@@ -1,7 +1,7 @@
 /**
  * Java Settlers - An online multiplayer version of the game Settlers of Catan
  * Copyright (C) 2003  Robert S. Thomas <thomas@infolab.northwestern.edu>
- * Portions of this file Copyright (C) 2010,2014-2015 Jeremy D Monin <jeremy@nand.net>
+ * Portions of this file Copyright (C) 2010,2014-2016 Jeremy D Monin <jeremy@nand.net>
  *
  * This program is free software; you can redistribute it and/or
  * modify it under the terms of the GNU General Public License
@@ -32,28 +32,57 @@ package soc.message;
  * joins.  So, v2.0.00 sends those strings before this JOINGAMEAUTH message so that the
  * client will have them before showing the message dialog. The strings are sent using
  * {@link SOCLocalizedStrings}.
+ *<P>
+ * In v2.0.00 and newer, the server may also give the client a {@link #getGameHandle() game handle}:
+ * A short number which the client can send instead of the game name in its messages about this game.
+ * See {@link SOCMessage#GAME_HANDLE_MARKER}.
  *
  * @author Robert S Thomas
  */
 public class SOCJoinGameAuth extends SOCMessage
     implements SOCMessageForGame
 {
-    private static final long serialVersionUID = 1111L;  // last structural change v1.1.11
+    private static final long serialVersionUID = 2000L;  // last structural change v2.0.00
+
+    /**
+     * Minimum client version (2.0.00) which understands the {@link #getGameHandle() game handle} field.
+     * @since 2.0.00
+     */
+    public static final int VERSION_FOR_GAME_HANDLE = 2000;
 
     /**
      * Name of game
      */
     private String game;
 
+    /**
+     * The client's handle for this game, or 0 if none; see {@link #getGameHandle()}.
+     * @since 2.0.00
+     */
+    private final int gameHandle;
+
     /**
      * Create a JoinGameAuth message.
      *
      * @param ga  name of game
      */
     public SOCJoinGameAuth(String ga)
+    {
+        this(ga, 0);
+    }
+
+    /**
+     * Create a JoinGameAuth message with a game handle.
+     *
+     * @param ga  name of game
+     * @param gaHandle  the client's handle for this game, or 0 if none; see {@link #getGameHandle()}
+     * @since 2.0.00
+     */
+    public SOCJoinGameAuth(String ga, final int gaHandle)
     {
         messageType = JOINGAMEAUTH;
         game = ga;
+        gameHandle = gaHandle;
     }
 
     /**
@@ -65,13 +94,25 @@ public class SOCJoinGameAuth extends SOCMessage
     }
 
     /**
-     * JOINGAMEAUTH sep game
+     * Get the client's handle for this game, if the server gave one.
+     * Until it leaves the game, the client can send {@link SOCMessage#gameHandleField(int) gameHandleField(handle)}
+     * instead of the game name as the first field of any message; see {@link SOCMessage#GAME_HANDLE_MARKER}.
+     * @return the game handle, or 0 if none
+     * @since 2.0.00
+     */
+    public int getGameHandle()
+    {
+        return gameHandle;
+    }
+
+    /**
+     * JOINGAMEAUTH sep game [sep2 gameHandle]
      *
      * @return the command String
      */
     public String toCmd()
     {
-        return toCmd(game);
+        return toCmd(game, gameHandle);
     }
 
     /**
@@ -85,6 +126,25 @@ public class SOCJoinGameAuth extends SOCMessage
         return JOINGAMEAUTH + sep + ga;
     }
 
+    /**
+     * JOINGAMEAUTH sep game [sep2 gameHandle]
+     *<P>
+     * Clients older than v2.0.00 don't understand the game handle field;
+     * send them {@link #toCmd(String)} instead.
+     *
+     * @param ga  the game name
+     * @param gaHandle  the client's handle for this game, or 0 if none
+     * @return    the command string
+     * @since 2.0.00
+     */
+    public static String toCmd(String ga, final int gaHandle)
+    {
+        if (gaHandle == 0)
+            return JOINGAMEAUTH + sep + ga;
+        else
+            return JOINGAMEAUTH + sep + ga + sep2 + gaHandle;
+    }
+
     /**
      * Parse the command String into a JoinGameAuth message
      *
@@ -93,7 +153,18 @@ public class SOCJoinGameAuth extends SOCMessage
      */
     public static SOCJoinGameAuth parseDataStr(String s)
     {
-        return new SOCJoinGameAuth(s);
+        final int i = s.indexOf(sep2_char);
+        if (i == -1)
+            return new SOCJoinGameAuth(s);
+
+        try
+        {
+            return new SOCJoinGameAuth(s.substring(0, i), Integer.parseInt(s.substring(i + 1)));
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
     }
 
     /**
@@ -102,6 +173,8 @@ public class SOCJoinGameAuth extends SOCMessage
     public String toString()
     {
         String s = "SOCJoinGameAuth:game=" + game;
+        if (gameHandle != 0)
+            s += "|gameHandle=" + gameHandle;
 
         return s;
     }
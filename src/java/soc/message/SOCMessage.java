@@ -23,8 +23,7 @@ import java.io.Serializable;
 
 import java.util.ArrayList;
 import java.util.Enumeration;
-import java.util.NoSuchElementException;
-import java.util.StringTokenizer;
+import java.util.Map;
 
 
 /**
@@ -68,6 +67,9 @@ import java.util.StringTokenizer;
  *      In the switch you will call <tt>yourMessageType.parseDataStr(data)</tt>.
  *      If your message class extends SOCMessageTemplateMs or SOCMessageTemplateMi,
  *      instead call <tt>yourMessageType.parseDataStr(multiData)</tt>.
+ *      If your message is sent often and has only a few fields, it can instead be parsed in place
+ *      without substrings: Add it to the first switch in toMsg, to call
+ *      <tt>yourMessageType.parseDataStr(SOCMessageFieldReader)</tt>; see {@link SOCMessageFieldReader}.
  * <LI> If the message contains a game name, your new class must implement {@link SOCMessageForGame}.
  * <LI> Extend the SOCMessage class or a template class, including the required parseDataStr method.
  *      ({@link SOCRevealFogHex} and {@link SOCSetTurn} are good example subclasses.)
@@ -325,6 +327,18 @@ public abstract class SOCMessage implements Serializable, Cloneable
      */
     public static final int SCENARIOINFO = 1106;    // Scenario info, 20150920, v2.0.00
 
+    /** {@link SOCBinaryProtocol} - Client's request for binary frames from server, or server's reply.
+     *  Sent only if server has {@link soc.util.SOCServerFeatures#FEAT_BINARY_PROTOCOL}.
+     * @since 2.0.00
+     */
+    public static final int BINARYPROTOCOL = 1107;  // Binary frames, 20161016, v2.0.00
+
+    /** {@link SOCCompression} - Client's request for compressed messages from server, or server's reply.
+     *  Sent only if server has {@link soc.util.SOCServerFeatures#FEAT_COMPRESSION}.
+     * @since 2.0.00
+     */
+    public static final int COMPRESSION = 1108;  // Deflate compression, 20161016, v2.0.00
+
 
     /////////////////////////////////////////
     // REQUEST FOR FUTURE MESSAGE NUMBERS: //
@@ -367,6 +381,22 @@ public abstract class SOCMessage implements Serializable, Cloneable
      */
     public static final String GAME_NONE = "\026";  // 0x16 ^V (SYN)
 
+    /**
+     * Game handle marker: A client can send this character followed by a game's handle number,
+     * instead of that game's name, as the first field of a message's data.
+     * The server gives the client a handle for each game it joins, in {@link SOCJoinGameAuth},
+     * and looks up the handle's game when the message arrives, parsing it with that game's name.
+     * See {@link #toCmdWithGameHandle(String, Map)}, {@link #getGameHandle(String)}
+     * and {@link #toMsg(String, String)}.
+     *<P>
+     * No actual game will ever have a name starting with this marker, because the marker fails
+     * {@link #isSingleLineAndSafe(String, boolean) isSingleLineAndSafe(String, false)} by
+     * being a control character.
+     *
+     * @since 2.0.00
+     */
+    public static final char GAME_HANDLE_MARKER = '\021';  // 0x11 ^Q (DC1)
+
     /**
      * An ID identifying the type of message
      */
@@ -551,6 +581,97 @@ public abstract class SOCMessage implements Serializable, Cloneable
         return true;
     }
 
+    /**
+     * Get the game handle field to send in place of a game name: {@link #GAME_HANDLE_MARKER} + {@code handle}.
+     * @param handle  Game handle number from {@link SOCJoinGameAuth#getGameHandle()}; should be &gt; 0
+     * @return  the handle field, such as {@code "\0213"} for handle 3
+     * @since 2.0.00
+     */
+    public static String gameHandleField(final int handle)
+    {
+        return GAME_HANDLE_MARKER + Integer.toString(handle);
+    }
+
+    /**
+     * If a message's first data field is the name of a game which has a handle,
+     * replace the name with that handle's {@link #gameHandleField(int) field} to shorten the message.
+     * Clients call this before sending each message, if the server has given them any game handles.
+     *<P>
+     * This only looks at the first field, not the message type; the server's
+     * {@link #getGameHandle(String)} and {@link #toMsg(String, String)} parse it with the same name,
+     * so the message the server parses is the same as {@code s}.
+     *
+     * @param s  Message string, from {@link #toCmd()}
+     * @param handles  Map from each game name to its handle field; not null
+     * @return  {@code s} with the first field replaced, or {@code s} if the first field isn't a game in {@code handles}
+     * @since 2.0.00
+     */
+    public static String toCmdWithGameHandle(final String s, final Map<String, String> handles)
+    {
+        if (handles.isEmpty())
+            return s;
+
+        final int dataStart = s.indexOf(sep_char) + 1;
+        if (dataStart == 0)
+            return s;
+
+        final int dataEnd = gameFieldEnd(s, dataStart);
+        final String field = handles.get(s.substring(dataStart, dataEnd));
+        if (field == null)
+            return s;
+
+        return s.substring(0, dataStart) + field + s.substring(dataEnd);
+    }
+
+    /**
+     * Find the end of a game name or handle field. Since a game name can't contain separators or control
+     * characters (see {@link #isSingleLineAndSafe(String)}), the field ends at the first of those;
+     * this also works with messages such as {@link SOCGameTextMsg} which use a different separator.
+     * @param s  Message string
+     * @param start  Index of the start of the field
+     * @return  Index just past the end of the field
+     * @since 2.0.00
+     */
+    private static int gameFieldEnd(final String s, final int start)
+    {
+        final int L = s.length();
+        int i = start;
+        if ((i < L) && (s.charAt(i) == GAME_HANDLE_MARKER))
+            ++i;
+        for (; i < L; ++i)
+        {
+            final char c = s.charAt(i);
+            if ((c == sep2_char) || (c == sep_char) || Character.isISOControl(c))
+                break;
+        }
+
+        return i;
+    }
+
+    /**
+     * If a received message's first data field is a game handle field
+     * ({@link #GAME_HANDLE_MARKER} + handle number), get that handle number.
+     * @param s  Message string received from a client
+     * @return  The handle number, or -1 if the first field isn't a game handle field
+     * @see #toCmdWithGameHandle(String, Map)
+     * @since 2.0.00
+     */
+    public static int getGameHandle(final String s)
+    {
+        final int dataStart = s.indexOf(sep_char) + 1;
+        if ((dataStart == 0) || (dataStart >= s.length()) || (s.charAt(dataStart) != GAME_HANDLE_MARKER))
+            return -1;
+
+        try
+        {
+            return SOCMessageFieldReader.parseInt(s, dataStart + 1, gameFieldEnd(s, dataStart));
+        }
+        catch (NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+
     /**
      * Convert a string into a SOCMessage.
      * The string is in the form of "id SEP messagename {SEP2 messagedata}*".
@@ -559,22 +680,126 @@ public abstract class SOCMessage implements Serializable, Cloneable
      * @param s  String to convert
      * @return   converted String to a SOCMessage, or null if the string is garbled,
      *           or is an unknown command id
+     * @see #toMsg(String, String)
      */
     public static SOCMessage toMsg(String s)
+    {
+        return toMsg(s, null);
+    }
+
+    /**
+     * Convert a string received from a client into a SOCMessage, where the client sent
+     * a {@link #getGameHandle(String) game handle} instead of the game name.
+     * The message is parsed as if it had contained {@code gaName}.
+     * Frequent messages which parse their fields in place with a {@link SOCMessageFieldReader}
+     * use {@code gaName} directly; others build their data substring with it in place of the handle,
+     * as they would have taken a substring of the game name.
+     *
+     * @param s  String to convert
+     * @param gaName  Game name for the handle in {@code s}'s first data field,
+     *     or null if {@code s} doesn't have a game handle
+     * @return   converted String to a SOCMessage, or null if the string is garbled,
+     *           or is an unknown command id
+     * @since 2.0.00
+     */
+    public static SOCMessage toMsg(String s, final String gaName)
     {
         try
         {
-            StringTokenizer st = new StringTokenizer(s, sep);
+            /**
+             * Fields are found by index instead of with a StringTokenizer, so that frequently
+             * received messages can parse their data in place with a {@link SOCMessageFieldReader}.
+             * As with StringTokenizer, consecutive {@link #sep_char}s are treated as one.
+             */
+            final int slen = s.length();
 
             /**
              * get the id that identifies the type of message
              */
-            int msgId = Integer.parseInt(st.nextToken());
+            final int idStart = skipSeps(s, 0, slen);
+            int idEnd = s.indexOf(sep_char, idStart);
+            if (idEnd == -1)
+                idEnd = slen;
+            final int msgId = SOCMessageFieldReader.parseInt(s, idStart, idEnd);
+
+            /**
+             * find the data part: dataStart == dataEnd if none
+             */
+            final int dataStart = skipSeps(s, idEnd, slen);
+            int dataEnd = s.indexOf(sep_char, dataStart);
+            if (dataEnd == -1)
+                dataEnd = slen;
+
+            /**
+             * Frequent simple messages: Parse the data fields in place, without substrings.
+             * Their parseDataStr(SOCMessageFieldReader) reads only the data part, not any later {@link #sep} fields.
+             */
+            switch (msgId)
+            {
+            case PUTPIECE:
+                return SOCPutPiece.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case PLAYERELEMENT:
+                return SOCPlayerElement.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case GAMESTATE:
+                return SOCGameState.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case DICERESULT:
+                return SOCDiceResult.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case SETTURN:
+                return SOCSetTurn.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case RESETBOARDAUTH:     // resetboard, 20080217, v1.1.00
+                return SOCResetBoardAuth.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case RESETBOARDVOTEREQUEST:  // resetboard, 20080223, v1.1.00
+                return SOCResetBoardVoteRequest.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case RESETBOARDVOTE:     // resetboard, 20080223, v1.1.00
+                return SOCResetBoardVote.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case SIMPLEREQUEST:     // simple player requests, 20130217, v1.1.18
+                return SOCSimpleRequest.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case SIMPLEACTION:     // simple actions for players, 20130904, v1.1.19
+                return SOCSimpleAction.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case MOVEPIECEREQUEST:  // move piece request, 20111203, v2.0.00
+                return SOCMovePieceRequest.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case MOVEPIECE:         // move piece announcement, 20111203, v2.0.00
+                return SOCMovePiece.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case REMOVEPIECE:       // pirate islands scenario, 20130218, v2.0.00
+                return SOCRemovePiece.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case PICKRESOURCESREQUEST:  // gold hex resources, 20120112, v2.0.00
+                return SOCPickResourcesRequest.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case REVEALFOGHEX:      // fog hexes, 20121108, v2.0.00
+                return SOCRevealFogHex.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case PIECEVALUE:        // cloth villages scenario, 20121115, v2.0.00
+                return SOCPieceValue.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case BOARDSPECIALEDGE:  // board special edges, 20131107, v2.0.00
+                return SOCBoardSpecialEdge.parseDataStr(new SOCMessageFieldReader(s, dataStart, dataEnd, gaName));
+
+            case TIMINGPING:        // robot timing ping, 20111011, v1.1.13
+                if (gaName == null)
+                    return SOCTimingPing.parseDataStr(s.substring(dataStart, dataEnd));
+                break;
+            }
 
             /**
-             * get the rest of the data
+             * get the rest of the data;
+             * if the client sent a game handle, its game name takes the place of that first field
              */
-            String data;
+            final String data = (gaName == null)
+                ? s.substring(dataStart, dataEnd)
+                : gaName + s.substring(gameFieldEnd(s, dataStart), dataEnd);
 
             /**
              * to handle {@link SOCMessageMulti} subclasses -
@@ -600,31 +825,22 @@ public abstract class SOCMessage implements Serializable, Cloneable
              */
             ArrayList<String> multiData = null;
 
-            try
+            int i = skipSeps(s, dataEnd, slen);
+            if (i < slen)
             {
-                data = st.nextToken();
-                if (st.hasMoreTokens())
+                // SOCMessageMulti
+
+                multiData = new ArrayList<String>();
+                multiData.add(data);
+                while (i < slen)
                 {
-                        // SOCMessageMulti
-
-                        int n = st.countTokens();  // remaining (== number of parameters after "data")
-                        multiData = new ArrayList<String>(n + 1);
-                        multiData.add(data);
-                        while (st.hasMoreTokens())
-                        {
-                                try {
-                                        multiData.add(st.nextToken());
-                                } catch (NoSuchElementException e)
-                                {
-                                        multiData.add(null);
-                                }
-                        }
+                    int iEnd = s.indexOf(sep_char, i);
+                    if (iEnd == -1)
+                        iEnd = slen;
+                    multiData.add(s.substring(i, iEnd));
+                    i = skipSeps(s, iEnd, slen);
                 }
             }
-            catch (NoSuchElementException e)
-            {
-                data = "";
-            }
 
             /**
              * convert the data part and create the message
@@ -661,9 +877,6 @@ public abstract class SOCMessage implements Serializable, Cloneable
             case LEAVEALL:
                 return SOCLeaveAll.parseDataStr(data);
 
-            case PUTPIECE:
-                return SOCPutPiece.parseDataStr(data);
-
             case GAMETEXTMSG:
                 return SOCGameTextMsg.parseDataStr(data);
 
@@ -706,21 +919,12 @@ public abstract class SOCMessage implements Serializable, Cloneable
             case ROBOTJOINGAMEREQUEST:
                 return SOCRobotJoinGameRequest.parseDataStr(data);
 
-            case PLAYERELEMENT:
-                return SOCPlayerElement.parseDataStr(data);
-
-            case GAMESTATE:
-                return SOCGameState.parseDataStr(data);
-
             case TURN:
                 return SOCTurn.parseDataStr(data);
 
             case SETUPDONE:
                 return SOCSetupDone.parseDataStr(data);
 
-            case DICERESULT:
-                return SOCDiceResult.parseDataStr(data);
-
             case DISCARDREQUEST:
                 return SOCDiscardRequest.parseDataStr(data);
 
@@ -793,9 +997,6 @@ public abstract class SOCMessage implements Serializable, Cloneable
             case FIRSTPLAYER:
                 return SOCFirstPlayer.parseDataStr(data);
 
-            case SETTURN:
-                return SOCSetTurn.parseDataStr(data);
-
             case ROBOTDISMISS:
                 return SOCRobotDismiss.parseDataStr(data);
 
@@ -853,15 +1054,6 @@ public abstract class SOCMessage implements Serializable, Cloneable
             case RESETBOARDREQUEST:  // resetboard, 20080217, v1.1.00
                 return SOCResetBoardRequest.parseDataStr(data);
 
-            case RESETBOARDAUTH:     // resetboard, 20080217, v1.1.00
-                return SOCResetBoardAuth.parseDataStr(data);
-
-            case RESETBOARDVOTEREQUEST:  // resetboard, 20080223, v1.1.00
-                return SOCResetBoardVoteRequest.parseDataStr(data);
-
-            case RESETBOARDVOTE:     // resetboard, 20080223, v1.1.00
-                return SOCResetBoardVote.parseDataStr(data);
-
             case RESETBOARDREJECT:   // resetboard, 20080223, v1.1.00
                 return SOCResetBoardReject.parseDataStr(data);
 
@@ -898,51 +1090,21 @@ public abstract class SOCMessage implements Serializable, Cloneable
             case DEBUGFREEPLACE:    // debug piece Free Placement, 20110104, v1.1.12
                 return SOCDebugFreePlace.parseDataStr(data);
 
-            case TIMINGPING:        // robot timing ping, 20111011, v1.1.13
-                return SOCTimingPing.parseDataStr(data);
-
-            case SIMPLEREQUEST:     // simple player requests, 20130217, v1.1.18
-                return SOCSimpleRequest.parseDataStr(data);
-
-            case SIMPLEACTION:     // simple actions for players, 20130904, v1.1.19
-                return SOCSimpleAction.parseDataStr(data);
-
             case GAMESERVERTEXT:    // game server text, 20130905; v2.0.00
                 return SOCGameServerText.parseDataStr(data);
 
             case DICERESULTRESOURCES:  // dice roll result resources, 20130920; v2.0.00
                 return SOCDiceResultResources.parseDataStr(multiData);
 
-            case MOVEPIECEREQUEST:  // move piece request, 20111203, v2.0.00
-                return SOCMovePieceRequest.parseDataStr(data);
-
-            case MOVEPIECE:         // move piece announcement, 20111203, v2.0.00
-                return SOCMovePiece.parseDataStr(data);
-
-            case REMOVEPIECE:       // pirate islands scenario, 20130218, v2.0.00
-                return SOCRemovePiece.parseDataStr(data);
-
-            case PICKRESOURCESREQUEST:  // gold hex resources, 20120112, v2.0.00
-                return SOCPickResourcesRequest.parseDataStr(data);
-
             case PICKRESOURCES:     // gold hex resources, 20120112, v2.0.00
                 return SOCPickResources.parseDataStr(data);
 
-            case REVEALFOGHEX:      // fog hexes, 20121108, v2.0.00
-                return SOCRevealFogHex.parseDataStr(data);
-
-            case PIECEVALUE:        // cloth villages scenario, 20121115, v2.0.00
-                return SOCPieceValue.parseDataStr(data);
-
             case LEGALEDGES:        // large sea board, 20121216, v2.0.00
                 return SOCLegalEdges.parseDataStr(data);
 
             case SVPTEXTMSG:        // SVP text messages, 20121221, v2.0.00
                 return SOCSVPTextMessage.parseDataStr(data);
 
-            case BOARDSPECIALEDGE:  // board special edges, 20131107, v2.0.00
-                return SOCBoardSpecialEdge.parseDataStr(data);
-
             case INVENTORYITEMACTION:         // player inventory items, 20131126, v2.0.00
                 return SOCInventoryItemAction.parseDataStr(data);
 
@@ -955,6 +1117,12 @@ public abstract class SOCMessage implements Serializable, Cloneable
             case SCENARIOINFO:         // Scenario info, 20150920, v2.0.00
                 return SOCScenarioInfo.parseDataStr(multiData);
 
+            case BINARYPROTOCOL:       // Binary frames, 20161016, v2.0.00
+                return SOCBinaryProtocol.parseDataStr(data);
+
+            case COMPRESSION:          // Deflate compression, 20161016, v2.0.00
+                return SOCCompression.parseDataStr(data);
+
             default:
                 System.err.println("Unhandled message type in SOCMessage.toMsg: " + msgId);
                 return null;
@@ -968,4 +1136,20 @@ public abstract class SOCMessage implements Serializable, Cloneable
             return null;
         }
     }
+
+    /**
+     * Skip past any {@link #sep_char}s in part of a message string; used by {@link #toMsg(String)}.
+     * @param s  Message string
+     * @param i  Index to start at
+     * @param end  Index just past the end of the part to check, usually {@code s.length()}
+     * @return  Index of the next non-separator character, or {@code end} if none
+     * @since 2.0.00
+     */
+    private static int skipSeps(final String s, int i, final int end)
+    {
+        while ((i < end) && (s.charAt(i) == sep_char))
+            ++i;
+
+        return i;
+    }
 }
@@ -0,0 +1,253 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.message;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Cursor over the {@link SOCMessage#sep2_char sep2}-separated fields of a message's data,
+ * reading them in place from the received String by index.
+ * A lighter replacement for {@code StringTokenizer} in frequently received messages' {@code parseDataStr}:
+ * Integer fields are parsed directly from the String's characters,
+ * without a substring or tokenizer object per field.
+ *<P>
+ * Like {@code StringTokenizer}, consecutive separators are treated as one
+ * and empty fields are skipped. Only the fields between {@code start} and {@code end}
+ * are read; {@link SOCMessage#toMsg(String)} uses that to read the data part of
+ * the whole received message without first copying it to a substring.
+ *<P>
+ * Sample {@code parseDataStr}:
+ *<code><pre>
+ *   public static SOCSetTurn parseDataStr(final SOCMessageFieldReader fr)
+ *   {
+ *       final String ga; // the game name
+ *       final int pn; // the seat number
+ *
+ *       try
+ *       {
+ *           ga = fr.next();
+ *           pn = fr.nextInt();
+ *       }
+ *       catch (Exception e)
+ *       {
+ *           return null;
+ *       }
+ *
+ *       return new SOCSetTurn(ga, pn);
+ *   }
+ *</pre></code>
+ * Each message type's {@code parseDataStr(SOCMessageFieldReader)} is called from {@link SOCMessage#toMsg(String)},
+ * and from that type's {@code parseDataStr(String)} with a reader over the whole String.
+ *<P>
+ * Not thread-safe; each message parse uses its own reader.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public final class SOCMessageFieldReader
+{
+    private final String s;
+
+    /** Index of the next character to read in {@link #s} */
+    private int pos;
+
+    /** Index just past the last character to read in {@link #s} */
+    private final int end;
+
+    /**
+     * If not null, the game name to return from the first {@link #next()} in place of
+     * that field's contents, which is a game handle field; see {@link SOCMessage#GAME_HANDLE_MARKER}.
+     * Cleared by that first call.
+     */
+    private String gameField;
+
+    /**
+     * Create a reader over all of a message's data.
+     * @param s  Data fields to read, separated by {@link SOCMessage#sep2_char}; not null
+     */
+    public SOCMessageFieldReader(final String s)
+    {
+        this(s, 0, s.length());
+    }
+
+    /**
+     * Create a reader over part of a string, such as the data part of a received message.
+     * @param s  String containing data fields separated by {@link SOCMessage#sep2_char}; not null
+     * @param start  Index of the first character to read
+     * @param end  Index just past the last character to read
+     * @throws IndexOutOfBoundsException if {@code start} or {@code end} is outside {@code s},
+     *     or {@code start} &gt; {@code end}
+     */
+    public SOCMessageFieldReader(final String s, final int start, final int end)
+        throws IndexOutOfBoundsException
+    {
+        if ((start < 0) || (end > s.length()) || (start > end))
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end);
+
+        this.s = s;
+        pos = start;
+        this.end = end;
+    }
+
+    /**
+     * Create a reader over the data part of a received message whose first field is a game handle.
+     * The first {@link #next()} skips that field and returns {@code gaName} instead, so the
+     * message is parsed as if it had contained the game's name, without building a new String.
+     * @param s  String containing data fields separated by {@link SOCMessage#sep2_char}; not null
+     * @param start  Index of the first character to read
+     * @param end  Index just past the last character to read
+     * @param gaName  Game name for the handle in the first field, or null to read that field normally
+     * @throws IndexOutOfBoundsException if {@code start} or {@code end} is outside {@code s},
+     *     or {@code start} &gt; {@code end}
+     */
+    public SOCMessageFieldReader(final String s, final int start, final int end, final String gaName)
+        throws IndexOutOfBoundsException
+    {
+        this(s, start, end);
+        gameField = gaName;
+    }
+
+    /** Skip past any separators at the current position. */
+    private void skipSeps()
+    {
+        while ((pos < end) && (s.charAt(pos) == SOCMessage.sep2_char))
+            ++pos;
+    }
+
+    /** Index just past the field starting at the current position. */
+    private int fieldEnd()
+    {
+        int i = pos;
+        while ((i < end) && (s.charAt(i) != SOCMessage.sep2_char))
+            ++i;
+
+        return i;
+    }
+
+    /**
+     * Are there any more fields to read?
+     * @return  true if {@link #next()} or {@link #nextInt()} has a field to read
+     */
+    public boolean hasNext()
+    {
+        skipSeps();
+        return (pos < end);
+    }
+
+    /**
+     * Read the next field as a String.
+     * @return  The next field's contents, not empty
+     * @throws NoSuchElementException if there are no more fields
+     */
+    public String next()
+        throws NoSuchElementException
+    {
+        skipSeps();
+        if (pos >= end)
+            throw new NoSuchElementException();
+
+        final int fStart = pos;
+        pos = fieldEnd();
+
+        if (gameField != null)
+        {
+            final String ga = gameField;
+            gameField = null;
+            return ga;
+        }
+
+        return s.substring(fStart, pos);
+    }
+
+    /**
+     * Read the next field as a base-10 integer, without allocating a substring.
+     * Accepts the same field contents as {@link Integer#parseInt(String)}.
+     * @return  The next field's int value
+     * @throws NoSuchElementException if there are no more fields
+     * @throws NumberFormatException if the field isn't a valid int;
+     *     the reader is still advanced past that field
+     */
+    public int nextInt()
+        throws NoSuchElementException, NumberFormatException
+    {
+        skipSeps();
+        if (pos >= end)
+            throw new NoSuchElementException();
+
+        final int fStart = pos;
+        pos = fieldEnd();
+
+        return parseInt(s, fStart, pos);
+    }
+
+    /**
+     * Parse a base-10 int from part of a string, with the same rules as {@link Integer#parseInt(String)}:
+     * An optional leading {@code '-'} or {@code '+'} sign, then one or more digits, and no other characters.
+     * @param s  String to parse from; not null
+     * @param start  Index of the first character to parse
+     * @param end  Index just past the last character to parse
+     * @return  The int value
+     * @throws NumberFormatException if that part of {@code s} is empty, isn't a number, or is out of range for an int
+     */
+    public static int parseInt(final String s, final int start, final int end)
+        throws NumberFormatException
+    {
+        int i = start;
+        if (i >= end)
+            throw new NumberFormatException("For input string: \"\"");
+
+        // Accumulate negatively, as Integer.parseInt does, so that MIN_VALUE doesn't overflow
+        boolean negative = false;
+        int limit = -Integer.MAX_VALUE;
+        final char c0 = s.charAt(i);
+        if ((c0 == '-') || (c0 == '+'))
+        {
+            if (c0 == '-')
+            {
+                negative = true;
+                limit = Integer.MIN_VALUE;
+            }
+            ++i;
+            if (i >= end)
+                throw numberFormat(s, start, end);
+        }
+
+        final int multmin = limit / 10;
+        int result = 0;
+        for (; i < end; ++i)
+        {
+            final int digit = Character.digit(s.charAt(i), 10);
+            if ((digit < 0) || (result < multmin))
+                throw numberFormat(s, start, end);
+            result *= 10;
+            if (result < limit + digit)
+                throw numberFormat(s, start, end);
+            result -= digit;
+        }
+
+        return negative ? result : -result;
+    }
+
+    private static NumberFormatException numberFormat(final String s, final int start, final int end)
+    {
+        return new NumberFormatException("For input string: \"" + s.substring(start, end) + '"');
+    }
+
+}
@@ -31,22 +31,22 @@ package soc.message;
  * You will have to write parseDataStr, because of its return
  * type and because it's static.
  *<P>
- * Sample implementation:
+ * Sample implementation, reading the fields in place with a {@link SOCMessageFieldReader}
+ * so that {@link SOCMessage#toMsg(String)} can call it without tokenizing the message;
+ * also write a {@code parseDataStr(String)} which calls it with {@code new SOCMessageFieldReader(s)}:
  *<code><pre>
- *   // format of s: LONGESTROAD sep game sep2 seatnumber sep2 coordinates
- *   public static SOCLongestRoad parseDataStr(final String s)
+ *   // format of fields: LONGESTROAD sep game sep2 seatnumber sep2 coordinates
+ *   public static SOCLongestRoad parseDataStr(final SOCMessageFieldReader fr)
  *   {
  *       String ga; // the game name
  *       int pn; // the seat number
  *       int co; // coordinates
  *
- *       StringTokenizer st = new StringTokenizer(s, sep2);
- *
  *       try
  *       {
- *           ga = st.nextToken();
- *           pn = Integer.parseInt(st.nextToken());
- *           co = Integer.parseInt(st.nextToken());
+ *           ga = fr.next();
+ *           pn = fr.nextInt();
+ *           co = fr.nextInt();
  *       }
  *       catch (Exception e)
  *       {
@@ -30,24 +30,24 @@ package soc.message;
  * You will have to write parseDataStr, because of its return
  * type and because it's static.
  *<P>
- * Sample implementation:
+ * Sample implementation, reading the fields in place with a {@link SOCMessageFieldReader}
+ * so that {@link SOCMessage#toMsg(String)} can call it without tokenizing the message;
+ * also write a {@code parseDataStr(String)} which calls it with {@code new SOCMessageFieldReader(s)}:
  *<code><pre>
- *   // format of s: game sep2 hexcoord sep2 hextype sep2 dicenum
- *   public static SOCRevealFogHex parseDataStr(final String s)
+ *   // format of fields: game sep2 hexcoord sep2 hextype sep2 dicenum
+ *   public static SOCRevealFogHex parseDataStr(final SOCMessageFieldReader fr)
  *   {
  *       String ga; // the game name
  *       int hc; // the hex coordinate
  *       int ht; // hex type
  *       int dn; // dice number
  *
- *       StringTokenizer st = new StringTokenizer(s, sep2);
- *
  *       try
  *       {
- *           ga = st.nextToken();
- *           hc = Integer.parseInt(st.nextToken());
- *           ht = Integer.parseInt(st.nextToken());
- *           dn = Integer.parseInt(st.nextToken());
+ *           ga = fr.next();
+ *           hc = fr.nextInt();
+ *           ht = fr.nextInt();
+ *           dn = fr.nextInt();
  *       }
  *       catch (Exception e)
  *       {
@@ -30,10 +30,12 @@ package soc.message;
  * You will have to write parseDataStr, because of its return
  * type and because it's static.
  *<P>
- * Sample implementation:
+ * Sample implementation, reading the fields in place with a {@link SOCMessageFieldReader}
+ * so that {@link SOCMessage#toMsg(String)} can call it without tokenizing the message;
+ * also write a {@code parseDataStr(String)} which calls it with {@code new SOCMessageFieldReader(s)}:
  *<code><pre>
- *   // format of s: MOVEPIECE sep game sep2 playerNumber sep2 pieceType sep2 coordFrom sep2 coordTo
- *   public static SOCMovePiece parseDataStr(final String s)
+ *   // format of fields: MOVEPIECE sep game sep2 playerNumber sep2 pieceType sep2 coordFrom sep2 coordTo
+ *   public static SOCMovePiece parseDataStr(final SOCMessageFieldReader fr)
  *   {
  *       String ga; // the game name
  *       int pn; // the player number
@@ -41,15 +43,13 @@ package soc.message;
  *       int cf; // coordinates from
  *       int ct; // coordinates to
  *
- *       StringTokenizer st = new StringTokenizer(s, sep2);
- *
  *       try
  *       {
- *           ga = st.nextToken();
- *           pn = Integer.parseInt(st.nextToken());
- *           pt = Integer.parseInt(st.nextToken());
- *           cf = Integer.parseInt(st.nextToken());
- *           ct = Integer.parseInt(st.nextToken());
+ *           ga = fr.next();
+ *           pn = fr.nextInt();
+ *           pt = fr.nextInt();
+ *           cf = fr.nextInt();
+ *           ct = fr.nextInt();
  *       }
  *       catch (Exception e)
  *       {
@@ -19,8 +19,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
-
 /**
  * This server-broadcast message announces a player
  * is moving a piece that's already on the board, to a new location.
@@ -104,6 +102,18 @@ public class SOCMovePiece extends SOCMessageTemplate4i
      * @return    a SOCMovePiece message, or null if the data is garbled
      */
     public static SOCMovePiece parseDataStr(String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a MOVEPIECE message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a MOVEPIECE message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCMovePiece parseDataStr(final SOCMessageFieldReader fr)
     {
         String ga; // the game name
         int pn;    // the player number
@@ -111,15 +121,13 @@ public class SOCMovePiece extends SOCMessageTemplate4i
         int fc;    // 'from' coordinate
         int tc;    // 'to' coordinate
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            ga = st.nextToken();
-            pn = Integer.parseInt(st.nextToken());
-            pc = Integer.parseInt(st.nextToken());
-            fc = Integer.parseInt(st.nextToken());
-            tc = Integer.parseInt(st.nextToken());
+            ga = fr.next();
+            pn = fr.nextInt();
+            pc = fr.nextInt();
+            fc = fr.nextInt();
+            tc = fr.nextInt();
         }
         catch (Exception e)
         {
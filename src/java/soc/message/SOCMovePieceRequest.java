@@ -19,8 +19,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
-
 /**
  * This client-to-server message requests moving a piece
  * that's already on the board, to a new location.
@@ -103,6 +101,18 @@ public class SOCMovePieceRequest extends SOCMessageTemplate4i
      * @return    a SOCMovePieceRequest message, or null if the data is garbled
      */
     public static SOCMovePieceRequest parseDataStr(String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a MOVEPIECEREQUEST message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a MOVEPIECEREQUEST message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCMovePieceRequest parseDataStr(final SOCMessageFieldReader fr)
     {
         String ga; // the game name
         int pn;    // the player number
@@ -110,15 +120,13 @@ public class SOCMovePieceRequest extends SOCMessageTemplate4i
         int fc;    // 'from' coordinate
         int tc;    // 'to' coordinate
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            ga = st.nextToken();
-            pn = Integer.parseInt(st.nextToken());
-            pc = Integer.parseInt(st.nextToken());
-            fc = Integer.parseInt(st.nextToken());
-            tc = Integer.parseInt(st.nextToken());
+            ga = fr.next();
+            pn = fr.nextInt();
+            pc = fr.nextInt();
+            fc = fr.nextInt();
+            tc = fr.nextInt();
         }
         catch (Exception e)
         {
@@ -19,8 +19,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
-
 /**
  * This message from server to a client informs the
  * client's player that in a game they're playing,
@@ -65,16 +63,26 @@ public class SOCPickResourcesRequest extends SOCMessageTemplate1i
      * @return    a SOCPickResourcesRequest message, or null if the data is garbled
      */
     public static SOCPickResourcesRequest parseDataStr(String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a PICKRESOURCESREQUEST message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a PICKRESOURCESREQUEST message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCPickResourcesRequest parseDataStr(final SOCMessageFieldReader fr)
     {
         final String ga; // the game name
         final int numRes; // the number of resources
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            ga = st.nextToken();
-            numRes = Integer.parseInt(st.nextToken());
+            ga = fr.next();
+            numRes = fr.nextInt();
         }
         catch (Exception e)
         {
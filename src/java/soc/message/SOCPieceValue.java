@@ -19,8 +19,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
-
 /**
  * This message from server updates the value(s) of a piece on the board.
  *
@@ -74,20 +72,30 @@ public class SOCPieceValue extends SOCMessageTemplate3i
      * @return    a SOCPieceValue message, or null if parsing errors
      */
     public static SOCPieceValue parseDataStr(final String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a PIECEVALUE message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a SOCPieceValue message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCPieceValue parseDataStr(final SOCMessageFieldReader fr)
     {
         String ga; // the game name
         int co;  // the piece coordinate
         int pv1; // value field 1
         int pv2; // value field 2
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            ga = st.nextToken();
-            co = Integer.parseInt(st.nextToken());
-            pv1 = Integer.parseInt(st.nextToken());
-            pv2 = Integer.parseInt(st.nextToken());
+            ga = fr.next();
+            co = fr.nextInt();
+            pv1 = fr.nextInt();
+            pv2 = fr.nextInt();
         }
         catch (Exception e)
         {
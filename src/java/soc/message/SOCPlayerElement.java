@@ -20,9 +20,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
-
-
 /**
  * This message conveys one part of the player's status, such as their number of
  * settlements remaining.
@@ -284,6 +281,18 @@ public class SOCPlayerElement extends SOCMessage
      * @return    a PlayerElement message, or null of the data is garbled
      */
     public static SOCPlayerElement parseDataStr(String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a PLAYERELEMENT message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a PLAYERELEMENT message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCPlayerElement parseDataStr(final SOCMessageFieldReader fr)
     {
         String ga;
         int pn;
@@ -291,15 +300,13 @@ public class SOCPlayerElement extends SOCMessage
         int et;
         int va;
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            ga = st.nextToken();
-            pn = Integer.parseInt(st.nextToken());
-            ac = Integer.parseInt(st.nextToken());
-            et = Integer.parseInt(st.nextToken());
-            va = Integer.parseInt(st.nextToken());
+            ga = fr.next();
+            pn = fr.nextInt();
+            ac = fr.nextInt();
+            et = fr.nextInt();
+            va = fr.nextInt();
         }
         catch (Exception e)
         {
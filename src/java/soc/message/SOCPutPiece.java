@@ -20,8 +20,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
-
 /**
  * This message means that a player is asking to place, or has placed, a piece on the board.
  * Also used when joining a new game or a game in progress, to send the game state so far.
@@ -142,20 +140,30 @@ public class SOCPutPiece extends SOCMessage
      * @return    a PUTPIECE message, or null of the data is garbled
      */
     public static SOCPutPiece parseDataStr(String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a PUTPIECE message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a PUTPIECE message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCPutPiece parseDataStr(final SOCMessageFieldReader fr)
     {
         String na; // name of the game
         int pn; // player number
         int pt; // type of piece
         int co; // coordinates
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            na = st.nextToken();
-            pn = Integer.parseInt(st.nextToken());
-            pt = Integer.parseInt(st.nextToken());
-            co = Integer.parseInt(st.nextToken());
+            na = fr.next();
+            pn = fr.nextInt();
+            pt = fr.nextInt();
+            co = fr.nextInt();
         }
         catch (Exception e)
         {
@@ -19,8 +19,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
-
 import soc.game.SOCPlayingPiece;
 
 /**
@@ -88,20 +86,30 @@ public class SOCRemovePiece extends SOCMessageTemplate3i
      * @return    a SOCRemovePiece message, or null if parsing errors
      */
     public static SOCRemovePiece parseDataStr(String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a REMOVEPIECE message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a SOCRemovePiece message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCRemovePiece parseDataStr(final SOCMessageFieldReader fr)
     {
         final String ga; // the game name
         final int pn; // player number
         final int pt; // type of piece
         final int co; // coordinates
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            ga = st.nextToken();
-            pn = Integer.parseInt(st.nextToken());
-            pt = Integer.parseInt(st.nextToken());
-            co = Integer.parseInt(st.nextToken());
+            ga = fr.next();
+            pn = fr.nextInt();
+            pt = fr.nextInt();
+            co = fr.nextInt();
         }
         catch (Exception e)
         {
@@ -19,8 +19,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
-
 /**
  * This message from server informs the client that a game they're playing
  * has been "reset" to a new game (with same name and players, new layout),
@@ -79,18 +77,28 @@ public class SOCResetBoardAuth extends SOCMessageTemplate2i
      * @return    a SOCResetBoardAuth message, or null if the data is garbled
      */
     public static SOCResetBoardAuth parseDataStr(String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a RESETBOARDAUTH message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a RESETBOARDAUTH message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCResetBoardAuth parseDataStr(final SOCMessageFieldReader fr)
     {
         String ga;   // the game name
         int joinpn;  // the player number to join at
         int reqpn;   // the requester player number
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            ga = st.nextToken();
-            joinpn = Integer.parseInt(st.nextToken());
-            reqpn = Integer.parseInt(st.nextToken());
+            ga = fr.next();
+            joinpn = fr.nextInt();
+            reqpn = fr.nextInt();
         }
         catch (Exception e)
         {
@@ -19,8 +19,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
-
 /**
  * This bi-directional message gives the client's vote on a "board reset",
  * which was requested by another player in that game.
@@ -91,18 +89,28 @@ public class SOCResetBoardVote extends SOCMessageTemplate2i
      * @return    a SOCResetBoardVote message, or null if the data is garbled
      */
     public static SOCResetBoardVote parseDataStr(String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a RESETBOARDVOTE message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a RESETBOARDVOTE message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCResetBoardVote parseDataStr(final SOCMessageFieldReader fr)
     {
         String ga; // the game name
         int pn;    // the voter's player number
         int vy;    // vote, 1 or 0
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            ga = st.nextToken();
-            pn = Integer.parseInt(st.nextToken());
-            vy = Integer.parseInt(st.nextToken());
+            ga = fr.next();
+            pn = fr.nextInt();
+            vy = fr.nextInt();
         }
         catch (Exception e)
         {
@@ -19,8 +19,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
-
 /**
  * This message from server informs the client that in a game they're playing,
  * another player requests a "board reset" (new game with same name and players, new layout),
@@ -73,16 +71,26 @@ public class SOCResetBoardVoteRequest extends SOCMessageTemplate1i
      * @return    a SOCResetBoardVoteRequest message, or null if the data is garbled
      */
     public static SOCResetBoardVoteRequest parseDataStr(String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a RESETBOARDVOTEREQUEST message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a RESETBOARDVOTEREQUEST message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCResetBoardVoteRequest parseDataStr(final SOCMessageFieldReader fr)
     {
         String ga; // the game name
         int reqpn; // the requester player number
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            ga = st.nextToken();
-            reqpn = Integer.parseInt(st.nextToken());
+            ga = fr.next();
+            reqpn = fr.nextInt();
         }
         catch (Exception e)
         {
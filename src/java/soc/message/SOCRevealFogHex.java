@@ -19,8 +19,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
-
 import soc.game.SOCBoard;  // for javadocs only
 
 /**
@@ -75,20 +73,30 @@ public class SOCRevealFogHex extends SOCMessageTemplate3i
      * @return    a SOCRevealFogHex message, or null if parsing errors
      */
     public static SOCRevealFogHex parseDataStr(String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a REVEALFOGHEX message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a SOCRevealFogHex message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCRevealFogHex parseDataStr(final SOCMessageFieldReader fr)
     {
         String ga; // the game name
         int hc; // the hex coordinate
         int ht; // hex type
         int dn; // dice number
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            ga = st.nextToken();
-            hc = Integer.parseInt(st.nextToken());
-            ht = Integer.parseInt(st.nextToken());
-            dn = Integer.parseInt(st.nextToken());
+            ga = fr.next();
+            hc = fr.nextInt();
+            ht = fr.nextInt();
+            dn = fr.nextInt();
         }
         catch (Exception e)
         {
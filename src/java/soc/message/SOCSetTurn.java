@@ -20,9 +20,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
-
-
 /**
  * This message from server to client says whose turn it is.
  * Only the game's current player number should change; no other
@@ -77,16 +74,26 @@ public class SOCSetTurn extends SOCMessageTemplate1i
      * @return    a StartGame message, or null if the data is garbled
      */
     public static SOCSetTurn parseDataStr(String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a SETTURN message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a SETTURN message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCSetTurn parseDataStr(final SOCMessageFieldReader fr)
     {
         String ga; // the game name
         int pn; // the seat number
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            ga = st.nextToken();
-            pn = Integer.parseInt(st.nextToken());
+            ga = fr.next();
+            pn = fr.nextInt();
         }
         catch (Exception e)
         {
@@ -19,8 +19,6 @@
  **/
 package soc.message;
 
-import java.util.StringTokenizer;
-
 import soc.game.SOCGameOption;  // solely for javadocs
 
 /**
@@ -230,6 +228,18 @@ public class SOCSimpleAction extends SOCMessageTemplate4i
      * @return    a SOCSimpleAction message, or {@code null} if the data is garbled
      */
     public static SOCSimpleAction parseDataStr(final String s)
+    {
+        return parseDataStr(new SOCMessageFieldReader(s));
+    }
+
+    /**
+     * Parse the command fields into a SIMPLEACTION message.
+     *
+     * @param fr  Reader over the message data fields
+     * @return    a SOCSimpleAction message, or null if the data is garbled
+     * @since 2.0.00
+     */
+    public static SOCSimpleAction parseDataStr(final SOCMessageFieldReader fr)
     {
         final String ga; // the game name
         final int pn;    // the player number
@@ -237,15 +247,13 @@ public class SOCSimpleAction extends SOCMessageTemplate4i
         final int v1;    // optional value1
         final int v2;    // optional value2
 
-        StringTokenizer st = new StringTokenizer(s, sep2);
-
         try
         {
-            ga = st.nextToken();
-            pn = Integer.parseInt(st.nextToken());
-            at = Integer.parseInt(st.nextToken());
-            v1 = Integer.parseInt(st.nextToken());
-            v2 = Integer.parseInt(st.nextToken());
+            ga = fr.next();
+            pn = fr.nextInt();
+            at = fr.nextInt();
+            v1 = fr.nextInt();
+            v2 = fr.nextInt();
         }
         catch (Exception e)
         {
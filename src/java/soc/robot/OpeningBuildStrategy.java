@@ -602,7 +602,7 @@ public class OpeningBuildStrategy {
                 Hashtable<Integer,Integer> allNodes = new Hashtable<Integer,Integer>();
 
                 {
-                    Iterator<Integer> psi = ourPlayerData.getPotentialSettlements().iterator();
+                    Iterator<Integer> psi = ourPlayerData.getPotentialSettlementsSet().iterator();
                     while (psi.hasNext())
                         allNodes.put(psi.next(), Integer.valueOf(0));
                     // log.debug("-- potential settlement at " + Integer.toHexString(next));
@@ -646,7 +646,7 @@ public class OpeningBuildStrategy {
                  */
                 Vector<Integer> psList = new Vector<Integer>();
 
-                psList.addAll(ourPlayerData.getPotentialSettlements());
+                psList.addAll(ourPlayerData.getPotentialSettlementsSet());
                 // log.debug("- potential settlement at " + Integer.toHexString(j));
 
                 dummy.setPotentialAndLegalSettlements(psList, false, null);
@@ -1030,6 +1030,7 @@ public class OpeningBuildStrategy {
         final int maxScore = (player != null) ? 80 : 40;
 
         int oldScore;
+        final int[] hexes = new int[3];
         Enumeration<Integer> nodesEnum = nodes.keys();
 
         while (nodesEnum.hasMoreElements())
@@ -1040,11 +1041,13 @@ public class OpeningBuildStrategy {
             oldScore = nodes.get(node).intValue();
 
             int score = 0;
-            Enumeration<Integer> hexesEnum = board.getAdjacentHexesToNode(node.intValue()).elements();
+            board.getAdjacentHexesToNode_arr(node.intValue(), hexes);
 
-            while (hexesEnum.hasMoreElements())
+            for (int hi = 0; hi < 3; ++hi)
             {
-                final int hex = hexesEnum.nextElement().intValue();
+                final int hex = hexes[hi];
+                if (hex == -9)
+                    continue;
                 final int number = board.getNumberOnHexFromCoord(hex);
                 score += numRating[number];
 
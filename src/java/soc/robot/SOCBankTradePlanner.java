@@ -0,0 +1,575 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+import java.util.Arrays;
+
+import soc.game.SOCBoard;
+import soc.game.SOCPlayer;
+import soc.game.SOCPlayingPiece;
+import soc.game.SOCResourceConstants;
+import soc.game.SOCResourceSet;
+
+/**
+ * Plans a sequence of bank and port trades that lets a player build the most,
+ * for {@link SOCRobotBrain#tradeStuff()}. Replaces that method's tree of {@code SOCTradeTree} nodes.
+ *<P>
+ * Each state searched is the player's resources packed into one int key, {@link #BITS_PER_RESOURCE} bits
+ * per type, so a trade is one subtraction and one addition. The search is best-first:
+ * States which {@link #score(int, int) score} highest, then those reached with the fewest trades,
+ * are expanded first. It stops when no unexpanded state could beat the best score found,
+ * or after {@link #getMaxNodes()} states.
+ *<P>
+ * The node arrays, heap and visited-state hash set are kept between calls, so a planner
+ * allocates nothing after the first search. Not thread-safe; each brain has its own.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCBankTradePlanner
+{
+    /** Bits per resource type in a packed key; see {@link #packResources(SOCResourceSet)}. */
+    public static final int BITS_PER_RESOURCE = 6;
+
+    /** Largest amount of one resource type that fits in a packed key. */
+    public static final int MAX_AMOUNT = (1 << BITS_PER_RESOURCE) - 1;
+
+    /** {@link #getScoringFlags(SOCPlayer)} flag: Player can build a settlement. */
+    public static final int SCORE_SETTLEMENT = 0x01;
+
+    /** {@link #getScoringFlags(SOCPlayer)} flag: Player can build a road. */
+    public static final int SCORE_ROAD = 0x02;
+
+    /** {@link #getScoringFlags(SOCPlayer)} flag: Player can build a city. */
+    public static final int SCORE_CITY = 0x04;
+
+    /** Default maximum number of states to search; see {@link #setMaxNodes(int)}. */
+    public static final int MAX_NODES_DEFAULT = 4096;
+
+    /** Maximum number of states per search */
+    private int maxNodes;
+
+    /** Packed resources of each node; node 0 is the starting state. Length is {@link #maxNodes}. */
+    private int[] nodeKey;
+
+    /** Parent index of each node, or -1 for the root */
+    private int[] nodeParent;
+
+    /** Number of trades from the root to each node */
+    private int[] nodeDepth;
+
+    /** {@link #score(int, int)} of each node */
+    private int[] nodeScore;
+
+    /** Trade made to reach each node from its parent: give type &lt;&lt; 4 | get type */
+    private int[] nodeTrade;
+
+    /** Number of nodes used in the current search */
+    private int nodeCount;
+
+    /** Heap of unexpanded node indexes, best first; see {@link #isBetter(int, int)} */
+    private int[] heap;
+
+    /** Number of nodes in {@link #heap} */
+    private int heapSize;
+
+    /**
+     * Open-addressed hash set of packed keys seen in the current search.
+     * A slot is in use only if its {@link #visitedGen} is the current {@link #gen},
+     * so a new search doesn't need to clear the table.
+     */
+    private int[] visitedKey;
+
+    /** Search generation of each {@link #visitedKey} slot */
+    private int[] visitedGen;
+
+    /** Current search generation number, incremented by each search */
+    private int gen;
+
+    /** Trade ratio for each resource type in the current search, indexed {@code [1..5]} */
+    private final int[] ratios = new int[SOCResourceConstants.WOOD + 1];
+
+    /** Best node found by the last search */
+    private int bestNode;
+
+    /** Number of nodes expanded by the last search, for benchmarks */
+    private int nodesExpanded;
+
+    /** True if the last search stopped at {@link #maxNodes}; see {@link #wasCutOff()} */
+    private boolean cutOff;
+
+    /** Trades from root to {@link #bestNode}, found by {@link #plan(int, int[], int)}; same format as {@link #nodeTrade} */
+    private int[] path;
+
+    /** Number of trades in {@link #path} */
+    private int pathLen;
+
+    /**
+     * Create a planner which searches at most {@link #MAX_NODES_DEFAULT} states.
+     */
+    public SOCBankTradePlanner()
+    {
+        setMaxNodes(MAX_NODES_DEFAULT);
+    }
+
+    /**
+     * Get the maximum number of states in each search.
+     * @return  the maximum, default {@link #MAX_NODES_DEFAULT}
+     */
+    public int getMaxNodes()
+    {
+        return maxNodes;
+    }
+
+    /**
+     * Set the maximum number of states in each search, and allocate space for them.
+     * Robots' usual hands need fewer than 100 states; the default leaves room for large hands.
+     * @param max  Maximum number of states, at least 1
+     * @throws IllegalArgumentException if {@code max} &lt; 1
+     */
+    public void setMaxNodes(final int max)
+        throws IllegalArgumentException
+    {
+        if (max < 1)
+            throw new IllegalArgumentException("max: " + max);
+
+        maxNodes = max;
+        nodeKey = new int[max];
+        nodeParent = new int[max];
+        nodeDepth = new int[max];
+        nodeScore = new int[max];
+        nodeTrade = new int[max];
+        heap = new int[max];
+        path = new int[max];
+
+        int tableSize = 16;
+        while (tableSize < 2 * max)
+            tableSize <<= 1;
+        visitedKey = new int[tableSize];
+        visitedGen = new int[tableSize];
+        gen = 0;
+        nodeCount = 0;
+        pathLen = 0;
+    }
+
+    /**
+     * Pack a resource set's known resources into a key for {@link #plan(int, int[], int)}.
+     * @param rs  Resource set
+     * @return  the packed key, or -1 if any type's amount is more than {@link #MAX_AMOUNT}
+     */
+    public static int packResources(final SOCResourceSet rs)
+    {
+        int key = 0;
+        for (int rtype = SOCResourceConstants.CLAY; rtype <= SOCResourceConstants.WOOD; ++rtype)
+        {
+            final int amt = rs.getAmount(rtype);
+            if (amt > MAX_AMOUNT)
+                return -1;
+            key |= amt << shift(rtype);
+        }
+
+        return key;
+    }
+
+    /**
+     * Get the amount of one resource type from a packed key.
+     * @param key  Key from {@link #packResources(SOCResourceSet)}
+     * @param rtype  Resource type, {@link SOCResourceConstants#CLAY} to {@link SOCResourceConstants#WOOD}
+     * @return  the amount of {@code rtype}
+     */
+    public static int getAmount(final int key, final int rtype)
+    {
+        return (key >>> shift(rtype)) & MAX_AMOUNT;
+    }
+
+    /** Bit position of a resource type in a packed key */
+    private static int shift(final int rtype)
+    {
+        return (rtype - SOCResourceConstants.CLAY) * BITS_PER_RESOURCE;
+    }
+
+    /**
+     * Fill in a player's bank or port trade ratio for each resource type:
+     * 2 for a 2:1 port of that type, otherwise 3 if they have a 3:1 port, otherwise 4.
+     * @param pl  Player
+     * @param ratios  Array to fill, indexed {@code [1..5]}
+     *     ({@link SOCResourceConstants#CLAY} to {@link SOCResourceConstants#WOOD})
+     */
+    public static void getTradeRatios(final SOCPlayer pl, final int[] ratios)
+    {
+        final boolean hasMisc = pl.getPortFlag(SOCBoard.MISC_PORT);
+        for (int rtype = SOCResourceConstants.CLAY; rtype <= SOCResourceConstants.WOOD; ++rtype)
+            ratios[rtype] = (pl.getPortFlag(rtype)) ? 2 : (hasMisc) ? 3 : 4;
+    }
+
+    /**
+     * Which pieces does a player have left and a place to build, for {@link #score(int, int)}?
+     * @param pl  Player
+     * @return  {@link #SCORE_SETTLEMENT}, {@link #SCORE_ROAD} and {@link #SCORE_CITY} flags, or 0
+     */
+    public static int getScoringFlags(final SOCPlayer pl)
+    {
+        int flags = 0;
+        if ((pl.getNumPieces(SOCPlayingPiece.SETTLEMENT) >= 1) && pl.hasPotentialSettlement())
+            flags |= SCORE_SETTLEMENT;
+        if ((pl.getNumPieces(SOCPlayingPiece.ROAD) >= 1) && pl.hasPotentialRoad())
+            flags |= SCORE_ROAD;
+        if ((pl.getNumPieces(SOCPlayingPiece.CITY) >= 1) && pl.hasPotentialCity())
+            flags |= SCORE_CITY;
+
+        return flags;
+    }
+
+    /**
+     * Score a trade outcome by how much could be built with it: 2 points per settlement,
+     * then 1 per road, then 2 per city, each only if its flag is set.
+     * This is the scoring used by {@link SOCRobotBrain#scoreTradeOutcome(SOCResourceSet)}.
+     * @param key  Packed resources from {@link #packResources(SOCResourceSet)}
+     * @param flags  Scoring flags from {@link #getScoringFlags(SOCPlayer)}
+     * @return  the score, 0 or higher
+     */
+    public static int score(final int key, final int flags)
+    {
+        return score
+            (getAmount(key, SOCResourceConstants.CLAY), getAmount(key, SOCResourceConstants.ORE),
+             getAmount(key, SOCResourceConstants.SHEEP), getAmount(key, SOCResourceConstants.WHEAT),
+             getAmount(key, SOCResourceConstants.WOOD), flags);
+    }
+
+    /**
+     * Score a set of resource amounts; see {@link #score(int, int)}.
+     * @param clay  Amount of clay
+     * @param ore   Amount of ore
+     * @param sheep  Amount of sheep
+     * @param wheat  Amount of wheat
+     * @param wood  Amount of wood
+     * @param flags  Scoring flags from {@link #getScoringFlags(SOCPlayer)}
+     * @return  the score, 0 or higher
+     */
+    public static int score(int clay, final int ore, final int sheep, int wheat, int wood, final int flags)
+    {
+        int score = 0;
+
+        if ((flags & SCORE_SETTLEMENT) != 0)
+        {
+            final int n = Math.min(Math.min(clay, sheep), Math.min(wheat, wood));
+            if (n > 0)
+            {
+                score += 2 * n;
+                clay -= n;
+                wheat -= n;
+                wood -= n;
+            }
+        }
+
+        if ((flags & SCORE_ROAD) != 0)
+            score += Math.min(clay, wood);
+
+        if ((flags & SCORE_CITY) != 0)
+            score += 2 * Math.min(ore / 3, wheat / 2);
+
+        return score;
+    }
+
+    /** Total resources in a packed key */
+    private static int total(final int key)
+    {
+        int total = 0;
+        for (int rtype = SOCResourceConstants.CLAY; rtype <= SOCResourceConstants.WOOD; ++rtype)
+            total += getAmount(key, rtype);
+
+        return total;
+    }
+
+    /**
+     * Highest score possible from {@code total} resources after any trades, since each trade
+     * only lowers the total: Roads and settlements are 1 point per 2 resources, cities less.
+     */
+    private static int maxScore(final int total)
+    {
+        return total / 2;
+    }
+
+    /**
+     * Plan the bank and port trades which would let this player build the most.
+     * @param pl  Player whose resources, ports and potential pieces to plan for
+     * @return  true if trading would give a better {@link #score(int, int)} than the player's current resources;
+     *     call {@link #getTradeCount()} and {@link #getTrade(int, SOCResourceSet, SOCResourceSet)}
+     *     for the trades to make
+     */
+    public boolean plan(final SOCPlayer pl)
+    {
+        final int key = packResources(pl.getResources());
+        if (key == -1)
+        {
+            pathLen = 0;
+            return false;
+        }
+
+        getTradeRatios(pl, ratios);
+
+        return plan(key, ratios, getScoringFlags(pl));
+    }
+
+    /**
+     * Plan the bank and port trades which give the best {@link #score(int, int)} from a set of resources.
+     * Ties go to the outcome with the fewest trades; if no trades improve the score, plans no trades.
+     * @param key  Starting resources, from {@link #packResources(SOCResourceSet)}
+     * @param tradeRatios  Trade ratio for each resource type, indexed {@code [1..5]};
+     *     see {@link #getTradeRatios(SOCPlayer, int[])}
+     * @param flags  Scoring flags from {@link #getScoringFlags(SOCPlayer)}
+     * @return  true if trading would improve the score; call {@link #getTradeCount()}
+     *     and {@link #getTrade(int, SOCResourceSet, SOCResourceSet)} for the trades to make
+     * @throws IllegalArgumentException if {@code key} &lt; 0 or any ratio &lt; 2
+     */
+    public boolean plan(final int key, final int[] tradeRatios, final int flags)
+        throws IllegalArgumentException
+    {
+        if (key < 0)
+            throw new IllegalArgumentException("key: " + key);
+        for (int rtype = SOCResourceConstants.CLAY; rtype <= SOCResourceConstants.WOOD; ++rtype)
+        {
+            // ratio 1 or less would let the search trade back and forth forever
+            if (tradeRatios[rtype] < 2)
+                throw new IllegalArgumentException("ratio " + rtype + ": " + tradeRatios[rtype]);
+            ratios[rtype] = tradeRatios[rtype];
+        }
+
+        ++gen;
+        if (gen == 0)
+        {
+            // wrapped around after 4 billion searches: Reset the table
+            Arrays.fill(visitedGen, 0);
+            gen = 1;
+        }
+        nodeCount = 0;
+        heapSize = 0;
+        nodesExpanded = 0;
+        cutOff = false;
+        pathLen = 0;
+
+        bestNode = addNode(key, -1, 0, flags);
+        visit(key);
+        if (flags == 0)
+            return false;
+
+        final int bestPossible = maxScore(total(key));
+        heapPush(bestNode);
+
+        search:
+        while ((heapSize > 0) && (nodeScore[bestNode] < bestPossible))
+        {
+            final int n = heapPop();
+            final int nKey = nodeKey[n];
+            final int nTotal = total(nKey);
+
+            ++nodesExpanded;
+            for (int give = SOCResourceConstants.CLAY; give <= SOCResourceConstants.WOOD; ++give)
+            {
+                final int ratio = ratios[give];
+                if ((getAmount(nKey, give) < ratio)
+                    || (nodeScore[bestNode] >= maxScore(nTotal - ratio + 1)))
+                    continue;  // can't trade, or no outcome from this trade could beat best
+
+                final int gaveKey = nKey - (ratio << shift(give));
+                for (int get = SOCResourceConstants.CLAY; get <= SOCResourceConstants.WOOD; ++get)
+                {
+                    if ((get == give) || (getAmount(gaveKey, get) == MAX_AMOUNT))
+                        continue;
+
+                    final int cKey = gaveKey + (1 << shift(get));
+                    if (! visit(cKey))
+                        continue;
+                    if (nodeCount == maxNodes)
+                    {
+                        cutOff = true;
+                        break search;
+                    }
+
+                    final int c = addNode(cKey, n, (give << 4) | get, flags);
+                    if (isBetter(c, bestNode))
+                        bestNode = c;
+                    heapPush(c);
+                }
+            }
+        }
+
+        if (bestNode == 0)
+            return false;
+
+        // Walk back from best to root, to list trades in order from root
+        pathLen = nodeDepth[bestNode];
+        for (int n = bestNode, i = pathLen - 1; n > 0; n = nodeParent[n], --i)
+            path[i] = nodeTrade[n];
+
+        return true;
+    }
+
+    /**
+     * Add a node to the current search.
+     * @param key  Packed resources
+     * @param parent  Parent node index, or -1 for root
+     * @param trade  Trade from parent, as in {@link #nodeTrade}, or 0 for root
+     * @param flags  Scoring flags
+     * @return  the new node's index
+     */
+    private int addNode(final int key, final int parent, final int trade, final int flags)
+    {
+        final int n = nodeCount++;
+        nodeKey[n] = key;
+        nodeParent[n] = parent;
+        nodeDepth[n] = (parent >= 0) ? nodeDepth[parent] + 1 : 0;
+        nodeScore[n] = score(key, flags);
+        nodeTrade[n] = trade;
+
+        return n;
+    }
+
+    /**
+     * Add a key to the visited set, if not already there.
+     * @param key  Packed resources
+     * @return  true if added, false if already visited in this search
+     */
+    private boolean visit(final int key)
+    {
+        final int mask = visitedKey.length - 1;
+        int i = ((key * 0x9E3779B9) >>> 16) & mask;
+        while (visitedGen[i] == gen)
+        {
+            if (visitedKey[i] == key)
+                return false;
+            i = (i + 1) & mask;
+        }
+
+        visitedKey[i] = key;
+        visitedGen[i] = gen;
+
+        return true;
+    }
+
+    /**
+     * Is node {@code a} better than node {@code b}: Higher score, or same score with fewer trades?
+     * Otherwise the earlier-added node is better, to keep the search order deterministic.
+     */
+    private boolean isBetter(final int a, final int b)
+    {
+        if (nodeScore[a] != nodeScore[b])
+            return (nodeScore[a] > nodeScore[b]);
+        if (nodeDepth[a] != nodeDepth[b])
+            return (nodeDepth[a] < nodeDepth[b]);
+
+        return (a < b);
+    }
+
+    private void heapPush(final int n)
+    {
+        int i = heapSize++;
+        while (i > 0)
+        {
+            final int parent = (i - 1) >> 1;
+            if (! isBetter(n, heap[parent]))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = n;
+    }
+
+    private int heapPop()
+    {
+        final int top = heap[0];
+        final int last = heap[--heapSize];
+        int i = 0;
+        for (;;)
+        {
+            int child = 2 * i + 1;
+            if (child >= heapSize)
+                break;
+            if ((child + 1 < heapSize) && isBetter(heap[child + 1], heap[child]))
+                ++child;
+            if (! isBetter(heap[child], last))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (heapSize > 0)
+            heap[i] = last;
+
+        return top;
+    }
+
+    /**
+     * Get the number of trades planned by the last call to {@link #plan(int, int[], int)}.
+     * @return  the number of trades, or 0 if trading wouldn't help
+     */
+    public int getTradeCount()
+    {
+        return pathLen;
+    }
+
+    /**
+     * Get one of the trades planned by the last call to {@link #plan(int, int[], int)}.
+     * @param i  Trade number, from 0 to {@link #getTradeCount()} - 1, in the order they should be made
+     * @param give  Set to clear and then fill with the resources to give
+     * @param get  Set to clear and then fill with the resources to get
+     * @throws ArrayIndexOutOfBoundsException if {@code i} is out of range
+     */
+    public void getTrade(final int i, final SOCResourceSet give, final SOCResourceSet get)
+        throws ArrayIndexOutOfBoundsException
+    {
+        if (i >= pathLen)
+            throw new ArrayIndexOutOfBoundsException(i);
+
+        final int giveType = path[i] >> 4, getType = path[i] & 0x0F;
+        give.clear();
+        give.setAmount(ratios[giveType], giveType);
+        get.clear();
+        get.setAmount(1, getType);
+    }
+
+    /**
+     * Get the score of the best outcome found by the last call to {@link #plan(int, int[], int)}.
+     * @return  the best score, which is the starting score if trading wouldn't help
+     */
+    public int getBestScore()
+    {
+        return (nodeCount > 0) ? nodeScore[bestNode] : 0;
+    }
+
+    /**
+     * Get the number of states expanded by the last call to {@link #plan(int, int[], int)}, for benchmarks.
+     * @return  the number of states whose trades were tried
+     */
+    public int getNodesExpanded()
+    {
+        return nodesExpanded;
+    }
+
+    /**
+     * Did the last call to {@link #plan(int, int[], int)} stop at {@link #getMaxNodes()} states,
+     * before finding the best possible outcome?
+     * @return  true if the search was cut off
+     */
+    public boolean wasCutOff()
+    {
+        return cutOff;
+    }
+
+}
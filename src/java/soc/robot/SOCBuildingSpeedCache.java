@@ -0,0 +1,188 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of {@link SOCBuildingSpeedEstimate} results, shared by the estimates
+ * a robot brain's decision maker, negotiator, and player trackers make for the same
+ * player numbers, ports, and resources during a turn.
+ *<P>
+ * Each entry's key holds everything its result depends on: The kind of estimate,
+ * rolls per resource, (for "accurate" estimates) resources for each dice roll,
+ * port flags, starting and target resources, and roll limit. So a cached result is always
+ * the same as calculating it again. Keys are built by {@link SOCBuildingSpeedEstimate}.
+ *<P>
+ * When full, the least recently used entry is dropped.
+ * The brain {@link #clear()}s its cache when the robber moves, since estimates
+ * made with the robber's old location are unlikely to be needed again.
+ *<P>
+ * Thread-safe. To use, create estimates with {@link SOCBuildingSpeedEstimate#SOCBuildingSpeedEstimate(soc.game.SOCPlayerNumbers, SOCBuildingSpeedCache)}
+ * or {@link SOCBuildingSpeedEstimate#SOCBuildingSpeedEstimate(SOCBuildingSpeedCache)}.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCBuildingSpeedCache
+{
+    /** Default maximum number of entries, for the {@link #SOCBuildingSpeedCache()} constructor. */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    /** Cached results, in access order for LRU removal. */
+    private final LinkedHashMap<Key, int[]> entries;
+
+    private long hits, misses;
+
+    /**
+     * Create a cache with {@link #DEFAULT_MAX_ENTRIES}.
+     */
+    public SOCBuildingSpeedCache()
+    {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Create a cache with a given maximum size.
+     * @param maxEntries  Maximum number of entries to keep
+     * @throws IllegalArgumentException if {@code maxEntries} &lt; 1
+     */
+    public SOCBuildingSpeedCache(final int maxEntries)
+        throws IllegalArgumentException
+    {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries: " + maxEntries);
+
+        entries = new LinkedHashMap<Key, int[]>(64, 0.75f, true)
+        {
+            private static final long serialVersionUID = 2000L;
+
+            protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest)
+            {
+                return (size() > maxEntries);
+            }
+        };
+    }
+
+    /**
+     * Look up a result, and count a hit or miss.
+     * @param key  Key from {@link SOCBuildingSpeedEstimate}; not changed or kept
+     * @param results  If found, the cached result is copied into this array
+     * @return  True if found and copied, false if not cached
+     */
+    synchronized boolean get(final int[] key, final int[] results)
+    {
+        final int[] cached = entries.get(new Key(key));
+        if (cached == null)
+        {
+            ++misses;
+            return false;
+        }
+
+        ++hits;
+        System.arraycopy(cached, 0, results, 0, cached.length);
+        return true;
+    }
+
+    /**
+     * Add or replace a result.
+     * @param key  Key from {@link SOCBuildingSpeedEstimate}; will be kept, caller must not change it afterwards
+     * @param results  Result to cache; a copy is kept
+     */
+    synchronized void put(final int[] key, final int[] results)
+    {
+        entries.put(new Key(key), results.clone());
+    }
+
+    /**
+     * Remove all entries. Doesn't reset the hit and miss counts.
+     */
+    public synchronized void clear()
+    {
+        entries.clear();
+    }
+
+    /**
+     * Get the number of entries currently cached.
+     * @return number of entries
+     */
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Get the number of lookups which found a cached result.
+     * @return number of hits since this cache was created
+     * @see #getMisses()
+     */
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups which didn't find a cached result.
+     * @return number of misses since this cache was created
+     * @see #getHits()
+     */
+    public synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * For debugging, a summary of size and hit counts.
+     * @return a string like "SOCBuildingSpeedCache[size=12, hits=340, misses=57]"
+     */
+    public synchronized String toString()
+    {
+        return "SOCBuildingSpeedCache[size=" + entries.size() + ", hits=" + hits + ", misses=" + misses + "]";
+    }
+
+    /**
+     * A cache key: an int array, compared by contents.
+     */
+    private static final class Key
+    {
+        private final int[] k;
+
+        private final int hash;
+
+        Key(final int[] k)
+        {
+            this.k = k;
+            hash = Arrays.hashCode(k);
+        }
+
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        public boolean equals(final Object o)
+        {
+            return (o instanceof Key) && (((Key) o).hash == hash) && Arrays.equals(((Key) o).k, k);
+        }
+    }
+
+}
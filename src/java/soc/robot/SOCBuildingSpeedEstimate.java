@@ -32,8 +32,8 @@ import soc.game.SOCResourceSet;
 
 import soc.util.CutoffExceededException;
 
+import java.util.Arrays;
 import java.util.Enumeration;
-import java.util.Hashtable;
 import java.util.Vector;
 
 
@@ -79,6 +79,58 @@ public class SOCBuildingSpeedEstimate
      */
     private SOCResourceSet[] resourcesForRoll;
 
+    /**
+     * Work buffers reused by each call to
+     * {@link #calculateRollsAccurate(SOCResourceSet, SOCResourceSet, int, boolean[])}, allocated at first call.
+     * Each resource set it tracks is packed into an int "state" index; see that method for details.
+     * {@code acc*[0]} and {@code acc*[1]} are the tables for the previous and current roll, swapped after each roll.
+     *<UL>
+     * <LI> {@code accProb}: Probability of each state
+     * <LI> {@code accStamp}: Whether each state has a probability yet in this roll:
+     *      Its entry is {@link #accEpoch} if so, otherwise an older epoch number
+     * <LI> {@code accStates}: List of the states which have a probability, in the order they were first reached
+     *</UL>
+     * Length of each array is the largest number of states needed so far.
+     * Not thread-safe, like the rest of this class.
+     * @since 2.0.00
+     */
+    private float[][] accProb;
+
+    /** @see #accProb */
+    private int[][] accStamp, accStates;
+
+    /**
+     * Epoch number of the current roll in {@link #calculateRollsAccurate(SOCResourceSet, SOCResourceSet, int, boolean[])},
+     * incremented each roll so {@link #accStamp} needn't be cleared; see {@link #accProb}.
+     * @since 2.0.00
+     */
+    private int accEpoch;
+
+    /**
+     * Small work arrays for {@link #calculateRollsAccurate(SOCResourceSet, SOCResourceSet, int, boolean[])},
+     * indexed by resource type {@link SOCResourceConstants#CLAY} to {@link SOCResourceConstants#WOOD}:
+     * Target amount, current amount, state index place value, and trade ratio.
+     * {@code accGain} is the amounts gained for each dice number, copied from {@link #resourcesForRoll}.
+     * @since 2.0.00
+     */
+    private int[] accTarget, accAmounts, accPlace, accTradeRatio;
+
+    /** @see #accTarget */
+    private int[][] accGain;
+
+    /**
+     * Kinds of cached results, for {@link #cacheKey(int, SOCResourceSet, SOCResourceSet, int, boolean[])}.
+     * @since 2.0.00
+     */
+    private static final int CACHE_NOTHING_ACCURATE = 1, CACHE_NOTHING_FAST = 2,
+        CACHE_NOW_ACCURATE = 3, CACHE_NOW_FAST = 4, CACHE_ROLLS_FAST = 5;
+
+    /**
+     * Optional cache of results shared with other estimates, or null; see {@link SOCBuildingSpeedCache}.
+     * @since 2.0.00
+     */
+    private final SOCBuildingSpeedCache cache;
+
     /**
      * Create a new SOCBuildingSpeedEstimate, calculating
      * the rollsPerResource and resourcesPerRoll based on
@@ -88,6 +140,22 @@ public class SOCBuildingSpeedEstimate
      */
     public SOCBuildingSpeedEstimate(SOCPlayerNumbers numbers)
     {
+        this(numbers, null);
+    }
+
+    /**
+     * Create a new SOCBuildingSpeedEstimate, calculating
+     * the rollsPerResource and resourcesPerRoll based on
+     * the player's dice numbers (settlement/city hexes),
+     * optionally sharing a cache of results with other estimates.
+     *
+     * @param numbers  the numbers that the player's pieces are touching
+     * @param cache  Cache to look up and store estimates, or null
+     * @since 2.0.00
+     */
+    public SOCBuildingSpeedEstimate(SOCPlayerNumbers numbers, SOCBuildingSpeedCache cache)
+    {
+        this.cache = cache;
         estimatesFromNothing = new int[MAXPLUSONE];
         estimatesFromNow = new int[MAXPLUSONE];
         rollsPerResource = new int[SOCResourceConstants.WOOD + 1];
@@ -103,6 +171,21 @@ public class SOCBuildingSpeedEstimate
      */
     public SOCBuildingSpeedEstimate()
     {
+        this((SOCBuildingSpeedCache) null);
+    }
+
+    /**
+     * Create a new SOCBuildingSpeedEstimate, not yet calculating estimates,
+     * optionally sharing a cache of results with other estimates.
+     * To consider the player's dice numbers (settlement/city hexes),
+     * you'll need to call {@link #recalculateEstimates(SOCPlayerNumbers, int)}.
+     *
+     * @param cache  Cache to look up and store estimates, or null
+     * @since 2.0.00
+     */
+    public SOCBuildingSpeedEstimate(SOCBuildingSpeedCache cache)
+    {
+        this.cache = cache;
         estimatesFromNothing = new int[MAXPLUSONE];
         estimatesFromNow = new int[MAXPLUSONE];
         rollsPerResource = new int[SOCResourceConstants.WOOD + 1];
@@ -159,6 +242,12 @@ public class SOCBuildingSpeedEstimate
     {
         if (recalc)
         {
+            final int[] key = (cache != null)
+                ? cacheKey(CACHE_NOTHING_ACCURATE, null, null, DEFAULT_ROLL_LIMIT, ports)
+                : null;
+            if ((key != null) && cache.get(key, estimatesFromNothing))
+                return estimatesFromNothing;
+
             estimatesFromNothing[ROAD] = DEFAULT_ROLL_LIMIT;
             estimatesFromNothing[SETTLEMENT] = DEFAULT_ROLL_LIMIT;
             estimatesFromNothing[CITY] = DEFAULT_ROLL_LIMIT;
@@ -179,6 +268,9 @@ public class SOCBuildingSpeedEstimate
             {
                 ;
             }
+
+            if (key != null)
+                cache.put(key, estimatesFromNothing);
         }
 
         return estimatesFromNothing;
@@ -191,31 +283,7 @@ public class SOCBuildingSpeedEstimate
      */
     public int[] getEstimatesFromNothingFast(boolean[] ports)
     {
-        if (recalc)
-        {
-            estimatesFromNothing[ROAD] = DEFAULT_ROLL_LIMIT;
-            estimatesFromNothing[SETTLEMENT] = DEFAULT_ROLL_LIMIT;
-            estimatesFromNothing[CITY] = DEFAULT_ROLL_LIMIT;
-            estimatesFromNothing[CARD] = DEFAULT_ROLL_LIMIT;
-            estimatesFromNothing[SHIP] = DEFAULT_ROLL_LIMIT;
-
-            SOCResourceSet emptySet = new SOCResourceSet();
-
-            try
-            {
-                estimatesFromNothing[ROAD] = calculateRollsAndRsrcFast(emptySet, SOCGame.ROAD_SET, DEFAULT_ROLL_LIMIT, ports).getRolls();
-                estimatesFromNothing[SETTLEMENT] = calculateRollsAndRsrcFast(emptySet, SOCGame.SETTLEMENT_SET, DEFAULT_ROLL_LIMIT, ports).getRolls();
-                estimatesFromNothing[CITY] = calculateRollsAndRsrcFast(emptySet, SOCGame.CITY_SET, DEFAULT_ROLL_LIMIT, ports).getRolls();
-                estimatesFromNothing[CARD] = calculateRollsAndRsrcFast(emptySet, SOCGame.CARD_SET, DEFAULT_ROLL_LIMIT, ports).getRolls();
-                estimatesFromNothing[SHIP] = calculateRollsAndRsrcFast(emptySet, SOCGame.SHIP_SET, DEFAULT_ROLL_LIMIT, ports).getRolls();
-            }
-            catch (CutoffExceededException e)
-            {
-                ;
-            }
-        }
-
-        return estimatesFromNothing;
+        return getEstimatesFromNothingFast(ports, DEFAULT_ROLL_LIMIT);
     }
 
     /**
@@ -227,6 +295,12 @@ public class SOCBuildingSpeedEstimate
     {
         if (recalc)
         {
+            final int[] key = (cache != null)
+                ? cacheKey(CACHE_NOTHING_FAST, null, null, limit, ports)
+                : null;
+            if ((key != null) && cache.get(key, estimatesFromNothing))
+                return estimatesFromNothing;
+
             estimatesFromNothing[ROAD] = limit;
             estimatesFromNothing[SETTLEMENT] = limit;
             estimatesFromNothing[CITY] = limit;
@@ -247,6 +321,9 @@ public class SOCBuildingSpeedEstimate
             {
                 ;
             }
+
+            if (key != null)
+                cache.put(key, estimatesFromNothing);
         }
 
         return estimatesFromNothing;
@@ -260,6 +337,12 @@ public class SOCBuildingSpeedEstimate
      */
     public int[] getEstimatesFromNowAccurate(SOCResourceSet resources, boolean[] ports)
     {
+        final int[] key = (cache != null)
+            ? cacheKey(CACHE_NOW_ACCURATE, resources, null, DEFAULT_ROLL_LIMIT, ports)
+            : null;
+        if ((key != null) && cache.get(key, estimatesFromNow))
+            return estimatesFromNow;
+
         estimatesFromNow[ROAD] = DEFAULT_ROLL_LIMIT;
         estimatesFromNow[SETTLEMENT] = DEFAULT_ROLL_LIMIT;
         estimatesFromNow[CITY] = DEFAULT_ROLL_LIMIT;
@@ -279,6 +362,9 @@ public class SOCBuildingSpeedEstimate
             ;
         }
 
+        if (key != null)
+            cache.put(key, estimatesFromNow);
+
         return estimatesFromNow;
     }
 
@@ -290,6 +376,12 @@ public class SOCBuildingSpeedEstimate
      */
     public int[] getEstimatesFromNowFast(SOCResourceSet resources, boolean[] ports)
     {
+        final int[] key = (cache != null)
+            ? cacheKey(CACHE_NOW_FAST, resources, null, DEFAULT_ROLL_LIMIT, ports)
+            : null;
+        if ((key != null) && cache.get(key, estimatesFromNow))
+            return estimatesFromNow;
+
         estimatesFromNow[ROAD] = DEFAULT_ROLL_LIMIT;
         estimatesFromNow[SETTLEMENT] = DEFAULT_ROLL_LIMIT;
         estimatesFromNow[CITY] = DEFAULT_ROLL_LIMIT;
@@ -309,9 +401,71 @@ public class SOCBuildingSpeedEstimate
             ;
         }
 
+        if (key != null)
+            cache.put(key, estimatesFromNow);
+
         return estimatesFromNow;
     }
 
+    /**
+     * Build a key for looking up or storing a result in {@link #cache}.
+     * The key holds everything the result depends on, so cached results are the same as calculating them again:
+     * The kind of result, limit, port flags, {@link #rollsPerResource}, any starting and target resources,
+     * and for accurate estimates {@link #resourcesForRoll}.
+     *
+     * @param kind  Kind of result, such as {@link #CACHE_NOTHING_FAST}
+     * @param resources  Starting resources, or null for none
+     * @param target  Target resources, or null for none
+     * @param limit  Roll limit or cutoff
+     * @param ports  Port flags
+     * @return  a new key array
+     * @since 2.0.00
+     */
+    private int[] cacheKey
+        (final int kind, final SOCResourceSet resources, final SOCResourceSet target, final int limit, final boolean[] ports)
+    {
+        final boolean accurate = (kind == CACHE_NOTHING_ACCURATE) || (kind == CACHE_NOW_ACCURATE);
+        final int[] key = new int[accurate ? (19 + 11 * 5) : 19];
+
+        key[0] = kind;
+        key[1] = limit;
+        int portFlags = 0;
+        for (int port = 0; port < ports.length; ++port)
+            if (ports[port])
+                portFlags |= (1 << port);
+        key[2] = portFlags;
+
+        int i = 3;
+        for (int resource = SOCResourceConstants.CLAY;
+                resource <= SOCResourceConstants.WOOD; resource++, i++)
+            key[i] = rollsPerResource[resource];
+        if (resources != null)
+            for (int resource = SOCResourceConstants.CLAY;
+                    resource <= SOCResourceConstants.UNKNOWN; resource++)
+                key[i + resource - 1] = resources.getAmount(resource);
+        i += 6;
+        if (target != null)
+            for (int resource = SOCResourceConstants.CLAY;
+                    resource <= SOCResourceConstants.WOOD; resource++)
+                key[i + resource - 1] = target.getAmount(resource);
+        i += 5;
+
+        if (accurate)
+        {
+            for (int diceResult = 2; diceResult <= 12; diceResult++)
+            {
+                final SOCResourceSet gained = resourcesForRoll[diceResult];
+                if (gained != null)
+                    for (int resource = SOCResourceConstants.CLAY;
+                            resource <= SOCResourceConstants.WOOD; resource++)
+                        key[i + resource - 1] = gained.getAmount(resource);
+                i += 5;
+            }
+        }
+
+        return key;
+    }
+
     /**
      * recalculate both rollsPerResource and resourcesPerRoll
      * @param numbers    the numbers that the player is touching
@@ -461,6 +615,7 @@ public class SOCBuildingSpeedEstimate
      * This method does the same calculation as
      * {@link #calculateRollsAndRsrcFast(SOCResourceSet, SOCResourceSet, int, boolean[])}
      * with a simpler return type and no thrown exception.
+     * If this estimate has a {@link SOCBuildingSpeedCache}, the result is looked up and stored there.
      *
      * @param startingResources   the starting resources
      * @param targetResources     the target resources
@@ -475,15 +630,27 @@ public class SOCBuildingSpeedEstimate
     protected final int calculateRollsFast
         (final SOCResourceSet startingResources, final SOCResourceSet targetResources, final int cutoff, final boolean[] ports)
     {
+        final int[] key = (cache != null)
+            ? cacheKey(CACHE_ROLLS_FAST, startingResources, targetResources, cutoff, ports)
+            : null;
+        final int[] rolls = new int[1];
+        if ((key != null) && cache.get(key, rolls))
+            return rolls[0];
+
         try
         {
             SOCResSetBuildTimePair pair = calculateRollsAndRsrcFast(startingResources, targetResources, cutoff, ports);
-            return pair.getRolls();
+            rolls[0] = pair.getRolls();
         }
         catch (CutoffExceededException e)
         {
-            return cutoff;
+            rolls[0] = cutoff;
         }
+
+        if (key != null)
+            cache.put(key, rolls);
+
+        return rolls[0];
     }
 
     /**
@@ -755,6 +922,17 @@ public class SOCBuildingSpeedEstimate
      * this figures out how many rolls it would take this
      * player to get the target set of resources given
      * a starting set
+     *<P>
+     * Follows each possible set of resources the player could have after each roll, with its probability,
+     * making any bank or port trades toward the target, until the total probability of reaching the target
+     * is at least 0.5.
+     *<P>
+     * Before v2.0.00 this kept each roll's possible sets in a {@code Hashtable<SOCResourceSet, Float>}.
+     * Now each set which hasn't reached the target is packed into an int state index, in mixed radix
+     * with one digit per resource type, and the probabilities are kept in reusable arrays indexed by state.
+     * Since trading keeps each type's amount at most 3 more than the target's amount until the target is reached,
+     * the number of states is small (2500 for {@link SOCGame#SETTLEMENT_SET}).
+     * The only objects allocated per call are the returned pair and its resource set.
      *
      * @param startingResources   the starting resources
      * @param targetResources     the target resources
@@ -764,6 +942,7 @@ public class SOCBuildingSpeedEstimate
      * @return the number of rolls and our resources when the target is reached.
      *    If {@link SOCResourceSet#contains(SOCResourceSet) startingResources.contains(targetResources)},
      *    returns 0 rolls and a {@code null} resource set.
+     *    If several sets reach the target in the same roll, the resource set returned is the first one found.
      * @throws CutoffExceededException if estimate more than {@code cutoff} turns to obtain {@code targetResources}
      */
     protected SOCResSetBuildTimePair calculateRollsAccurate
@@ -774,78 +953,141 @@ public class SOCBuildingSpeedEstimate
         D.ebugPrintln("  start: " + startingResources);
         D.ebugPrintln("  target: " + targetResources);
 
-        SOCResourceSet ourResources = startingResources.copy();
-        int rolls = 0;
+        if (startingResources.contains(targetResources))
+            return (new SOCResSetBuildTimePair(null, 0));
+
+        // Unknown resources are never gained or traded
+        final int unknownAmount = startingResources.getAmount(SOCResourceConstants.UNKNOWN);
+        if (unknownAmount < targetResources.getAmount(SOCResourceConstants.UNKNOWN))
+            throw new CutoffExceededException();
+
+        if (accTarget == null)
+        {
+            accTarget = new int[SOCResourceConstants.WOOD + 1];
+            accAmounts = new int[SOCResourceConstants.WOOD + 1];
+            accPlace = new int[SOCResourceConstants.WOOD + 1];
+            accTradeRatio = new int[SOCResourceConstants.WOOD + 1];
+            accGain = new int[13][SOCResourceConstants.WOOD + 1];
+        }
+        final int[] target = accTarget, amounts = accAmounts, place = accPlace, tradeRatio = accTradeRatio;
 
-        @SuppressWarnings("unchecked")
-        Hashtable<SOCResourceSet, Float>[] resourcesOnRoll = new Hashtable[2];
-        resourcesOnRoll[0] = new Hashtable<SOCResourceSet, Float>();
-        resourcesOnRoll[1] = new Hashtable<SOCResourceSet, Float>();
+        //
+        //  set up the state index: each resource type's digit ranges from 0 to (target amount + 3)
+        //
+        int numStates = 1;
+        for (int resource = SOCResourceConstants.CLAY;
+                resource <= SOCResourceConstants.WOOD;
+                resource++)
+        {
+            target[resource] = targetResources.getAmount(resource);
+            place[resource] = numStates;
+            numStates *= (target[resource] + 4);
+
+            if (ports[resource])
+                tradeRatio[resource] = 2;
+            else if (ports[SOCBoard.MISC_PORT])
+                tradeRatio[resource] = 3;
+            else
+                tradeRatio[resource] = 4;
+        }
 
+        for (int diceResult = 2; diceResult <= 12; diceResult++)
+        {
+            final SOCResourceSet gainedResources = resourcesForRoll[diceResult];
+            final int[] gain = accGain[diceResult];
+            for (int resource = SOCResourceConstants.CLAY;
+                    resource <= SOCResourceConstants.WOOD;
+                    resource++)
+                gain[resource] = (gainedResources != null) ? gainedResources.getAmount(resource) : 0;
+        }
+
+        if ((accProb == null) || (accProb[0].length < numStates))
+        {
+            accProb = new float[2][numStates];
+            accStamp = new int[2][numStates];
+            accStates = new int[2][numStates];
+            accEpoch = 0;
+        }
+        else if (accEpoch > (Integer.MAX_VALUE - cutoff - 1))
+        {
+            Arrays.fill(accStamp[0], 0);
+            Arrays.fill(accStamp[1], 0);
+            accEpoch = 0;
+        }
+
+        int rolls = 0;
         int lastRoll = 0;
         int thisRoll = 1;
+        int lastCount = 0;
 
-        resourcesOnRoll[lastRoll].put(ourResources, new Float(1.0));
-
-        boolean targetReached = ourResources.contains(targetResources);
+        boolean targetReached = false;
         SOCResourceSet targetReachedResources = null;
         float targetReachedProb = (float) 0.0;
 
         while (!targetReached)
         {
-            if (D.ebugOn)
-            {
-                D.ebugPrintln("roll: " + rolls);
-                D.ebugPrintln("resourcesOnRoll[lastRoll]:");
-
-                Enumeration<SOCResourceSet> roltEnum = resourcesOnRoll[lastRoll].keys();
-
-                while (roltEnum.hasMoreElements())
-                {
-                    SOCResourceSet rs = roltEnum.nextElement();
-                    Float prob = resourcesOnRoll[lastRoll].get(rs);
-                    D.ebugPrintln("---- prob:" + prob);
-                    D.ebugPrintln("---- rsrcs:" + rs);
-                    D.ebugPrintln();
-                }
-
-                D.ebugPrintln("targetReachedProb: " + targetReachedProb);
-                D.ebugPrintln("===================================");
-            }
+            D.ebugPrintln("roll: " + rolls + ", states: " + lastCount + ", targetReachedProb: " + targetReachedProb);
 
             rolls++;
 
             if (rolls > cutoff)
             {
-                D.ebugPrintln("startingResources=" + startingResources + "\ntargetResources=" + targetResources + "\ncutoff=" + cutoff + "\nourResources=" + ourResources);
+                D.ebugPrintln("startingResources=" + startingResources + "\ntargetResources=" + targetResources + "\ncutoff=" + cutoff);
                 throw new CutoffExceededException();
             }
 
+            final int epoch = ++accEpoch;
+            final float[] lastProbs = accProb[lastRoll], thisProbs = accProb[thisRoll];
+            final int[] lastStates = accStates[lastRoll], thisStates = accStates[thisRoll],
+                thisStamps = accStamp[thisRoll];
+            int thisCount = 0;
+
             //
             //  get our resources for the roll
             //
             for (int diceResult = 2; diceResult <= 12; diceResult++)
             {
-                SOCResourceSet gainedResources = resourcesForRoll[diceResult];
-                float diceProb = SOCNumberProbabilities.FLOAT_VALUES[diceResult];
+                final int[] gain = accGain[diceResult];
+                final float diceProb = SOCNumberProbabilities.FLOAT_VALUES[diceResult];
 
                 //
                 //  add the resources that we get on this roll to
                 //  each set of resources that we got on the last
-                //  roll and multiply the probabilities
+                //  roll and multiply the probabilities.
+                //  Before the first roll, the only set is startingResources.
                 //
-                Enumeration<SOCResourceSet> lastResourcesEnum = resourcesOnRoll[lastRoll].keys();
-
-                while (lastResourcesEnum.hasMoreElements())
+                final int numLast = (rolls == 1) ? 1 : lastCount;
+                for (int i = 0; i < numLast; ++i)
                 {
-                    SOCResourceSet lastResources = lastResourcesEnum.nextElement();
-                    Float lastProb = resourcesOnRoll[lastRoll].get(lastResources);
-                    SOCResourceSet newResources = lastResources.copy();
-                    newResources.add(gainedResources);
+                    final float lastProb;
+                    if (rolls == 1)
+                    {
+                        for (int resource = SOCResourceConstants.CLAY;
+                                resource <= SOCResourceConstants.WOOD;
+                                resource++)
+                            amounts[resource] = startingResources.getAmount(resource) + gain[resource];
 
-                    float newProb = lastProb.floatValue() * diceProb;
+                        lastProb = (float) 1.0;
+                    }
+                    else
+                    {
+                        int state = lastStates[i];
+                        for (int resource = SOCResourceConstants.CLAY;
+                                resource <= SOCResourceConstants.WOOD;
+                                resource++)
+                        {
+                            final int radix = target[resource] + 4;
+                            amounts[resource] = (state % radix) + gain[resource];
+                            state /= radix;
+                        }
+
+                        lastProb = lastProbs[lastStates[i]];
+                    }
 
-                    if (!newResources.contains(targetResources))
+                    final float newProb = lastProb * diceProb;
+                    boolean hasTarget = containsTarget(amounts, target);
+
+                    if (! hasTarget)
                     {
                         //
                         // do any possible trading with the bank/ports
@@ -854,37 +1096,12 @@ public class SOCBuildingSpeedEstimate
                                 giveResource <= SOCResourceConstants.WOOD;
                                 giveResource++)
                         {
-                            if ((newResources.getAmount(giveResource) - targetResources.getAmount(giveResource)) > 1)
+                            final int extra = amounts[giveResource] - target[giveResource];
+                            if (extra > 1)
                             {
-                                //
-                                // find the ratio at which we can trade
-                                //
-                                int tradeRatio;
-
-                                if (ports[giveResource])
-                                {
-                                    tradeRatio = 2;
-                                }
-                                else if (ports[SOCBoard.MISC_PORT])
-                                {
-                                    tradeRatio = 3;
-                                }
-                                else
-                                {
-                                    tradeRatio = 4;
-                                }
+                                final int ratio = tradeRatio[giveResource];
+                                final int numTrades = extra / ratio;
 
-                                //
-                                // get the target resources
-                                //
-                                int numTrades = (newResources.getAmount(giveResource) - targetResources.getAmount(giveResource)) / tradeRatio;
-
-                                //D.ebugPrintln("))) ***");
-                                //D.ebugPrintln("))) giveResource="+giveResource);
-                                //D.ebugPrintln("))) tradeRatio="+tradeRatio);
-                                //D.ebugPrintln("))) newResources="+newResources);
-                                //D.ebugPrintln("))) targetResources="+targetResources);
-                                //D.ebugPrintln("))) numTrades="+numTrades);
                                 for (int trades = 0; trades < numTrades;
                                         trades++)
                                 {
@@ -899,51 +1116,33 @@ public class SOCBuildingSpeedEstimate
                                             resource <= SOCResourceConstants.WOOD;
                                             resource++)
                                     {
-                                        if (newResources.getAmount(resource) < targetResources.getAmount(resource))
+                                        if (amounts[resource] < target[resource])
                                         {
-                                            if (mostNeededResource < 0)
+                                            if ((mostNeededResource < 0)
+                                                || (rollsPerResource[resource] > rollsPerResource[mostNeededResource]))
                                             {
                                                 mostNeededResource = resource;
                                             }
-                                            else
-                                            {
-                                                if (rollsPerResource[resource] > rollsPerResource[mostNeededResource])
-                                                {
-                                                    mostNeededResource = resource;
-                                                }
-                                            }
                                         }
                                     }
 
                                     //
                                     // make the trade
                                     //
-                                    //D.ebugPrintln("))) want to trade "+tradeRatio+" "+giveResource+" for a "+mostNeededResource);
-                                    if ((mostNeededResource != -1) && (newResources.getAmount(giveResource) >= tradeRatio))
+                                    if ((mostNeededResource != -1) && (amounts[giveResource] >= ratio))
                                     {
-                                        //D.ebugPrintln("))) trading...");
-                                        newResources.add(1, mostNeededResource);
-
-                                        if (newResources.getAmount(giveResource) < tradeRatio)
-                                        {
-                                            System.err.println("@@@ rsrcs=" + newResources);
-                                            System.err.println("@@@ tradeRatio=" + tradeRatio);
-                                            System.err.println("@@@ giveResource=" + giveResource);
-                                            System.err.println("@@@ target=" + targetResources);
-                                        }
-
-                                        newResources.subtract(tradeRatio, giveResource);
-
-                                        //D.ebugPrintln("))) newResources="+newResources);
+                                        amounts[mostNeededResource]++;
+                                        amounts[giveResource] -= ratio;
                                     }
 
-                                    if (newResources.contains(targetResources))
+                                    hasTarget = containsTarget(amounts, target);
+                                    if (hasTarget)
                                     {
                                         break;
                                     }
                                 }
 
-                                if (newResources.contains(targetResources))
+                                if (hasTarget)
                                 {
                                     break;
                                 }
@@ -951,32 +1150,21 @@ public class SOCBuildingSpeedEstimate
                         }
                     }
 
-                    //
-                    //  if this set of resources is already in the list
-                    //  of possible outcomes, add this probability to
-                    //  that one, else just add this to the list
-                    //
-                    Float probFloat = resourcesOnRoll[thisRoll].get(newResources);
-                    float newProb2 = newProb;
-
-                    if (probFloat != null)
-                    {
-                        newProb2 = probFloat.floatValue() + newProb;
-                    }
-
                     //
                     //  check to see if we reached our target
                     //
-                    if (newResources.contains(targetResources))
+                    if (hasTarget)
                     {
-                        D.ebugPrintln("-----> TARGET HIT *");
-                        D.ebugPrintln("newResources: " + newResources);
-                        D.ebugPrintln("newProb: " + newProb);
                         targetReachedProb += newProb;
 
                         if (targetReachedResources == null)
                         {
-                            targetReachedResources = newResources;
+                            targetReachedResources = new SOCResourceSet
+                                (amounts[SOCResourceConstants.CLAY], amounts[SOCResourceConstants.ORE],
+                                 amounts[SOCResourceConstants.SHEEP], amounts[SOCResourceConstants.WHEAT],
+                                 amounts[SOCResourceConstants.WOOD], unknownAmount);
+                            D.ebugPrintln("-----> TARGET HIT *");
+                            D.ebugPrintln("newResources: " + targetReachedResources);
                         }
 
                         if (targetReachedProb >= 0.5)
@@ -986,47 +1174,65 @@ public class SOCBuildingSpeedEstimate
                     }
                     else
                     {
-                        resourcesOnRoll[thisRoll].put(newResources, new Float(newProb2));
+                        //
+                        //  if this set of resources is already in the list
+                        //  of possible outcomes, add this probability to
+                        //  that one, else just add this to the list
+                        //
+                        int state = 0;
+                        for (int resource = SOCResourceConstants.CLAY;
+                                resource <= SOCResourceConstants.WOOD;
+                                resource++)
+                            state += amounts[resource] * place[resource];
+
+                        if (thisStamps[state] == epoch)
+                        {
+                            thisProbs[state] += newProb;
+                        }
+                        else
+                        {
+                            thisStamps[state] = epoch;
+                            thisProbs[state] = newProb;
+                            thisStates[thisCount] = state;
+                            ++thisCount;
+                        }
                     }
                 }
             }
 
             //
-            //  copy the resourcesOnRoll[thisRoll] table to the
-            //  resourcesOnRoll[lastRoll] table and clear the
-            //  resourcesOnRoll[thisRoll] table
+            //  this roll's table becomes the last roll's table
             //
             int tmp = lastRoll;
             lastRoll = thisRoll;
             thisRoll = tmp;
-            resourcesOnRoll[thisRoll].clear();
+            lastCount = thisCount;
         }
 
-        if (D.ebugOn)
-        {
-            float probSum = (float) 0.0;
-            D.ebugPrintln("**************** TARGET REACHED ************");
-            D.ebugPrintln("targetReachedResources: " + targetReachedResources);
-            D.ebugPrintln("targetReachedProb: " + targetReachedProb);
-            D.ebugPrintln("roll: " + rolls);
-            D.ebugPrintln("resourcesOnRoll[lastRoll]:");
-
-            Enumeration<SOCResourceSet> roltEnum = resourcesOnRoll[lastRoll].keys();
+        D.ebugPrintln("**************** TARGET REACHED ************");
+        D.ebugPrintln("targetReachedResources: " + targetReachedResources);
+        D.ebugPrintln("targetReachedProb: " + targetReachedProb);
+        D.ebugPrintln("roll: " + rolls);
 
-            while (roltEnum.hasMoreElements())
-            {
-                SOCResourceSet rs = roltEnum.nextElement();
-                Float prob = resourcesOnRoll[lastRoll].get(rs);
-                probSum += prob.floatValue();
-                D.ebugPrintln("---- prob:" + prob);
-                D.ebugPrintln("---- rsrcs:" + rs);
-                D.ebugPrintln();
-            }
+        return (new SOCResSetBuildTimePair(targetReachedResources, rolls));
+    }
 
-            D.ebugPrintln("probSum = " + probSum);
-            D.ebugPrintln("===================================");
-        }
+    /**
+     * Does this set of amounts contain the target amounts?
+     * Used by {@link #calculateRollsAccurate(SOCResourceSet, SOCResourceSet, int, boolean[])}.
+     * @param amounts  Amounts of each resource type {@link SOCResourceConstants#CLAY} to {@link SOCResourceConstants#WOOD}
+     * @param target  Target amounts, indexed the same way
+     * @return  True if each of {@code amounts} is at least its {@code target} amount
+     * @since 2.0.00
+     */
+    private static final boolean containsTarget(final int[] amounts, final int[] target)
+    {
+        for (int resource = SOCResourceConstants.CLAY;
+                resource <= SOCResourceConstants.WOOD;
+                resource++)
+            if (amounts[resource] < target[resource])
+                return false;
 
-        return (new SOCResSetBuildTimePair(targetReachedResources, rolls));
+        return true;
     }
 }
@@ -41,14 +41,22 @@ import soc.game.SOCShip;
 
 import soc.util.Pair;
 import soc.util.Queue;
+import soc.util.SortedIntMap;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Stack;
-import java.util.TreeMap;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -103,6 +111,14 @@ public class SOCPlayerTracker
      */
     static protected int LR_CALC_LEVEL = 2;
 
+    /**
+     * Optional shared pool for {@link #updateWinGameETAs(HashMap)} to recalculate
+     * each player's tracker on its own thread, or null to calculate them one at a time.
+     * @see #setWinGameETAThreads(int)
+     * @since 2.0.00
+     */
+    private static volatile ExecutorService winGameETAPool;
+
     /** The robot brain using this tracker */
     protected final SOCRobotBrain brain;
 
@@ -114,24 +130,24 @@ public class SOCPlayerTracker
 
     /**
      * Possible near-future settlements for this player.
-     * Key = {@link Integer} node coordinate, value = {@link SOCPossibleSettlement}.
+     * Key = node coordinate, value = {@link SOCPossibleSettlement}.
      * Expanded in {@link #addOurNewRoadOrShip(SOCRoad, HashMap, int)}
      * via {@link #expandRoadOrShip(SOCPossibleRoad, SOCPlayer, SOCPlayer, HashMap, int)}.
      * Also updated in {@link #addNewSettlement(SOCSettlement, HashMap)},
      * {@link #cancelWrongSettlement(SOCSettlement)}, a few other places.
      */
-    protected TreeMap<Integer, SOCPossibleSettlement> possibleSettlements;
+    protected SortedIntMap<SOCPossibleSettlement> possibleSettlements;
 
     /**
      * Includes both roads and ships.
-     * Key = {@link Integer} edge coordinate, value = {@link SOCPossibleRoad} or {@link SOCPossibleShip}
+     * Key = edge coordinate, value = {@link SOCPossibleRoad} or {@link SOCPossibleShip}
      * Expanded in {@link #addOurNewRoadOrShip(SOCRoad, HashMap, int)}
      * via {@link #expandRoadOrShip(SOCPossibleRoad, SOCPlayer, SOCPlayer, HashMap, int)}.
      */
-    protected TreeMap<Integer, SOCPossibleRoad> possibleRoads;
+    protected SortedIntMap<SOCPossibleRoad> possibleRoads;
 
-    /** Key = {@link Integer} node coordinate, value = {@link SOCPossibleCity} */
-    protected TreeMap<Integer, SOCPossibleCity> possibleCities;
+    /** Key = node coordinate, value = {@link SOCPossibleCity} */
+    protected SortedIntMap<SOCPossibleCity> possibleCities;
 
     protected int longestRoadETA;
     protected int roadsToGo;
@@ -154,6 +170,17 @@ public class SOCPlayerTracker
      */
     private SOCShip scen_SC_PIRI_closestShipToFortress;
 
+    /**
+     * Scratch arrays for {@link SOCBoard#getAdjacentEdgesToEdge_arr(int, int[])}, one per recursion level,
+     * so {@link #expandRoadOrShip(SOCPossibleRoad, SOCPlayer, SOCPlayer, HashMap, int)} and
+     * {@link #updateLRPotential(SOCPossibleRoad, SOCPlayer, SOCRoad, int, int)} don't allocate on each call.
+     * Index is the method's {@code level}: Each call still reads its array after recursing to lower levels,
+     * so levels can't share one. {@link #updateThreats(HashMap)} doesn't recurse, and uses index 0.
+     * Not copied by {@link #SOCPlayerTracker(SOCPlayerTracker)}. Get arrays from {@link #getAdjEdgesScratch(int)}.
+     * @since 2.0.00
+     */
+    private int[][] adjEdgesScratch = new int[LR_CALC_LEVEL + 1][];
+
     /**
      * monitor for synchronization
      */
@@ -171,9 +198,9 @@ public class SOCPlayerTracker
         brain = br;
         player = pl;
         playerNumber = pl.getPlayerNumber();
-        possibleRoads = new TreeMap<Integer, SOCPossibleRoad>();
-        possibleSettlements = new TreeMap<Integer, SOCPossibleSettlement>();
-        possibleCities = new TreeMap<Integer, SOCPossibleCity>();
+        possibleRoads = new SortedIntMap<SOCPossibleRoad>();
+        possibleSettlements = new SortedIntMap<SOCPossibleSettlement>();
+        possibleCities = new SortedIntMap<SOCPossibleCity>();
         longestRoadETA = 500;
         roadsToGo = 20;
         largestArmyETA = 500;
@@ -194,9 +221,9 @@ public class SOCPlayerTracker
         brain = pt.getBrain();
         player = pt.getPlayer();
         playerNumber = player.getPlayerNumber();
-        possibleRoads = new TreeMap<Integer, SOCPossibleRoad>();
-        possibleSettlements = new TreeMap<Integer, SOCPossibleSettlement>();
-        possibleCities = new TreeMap<Integer, SOCPossibleCity>();
+        possibleRoads = new SortedIntMap<SOCPossibleRoad>();
+        possibleSettlements = new SortedIntMap<SOCPossibleSettlement>();
+        possibleCities = new SortedIntMap<SOCPossibleCity>();
         longestRoadETA = pt.getLongestRoadETA();
         roadsToGo = pt.getRoadsToGo();
         largestArmyETA = pt.getLargestArmyETA();
@@ -217,19 +244,19 @@ public class SOCPlayerTracker
                 posRoadCopy = new SOCPossibleShip((SOCPossibleShip) posRoad);
             else
                 posRoadCopy = new SOCPossibleRoad(posRoad);
-            possibleRoads.put(new Integer(posRoadCopy.getCoordinates()), posRoadCopy);
+            possibleRoads.put(posRoadCopy.getCoordinates(), posRoadCopy);
         }
 
         for (SOCPossibleSettlement posSettlement : pt.getPossibleSettlements().values())
         {
             SOCPossibleSettlement posSettlementCopy = new SOCPossibleSettlement(posSettlement);
-            possibleSettlements.put(new Integer(posSettlementCopy.getCoordinates()), posSettlementCopy);
+            possibleSettlements.put(posSettlementCopy.getCoordinates(), posSettlementCopy);
         }
 
         for (SOCPossibleCity posCity : pt.getPossibleCities().values())
         {
             SOCPossibleCity posCityCopy = new SOCPossibleCity(posCity);
-            possibleCities.put(new Integer(posCityCopy.getCoordinates()), posCityCopy);
+            possibleCities.put(posCityCopy.getCoordinates(), posCityCopy);
         }
     }
 
@@ -253,7 +280,7 @@ public class SOCPlayerTracker
         while (trackersIter.hasNext())
         {
             SOCPlayerTracker pt = trackersIter.next();
-            trackersCopy.put(new Integer(pt.getPlayer().getPlayerNumber()), new SOCPlayerTracker(pt));
+            trackersCopy.put(Integer.valueOf(pt.getPlayer().getPlayerNumber()), new SOCPlayerTracker(pt));
         }
 
         //
@@ -265,18 +292,18 @@ public class SOCPlayerTracker
         while (trackersIter.hasNext())
         {
             SOCPlayerTracker tracker = trackersIter.next();
-            SOCPlayerTracker trackerCopy = trackersCopy.get(new Integer(tracker.getPlayer().getPlayerNumber()));
+            SOCPlayerTracker trackerCopy = trackersCopy.get(Integer.valueOf(tracker.getPlayer().getPlayerNumber()));
 
             //D.ebugPrintln(">>>> Player num for tracker is "+tracker.getPlayer().getPlayerNumber());
             //D.ebugPrintln(">>>> Player num for trackerCopy is "+trackerCopy.getPlayer().getPlayerNumber());
-            TreeMap<Integer, SOCPossibleRoad> possibleRoads = tracker.getPossibleRoads();
-            TreeMap<Integer, SOCPossibleRoad> possibleRoadsCopy = trackerCopy.getPossibleRoads();
-            TreeMap<Integer, SOCPossibleSettlement> possibleSettlements = tracker.getPossibleSettlements();
-            TreeMap<Integer, SOCPossibleSettlement> possibleSettlementsCopy = trackerCopy.getPossibleSettlements();
+            SortedIntMap<SOCPossibleRoad> possibleRoads = tracker.getPossibleRoads();
+            SortedIntMap<SOCPossibleRoad> possibleRoadsCopy = trackerCopy.getPossibleRoads();
+            SortedIntMap<SOCPossibleSettlement> possibleSettlements = tracker.getPossibleSettlements();
+            SortedIntMap<SOCPossibleSettlement> possibleSettlementsCopy = trackerCopy.getPossibleSettlements();
 
             for (SOCPossibleRoad posRoad : possibleRoads.values())
             {
-                SOCPossibleRoad posRoadCopy = possibleRoadsCopy.get(new Integer(posRoad.getCoordinates()));
+                SOCPossibleRoad posRoadCopy = possibleRoadsCopy.get(posRoad.getCoordinates());
 
                 //D.ebugPrintln(">>> posRoad     : "+posRoad);
                 //D.ebugPrintln(">>> posRoadCopy : "+posRoadCopy);
@@ -288,7 +315,7 @@ public class SOCPlayerTracker
                     // now find the copy of this necessary road and
                     // add it to the pos road copy's nec road list
                     //
-                    SOCPossibleRoad necRoadCopy = possibleRoadsCopy.get(new Integer(necRoad.getCoordinates()));
+                    SOCPossibleRoad necRoadCopy = possibleRoadsCopy.get(necRoad.getCoordinates());
 
                     if (necRoadCopy != null)
                     {
@@ -312,7 +339,7 @@ public class SOCPlayerTracker
                     case SOCPossiblePiece.SHIP:  // fall through to ROAD
                     case SOCPossiblePiece.ROAD:
 
-                        SOCPossibleRoad newPosRoadCopy = possibleRoadsCopy.get(new Integer(newPos.getCoordinates()));
+                        SOCPossibleRoad newPosRoadCopy = possibleRoadsCopy.get(newPos.getCoordinates());
 
                         if (newPosRoadCopy != null)
                         {
@@ -327,7 +354,7 @@ public class SOCPlayerTracker
 
                     case SOCPossiblePiece.SETTLEMENT:
 
-                        SOCPossibleSettlement newPosSettlementCopy = possibleSettlementsCopy.get(new Integer(newPos.getCoordinates()));
+                        SOCPossibleSettlement newPosSettlementCopy = possibleSettlementsCopy.get(newPos.getCoordinates());
 
                         if (newPosSettlementCopy != null)
                         {
@@ -346,7 +373,7 @@ public class SOCPlayerTracker
 
             for (SOCPossibleSettlement posSet : possibleSettlements.values())
             {
-                SOCPossibleSettlement posSetCopy = possibleSettlementsCopy.get(new Integer(posSet.getCoordinates()));
+                SOCPossibleSettlement posSetCopy = possibleSettlementsCopy.get(posSet.getCoordinates());
 
                 //D.ebugPrintln(">>> posSet     : "+posSet);
                 //D.ebugPrintln(">>> posSetCopy : "+posSetCopy);
@@ -358,7 +385,7 @@ public class SOCPlayerTracker
                     // now find the copy of this necessary road and
                     // add it to the pos settlement copy's nec road list
                     //
-                    SOCPossibleRoad necRoadCopy = possibleRoadsCopy.get(new Integer(necRoad.getCoordinates()));
+                    SOCPossibleRoad necRoadCopy = possibleRoadsCopy.get(necRoad.getCoordinates());
 
                     if (necRoadCopy != null)
                     {
@@ -378,7 +405,7 @@ public class SOCPlayerTracker
                     // now find the copy of this conflict and
                     // add it to the conflict list in the pos settlement copy
                     //
-                    SOCPlayerTracker trackerCopy2 = trackersCopy.get(new Integer(conflict.getPlayer().getPlayerNumber()));
+                    SOCPlayerTracker trackerCopy2 = trackersCopy.get(Integer.valueOf(conflict.getPlayer().getPlayerNumber()));
 
                     if (trackerCopy2 == null)
                     {
@@ -386,7 +413,7 @@ public class SOCPlayerTracker
                     }
                     else
                     {
-                        SOCPossibleSettlement conflictCopy = trackerCopy2.getPossibleSettlements().get(new Integer(conflict.getCoordinates()));
+                        SOCPossibleSettlement conflictCopy = trackerCopy2.getPossibleSettlements().get(conflict.getCoordinates());
 
                         if (conflictCopy == null)
                         {
@@ -453,7 +480,7 @@ public class SOCPlayerTracker
      * Treat the structure of the returned map as read-only, don't add or remove anything.
      * @return the Map of coordinates to possible roads and ships
      */
-    public TreeMap<Integer, SOCPossibleRoad> getPossibleRoads()
+    public SortedIntMap<SOCPossibleRoad> getPossibleRoads()
     {
         return possibleRoads;
     }
@@ -461,7 +488,7 @@ public class SOCPlayerTracker
     /**
      * @return the list of possible settlements
      */
-    public TreeMap<Integer, SOCPossibleSettlement> getPossibleSettlements()
+    public SortedIntMap<SOCPossibleSettlement> getPossibleSettlements()
     {
         return possibleSettlements;
     }
@@ -469,7 +496,7 @@ public class SOCPlayerTracker
     /**
      * @return the list of possible cities
      */
-    public TreeMap<Integer, SOCPossibleCity> getPossibleCities()
+    public SortedIntMap<SOCPossibleCity> getPossibleCities()
     {
         return possibleCities;
     }
@@ -590,7 +617,7 @@ public class SOCPlayerTracker
                 // if so, remove it
                 //
                 //D.ebugPrintln("$$$ removing (wrong) "+Integer.toHexString(road.getCoordinates()));
-                possibleRoads.remove(new Integer(pr.getCoordinates()));
+                possibleRoads.remove(pr.getCoordinates());
                 removeFromNecessaryRoads(pr);
 
                 break;
@@ -632,7 +659,7 @@ public class SOCPlayerTracker
                 // if so, remove it
                 //
                 //D.ebugPrintln("$$$ removing "+Integer.toHexString(road.getCoordinates()));
-                possibleRoads.remove(new Integer(pr.getCoordinates()));
+                possibleRoads.remove(pr.getCoordinates());
                 removeFromNecessaryRoads(pr);
 
                 break;
@@ -805,7 +832,7 @@ public class SOCPlayerTracker
         //
         for (SOCPossibleRoad newPR : newPossibleRoads)
         {
-            possibleRoads.put(new Integer(newPR.getCoordinates()), newPR);
+            possibleRoads.put(newPR.getCoordinates(), newPR);
         }
 
         //
@@ -935,11 +962,12 @@ public class SOCPlayerTracker
             //
             // check adjacent edges to road or ship
             //
-            Enumeration<Integer> adjEdgesEnum = board.getAdjacentEdgesToEdge(tgtRoadEdge).elements();
-            while (adjEdgesEnum.hasMoreElements())
+            final int[] adjEdges = board.getAdjacentEdgesToEdge_arr(tgtRoadEdge, getAdjEdgesScratch(level));
+            for (int ei = 0; ei < 4; ++ei)
             {
-                Integer adjEdge = adjEdgesEnum.nextElement();
-                final int edge = adjEdge.intValue();
+                final int edge = adjEdges[ei];
+                if (edge == -9)
+                    continue;
 
                 if (isShipInSC_PIRI)
                 {
@@ -952,7 +980,7 @@ public class SOCPlayerTracker
                     }
                 }
 
-                //D.ebugPrintln("$$$ edge "+Integer.toHexString(adjEdge.intValue())+" is legal:"+dummy.isPotentialRoad(adjEdge.intValue()));
+                //D.ebugPrintln("$$$ edge "+Integer.toHexString(edge)+" is legal:"+dummy.isPotentialRoad(edge));
                 //
                 // see if edge is a potential road
                 // or ship to continue this route
@@ -997,7 +1025,7 @@ public class SOCPlayerTracker
                     //
                     // see if possible road is already in the list
                     //
-                    SOCPossibleRoad pr = possibleRoads.get(adjEdge);
+                    SOCPossibleRoad pr = possibleRoads.get(Integer.valueOf(edge));
 
                     if (pr != null)
                     {
@@ -1044,7 +1072,7 @@ public class SOCPlayerTracker
                         //
                         // else, add new possible road or ship
                         //
-                        //D.ebugPrintln("$$$ adding new pr at "+Integer.toHexString(adjEdge.intValue()));
+                        //D.ebugPrintln("$$$ adding new pr at "+Integer.toHexString(edge));
                         Vector<SOCPossibleRoad> neededRoads = new Vector<SOCPossibleRoad>();
                         neededRoads.addElement(targetRoad);
 
@@ -1087,7 +1115,7 @@ public class SOCPlayerTracker
             while (newPREnum.hasMoreElements())
             {
                 SOCPossibleRoad newPR = newPREnum.nextElement();
-                possibleRoads.put(new Integer(newPR.getCoordinates()), newPR);
+                possibleRoads.put(newPR.getCoordinates(), newPR);
             }
 
             //
@@ -1128,7 +1156,7 @@ public class SOCPlayerTracker
          */
         D.ebugPrintln("$$$ addTheirNewRoadOrShip : " + road);
 
-        Integer roadCoordinates = new Integer(road.getCoordinates());
+        int roadCoordinates = road.getCoordinates();
         SOCPossibleRoad pr = possibleRoads.get(roadCoordinates);
 
         if (pr != null)
@@ -1339,7 +1367,7 @@ public class SOCPlayerTracker
              */
             if (tracker.getPlayer().getPlayerNumber() != ps.getPlayer().getPlayerNumber())
             {
-                SOCPossibleSettlement posSet = tracker.getPossibleSettlements().get(new Integer(ps.getCoordinates()));
+                SOCPossibleSettlement posSet = tracker.getPossibleSettlements().get(ps.getCoordinates());
 
                 if (posSet != null)
                 {
@@ -1409,7 +1437,7 @@ public class SOCPlayerTracker
          * see if the new settlement was a possible settlement in
          * the list.  if so, remove it.
          */
-        Integer settlementCoords = new Integer(settlement.getCoordinates());
+        int settlementCoords = settlement.getCoordinates();
         SOCPossibleSettlement ps = possibleSettlements.get(settlementCoords);
         D.ebugPrintln("$$$ removing (wrong) " + Integer.toHexString(settlement.getCoordinates()));
         possibleSettlements.remove(settlementCoords);
@@ -1445,7 +1473,7 @@ public class SOCPlayerTracker
         D.ebugPrintln("$$$ addOurNewSettlement : " + settlement);
         SOCBoard board = player.getGame().getBoard();
 
-        final Integer settlementCoords = new Integer(settlement.getCoordinates());
+        final int settlementCoords = settlement.getCoordinates();
 
         /**
          * add a new possible city
@@ -1484,12 +1512,12 @@ public class SOCPlayerTracker
                 SOCPossibleSettlement conflict = conflictEnum.nextElement();
                 D.ebugPrintln("$$$ checking conflict with " + conflict.getPlayer().getPlayerNumber() + ":" + Integer.toHexString(conflict.getCoordinates()));
 
-                SOCPlayerTracker tracker = trackers.get(new Integer(conflict.getPlayer().getPlayerNumber()));
+                SOCPlayerTracker tracker = trackers.get(Integer.valueOf(conflict.getPlayer().getPlayerNumber()));
 
                 if (tracker != null)
                 {
                     D.ebugPrintln("$$$ removing " + Integer.toHexString(conflict.getCoordinates()));
-                    tracker.getPossibleSettlements().remove(new Integer(conflict.getCoordinates()));
+                    tracker.getPossibleSettlements().remove(conflict.getCoordinates());
                     removeFromNecessaryRoads(conflict);
 
                     /**
@@ -1589,7 +1617,7 @@ public class SOCPlayerTracker
                 {
                     SOCPossibleSettlement pset = trashEnum.nextElement();
                     D.ebugPrintln("$$$ removing " + Integer.toHexString(pset.getCoordinates()) + " owned by " + pset.getPlayer().getPlayerNumber());
-                    tracker.getPossibleSettlements().remove(new Integer(pset.getCoordinates()));
+                    tracker.getPossibleSettlements().remove(pset.getCoordinates());
                     removeFromNecessaryRoads(pset);
                 }
 
@@ -1851,7 +1879,7 @@ public class SOCPlayerTracker
             while (prTrashEnum.hasMoreElements())
             {
                 SOCPossibleRoad prt = prTrashEnum.nextElement();
-                possibleRoads.remove(new Integer(prt.getCoordinates()));
+                possibleRoads.remove(prt.getCoordinates());
                 removeFromNecessaryRoads(prt);
                 removeDependents(prt);
             }
@@ -1898,7 +1926,7 @@ public class SOCPlayerTracker
                     if (nr.isEmpty())
                     {
                         //D.ebugPrintln("$$$ removing this road");
-                        possibleRoads.remove(new Integer(newPos.getCoordinates()));
+                        possibleRoads.remove(newPos.getCoordinates());
                         removeFromNecessaryRoads((SOCPossibleRoad) newPos);
                         removeDependents((SOCPossibleRoad) newPos);
                     }
@@ -1940,7 +1968,7 @@ public class SOCPlayerTracker
                     if (nr.isEmpty())
                     {
                         //D.ebugPrintln("$$$ removing this settlement");
-                        possibleSettlements.remove(new Integer(newPos.getCoordinates()));
+                        possibleSettlements.remove(newPos.getCoordinates());
                         removeFromNecessaryRoads((SOCPossibleSettlement) newPos);
 
                         /**
@@ -2043,7 +2071,7 @@ public class SOCPlayerTracker
          * Just remove our potential city, since it was wrongly placed.
          * remove the possible city from the list
          */
-        possibleCities.remove(new Integer(city.getCoordinates()));
+        possibleCities.remove(city.getCoordinates());
     }
 
     /**
@@ -2057,7 +2085,7 @@ public class SOCPlayerTracker
         /**
          * remove the possible city from the list
          */
-        possibleCities.remove(new Integer(city.getCoordinates()));
+        possibleCities.remove(city.getCoordinates());
     }
 
     /**
@@ -2070,7 +2098,7 @@ public class SOCPlayerTracker
         /**
          * add the possible city to the list
          */
-        possibleCities.put(new Integer(city.getCoordinates()), city);
+        possibleCities.put(city.getCoordinates(), city);
     }
 
     /**
@@ -2100,11 +2128,13 @@ public class SOCPlayerTracker
                  * look for possible settlements that can block this road
                  */
                 final int[] adjNodesToPosRoad = board.getAdjacentNodesToEdge_arr(posRoad.getCoordinates());
-                Enumeration<Integer> adjEdgeEnum = board.getAdjacentEdgesToEdge(posRoad.getCoordinates()).elements();
+                final int[] adjEdges = board.getAdjacentEdgesToEdge_arr(posRoad.getCoordinates(), getAdjEdgesScratch(0));
 
-                while (adjEdgeEnum.hasMoreElements())
+                for (int ei = 0; ei < 4; ++ei)
                 {
-                    final int adjEdge = adjEdgeEnum.nextElement().intValue();
+                    final int adjEdge = adjEdges[ei];
+                    if (adjEdge == -9)
+                        continue;
                     Enumeration<SOCRoad> realRoadEnum = player.getRoads().elements();
 
                     while (realRoadEnum.hasMoreElements())
@@ -2133,7 +2163,7 @@ public class SOCPlayerTracker
                                          * we found the common node
                                          * now see if there is a possible enemy settlement
                                          */
-                                        final Integer adjNodeToPosRoadInt = new Integer(adjNodeToPosRoad);
+                                        final int adjNodeToPosRoadInt = adjNodeToPosRoad;
                                         Iterator<SOCPlayerTracker> trackersIter = trackers.values().iterator();
 
                                         while (trackersIter.hasNext())
@@ -2173,7 +2203,7 @@ public class SOCPlayerTracker
 
                     if (tracker.getPlayer().getPlayerNumber() != playerNumber)
                     {
-                        SOCPossibleRoad posEnemyRoad = tracker.getPossibleRoads().get(new Integer(posRoad.getCoordinates()));
+                        SOCPossibleRoad posEnemyRoad = tracker.getPossibleRoads().get(posRoad.getCoordinates());
 
                         if (posEnemyRoad != null)
                         {
@@ -2318,7 +2348,7 @@ public class SOCPlayerTracker
                                  * the node between the two possible roads
                                  */
                                 trackersIter = trackers.values().iterator();
-                                final Integer adjNodeInt = new Integer(adjNode1);
+                                final int adjNodeInt = adjNode1;
 
                                 while (trackersIter.hasNext())
                                 {
@@ -2373,7 +2403,7 @@ public class SOCPlayerTracker
 
                     if (tracker.getPlayer().getPlayerNumber() != playerNumber)
                     {
-                        SOCPossibleSettlement posEnemySet = tracker.getPossibleSettlements().get(new Integer(posSet.getCoordinates()));
+                        SOCPossibleSettlement posEnemySet = tracker.getPossibleSettlements().get(posSet.getCoordinates());
 
                         if (posEnemySet != null)
                         {
@@ -2459,7 +2489,7 @@ public class SOCPlayerTracker
         D.ebugPrintln("===  recalcLongestRoadETA for player " + playerNumber);
 
         final int roadETA;
-        SOCBuildingSpeedEstimate bse = new SOCBuildingSpeedEstimate(player.getNumbers());
+        SOCBuildingSpeedEstimate bse = new SOCBuildingSpeedEstimate(player.getNumbers(), brain.getBuildingSpeedCache());
         roadETA = bse.calculateRollsFast(SOCGame.EMPTY_RESOURCES, SOCGame.ROAD_SET, 500, player.getPortFlags());
 
         roadsToGo = 500;
@@ -2578,7 +2608,7 @@ public class SOCPlayerTracker
             ///
             /// figure out how long it takes to buy this many knights
             ///
-            SOCBuildingSpeedEstimate bse = new SOCBuildingSpeedEstimate(player.getNumbers());
+            SOCBuildingSpeedEstimate bse = new SOCBuildingSpeedEstimate(player.getNumbers(), brain.getBuildingSpeedCache());
             int[] ourBuildingSpeed = bse.getEstimatesFromNothingFast(player.getPortFlags());
             int cardETA = ourBuildingSpeed[SOCBuildingSpeedEstimate.CARD];
             largestArmyETA = (cardETA + 1) * knightsToBuy;
@@ -2682,20 +2712,23 @@ public class SOCPlayerTracker
         //
         SOCBoard board = player.getGame().getBoard();
         boolean noMoreExpansion;
+        final int[] adjEdges;
 
         if (level <= 0)
         {
             noMoreExpansion = true;
+            adjEdges = null;
         }
         else
         {
             noMoreExpansion = false;
 
-            Enumeration<Integer> adjEdgeEnum = board.getAdjacentEdgesToEdge(dummyRoad.getCoordinates()).elements();
-
-            while (adjEdgeEnum.hasMoreElements())
+            adjEdges = board.getAdjacentEdgesToEdge_arr(dummyRoad.getCoordinates(), getAdjEdgesScratch(level));
+            for (int ei = 0; ei < 4; ++ei)
             {
-                final int adjEdge = adjEdgeEnum.nextElement().intValue();
+                final int adjEdge = adjEdges[ei];
+                if (adjEdge == -9)
+                    continue;
 
                 if ( (dummyRoad.isRoadNotShip() && dummy.isPotentialRoad(adjEdge))
                      || ((! dummyRoad.isRoadNotShip()) && dummy.isPotentialShip(adjEdge)) )
@@ -2726,10 +2759,11 @@ public class SOCPlayerTracker
             //
             // we need to add new roads/ships adjacent to dummyRoad, and recurse
             //
-            Enumeration<Integer> adjEdgeEnum = board.getAdjacentEdgesToEdge(dummyRoad.getCoordinates()).elements();
-            while (adjEdgeEnum.hasMoreElements())
+            for (int ei = 0; ei < 4; ++ei)
             {
-                final int adjEdge = adjEdgeEnum.nextElement().intValue();
+                final int adjEdge = adjEdges[ei];
+                if (adjEdge == -9)
+                    continue;
 
                 if ( (dummyRoad.isRoadNotShip() && dummy.isPotentialRoad(adjEdge))
                      || ((! dummyRoad.isRoadNotShip()) && dummy.isPotentialShip(adjEdge)) )
@@ -2747,6 +2781,32 @@ public class SOCPlayerTracker
         }
     }
 
+    /**
+     * Get this tracker's scratch array for adjacent edges at a recursion level;
+     * see {@link #adjEdgesScratch}. Grows that field if {@code level} is higher than any so far.
+     * @param level  Recursion level, 0 or higher
+     * @return  An {@code int[4]} for {@link SOCBoard#getAdjacentEdgesToEdge_arr(int, int[])}
+     * @since 2.0.00
+     */
+    private int[] getAdjEdgesScratch(final int level)
+    {
+        if (level >= adjEdgesScratch.length)
+        {
+            final int[][] grown = new int[level + 1][];
+            System.arraycopy(adjEdgesScratch, 0, grown, 0, adjEdgesScratch.length);
+            adjEdgesScratch = grown;
+        }
+
+        int[] arr = adjEdgesScratch[level];
+        if (arr == null)
+        {
+            arr = new int[4];
+            adjEdgesScratch[level] = arr;
+        }
+
+        return arr;
+    }
+
     /**
      * Get the calculated Winning the Game ETA (WGETA), based on
      * the most recent call to {@link #recalcWinGameETA()}.
@@ -2829,18 +2889,18 @@ public class SOCPlayerTracker
             SOCBuildingSpeedEstimate[] tempSetBSE = new SOCBuildingSpeedEstimate[2];
             SOCBuildingSpeedEstimate[] tempCityBSE = new SOCBuildingSpeedEstimate[2];
 
-            tempCityBSE[0] = new SOCBuildingSpeedEstimate();
-            tempCityBSE[1] = new SOCBuildingSpeedEstimate();
+            tempCityBSE[0] = new SOCBuildingSpeedEstimate(brain.getBuildingSpeedCache());
+            tempCityBSE[1] = new SOCBuildingSpeedEstimate(brain.getBuildingSpeedCache());
 
-            tempSetBSE[0] = new SOCBuildingSpeedEstimate();
-            tempSetBSE[1] = new SOCBuildingSpeedEstimate();
+            tempSetBSE[0] = new SOCBuildingSpeedEstimate(brain.getBuildingSpeedCache());
+            tempSetBSE[1] = new SOCBuildingSpeedEstimate(brain.getBuildingSpeedCache());
 
             int[][] chosenSetBuildingSpeed = new int[2][SOCBuildingSpeedEstimate.MAXPLUSONE];
             int[][] chosenCityBuildingSpeed = new int[2][SOCBuildingSpeedEstimate.MAXPLUSONE];
 
-            SOCBuildingSpeedEstimate tempBSE = new SOCBuildingSpeedEstimate();
+            SOCBuildingSpeedEstimate tempBSE = new SOCBuildingSpeedEstimate(brain.getBuildingSpeedCache());
 
-            SOCBuildingSpeedEstimate ourBSE = new SOCBuildingSpeedEstimate(player.getNumbers());
+            SOCBuildingSpeedEstimate ourBSE = new SOCBuildingSpeedEstimate(player.getNumbers(), brain.getBuildingSpeedCache());
             int[] ourBuildingSpeed = ourBSE.getEstimatesFromNothingFast(tempPortFlags);
             int cityETA = ourBuildingSpeed[SOCBuildingSpeedEstimate.CITY];
             int settlementETA = ourBuildingSpeed[SOCBuildingSpeedEstimate.SETTLEMENT];
@@ -2894,10 +2954,10 @@ public class SOCPlayerTracker
                 haveLR = true;
             }
 
-            TreeMap<Integer, SOCPossibleSettlement> posSetsCopy =
-                new TreeMap<Integer, SOCPossibleSettlement>(possibleSettlements);
-            TreeMap<Integer, SOCPossibleCity> posCitiesCopy =
-                new TreeMap<Integer, SOCPossibleCity>(possibleCities);
+            SortedIntMap<SOCPossibleSettlement> posSetsCopy =
+                new SortedIntMap<SOCPossibleSettlement>(possibleSettlements);
+            SortedIntMap<SOCPossibleCity> posCitiesCopy =
+                new SortedIntMap<SOCPossibleCity>(possibleCities);
 
             int points = player.getTotalVP();
             int fastestETA;
@@ -3339,14 +3399,14 @@ public class SOCPlayerTracker
 
                                 if ((i == 0) && (chosenSet[0] != null))
                                 {
-                                    posSetsCopy.remove(new Integer(chosenSet[0].getCoordinates()));
+                                    posSetsCopy.remove(chosenSet[0].getCoordinates());
 
                                     Enumeration<SOCPossibleSettlement> conflicts = chosenSet[0].getConflicts().elements();
 
                                     while (conflicts.hasMoreElements())
                                     {
                                         SOCPossibleSettlement conflict = conflicts.nextElement();
-                                        Integer conflictInt = new Integer(conflict.getCoordinates());
+                                        int conflictInt = conflict.getCoordinates();
                                         SOCPossibleSettlement possibleConflict = posSetsCopy.get(conflictInt);
 
                                         if (possibleConflict != null)
@@ -3372,14 +3432,14 @@ public class SOCPlayerTracker
                             }
                         }
 
-                        posSetsCopy.put(new Integer(chosenSet[0].getCoordinates()), chosenSet[0]);
+                        posSetsCopy.put(chosenSet[0].getCoordinates(), chosenSet[0]);
 
                         Iterator<SOCPossibleSettlement> posSetsToPutBackIter = posSetsToPutBack.iterator();
 
                         while (posSetsToPutBackIter.hasNext())
                         {
                             SOCPossibleSettlement tmpPosSet = posSetsToPutBackIter.next();
-                            posSetsCopy.put(new Integer(tmpPosSet.getCoordinates()), tmpPosSet);
+                            posSetsCopy.put(tmpPosSet.getCoordinates(), tmpPosSet);
                         }
 
                         if (canBuild2Settlements && (twoSettlements <= fastestETA))
@@ -3764,8 +3824,8 @@ public class SOCPlayerTracker
                     if ((settlementPiecesLeft > 1) && (posSetsCopy.size() > 1)
                         && canBuild2Settlements && (fastestETA == twoSettlements))
                     {
-                        Integer chosenSet0Int = new Integer(chosenSet[0].getCoordinates());
-                        Integer chosenSet1Int = new Integer(chosenSet[1].getCoordinates());
+                        int chosenSet0Int = chosenSet[0].getCoordinates();
+                        int chosenSet1Int = chosenSet[1].getCoordinates();
                         posSetsCopy.remove(chosenSet0Int);
                         posSetsCopy.remove(chosenSet1Int);
                         posCitiesCopy.put(chosenSet0Int, new SOCPossibleCity(player, chosenSet[0].getCoordinates()));
@@ -3779,7 +3839,7 @@ public class SOCPlayerTracker
                         while (conflicts.hasMoreElements())
                         {
                             SOCPossibleSettlement conflict = conflicts.nextElement();
-                            Integer conflictInt = new Integer(conflict.getCoordinates());
+                            int conflictInt = conflict.getCoordinates();
                             posSetsCopy.remove(conflictInt);
                         }
 
@@ -3788,7 +3848,7 @@ public class SOCPlayerTracker
                         while (conflicts.hasMoreElements())
                         {
                             SOCPossibleSettlement conflict = conflicts.nextElement();
-                            Integer conflictInt = new Integer(conflict.getCoordinates());
+                            int conflictInt = conflict.getCoordinates();
                             posSetsCopy.remove(conflictInt);
                         }
 
@@ -3831,7 +3891,7 @@ public class SOCPlayerTracker
                                && ! posSetsCopy.isEmpty()  )
                              && (fastestETA == oneOfEach))
                     {
-                        Integer chosenSet0Int = new Integer(chosenSet[0].getCoordinates());
+                        int chosenSet0Int = chosenSet[0].getCoordinates();
                         posSetsCopy.remove(chosenSet0Int);
 
                         if (chosenSet[0].getCoordinates() != chosenCity[0].getCoordinates())
@@ -3839,7 +3899,7 @@ public class SOCPlayerTracker
                             posCitiesCopy.put(chosenSet0Int, new SOCPossibleCity(player, chosenSet[0].getCoordinates()));
                         }
 
-                        posCitiesCopy.remove(new Integer(chosenCity[0].getCoordinates()));
+                        posCitiesCopy.remove(chosenCity[0].getCoordinates());
                         cityPiecesLeft -= 1;
 
                         //
@@ -3850,7 +3910,7 @@ public class SOCPlayerTracker
                         while (conflicts.hasMoreElements())
                         {
                             SOCPossibleSettlement conflict = conflicts.nextElement();
-                            Integer conflictInt = new Integer(conflict.getCoordinates());
+                            int conflictInt = conflict.getCoordinates();
                             posSetsCopy.remove(conflictInt);
                         }
 
@@ -3892,7 +3952,7 @@ public class SOCPlayerTracker
                     }
                     else if ((cityPiecesLeft > 1) && (citySpotsLeft > 1) && (fastestETA == twoCities))
                     {
-                        posCitiesCopy.remove(new Integer(chosenCity[0].getCoordinates()));
+                        posCitiesCopy.remove(chosenCity[0].getCoordinates());
 
                         //
                         // update our building speed estimate
@@ -3965,7 +4025,7 @@ public class SOCPlayerTracker
                         }
                         else
                         {
-                            posCitiesCopy.remove(new Integer(chosenCity[1].getCoordinates()));
+                            posCitiesCopy.remove(chosenCity[1].getCoordinates());
                         }
 
                         settlementPiecesLeft += 2;
@@ -4265,11 +4325,30 @@ public class SOCPlayerTracker
      * Update winGameETAs for player trackers.
      * For each tracker, call {@link #recalcLongestRoadETA()},
      * {@link #recalcLargestArmyETA()}, {@link #recalcWinGameETA()}.
+     *<P>
+     * If {@link #setWinGameETAThreads(int)} has given us a pool, the trackers are recalculated in parallel:
+     * Each tracker's recalc reads the game and its own possible pieces, and changes only its own ETA fields,
+     * so the results are the same as calculating them one at a time.
+     * The calling thread recalculates one of the trackers and then waits for the rest.
+     * While the brain's {@link SOCRobotBrain#getDRecorder() decision recorder} is on,
+     * trackers are always calculated one at a time so its records stay in order.
      *
      * @param playerTrackers  the player trackers
      */
     public static void updateWinGameETAs(HashMap<Integer, SOCPlayerTracker> playerTrackers)
     {
+        final ExecutorService pool = winGameETAPool;
+        if ((pool != null) && (playerTrackers.size() > 1))
+        {
+            final SOCPlayerTracker first = playerTrackers.values().iterator().next();
+            final SOCRobotBrain br = first.brain;
+            if ((br == null) || ! br.getDRecorder().isOn())
+            {
+                updateWinGameETAsParallel(pool, playerTrackers);
+                return;
+            }
+        }
+
         Iterator<SOCPlayerTracker> playerTrackersIter = playerTrackers.values().iterator();
 
         while (playerTrackersIter.hasNext())
@@ -4277,24 +4356,120 @@ public class SOCPlayerTracker
             SOCPlayerTracker tracker = playerTrackersIter.next();
 
             //D.ebugPrintln("%%%%%%%%% TRACKER FOR PLAYER "+tracker.getPlayer().getPlayerNumber());
-            try
+            tracker.updateWinGameETA();
+        }
+    }
+
+    /**
+     * Recalculate this tracker's ETAs for {@link #updateWinGameETAs(HashMap)}:
+     * {@link #recalcLongestRoadETA()}, {@link #recalcLargestArmyETA()}, {@link #recalcWinGameETA()}.
+     * @since 2.0.00
+     */
+    private void updateWinGameETA()
+    {
+        try
+        {
+            recalcLongestRoadETA();
+            recalcLargestArmyETA();
+            recalcWinGameETA();
+
+            //D.ebugPrintln("needs LA = "+needsLA());
+            //D.ebugPrintln("largestArmyETA = "+getLargestArmyETA());
+            //D.ebugPrintln("needs LR = "+needsLR());
+            //D.ebugPrintln("longestRoadETA = "+getLongestRoadETA());
+            //D.ebugPrintln("winGameETA = "+getWinGameETA());
+        }
+        catch (NullPointerException e)
+        {
+            System.out.println("Null Pointer Exception calculating winGameETA");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Parallel part of {@link #updateWinGameETAs(HashMap)}: Submit all trackers but the first to {@code pool},
+     * recalculate the first one on this thread, then wait for the others.
+     * @param pool  Pool from {@link #setWinGameETAThreads(int)}
+     * @param playerTrackers  the player trackers
+     * @since 2.0.00
+     */
+    private static void updateWinGameETAsParallel
+        (final ExecutorService pool, final HashMap<Integer, SOCPlayerTracker> playerTrackers)
+    {
+        final List<Future<?>> pending = new ArrayList<Future<?>>(playerTrackers.size() - 1);
+        SOCPlayerTracker first = null;
+        for (final SOCPlayerTracker tracker : playerTrackers.values())
+        {
+            if (first == null)
             {
-                tracker.recalcLongestRoadETA();
-                tracker.recalcLargestArmyETA();
-                tracker.recalcWinGameETA();
-
-                //D.ebugPrintln("needs LA = "+tracker.needsLA());
-                //D.ebugPrintln("largestArmyETA = "+tracker.getLargestArmyETA());
-                //D.ebugPrintln("needs LR = "+tracker.needsLR());
-                //D.ebugPrintln("longestRoadETA = "+tracker.getLongestRoadETA());
-                //D.ebugPrintln("winGameETA = "+tracker.getWinGameETA());
+                first = tracker;
+                continue;
             }
-            catch (NullPointerException e)
+
+            pending.add(pool.submit(new Runnable()
+            {
+                public void run() { tracker.updateWinGameETA(); }
+            }));
+        }
+
+        first.updateWinGameETA();
+
+        boolean interrupted = false;
+        for (final Future<?> f : pending)
+        {
+            for (;;)
             {
-                System.out.println("Null Pointer Exception calculating winGameETA");
-                e.printStackTrace();
+                try
+                {
+                    f.get();
+                    break;
+                }
+                catch (InterruptedException e) {
+                    interrupted = true;  // must wait anyway: the other threads are still using the trackers
+                }
+                catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException)
+                        throw (RuntimeException) cause;
+                    if (cause instanceof Error)
+                        throw (Error) cause;
+                    throw new IllegalStateException(cause);
+                }
             }
         }
+
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Recalculate the trackers in each {@link #updateWinGameETAs(HashMap)} call in parallel,
+     * on a pool of this many threads shared by all robots in this JVM.
+     * Used by {@link SOCRobotDM}'s smart strategy, which calls {@code updateWinGameETAs}
+     * for each possible piece it scores; most useful on 6-player and sea boards, where there are
+     * more trackers with more possible pieces. Results are the same as without a pool.
+     *<P>
+     * If a pool was already created by an earlier call, it's kept and {@code nThreads} is ignored.
+     * @param nThreads  Number of threads, or 0 to calculate one tracker at a time (the default)
+     * @see soc.server.SOCServer#PROP_JSETTLERS_BOTS_PLANNER_THREADS
+     * @since 2.0.00
+     */
+    public static synchronized void setWinGameETAThreads(final int nThreads)
+    {
+        if ((nThreads <= 0) || (winGameETAPool != null))
+            return;
+
+        winGameETAPool = Executors.newFixedThreadPool(nThreads, new ThreadFactory()
+        {
+            private final AtomicInteger n = new AtomicInteger();
+
+            public Thread newThread(Runnable r)
+            {
+                final Thread t = new Thread(r, "robotPlanner-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
     }
 
     /**
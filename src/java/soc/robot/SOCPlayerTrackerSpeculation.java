@@ -0,0 +1,220 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+import java.util.HashMap;
+
+import soc.game.SOCCity;
+import soc.game.SOCGame;
+import soc.game.SOCPlayingPiece;
+
+/**
+ * Speculative "what if this piece were built" evaluation for a set of {@link SOCPlayerTracker}s,
+ * which can be rolled back with {@link #undo()}. Used by {@link SOCRobotDM} to score possible pieces
+ * without copying all trackers when it can be avoided.
+ *<P>
+ * Typical use:
+ *<pre>
+ *  SOCPlayerTrackerSpeculation spec = new SOCPlayerTrackerSpeculation(game, playerTrackers);
+ *  HashMap&lt;Integer, SOCPlayerTracker&gt; trackersAfter = spec.tryPutPiece(piece);
+ *  SOCPlayerTracker.updateWinGameETAs(trackersAfter);
+ *  ... query trackersAfter's ETAs ...
+ *  spec.undo();
+ *</pre>
+ * After {@code undo()}, the same object can try another piece.
+ *<P>
+ * When this object is created it saves each tracker's ETA fields (win game ETA, longest road and
+ * largest army ETAs, etc), which are all that {@link SOCPlayerTracker#updateWinGameETAs(HashMap)} changes.
+ *<UL>
+ * <LI> A city only removes a possible city from its owner's tracker, so it's tried in place:
+ *      The trackers aren't copied, and {@link #undo()} puts back that possible city
+ *      and restores the saved ETA fields.
+ * <LI> A settlement, road, or ship changes the possible-piece graphs of all trackers,
+ *      so it's tried on a copy from {@link SOCPlayerTracker#tryPutPiece(SOCPlayingPiece, SOCGame, HashMap)}
+ *      like before this class; {@link #isCopied()} is true until {@link #undo()}.
+ *</UL>
+ * Any ETA updates made directly on the trackers while speculating, even without a piece,
+ * are also rolled back by {@link #undo()}.
+ *<P>
+ * Not thread-safe: The trackers and game are changed in place until {@link #undo()}.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCPlayerTrackerSpeculation
+{
+    private final SOCGame game;
+
+    /** The trackers, as given to the constructor */
+    private final HashMap<Integer, SOCPlayerTracker> trackers;
+
+    /** The trackers given to the constructor, in iteration order, for saving and restoring ETA fields */
+    private final SOCPlayerTracker[] trackersArr;
+
+    /**
+     * ETA fields of each tracker in {@link #trackersArr}, saved by the constructor:
+     * {@link SOCPlayerTracker#winGameETA}, {@code longestRoadETA}, {@code roadsToGo},
+     * {@code largestArmyETA}, {@code knightsToBuy}.
+     */
+    private final int[][] savedETAs;
+
+    /** {@link SOCPlayerTracker#needLR} and {@code needLA} of each tracker in {@link #trackersArr}, saved by the constructor. */
+    private final boolean[][] savedNeeds;
+
+    /** The piece being tried, or null */
+    private SOCPlayingPiece piece;
+
+    /** If {@link #piece} is being tried on copies, the copied trackers; otherwise null */
+    private HashMap<Integer, SOCPlayerTracker> trackersCopy;
+
+    /** If {@link #piece} is a city tried in place, the tracker it was removed from, or null */
+    private SOCPlayerTracker cityTracker;
+
+    /** If {@link #cityTracker} != null, the possible city removed from it */
+    private SOCPossibleCity cityRemoved;
+
+    /**
+     * Start speculating: Save the ETA fields of each tracker.
+     * @param game  Game to temporarily place pieces into
+     * @param trackers  All players' trackers, such as {@link SOCRobotBrain#getPlayerTrackers()}
+     */
+    public SOCPlayerTrackerSpeculation(final SOCGame game, final HashMap<Integer, SOCPlayerTracker> trackers)
+    {
+        this.game = game;
+        this.trackers = trackers;
+
+        final int n = trackers.size();
+        trackersArr = trackers.values().toArray(new SOCPlayerTracker[n]);
+        savedETAs = new int[n][5];
+        savedNeeds = new boolean[n][2];
+        for (int i = 0; i < n; ++i)
+        {
+            final SOCPlayerTracker pt = trackersArr[i];
+            final int[] etas = savedETAs[i];
+            etas[0] = pt.winGameETA;
+            etas[1] = pt.longestRoadETA;
+            etas[2] = pt.roadsToGo;
+            etas[3] = pt.largestArmyETA;
+            etas[4] = pt.knightsToBuy;
+            savedNeeds[i][0] = pt.needLR;
+            savedNeeds[i][1] = pt.needLA;
+        }
+    }
+
+    /**
+     * Temporarily place a piece in the game and update the trackers for it.
+     * Call {@link #undo()} when done.
+     *
+     * @param pp  Piece to try; a {@link SOCCity}, {@link soc.game.SOCSettlement},
+     *     {@link soc.game.SOCRoad}, or {@link soc.game.SOCShip}.
+     *     Null to speculate without placing a piece.
+     * @return  The trackers updated for {@code pp}: The ones given to the constructor if tried in place,
+     *     otherwise a copy. The same as {@link #getTrackers()}.
+     * @throws IllegalStateException if already trying a piece; call {@link #undo()} first
+     */
+    public HashMap<Integer, SOCPlayerTracker> tryPutPiece(final SOCPlayingPiece pp)
+        throws IllegalStateException
+    {
+        if (piece != null)
+            throw new IllegalStateException("already trying " + piece);
+        if (pp == null)
+            return trackers;
+
+        piece = pp;
+        if (pp.getType() == SOCPlayingPiece.CITY)
+        {
+            game.putTempPiece(pp);
+            final SOCPlayerTracker pt = trackers.get(Integer.valueOf(pp.getPlayerNumber()));
+            if (pt != null)
+            {
+                final SOCPossibleCity pc = pt.possibleCities.get(pp.getCoordinates());
+                if (pc != null)
+                {
+                    cityTracker = pt;
+                    cityRemoved = pc;
+                    pt.addOurNewCity((SOCCity) pp);
+                }
+            }
+        } else {
+            trackersCopy = SOCPlayerTracker.tryPutPiece(pp, game, trackers);
+        }
+
+        return getTrackers();
+    }
+
+    /**
+     * Get the trackers to query while speculating.
+     * @return  the trackers updated for the piece being tried, if any;
+     *     the ones given to the constructor unless {@link #isCopied()}
+     */
+    public HashMap<Integer, SOCPlayerTracker> getTrackers()
+    {
+        return (trackersCopy != null) ? trackersCopy : trackers;
+    }
+
+    /**
+     * Is the current piece being tried on a copy of the trackers?
+     * @return true if {@link #getTrackers()} is a copy, false if it's the trackers given to the constructor
+     */
+    public boolean isCopied()
+    {
+        return (trackersCopy != null);
+    }
+
+    /**
+     * Remove the piece being tried (if any) from the game, and put the trackers back the way they were
+     * when this object was created. Afterwards another piece can be tried.
+     */
+    public void undo()
+    {
+        if (piece != null)
+        {
+            if (trackersCopy != null)
+            {
+                SOCPlayerTracker.undoTryPutPiece(piece, game);
+                trackersCopy = null;
+            } else {
+                if (cityTracker != null)
+                {
+                    cityTracker.undoAddOurNewCity(cityRemoved);
+                    cityTracker = null;
+                    cityRemoved = null;
+                }
+                game.undoPutTempPiece(piece);
+            }
+
+            piece = null;
+        }
+
+        for (int i = 0; i < trackersArr.length; ++i)
+        {
+            final SOCPlayerTracker pt = trackersArr[i];
+            final int[] etas = savedETAs[i];
+            pt.winGameETA = etas[0];
+            pt.longestRoadETA = etas[1];
+            pt.roadsToGo = etas[2];
+            pt.largestArmyETA = etas[3];
+            pt.knightsToBuy = etas[4];
+            pt.needLR = savedNeeds[i][0];
+            pt.needLA = savedNeeds[i][1];
+        }
+    }
+
+}
@@ -72,13 +72,12 @@ import soc.message.SOCTurn;
 
 import soc.util.CappedQueue;
 import soc.util.DebugRecorder;
-import soc.util.Queue;
 import soc.util.SOCRobotParameters;
+import soc.util.VirtualThreads;
 
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
@@ -133,6 +132,20 @@ public class SOCRobotBrain extends Thread
      */
     protected boolean alive;
 
+    /**
+     * The virtual thread running this brain, if {@link #start()} used one; otherwise null.
+     * @see #isRunning()
+     * @since 2.0.00
+     */
+    private volatile Thread virtualThread;
+
+    /**
+     * True if {@link #start()} added this brain to a {@link SOCRobotBrainScheduler} and it hasn't yet stopped.
+     * @see #isRunning()
+     * @since 2.0.00
+     */
+    private volatile boolean runningInScheduler;
+
     /**
      * Flag for whether or not it is our turn
      */
@@ -151,6 +164,21 @@ public class SOCRobotBrain extends Thread
      */
     private boolean pauseFaster;
 
+    /**
+     * Clock for all robots-only games, unless a brain's {@link #clock} is set.
+     * @see #setBotsOnlyClock(SOCRobotClock)
+     * @since 2.0.00
+     */
+    private static volatile SOCRobotClock botsOnlyClock = SOCRobotClock.REAL;
+
+    /**
+     * This brain's clock for {@link #pause(int)} and {@link #counter} timekeeping,
+     * or null to use {@link #botsOnlyClock} or {@link SOCRobotClock#REAL}.
+     * @see #getClock()
+     * @since 2.0.00
+     */
+    private SOCRobotClock clock;
+
     /**
      * Our current state
      */
@@ -215,6 +243,7 @@ public class SOCRobotBrain extends Thread
     /**
      * A counter used to measure passage of time.
      * Incremented each second, when the server sends {@link SOCTimingPing}.
+     * A faster {@link #getClock()} adds more than 1 per ping, so timeouts pass sooner.
      * When we decide to take an action, resets to 0.
      * If counter gets too high, we assume a bug and leave the game (<tt>{@link #alive} = false</tt>).
      */
@@ -317,6 +346,28 @@ public class SOCRobotBrain extends Thread
      */
     protected SOCRobotNegotiator negotiator;
 
+    /**
+     * Cache of building speed estimates, shared by {@link #decisionMaker}, {@link #negotiator},
+     * and {@link #playerTrackers}. Cleared when the robber moves.
+     * @see #getBuildingSpeedCache()
+     * @since 2.0.00
+     */
+    protected final SOCBuildingSpeedCache buildingSpeedCache = new SOCBuildingSpeedCache();
+
+    /**
+     * Decision timings for {@link SOCRobotDM#planStuff(int)}, trade offers, initial placement
+     * and {@link SOCPlayerTracker#updateThreats(HashMap)}.
+     * @see #getTimings()
+     * @since 2.0.00
+     */
+    protected final SOCRobotTimings timings;
+
+    /**
+     * Planner for {@link #tradeStuff()}'s bank and port trades; null until first used.
+     * @since 2.0.00
+     */
+    private SOCBankTradePlanner bankTradePlanner;
+
     // If any new expect or waitingFor fields are added,
     // please update debugPrintBrainStatus() and the
     // run() loop at "if (mesType == SOCMessage.TURN)".
@@ -637,6 +688,7 @@ public class SOCRobotBrain extends Thread
         client = rc;
         robotParameters = params.copyIfOptionChanged(ga.getGameOptions());
         game = ga;
+        timings = new SOCRobotTimings(rc.getNickname() + " in " + ga.getName());
         gameIs6Player = (ga.maxPlayers > 4);
         pauseFaster = gameIs6Player;
         gameEventQ = mq;
@@ -728,6 +780,65 @@ public class SOCRobotBrain extends Thread
         return ourPlayerTracker;
     }
 
+    /**
+     * Get this brain's cache of building speed estimates, to use when creating a
+     * {@link SOCBuildingSpeedEstimate#SOCBuildingSpeedEstimate(soc.game.SOCPlayerNumbers, SOCBuildingSpeedCache)}.
+     * @return  the cache, not null
+     * @since 2.0.00
+     */
+    public SOCBuildingSpeedCache getBuildingSpeedCache()
+    {
+        return buildingSpeedCache;
+    }
+
+    /**
+     * Get this brain's decision timings, to see how long it spends planning and trading.
+     * @return  the timings, not null
+     * @since 2.0.00
+     */
+    public SOCRobotTimings getTimings()
+    {
+        return timings;
+    }
+
+    /**
+     * Set the clock for robots-only games, used by brains whose clock isn't
+     * {@link #setClock(SOCRobotClock) set individually}. Games with human players
+     * always use {@link SOCRobotClock#REAL} unless set individually.
+     * @param c  Clock to use, or null for {@link SOCRobotClock#REAL}
+     * @since 2.0.00
+     */
+    public static void setBotsOnlyClock(final SOCRobotClock c)
+    {
+        botsOnlyClock = (c != null) ? c : SOCRobotClock.REAL;
+    }
+
+    /**
+     * Get this brain's clock, for pacing its actions and timekeeping.
+     * @return  the clock set by {@link #setClock(SOCRobotClock)}, or if none,
+     *     the {@link #setBotsOnlyClock(SOCRobotClock) robots-only clock} if {@link SOCGame#isBotsOnly},
+     *     otherwise {@link SOCRobotClock#REAL}
+     * @since 2.0.00
+     */
+    public SOCRobotClock getClock()
+    {
+        if (clock != null)
+            return clock;
+
+        return (game.isBotsOnly) ? botsOnlyClock : SOCRobotClock.REAL;
+    }
+
+    /**
+     * Set this brain's clock, instead of using the default for its game.
+     * @param c  Clock to use, or null for the default
+     * @see #getClock()
+     * @since 2.0.00
+     */
+    public void setClock(final SOCRobotClock c)
+    {
+        clock = c;
+    }
+
     /**
      * A player has sat down and been added to the game,
      * during game formation. Create a PlayerTracker for them.
@@ -976,6 +1087,10 @@ public class SOCRobotBrain extends Thread
         if (slen > 0)
             rbSta.add(sb.toString());
 
+        rbSta.add("  buildingSpeedCache: " + buildingSpeedCache.size() + " entries, "
+            + buildingSpeedCache.getHits() + " hits, " + buildingSpeedCache.getMisses() + " misses");
+        rbSta.add("  timings: " + timings.toSummary());
+
         debugPrintTurnMessages(turnEventsPrev, "previous", rbSta);
         debugPrintTurnMessages(turnEventsCurrent, "current", rbSta);
 
@@ -1008,6 +1123,46 @@ public class SOCRobotBrain extends Thread
         }
     }
 
+    /**
+     * Start this brain running in its own thread. If {@link VirtualThreads#isEnabled()},
+     * {@link #run()} is called from a new virtual thread instead of this Thread object.
+     *<P>
+     * If our client has a {@link SOCRobotClient#getBrainScheduler() brain scheduler}, the brain
+     * doesn't get a thread or a {@link SOCRobotPinger}: Instead the scheduler's worker threads
+     * call {@link #processGameEvent(SOCMessage)} as messages arrive, and its timer sends our pings.
+     *<P>
+     * Since {@link #isAlive()} is false in either of those cases, call {@link #isRunning()} instead.
+     * @since 2.0.00
+     */
+    @Override
+    public void start()
+    {
+        final SOCRobotBrainScheduler sched = client.getBrainScheduler();
+        if (sched != null)
+        {
+            runningInScheduler = true;
+            sched.add(this, gameEventQ);
+        }
+        else if (VirtualThreads.isEnabled())
+            virtualThread = VirtualThreads.start(this, null);  // run() will set thread name
+        else
+            super.start();
+    }
+
+    /**
+     * Is this brain still running? Works whether or not {@link #start()} used a virtual thread or a scheduler.
+     * @return true if the brain has been started and hasn't yet stopped
+     * @since 2.0.00
+     */
+    public boolean isRunning()
+    {
+        if (runningInScheduler)
+            return true;
+
+        final Thread vt = virtualThread;
+        return (vt != null) ? vt.isAlive() : isAlive();
+    }
+
     /**
      * Here is the run method.  Just keep receiving game events
      * through {@link #gameEventQ} and deal with each one.
@@ -1040,929 +1195,958 @@ public class SOCRobotBrain extends Thread
 
             while (alive)
             {
-                try
-                {
-                    final SOCMessage mes = gameEventQ.get();  // Sleeps until message received
+                final SOCMessage mes = gameEventQ.get();  // Sleeps until message received
+                processGameEvent(mes);
+            }
+        }
+        else
+        {
+            System.out.println("AGG! NO PINGER!");
+        }
 
-                    final int mesType;
-                    if (mes != null)
-                    {
-                        // Debug aid: When looking at message contents or setting a per-message breakpoint,
-                        // skip the pings; note (mesType != SOCMessage.TIMINGPING) here.
+        brainStopped();
+    }
 
-                        mesType = mes.getType();
-                        if ((mesType != SOCMessage.TIMINGPING) && (mesType != SOCMessage.GAMETEXTMSG))
-                            turnEventsCurrent.addElement(mes);
-                        if (D.ebugOn)
-                            D.ebugPrintln("mes - " + mes);
-                    }
-                    else
-                    {
-                        mesType = -1;
-                    }
+    /**
+     * Deal with one game event from {@link #gameEventQ}: The body of the {@link #run()} loop.
+     * Also called from a {@link SOCRobotBrainScheduler} worker thread, if the brain runs there
+     * instead of in its own thread; the scheduler calls this for one brain at a time.
+     * Catches and prints any exception thrown while handling the event.
+     * May set {@link #alive} to false, to stop the brain and leave the game.
+     *
+     * @param mes  Message to handle, or null (sent from {@link #kill()} to wake the brain)
+     * @since 2.0.00
+     */
+    void processGameEvent(final SOCMessage mes)
+    {
+        try
+        {
+            final int mesType;
+            if (mes != null)
+            {
+                // Debug aid: When looking at message contents or setting a per-message breakpoint,
+                // skip the pings; note (mesType != SOCMessage.TIMINGPING) here.
+
+                mesType = mes.getType();
+                if ((mesType != SOCMessage.TIMINGPING) && (mesType != SOCMessage.GAMETEXTMSG))
+                    turnEventsCurrent.addElement(mes);
+                if (D.ebugOn)
+                    D.ebugPrintln("mes - " + mes);
+            }
+            else
+            {
+                mesType = -1;
+            }
 
-                    if (waitingForTradeMsg && (counter > 10))
-                    {
-                        waitingForTradeMsg = false;
-                        counter = 0;
-                    }
+            if (waitingForTradeMsg && (counter > 10))
+            {
+                waitingForTradeMsg = false;
+                counter = 0;
+            }
 
-                    if (waitingForTradeResponse && (counter > 100))
-                    {
-                        // Remember other players' responses, call client.clearOffer,
-                        // clear waitingForTradeResponse and counter.
-                        tradeStopWaitingClearOffer();
-                    }
+            if (waitingForTradeResponse && (counter > 100))
+            {
+                // Remember other players' responses, call client.clearOffer,
+                // clear waitingForTradeResponse and counter.
+                tradeStopWaitingClearOffer();
+            }
 
-                    if (waitingForGameState && (counter > 10000))
-                    {
-                        //D.ebugPrintln("counter = "+counter);
-                        //D.ebugPrintln("RESEND");
-                        counter = 0;
-                        client.resend();
-                    }
+            if (waitingForGameState && (counter > 10000))
+            {
+                //D.ebugPrintln("counter = "+counter);
+                //D.ebugPrintln("RESEND");
+                counter = 0;
+                client.resend();
+            }
 
-                    if (mesType == SOCMessage.GAMESTATE)
-                    {
-                        waitingForGameState = false;
-                        oldGameState = game.getGameState();
-                        game.setGameState(((SOCGameState) mes).getState());
-                    }
+            if (mesType == SOCMessage.GAMESTATE)
+            {
+                waitingForGameState = false;
+                oldGameState = game.getGameState();
+                game.setGameState(((SOCGameState) mes).getState());
+            }
 
-                    else if (mesType == SOCMessage.FIRSTPLAYER)
-                    {
-                        game.setFirstPlayer(((SOCFirstPlayer) mes).getPlayerNumber());
-                    }
+            else if (mesType == SOCMessage.FIRSTPLAYER)
+            {
+                game.setFirstPlayer(((SOCFirstPlayer) mes).getPlayerNumber());
+            }
+
+            else if (mesType == SOCMessage.SETTURN)
+            {
+                game.setCurrentPlayerNumber(((SOCSetTurn) mes).getPlayerNumber());
+            }
+
+            else if (mesType == SOCMessage.TURN)
+            {
+                // Start of a new player's turn.
+                // Update game and reset most of our state fields.
+                // See also below: if ((mesType == SOCMessage.TURN) && ourTurn).
 
-                    else if (mesType == SOCMessage.SETTURN)
+                game.setCurrentPlayerNumber(((SOCTurn) mes).getPlayerNumber());
+                game.updateAtTurn();
+
+                //
+                // remove any expected states
+                //
+                expectPLAY = false;
+                expectPLAY1 = false;
+                expectPLACING_ROAD = false;
+                expectPLACING_SETTLEMENT = false;
+                expectPLACING_CITY = false;
+                expectPLACING_SHIP = false;
+                expectPLACING_ROBBER = false;
+                expectPLACING_FREE_ROAD1 = false;
+                expectPLACING_FREE_ROAD2 = false;
+                expectDICERESULT = false;
+                expectDISCARD = false;
+                expectMOVEROBBER = false;
+                expectWAITING_FOR_DISCOVERY = false;
+                expectWAITING_FOR_MONOPOLY = false;
+
+                //
+                // reset the selling flags and offers history
+                //
+                if (robotParameters.getTradeFlag() == 1)
+                {
+                    doneTrading = false;
+                }
+                else
+                {
+                    doneTrading = true;
+                }
+
+                waitingForTradeMsg = false;
+                waitingForTradeResponse = false;
+                negotiator.resetIsSelling();
+                negotiator.resetOffersMade();
+
+                waitingForPickSpecialItem = null;
+                waitingForSC_PIRI_FortressRequest = false;
+
+                //
+                // check or reset any special-building-phase decisions
+                //
+                decidedIfSpecialBuild = false;
+                if (game.getGameState() == SOCGame.SPECIAL_BUILDING)
+                {
+                    if (waitingForSpecialBuild && ! buildingPlan.isEmpty())
                     {
-                        game.setCurrentPlayerNumber(((SOCSetTurn) mes).getPlayerNumber());
+                        // Keep the building plan.
+                        // Will ask during loop body to build.
+                    } else {
+                        // We have no plan, but will call planBuilding()
+                        // during the loop body.  If buildingPlan still empty,
+                        // bottom of loop will end our Special Building turn,
+                        // just as it would in gamestate PLAY1.  Otherwise,
+                        // will ask to build after planBuilding.
                     }
+                } else {
+                    //
+                    // reset any plans we had
+                    //
+                    buildingPlan.clear();
+                }
+                negotiator.resetTargetPieces();
 
-                    else if (mesType == SOCMessage.TURN)
-                    {
-                        // Start of a new player's turn.
-                        // Update game and reset most of our state fields.
-                        // See also below: if ((mesType == SOCMessage.TURN) && ourTurn).
+                //
+                // swap the message-history queues
+                //
+                {
+                    Vector<SOCMessage> oldPrev = turnEventsPrev;
+                    turnEventsPrev = turnEventsCurrent;
+                    oldPrev.clear();
+                    turnEventsCurrent = oldPrev;
+                }
 
-                        game.setCurrentPlayerNumber(((SOCTurn) mes).getPlayerNumber());
-                        game.updateAtTurn();
+                turnExceptionCount = 0;
+            }
 
-                        //
-                        // remove any expected states
-                        //
-                        expectPLAY = false;
-                        expectPLAY1 = false;
-                        expectPLACING_ROAD = false;
-                        expectPLACING_SETTLEMENT = false;
-                        expectPLACING_CITY = false;
-                        expectPLACING_SHIP = false;
-                        expectPLACING_ROBBER = false;
-                        expectPLACING_FREE_ROAD1 = false;
-                        expectPLACING_FREE_ROAD2 = false;
-                        expectDICERESULT = false;
-                        expectDISCARD = false;
-                        expectMOVEROBBER = false;
-                        expectWAITING_FOR_DISCOVERY = false;
-                        expectWAITING_FOR_MONOPOLY = false;
+            if (game.getCurrentPlayerNumber() == ourPlayerNumber)
+            {
+                ourTurn = true;
+                waitingForSpecialBuild = false;
+            }
+            else
+            {
+                ourTurn = false;
+            }
 
-                        //
-                        // reset the selling flags and offers history
-                        //
-                        if (robotParameters.getTradeFlag() == 1)
-                        {
-                            doneTrading = false;
-                        }
-                        else
-                        {
-                            doneTrading = true;
-                        }
+            if ((mesType == SOCMessage.TURN) && ourTurn)
+            {
+                waitingForOurTurn = false;
 
-                        waitingForTradeMsg = false;
-                        waitingForTradeResponse = false;
-                        negotiator.resetIsSelling();
-                        negotiator.resetOffersMade();
+                // Clear some per-turn variables.
+                // For others, see above: if (mesType == SOCMessage.TURN)
+                whatWeFailedToBuild = null;
+                failedBuildingAttempts = 0;
+                rejectedPlayDevCardType = -1;
+            }
 
-                        waitingForPickSpecialItem = null;
-                        waitingForSC_PIRI_FortressRequest = false;
+            /**
+             * Handle some message types early.
+             *
+             * When reading the main flow of this method, skip past here;
+             * search for "it's time to decide to build or take other normal actions".
+             */
+            switch (mesType)
+            {
+            case SOCMessage.PLAYERELEMENT:
+                {
+                handlePLAYERELEMENT((SOCPlayerElement) mes);
 
-                        //
-                        // check or reset any special-building-phase decisions
-                        //
-                        decidedIfSpecialBuild = false;
-                        if (game.getGameState() == SOCGame.SPECIAL_BUILDING)
-                        {
-                            if (waitingForSpecialBuild && ! buildingPlan.isEmpty())
-                            {
-                                // Keep the building plan.
-                                // Will ask during loop body to build.
-                            } else {
-                                // We have no plan, but will call planBuilding()
-                                // during the loop body.  If buildingPlan still empty,
-                                // bottom of loop will end our Special Building turn,
-                                // just as it would in gamestate PLAY1.  Otherwise,
-                                // will ask to build after planBuilding.
-                            }
-                        } else {
-                            //
-                            // reset any plans we had
-                            //
-                            buildingPlan.clear();
-                        }
-                        negotiator.resetTargetPieces();
+                // If this during the PLAY state, also updates the
+                // negotiator's is-selling flags.
 
-                        //
-                        // swap the message-history queues
-                        //
-                        {
-                            Vector<SOCMessage> oldPrev = turnEventsPrev;
-                            turnEventsPrev = turnEventsCurrent;
-                            oldPrev.clear();
-                            turnEventsCurrent = oldPrev;
-                        }
+                // If our player is losing a resource needed for the buildingPlan,
+                // clear the plan if this is for the Special Building Phase (on the 6-player board).
+                // In normal game play, we clear the building plan at the start of each turn.
+                }
+                break;
 
-                        turnExceptionCount = 0;
-                    }
+            case SOCMessage.RESOURCECOUNT:
+                {
+                SOCPlayer pl = game.getPlayer(((SOCResourceCount) mes).getPlayerNumber());
+
+                if (((SOCResourceCount) mes).getCount() != pl.getResources().getTotal())
+                {
+                    SOCResourceSet rsrcs = pl.getResources();
 
-                    if (game.getCurrentPlayerNumber() == ourPlayerNumber)
+                    if (D.ebugOn)
                     {
-                        ourTurn = true;
-                        waitingForSpecialBuild = false;
+                        client.sendText(game, ">>> RESOURCE COUNT ERROR FOR PLAYER " + pl.getPlayerNumber()
+                            + ": " + ((SOCResourceCount) mes).getCount() + " != " + rsrcs.getTotal());
                     }
-                    else
+
+                    //
+                    //  fix it
+                    //
+                    if (pl.getPlayerNumber() != ourPlayerNumber)
                     {
-                        ourTurn = false;
+                        rsrcs.clear();
+                        rsrcs.setAmount(((SOCResourceCount) mes).getCount(), SOCResourceConstants.UNKNOWN);
                     }
+                }
+                }
+                break;
 
-                    if ((mesType == SOCMessage.TURN) && ourTurn)
-                    {
-                        waitingForOurTurn = false;
+            case SOCMessage.DICERESULT:
+                game.setCurrentDice(((SOCDiceResult) mes).getResult());
+                break;
+
+            case SOCMessage.PUTPIECE:
+                handlePUTPIECE_updateGameData((SOCPutPiece) mes);
+                // For initial roads, also tracks their initial settlement in SOCPlayerTracker.
+                break;
+
+            case SOCMessage.MOVEPIECE:
+                {
+                    SOCMovePiece mpm = (SOCMovePiece) mes;
+                    SOCShip sh = new SOCShip
+                        (game.getPlayer(mpm.getPlayerNumber()), mpm.getFromCoord(), null);
+                    game.moveShip(sh, mpm.getToCoord());
+                }
+                break;
+
+            case SOCMessage.CANCELBUILDREQUEST:
+                handleCANCELBUILDREQUEST((SOCCancelBuildRequest) mes);
+                break;
+
+            case SOCMessage.MOVEROBBER:
+                {
+                //
+                // Note: Don't call ga.moveRobber() because that will call the
+                // functions to do the stealing.  We just want to set where
+                // the robber moved, without seeing if something was stolen.
+                // MOVEROBBER will be followed by PLAYERELEMENT messages to
+                // report the gain/loss of resources.
+                //
+                moveRobberOnSeven = false;
+                final int newHex = ((SOCMoveRobber) mes).getCoordinates();
+                if (newHex >= 0)
+                    game.getBoard().setRobberHex(newHex, true);
+                else
+                    ((SOCBoardLarge) game.getBoard()).setPirateHex(-newHex, true);
+                buildingSpeedCache.clear();
+                }
+                break;
 
-                        // Clear some per-turn variables.
-                        // For others, see above: if (mesType == SOCMessage.TURN)
-                        whatWeFailedToBuild = null;
-                        failedBuildingAttempts = 0;
-                        rejectedPlayDevCardType = -1;
+            case SOCMessage.MAKEOFFER:
+                if (robotParameters.getTradeFlag() == 1)
+                    handleMAKEOFFER((SOCMakeOffer) mes);
+                break;
+
+            case SOCMessage.CLEAROFFER:
+                if (robotParameters.getTradeFlag() == 1)
+                {
+                    final int pn = ((SOCClearOffer) mes).getPlayerNumber();
+                    if (pn != -1)
+                    {
+                        game.getPlayer(pn).setCurrentOffer(null);
+                    } else {
+                        for (int i = 0; i < game.maxPlayers; ++i)
+                            game.getPlayer(i).setCurrentOffer(null);
                     }
+                }
+                break;
 
-                    /**
-                     * Handle some message types early.
-                     *
-                     * When reading the main flow of this method, skip past here;
-                     * search for "it's time to decide to build or take other normal actions".
-                     */
-                    switch (mesType)
+            case SOCMessage.ACCEPTOFFER:
+                if (waitingForTradeResponse && (robotParameters.getTradeFlag() == 1))
+                {
+                    if ((ourPlayerNumber == (((SOCAcceptOffer) mes).getOfferingNumber()))
+                        || (ourPlayerNumber == ((SOCAcceptOffer) mes).getAcceptingNumber()))
                     {
-                    case SOCMessage.PLAYERELEMENT:
-                        {
-                        handlePLAYERELEMENT((SOCPlayerElement) mes);
+                        waitingForTradeResponse = false;
+                    }
+                }
+                break;
 
-                        // If this during the PLAY state, also updates the
-                        // negotiator's is-selling flags.
+            case SOCMessage.REJECTOFFER:
+                if (robotParameters.getTradeFlag() == 1)
+                    handleREJECTOFFER((SOCRejectOffer) mes);
+                break;
 
-                        // If our player is losing a resource needed for the buildingPlan,
-                        // clear the plan if this is for the Special Building Phase (on the 6-player board).
-                        // In normal game play, we clear the building plan at the start of each turn.
-                        }
-                        break;
+            case SOCMessage.DEVCARDCOUNT:
+                game.setNumDevCards(((SOCDevCardCount) mes).getNumDevCards());
+                break;
 
-                    case SOCMessage.RESOURCECOUNT:
-                        {
-                        SOCPlayer pl = game.getPlayer(((SOCResourceCount) mes).getPlayerNumber());
+            case SOCMessage.DEVCARDACTION:
+                {
+                    SOCDevCardAction dcMes = (SOCDevCardAction) mes;
+                    if (dcMes.getAction() != SOCDevCardAction.CANNOT_PLAY)
+                    {
+                        handleDEVCARDACTION(dcMes);
+                    } else {
+                        // rejected by server, can't play our requested card
+                        rejectedPlayDevCardType = dcMes.getCardType();
+                        waitingForGameState = false;
+                        expectPLACING_FREE_ROAD1 = false;
+                        expectWAITING_FOR_DISCOVERY = false;
+                        expectWAITING_FOR_MONOPOLY = false;
+                        expectPLACING_ROBBER = false;
+                    }
+                }
+                break;
 
-                        if (((SOCResourceCount) mes).getCount() != pl.getResources().getTotal())
-                        {
-                            SOCResourceSet rsrcs = pl.getResources();
+            case SOCMessage.SETPLAYEDDEVCARD:
+                {
+                SOCPlayer player = game.getPlayer(((SOCSetPlayedDevCard) mes).getPlayerNumber());
+                player.setPlayedDevCard(((SOCSetPlayedDevCard) mes).hasPlayedDevCard());
+                }
+                break;
 
-                            if (D.ebugOn)
-                            {
-                                client.sendText(game, ">>> RESOURCE COUNT ERROR FOR PLAYER " + pl.getPlayerNumber()
-                                    + ": " + ((SOCResourceCount) mes).getCount() + " != " + rsrcs.getTotal());
-                            }
+            case SOCMessage.SIMPLEREQUEST:
+                // These messages can almost always be ignored,
+                // unless we've just sent a request to attack a pirate fortress.
 
-                            //
-                            //  fix it
-                            //
-                            if (pl.getPlayerNumber() != ourPlayerNumber)
-                            {
-                                rsrcs.clear();
-                                rsrcs.setAmount(((SOCResourceCount) mes).getCount(), SOCResourceConstants.UNKNOWN);
-                            }
-                        }
-                        }
-                        break;
+                if (ourTurn && waitingForSC_PIRI_FortressRequest)
+                {
+                    final SOCSimpleRequest rqMes = (SOCSimpleRequest) mes;
 
-                    case SOCMessage.DICERESULT:
-                        game.setCurrentDice(((SOCDiceResult) mes).getResult());
-                        break;
+                    if ((rqMes.getRequestType() == SOCSimpleRequest.SC_PIRI_FORT_ATTACK)
+                        && (rqMes.getPlayerNumber() == -1))
+                    {
+                        // Attack request was denied: End our turn now.
+                        // Reset method sets waitingForGameState, which will bypass
+                        // any further actions in the run() loop body.
 
-                    case SOCMessage.PUTPIECE:
-                        handlePUTPIECE_updateGameData((SOCPutPiece) mes);
-                        // For initial roads, also tracks their initial settlement in SOCPlayerTracker.
-                        break;
+                        waitingForSC_PIRI_FortressRequest = false;
+                        resetFieldsAtEndTurn();
+                        client.endTurn(game);
+                    }
+                    // else, from another player; we can ignore it
+                }
+                break;
 
-                    case SOCMessage.MOVEPIECE:
-                        {
-                            SOCMovePiece mpm = (SOCMovePiece) mes;
-                            SOCShip sh = new SOCShip
-                                (game.getPlayer(mpm.getPlayerNumber()), mpm.getFromCoord(), null);
-                            game.moveShip(sh, mpm.getToCoord());
-                        }
-                        break;
+            case SOCMessage.SIMPLEACTION:
+                // Most action types are handled later in the loop body;
+                // search for SOCMessage.SIMPLEACTION
 
-                    case SOCMessage.CANCELBUILDREQUEST:
-                        handleCANCELBUILDREQUEST((SOCCancelBuildRequest) mes);
-                        break;
+                switch(((SOCSimpleAction) mes).getActionType())
+                {
+                case SOCSimpleAction.SC_PIRI_FORT_ATTACK_RESULT:
+                    if (ourTurn && waitingForSC_PIRI_FortressRequest)
+                    {
+                        // Our player has won or lost an attack on a pirate fortress.
+                        // When we receive this message, other messages have already
+                        // been sent to update related game state. End our turn now.
+                        // Reset method sets waitingForGameState, which will bypass
+                        // any further actions in the run() loop body.
 
-                    case SOCMessage.MOVEROBBER:
-                        {
-                        //
-                        // Note: Don't call ga.moveRobber() because that will call the
-                        // functions to do the stealing.  We just want to set where
-                        // the robber moved, without seeing if something was stolen.
-                        // MOVEROBBER will be followed by PLAYERELEMENT messages to
-                        // report the gain/loss of resources.
-                        //
-                        moveRobberOnSeven = false;
-                        final int newHex = ((SOCMoveRobber) mes).getCoordinates();
-                        if (newHex >= 0)
-                            game.getBoard().setRobberHex(newHex, true);
-                        else
-                            ((SOCBoardLarge) game.getBoard()).setPirateHex(-newHex, true);
-                        }
-                        break;
+                        waitingForSC_PIRI_FortressRequest = false;
+                        resetFieldsAtEndTurn();
+                        // client.endTurn not needed; making the attack implies sending endTurn
+                    }
+                    // else, from another player; we can ignore it
 
-                    case SOCMessage.MAKEOFFER:
-                        if (robotParameters.getTradeFlag() == 1)
-                            handleMAKEOFFER((SOCMakeOffer) mes);
-                        break;
+                    break;
+                }
+                break;
 
-                    case SOCMessage.CLEAROFFER:
-                        if (robotParameters.getTradeFlag() == 1)
-                        {
-                            final int pn = ((SOCClearOffer) mes).getPlayerNumber();
-                            if (pn != -1)
-                            {
-                                game.getPlayer(pn).setCurrentOffer(null);
-                            } else {
-                                for (int i = 0; i < game.maxPlayers; ++i)
-                                    game.getPlayer(i).setCurrentOffer(null);
-                            }
-                        }
-                        break;
+            }  // switch(mesType)
 
-                    case SOCMessage.ACCEPTOFFER:
-                        if (waitingForTradeResponse && (robotParameters.getTradeFlag() == 1))
-                        {
-                            if ((ourPlayerNumber == (((SOCAcceptOffer) mes).getOfferingNumber()))
-                                || (ourPlayerNumber == ((SOCAcceptOffer) mes).getAcceptingNumber()))
-                            {
-                                waitingForTradeResponse = false;
-                            }
-                        }
-                        break;
+            debugInfo();
 
-                    case SOCMessage.REJECTOFFER:
-                        if (robotParameters.getTradeFlag() == 1)
-                            handleREJECTOFFER((SOCRejectOffer) mes);
-                        break;
+            if ((game.getGameState() == SOCGame.PLAY) && ! waitingForGameState)
+            {
+                rollOrPlayKnightOrExpectDice();
 
-                    case SOCMessage.DEVCARDCOUNT:
-                        game.setNumDevCards(((SOCDevCardCount) mes).getNumDevCards());
-                        break;
+                // On our turn, ask client to roll dice or play a knight;
+                // on other turns, update flags to expect dice result.
+                // Clears expectPLAY to false.
+                // Sets either expectDICERESULT, or expectPLACING_ROBBER and waitingForGameState.
+            }
 
-                    case SOCMessage.DEVCARDACTION:
-                        {
-                            SOCDevCardAction dcMes = (SOCDevCardAction) mes;
-                            if (dcMes.getAction() != SOCDevCardAction.CANNOT_PLAY)
-                            {
-                                handleDEVCARDACTION(dcMes);
-                            } else {
-                                // rejected by server, can't play our requested card
-                                rejectedPlayDevCardType = dcMes.getCardType();
-                                waitingForGameState = false;
-                                expectPLACING_FREE_ROAD1 = false;
-                                expectWAITING_FOR_DISCOVERY = false;
-                                expectWAITING_FOR_MONOPOLY = false;
-                                expectPLACING_ROBBER = false;
-                            }
-                        }
-                        break;
+            if (ourTurn && (game.getGameState() == SOCGame.WAITING_FOR_ROBBER_OR_PIRATE) && ! waitingForGameState)
+            {
+                // TODO handle moving the pirate too
+                // For now, always decide to move the robber.
+                // Once we move the robber, will also need to deal with state WAITING_FOR_ROB_CLOTH_OR_RESOURCE.
+                expectPLACING_ROBBER = true;
+                waitingForGameState = true;
+                counter = 0;
+                client.choosePlayer(game, SOCChoosePlayer.CHOICE_MOVE_ROBBER);
+                pause(200);
+            }
+
+            else if ((game.getGameState() == SOCGame.PLACING_ROBBER) && ! waitingForGameState)
+            {
+                expectPLACING_ROBBER = false;
 
-                    case SOCMessage.SETPLAYEDDEVCARD:
+                if ((! waitingForOurTurn) && ourTurn)
+                {
+                    if (! ((expectPLAY || expectPLAY1) && (counter < 4000)))
+                    {
+                        if (moveRobberOnSeven)
                         {
-                        SOCPlayer player = game.getPlayer(((SOCSetPlayedDevCard) mes).getPlayerNumber());
-                        player.setPlayedDevCard(((SOCSetPlayedDevCard) mes).hasPlayedDevCard());
+                            // robber moved because 7 rolled on dice
+                            moveRobberOnSeven = false;
+                            waitingForGameState = true;
+                            counter = 0;
+                            expectPLAY1 = true;
                         }
-                        break;
-
-                    case SOCMessage.SIMPLEREQUEST:
-                        // These messages can almost always be ignored,
-                        // unless we've just sent a request to attack a pirate fortress.
-
-                        if (ourTurn && waitingForSC_PIRI_FortressRequest)
+                        else
                         {
-                            final SOCSimpleRequest rqMes = (SOCSimpleRequest) mes;
+                            waitingForGameState = true;
+                            counter = 0;
 
-                            if ((rqMes.getRequestType() == SOCSimpleRequest.SC_PIRI_FORT_ATTACK)
-                                && (rqMes.getPlayerNumber() == -1))
+                            if (oldGameState == SOCGame.PLAY)
                             {
-                                // Attack request was denied: End our turn now.
-                                // Reset method sets waitingForGameState, which will bypass
-                                // any further actions in the run() loop body.
-
-                                waitingForSC_PIRI_FortressRequest = false;
-                                resetFieldsAtEndTurn();
-                                client.endTurn(game);
+                                // robber moved from playing knight card before dice roll
+                                expectPLAY = true;
                             }
-                            // else, from another player; we can ignore it
-                        }
-                        break;
-
-                    case SOCMessage.SIMPLEACTION:
-                        // Most action types are handled later in the loop body;
-                        // search for SOCMessage.SIMPLEACTION
-
-                        switch(((SOCSimpleAction) mes).getActionType())
-                        {
-                        case SOCSimpleAction.SC_PIRI_FORT_ATTACK_RESULT:
-                            if (ourTurn && waitingForSC_PIRI_FortressRequest)
+                            else if (oldGameState == SOCGame.PLAY1)
                             {
-                                // Our player has won or lost an attack on a pirate fortress.
-                                // When we receive this message, other messages have already
-                                // been sent to update related game state. End our turn now.
-                                // Reset method sets waitingForGameState, which will bypass
-                                // any further actions in the run() loop body.
-
-                                waitingForSC_PIRI_FortressRequest = false;
-                                resetFieldsAtEndTurn();
-                                // client.endTurn not needed; making the attack implies sending endTurn
+                                // robber moved from playing knight card after dice roll
+                                expectPLAY1 = true;
                             }
-                            // else, from another player; we can ignore it
-
-                            break;
                         }
-                        break;
 
-                    }  // switch(mesType)
+                        counter = 0;
+                        moveRobber();
+                    }
+                }
+            }
 
-                    debugInfo();
+            if ((game.getGameState() == SOCGame.WAITING_FOR_DISCOVERY) && ! waitingForGameState)
+            {
+                expectWAITING_FOR_DISCOVERY = false;
 
-                    if ((game.getGameState() == SOCGame.PLAY) && ! waitingForGameState)
+                if ((! waitingForOurTurn) && ourTurn)
+                {
+                    if (! (expectPLAY1) && (counter < 4000))
                     {
-                        rollOrPlayKnightOrExpectDice();
-
-                        // On our turn, ask client to roll dice or play a knight;
-                        // on other turns, update flags to expect dice result.
-                        // Clears expectPLAY to false.
-                        // Sets either expectDICERESULT, or expectPLACING_ROBBER and waitingForGameState.
+                        waitingForGameState = true;
+                        expectPLAY1 = true;
+                        counter = 0;
+                        client.discoveryPick(game, resourceChoices);
+                        pause(1500);
                     }
+                }
+            }
+
+            if ((game.getGameState() == SOCGame.WAITING_FOR_MONOPOLY) && ! waitingForGameState)
+            {
+                expectWAITING_FOR_MONOPOLY = false;
 
-                    if (ourTurn && (game.getGameState() == SOCGame.WAITING_FOR_ROBBER_OR_PIRATE) && ! waitingForGameState)
+                if ((! waitingForOurTurn) && ourTurn)
+                {
+                    if (!(expectPLAY1) && (counter < 4000))
                     {
-                        // TODO handle moving the pirate too
-                        // For now, always decide to move the robber.
-                        // Once we move the robber, will also need to deal with state WAITING_FOR_ROB_CLOTH_OR_RESOURCE.
-                        expectPLACING_ROBBER = true;
                         waitingForGameState = true;
+                        expectPLAY1 = true;
                         counter = 0;
-                        client.choosePlayer(game, SOCChoosePlayer.CHOICE_MOVE_ROBBER);
-                        pause(200);
+                        client.monopolyPick(game, monopolyStrategy.getMonopolyChoice());
+                        pause(1500);
                     }
+                }
+            }
 
-                    else if ((game.getGameState() == SOCGame.PLACING_ROBBER) && ! waitingForGameState)
-                    {
-                        expectPLACING_ROBBER = false;
+            if (waitingForTradeMsg && (mesType == SOCMessage.SIMPLEACTION)
+                && (((SOCSimpleAction) mes).getActionType() == SOCSimpleAction.TRADE_SUCCESSFUL))
+            {
+                //
+                // This is the bank/port trade message we've been waiting for;
+                // is sent to only the trading player
+                //
+                waitingForTradeMsg = false;
+            }
 
-                        if ((! waitingForOurTurn) && ourTurn)
-                        {
-                            if (! ((expectPLAY || expectPLAY1) && (counter < 4000)))
-                            {
-                                if (moveRobberOnSeven)
-                                {
-                                    // robber moved because 7 rolled on dice
-                                    moveRobberOnSeven = false;
-                                    waitingForGameState = true;
-                                    counter = 0;
-                                    expectPLAY1 = true;
-                                }
-                                else
-                                {
-                                    waitingForGameState = true;
-                                    counter = 0;
+            if (waitingForDevCard && (mesType == SOCMessage.SIMPLEACTION)
+                && (((SOCSimpleAction) mes).getPlayerNumber() == ourPlayerNumber)
+                && (((SOCSimpleAction) mes).getActionType() == SOCSimpleAction.DEVCARD_BOUGHT))
+            {
+                //
+                // This is the "dev card bought" message we've been waiting for
+                //
+                waitingForDevCard = false;
+            }
 
-                                    if (oldGameState == SOCGame.PLAY)
-                                    {
-                                        // robber moved from playing knight card before dice roll
-                                        expectPLAY = true;
-                                    }
-                                    else if (oldGameState == SOCGame.PLAY1)
-                                    {
-                                        // robber moved from playing knight card after dice roll
-                                        expectPLAY1 = true;
-                                    }
-                                }
+            /**
+             * Planning: If our turn and not waiting for something,
+             * it's time to decide to build or take other normal actions.
+             */
+            if (((game.getGameState() == SOCGame.PLAY1) || (game.getGameState() == SOCGame.SPECIAL_BUILDING))
+                && ! (waitingForGameState || waitingForTradeMsg || waitingForTradeResponse || waitingForDevCard
+                      || expectPLACING_ROAD || expectPLACING_SETTLEMENT || expectPLACING_CITY
+                      || expectPLACING_SHIP || expectPLACING_FREE_ROAD1 || expectPLACING_FREE_ROAD2
+                      || expectPLACING_ROBBER || expectWAITING_FOR_DISCOVERY || expectWAITING_FOR_MONOPOLY
+                      || waitingForSC_PIRI_FortressRequest || (waitingForPickSpecialItem != null)))
+            {
+                expectPLAY1 = false;
 
-                                counter = 0;
-                                moveRobber();
-                            }
-                        }
-                    }
+                // 6-player: check Special Building Phase
+                // during other players' turns.
+                if ((! ourTurn) && waitingForOurTurn && gameIs6Player
+                     && (! decidedIfSpecialBuild) && (! expectPLACING_ROBBER))
+                {
+                    decidedIfSpecialBuild = true;
+
+                    /**
+                     * It's not our turn.  We're not doing anything else right now.
+                     * Gamestate has passed PLAY, so we know what resources to expect.
+                     * Do we want to Special Build?  Check the same conditions as during our turn.
+                     * Make a plan if we don't have one,
+                     * and if we haven't given up building attempts this turn.
+                     */
 
-                    if ((game.getGameState() == SOCGame.WAITING_FOR_DISCOVERY) && ! waitingForGameState)
+                    if (buildingPlan.empty() && (ourPlayerData.getResources().getTotal() > 1)
+                        && (failedBuildingAttempts < MAX_DENIED_BUILDING_PER_TURN))
                     {
-                        expectWAITING_FOR_DISCOVERY = false;
+                        planBuilding();
 
-                        if ((! waitingForOurTurn) && ourTurn)
-                        {
-                            if (! (expectPLAY1) && (counter < 4000))
+                            /*
+                             * planBuilding takes these actions, sets buildingPlan and other fields
+                             * (see its javadoc):
+                             *
+                            decisionMaker.planStuff(robotParameters.getStrategyType());
+
+                            if (! buildingPlan.empty())
                             {
-                                waitingForGameState = true;
-                                expectPLAY1 = true;
-                                counter = 0;
-                                client.discoveryPick(game, resourceChoices);
-                                pause(1500);
+                                lastTarget = (SOCPossiblePiece) buildingPlan.peek();
+                                negotiator.setTargetPiece(ourPlayerNumber, buildingPlan.peek());
                             }
-                        }
-                    }
-
-                    if ((game.getGameState() == SOCGame.WAITING_FOR_MONOPOLY) && ! waitingForGameState)
-                    {
-                        expectWAITING_FOR_MONOPOLY = false;
+                             */
 
-                        if ((! waitingForOurTurn) && ourTurn)
+                        if ( ! buildingPlan.empty())
                         {
-                            if (!(expectPLAY1) && (counter < 4000))
+                            // If we have the resources right now, ask to Special Build
+
+                            final SOCPossiblePiece targetPiece = buildingPlan.peek();
+                            final SOCResourceSet targetResources = targetPiece.getResourcesToBuild();
+                                // may be null
+
+                            if ((ourPlayerData.getResources().contains(targetResources)))
                             {
-                                waitingForGameState = true;
-                                expectPLAY1 = true;
-                                counter = 0;
-                                client.monopolyPick(game, monopolyStrategy.getMonopolyChoice());
-                                pause(1500);
+                                // Ask server for the Special Building Phase.
+                                // (TODO) if FAST_STRATEGY: Maybe randomly don't ask, to lower opponent difficulty?
+                                waitingForSpecialBuild = true;
+                                client.buildRequest(game, -1);
+                                pause(100);
                             }
                         }
                     }
+                }
 
-                    if (waitingForTradeMsg && (mesType == SOCMessage.SIMPLEACTION)
-                        && (((SOCSimpleAction) mes).getActionType() == SOCSimpleAction.TRADE_SUCCESSFUL))
+                if ((! waitingForOurTurn) && ourTurn)
+                {
+                    if (! (expectPLAY && (counter < 4000)))
                     {
-                        //
-                        // This is the bank/port trade message we've been waiting for;
-                        // is sent to only the trading player
-                        //
-                        waitingForTradeMsg = false;
-                    }
+                        counter = 0;
 
-                    if (waitingForDevCard && (mesType == SOCMessage.SIMPLEACTION)
-                        && (((SOCSimpleAction) mes).getPlayerNumber() == ourPlayerNumber)
-                        && (((SOCSimpleAction) mes).getActionType() == SOCSimpleAction.DEVCARD_BOUGHT))
-                    {
-                        //
-                        // This is the "dev card bought" message we've been waiting for
-                        //
-                        waitingForDevCard = false;
-                    }
+                        //D.ebugPrintln("DOING PLAY1");
+                        if (D.ebugOn)
+                        {
+                            client.sendText(game, "================================");
 
-                    /**
-                     * Planning: If our turn and not waiting for something,
-                     * it's time to decide to build or take other normal actions.
-                     */
-                    if (((game.getGameState() == SOCGame.PLAY1) || (game.getGameState() == SOCGame.SPECIAL_BUILDING))
-                        && ! (waitingForGameState || waitingForTradeMsg || waitingForTradeResponse || waitingForDevCard
-                              || expectPLACING_ROAD || expectPLACING_SETTLEMENT || expectPLACING_CITY
-                              || expectPLACING_SHIP || expectPLACING_FREE_ROAD1 || expectPLACING_FREE_ROAD2
-                              || expectPLACING_ROBBER || expectWAITING_FOR_DISCOVERY || expectWAITING_FOR_MONOPOLY
-                              || waitingForSC_PIRI_FortressRequest || (waitingForPickSpecialItem != null)))
-                    {
-                        expectPLAY1 = false;
+                            // for each player in game:
+                            //    sendText and debug-prn game.getPlayer(i).getResources()
+                            printResources();
+                        }
 
-                        // 6-player: check Special Building Phase
-                        // during other players' turns.
-                        if ((! ourTurn) && waitingForOurTurn && gameIs6Player
-                             && (! decidedIfSpecialBuild) && (! expectPLACING_ROBBER))
+                        /**
+                         * if we haven't played a dev card yet,
+                         * and we have a knight, and we can get
+                         * largest army, play the knight.
+                         * If we're in SPECIAL_BUILDING (not PLAY1),
+                         * can't trade or play development cards.
+                         *
+                         * In scenario _SC_PIRI (which has no robber and
+                         * no largest army), play one whenever we have
+                         * it, someone else has resources, and we can
+                         * convert a ship to a warship.
+                         */
+                        if ((game.getGameState() == SOCGame.PLAY1) && ! ourPlayerData.hasPlayedDevCard())
                         {
-                            decidedIfSpecialBuild = true;
-
-                            /**
-                             * It's not our turn.  We're not doing anything else right now.
-                             * Gamestate has passed PLAY, so we know what resources to expect.
-                             * Do we want to Special Build?  Check the same conditions as during our turn.
-                             * Make a plan if we don't have one,
-                             * and if we haven't given up building attempts this turn.
-                             */
-
-                            if (buildingPlan.empty() && (ourPlayerData.getResources().getTotal() > 1)
-                                && (failedBuildingAttempts < MAX_DENIED_BUILDING_PER_TURN))
-                            {
-                                planBuilding();
+                            considerPlayKnightCard();  // might set expectPLACING_ROBBER and waitingForGameState
+                        }
 
-                                    /*
-                                     * planBuilding takes these actions, sets buildingPlan and other fields
-                                     * (see its javadoc):
-                                     *
-                                    decisionMaker.planStuff(robotParameters.getStrategyType());
+                        /**
+                         * make a plan if we don't have one,
+                         * and if we haven't given up building
+                         * attempts this turn.
+                         */
+                        if ( (! expectPLACING_ROBBER) && buildingPlan.empty()
+                             && (ourPlayerData.getResources().getTotal() > 1)
+                             && (failedBuildingAttempts < MAX_DENIED_BUILDING_PER_TURN))
+                        {
+                            planBuilding();
 
-                                    if (! buildingPlan.empty())
-                                    {
-                                        lastTarget = (SOCPossiblePiece) buildingPlan.peek();
-                                        negotiator.setTargetPiece(ourPlayerNumber, buildingPlan.peek());
-                                    }
-                                     */
+                                /*
+                                 * planBuilding takes these actions, sets buildingPlan and other fields
+                                 * (see its javadoc):
+                                 *
+                                decisionMaker.planStuff(robotParameters.getStrategyType());
 
-                                if ( ! buildingPlan.empty())
+                                if (! buildingPlan.empty())
                                 {
-                                    // If we have the resources right now, ask to Special Build
-
-                                    final SOCPossiblePiece targetPiece = buildingPlan.peek();
-                                    final SOCResourceSet targetResources = targetPiece.getResourcesToBuild();
-                                        // may be null
-
-                                    if ((ourPlayerData.getResources().contains(targetResources)))
-                                    {
-                                        // Ask server for the Special Building Phase.
-                                        // (TODO) if FAST_STRATEGY: Maybe randomly don't ask, to lower opponent difficulty?
-                                        waitingForSpecialBuild = true;
-                                        client.buildRequest(game, -1);
-                                        pause(100);
-                                    }
+                                    lastTarget = (SOCPossiblePiece) buildingPlan.peek();
+                                    negotiator.setTargetPiece(ourPlayerNumber, buildingPlan.peek());
                                 }
-                            }
+                                 */
                         }
 
-                        if ((! waitingForOurTurn) && ourTurn)
+                        //D.ebugPrintln("DONE PLANNING");
+                        if ( (! expectPLACING_ROBBER) && (! buildingPlan.empty()))
                         {
-                            if (! (expectPLAY && (counter < 4000)))
-                            {
-                                counter = 0;
-
-                                //D.ebugPrintln("DOING PLAY1");
-                                if (D.ebugOn)
-                                {
-                                    client.sendText(game, "================================");
+                            // Time to build something.
 
-                                    // for each player in game:
-                                    //    sendText and debug-prn game.getPlayer(i).getResources()
-                                    printResources();
-                                }
+                            // Either ask to build a piece, or use trading or development
+                            // cards to get resources to build it.  See javadoc for flags set
+                            // (expectPLACING_ROAD, etc).  In a future iteration of the run loop
+                            // with the expected PLACING_ state, we'll build whatWeWantToBuild
+                            // in placeIfExpectPlacing().
 
-                                /**
-                                 * if we haven't played a dev card yet,
-                                 * and we have a knight, and we can get
-                                 * largest army, play the knight.
-                                 * If we're in SPECIAL_BUILDING (not PLAY1),
-                                 * can't trade or play development cards.
-                                 *
-                                 * In scenario _SC_PIRI (which has no robber and
-                                 * no largest army), play one whenever we have
-                                 * it, someone else has resources, and we can
-                                 * convert a ship to a warship.
-                                 */
-                                if ((game.getGameState() == SOCGame.PLAY1) && ! ourPlayerData.hasPlayedDevCard())
-                                {
-                                    considerPlayKnightCard();  // might set expectPLACING_ROBBER and waitingForGameState
-                                }
+                            buildOrGetResourceByTradeOrCard();
+                        }
 
-                                /**
-                                 * make a plan if we don't have one,
-                                 * and if we haven't given up building
-                                 * attempts this turn.
-                                 */
-                                if ( (! expectPLACING_ROBBER) && buildingPlan.empty()
-                                     && (ourPlayerData.getResources().getTotal() > 1)
-                                     && (failedBuildingAttempts < MAX_DENIED_BUILDING_PER_TURN))
-                                {
-                                    planBuilding();
-
-                                        /*
-                                         * planBuilding takes these actions, sets buildingPlan and other fields
-                                         * (see its javadoc):
-                                         *
-                                        decisionMaker.planStuff(robotParameters.getStrategyType());
-
-                                        if (! buildingPlan.empty())
-                                        {
-                                            lastTarget = (SOCPossiblePiece) buildingPlan.peek();
-                                            negotiator.setTargetPiece(ourPlayerNumber, buildingPlan.peek());
-                                        }
-                                         */
-                                }
+                        /**
+                         * see if we're done with our turn
+                         */
+                        if (! (expectPLACING_SETTLEMENT || expectPLACING_FREE_ROAD1 || expectPLACING_FREE_ROAD2
+                               || expectPLACING_ROAD || expectPLACING_CITY || expectPLACING_SHIP
+                               || expectWAITING_FOR_DISCOVERY || expectWAITING_FOR_MONOPOLY
+                               || expectPLACING_ROBBER || waitingForTradeMsg || waitingForTradeResponse
+                               || waitingForDevCard
+                               || (waitingForPickSpecialItem != null)))
+                        {
+                            // Any last things for turn from game's scenario?
+                            boolean scenActionTaken = false;
+                            if (game.isGameOptionSet(SOCGameOption.K_SC_PIRI))
+                            {
+                                // possibly attack pirate fortress
+                                scenActionTaken = considerScenarioTurnFinalActions();
+                            }
 
-                                //D.ebugPrintln("DONE PLANNING");
-                                if ( (! expectPLACING_ROBBER) && (! buildingPlan.empty()))
-                                {
-                                    // Time to build something.
+                            if (! scenActionTaken)
+                            {
+                                resetFieldsAtEndTurn();
+                                    /*
+                                     * These state fields are reset:
+                                     *
+                                    waitingForGameState = true;
+                                    counter = 0;
+                                    expectPLAY = true;
+                                    waitingForOurTurn = true;
 
-                                    // Either ask to build a piece, or use trading or development
-                                    // cards to get resources to build it.  See javadoc for flags set
-                                    // (expectPLACING_ROAD, etc).  In a future iteration of the run loop
-                                    // with the expected PLACING_ state, we'll build whatWeWantToBuild
-                                    // in placeIfExpectPlacing().
+                                    doneTrading = (robotParameters.getTradeFlag() != 1);
 
-                                    buildOrGetResourceByTradeOrCard();
-                                }
+                                    //D.ebugPrintln("!!! ENDING TURN !!!");
+                                    negotiator.resetIsSelling();
+                                    negotiator.resetOffersMade();
+                                    buildingPlan.clear();
+                                    negotiator.resetTargetPieces();
+                                     */
 
-                                /**
-                                 * see if we're done with our turn
-                                 */
-                                if (! (expectPLACING_SETTLEMENT || expectPLACING_FREE_ROAD1 || expectPLACING_FREE_ROAD2
-                                       || expectPLACING_ROAD || expectPLACING_CITY || expectPLACING_SHIP
-                                       || expectWAITING_FOR_DISCOVERY || expectWAITING_FOR_MONOPOLY
-                                       || expectPLACING_ROBBER || waitingForTradeMsg || waitingForTradeResponse
-                                       || waitingForDevCard
-                                       || (waitingForPickSpecialItem != null)))
-                                {
-                                    // Any last things for turn from game's scenario?
-                                    boolean scenActionTaken = false;
-                                    if (game.isGameOptionSet(SOCGameOption.K_SC_PIRI))
-                                    {
-                                        // possibly attack pirate fortress
-                                        scenActionTaken = considerScenarioTurnFinalActions();
-                                    }
-
-                                    if (! scenActionTaken)
-                                    {
-                                        resetFieldsAtEndTurn();
-                                            /*
-                                             * These state fields are reset:
-                                             *
-                                            waitingForGameState = true;
-                                            counter = 0;
-                                            expectPLAY = true;
-                                            waitingForOurTurn = true;
-
-                                            doneTrading = (robotParameters.getTradeFlag() != 1);
-
-                                            //D.ebugPrintln("!!! ENDING TURN !!!");
-                                            negotiator.resetIsSelling();
-                                            negotiator.resetOffersMade();
-                                            buildingPlan.clear();
-                                            negotiator.resetTargetPieces();
-                                             */
-
-                                        pause(1500);
-                                        client.endTurn(game);
-                                    }
-                                }
+                                pause(1500);
+                                client.endTurn(game);
                             }
                         }
                     }
+                }
+            }
 
-                    /**
-                     * Placement: Make various putPiece calls; server has told us it's OK to buy them.
-                     * Call client.putPiece.
-                     * Works when it's our turn and we have an expect flag set
-                     * (such as expectPLACING_SETTLEMENT, in these game states:
-                     * START1A - START2B or - START3B
-                     * PLACING_SETTLEMENT, PLACING_ROAD, PLACING_CITY
-                     * PLACING_FREE_ROAD1, PLACING_FREE_ROAD2
-                     */
-                    if (! waitingForGameState)
-                    {
-                        placeIfExpectPlacing();
-                    }
-
-                    /**
-                     * End of various putPiece placement calls.
-                     */
-
-                    /*
-                       if (game.getGameState() == SOCGame.OVER) {
-                       client.leaveGame(game);
-                       alive = false;
-                       }
-                     */
-
-                    /**
-                     * Handle various message types here at bottom of loop.
-                     */
-                    switch (mesType)
-                    {
-                    case SOCMessage.SETTURN:
-                        game.setCurrentPlayerNumber(((SOCSetTurn) mes).getPlayerNumber());
-                        break;
-
-                    case SOCMessage.PUTPIECE:
-                        /**
-                         * this is for player tracking
-                         */
-                        {
-                            final SOCPutPiece mpp = (SOCPutPiece) mes;
-                            final int pn = mpp.getPlayerNumber();
-                            final int coord = mpp.getCoordinates();
-                            final int pieceType = mpp.getPieceType();
-                            handlePUTPIECE_updateTrackers(pn, coord, pieceType);
-                        }
+            /**
+             * Placement: Make various putPiece calls; server has told us it's OK to buy them.
+             * Call client.putPiece.
+             * Works when it's our turn and we have an expect flag set
+             * (such as expectPLACING_SETTLEMENT, in these game states:
+             * START1A - START2B or - START3B
+             * PLACING_SETTLEMENT, PLACING_ROAD, PLACING_CITY
+             * PLACING_FREE_ROAD1, PLACING_FREE_ROAD2
+             */
+            if (! waitingForGameState)
+            {
+                placeIfExpectPlacing();
+            }
 
-                        // For initial placement of our own pieces, also checks
-                        // and clears expectPUTPIECE_FROM_START1A,
-                        // and sets expectSTART1B, etc.  The final initial putpiece
-                        // clears expectPUTPIECE_FROM_START2B and sets expectPLAY.
+            /**
+             * End of various putPiece placement calls.
+             */
 
-                        break;
+            /*
+               if (game.getGameState() == SOCGame.OVER) {
+               client.leaveGame(game);
+               alive = false;
+               }
+             */
 
-                    case SOCMessage.MOVEPIECE:
-                        /**
-                         * this is for player tracking of moved ships
-                         */
-                        {
-                            final SOCMovePiece mpp = (SOCMovePiece) mes;
-                            final int pn = mpp.getPlayerNumber();
-                            final int coord = mpp.getToCoord();
-                            final int pieceType = mpp.getPieceType();
-                            // TODO what about getFromCoord()?
-                            handlePUTPIECE_updateTrackers(pn, coord, pieceType);
-                        }
-                        break;
+            /**
+             * Handle various message types here at bottom of loop.
+             */
+            switch (mesType)
+            {
+            case SOCMessage.SETTURN:
+                game.setCurrentPlayerNumber(((SOCSetTurn) mes).getPlayerNumber());
+                break;
 
-                    case SOCMessage.DICERESULT:
-                        if (expectDICERESULT)
-                        {
-                            expectDICERESULT = false;
+            case SOCMessage.PUTPIECE:
+                /**
+                 * this is for player tracking
+                 */
+                {
+                    final SOCPutPiece mpp = (SOCPutPiece) mes;
+                    final int pn = mpp.getPlayerNumber();
+                    final int coord = mpp.getCoordinates();
+                    final int pieceType = mpp.getPieceType();
+                    handlePUTPIECE_updateTrackers(pn, coord, pieceType);
+                }
 
-                            if (((SOCDiceResult) mes).getResult() == 7)
-                            {
-                                final boolean robWithoutRobber = game.isGameOptionSet(SOCGameOption.K_SC_PIRI);
+                // For initial placement of our own pieces, also checks
+                // and clears expectPUTPIECE_FROM_START1A,
+                // and sets expectSTART1B, etc.  The final initial putpiece
+                // clears expectPUTPIECE_FROM_START2B and sets expectPLAY.
 
-                                if (! robWithoutRobber)
-                                    moveRobberOnSeven = true;
+                break;
 
-                                if (ourPlayerData.getResources().getTotal() > 7)
-                                    expectDISCARD = true;
+            case SOCMessage.MOVEPIECE:
+                /**
+                 * this is for player tracking of moved ships
+                 */
+                {
+                    final SOCMovePiece mpp = (SOCMovePiece) mes;
+                    final int pn = mpp.getPlayerNumber();
+                    final int coord = mpp.getToCoord();
+                    final int pieceType = mpp.getPieceType();
+                    // TODO what about getFromCoord()?
+                    handlePUTPIECE_updateTrackers(pn, coord, pieceType);
+                }
+                break;
 
-                                else if (ourTurn)
-                                {
-                                    if (! robWithoutRobber)
-                                        expectPLACING_ROBBER = true;
-                                    else
-                                        expectPLAY1 = true;
-                                }
-                            }
-                            else
-                            {
-                                expectPLAY1 = true;
-                            }
-                        }
-                        break;
+            case SOCMessage.DICERESULT:
+                if (expectDICERESULT)
+                {
+                    expectDICERESULT = false;
 
-                    case SOCMessage.PICKRESOURCESREQUEST:
-                        // gold hex
-                        counter = 0;
-                        pickFreeResources( ((SOCPickResourcesRequest) mes).getParam() );
-                        waitingForGameState = true;
-                        if (game.isInitialPlacement())
-                        {
-                            if (game.isGameOptionSet(SOCGameOption.K_SC_3IP))
-                                expectSTART3B = true;
-                            else
-                                expectSTART2B = true;
-                        } else {
-                            expectPLAY1 = true;
-                        }
-                        break;
+                    if (((SOCDiceResult) mes).getResult() == 7)
+                    {
+                        final boolean robWithoutRobber = game.isGameOptionSet(SOCGameOption.K_SC_PIRI);
 
-                    case SOCMessage.DISCARDREQUEST:
-                        expectDISCARD = false;
+                        if (! robWithoutRobber)
+                            moveRobberOnSeven = true;
 
-                        /**
-                         * If we haven't recently discarded...
-                         */
+                        if (ourPlayerData.getResources().getTotal() > 7)
+                            expectDISCARD = true;
 
-                        //	if (! ((expectPLACING_ROBBER || expectPLAY1) &&
-                        //	       (counter < 4000))) {
-                        if ((game.getCurrentDice() == 7) && ourTurn)
+                        else if (ourTurn)
                         {
-                            if (! game.isGameOptionSet(SOCGameOption.K_SC_PIRI))
+                            if (! robWithoutRobber)
                                 expectPLACING_ROBBER = true;
                             else
                                 expectPLAY1 = true;
                         }
-                        else
-                        {
-                            expectPLAY1 = true;
-                        }
-
-                        counter = 0;
-                        client.discard(game, DiscardStrategy.discard
-                            (((SOCDiscardRequest) mes).getNumberOfDiscards(), buildingPlan, rand,
-                              ourPlayerData, robotParameters, decisionMaker, negotiator));
+                    }
+                    else
+                    {
+                        expectPLAY1 = true;
+                    }
+                }
+                break;
 
-                        //	}
-                        break;
+            case SOCMessage.PICKRESOURCESREQUEST:
+                // gold hex
+                counter = 0;
+                pickFreeResources( ((SOCPickResourcesRequest) mes).getParam() );
+                waitingForGameState = true;
+                if (game.isInitialPlacement())
+                {
+                    if (game.isGameOptionSet(SOCGameOption.K_SC_3IP))
+                        expectSTART3B = true;
+                    else
+                        expectSTART2B = true;
+                } else {
+                    expectPLAY1 = true;
+                }
+                break;
 
-                    case SOCMessage.CHOOSEPLAYERREQUEST:
-                        {
-                            final int choicePl = RobberStrategy.chooseRobberVictim
-                                (((SOCChoosePlayerRequest) mes).getChoices(), game, playerTrackers);
-                            counter = 0;
-                            client.choosePlayer(game, choicePl);
-                        }
-                        break;
+            case SOCMessage.DISCARDREQUEST:
+                expectDISCARD = false;
 
-                    case SOCMessage.CHOOSEPLAYER:
-                        {
-                            final int vpn = ((SOCChoosePlayer) mes).getChoice();
-                            // Cloth is more valuable.
-                            // TODO decide when we should choose resources instead
-                            client.choosePlayer(game, -(vpn + 1));
-                        }
-                        break;
+                /**
+                 * If we haven't recently discarded...
+                 */
 
-                    case SOCMessage.SETSPECIALITEM:
-                        if (waitingForPickSpecialItem != null)
-                        {
-                            final SOCSetSpecialItem siMes = (SOCSetSpecialItem) mes;
-                            if (siMes.typeKey.equals(waitingForPickSpecialItem))
-                            {
-                                // This could be the "pick special item" message we've been waiting for,
-                                // or a related SET/CLEAR message that precedes it
+                //	if (! ((expectPLACING_ROBBER || expectPLAY1) &&
+                //	       (counter < 4000))) {
+                if ((game.getCurrentDice() == 7) && ourTurn)
+                {
+                    if (! game.isGameOptionSet(SOCGameOption.K_SC_PIRI))
+                        expectPLACING_ROBBER = true;
+                    else
+                        expectPLAY1 = true;
+                }
+                else
+                {
+                    expectPLAY1 = true;
+                }
 
-                                switch (siMes.op)
-                                {
-                                case SOCSetSpecialItem.OP_PICK:
-                                    waitingForPickSpecialItem = null;
+                counter = 0;
+                client.discard(game, DiscardStrategy.discard
+                    (((SOCDiscardRequest) mes).getNumberOfDiscards(), buildingPlan, rand,
+                      ourPlayerData, robotParameters, decisionMaker, negotiator));
 
-                                    // Now that this is received, can continue our turn.
-                                    // Any specific action needed? Not for SC_WOND.
-                                    break;
+                //	}
+                break;
 
-                                case SOCSetSpecialItem.OP_DECLINE:
-                                    waitingForPickSpecialItem = null;
+            case SOCMessage.CHOOSEPLAYERREQUEST:
+                {
+                    final int choicePl = RobberStrategy.chooseRobberVictim
+                        (((SOCChoosePlayerRequest) mes).getChoices(), game, playerTrackers);
+                    counter = 0;
+                    client.choosePlayer(game, choicePl);
+                }
+                break;
 
-                                    // TODO how to prevent asking again? (similar to whatWeFailedtoBuild)
-                                    break;
+            case SOCMessage.CHOOSEPLAYER:
+                {
+                    final int vpn = ((SOCChoosePlayer) mes).getChoice();
+                    // Cloth is more valuable.
+                    // TODO decide when we should choose resources instead
+                    client.choosePlayer(game, -(vpn + 1));
+                }
+                break;
 
-                                // ignore SET or CLEAR that precedes the PICK message
-                                }
-                            }
-                        }
-                        break;
+            case SOCMessage.SETSPECIALITEM:
+                if (waitingForPickSpecialItem != null)
+                {
+                    final SOCSetSpecialItem siMes = (SOCSetSpecialItem) mes;
+                    if (siMes.typeKey.equals(waitingForPickSpecialItem))
+                    {
+                        // This could be the "pick special item" message we've been waiting for,
+                        // or a related SET/CLEAR message that precedes it
 
-                    case SOCMessage.ROBOTDISMISS:
-                        if ((! expectDISCARD) && (! expectPLACING_ROBBER))
+                        switch (siMes.op)
                         {
-                            client.leaveGame(game, "dismiss msg", false);
-                            alive = false;
-                        }
-                        break;
+                        case SOCSetSpecialItem.OP_PICK:
+                            waitingForPickSpecialItem = null;
 
-                    case SOCMessage.TIMINGPING:
-                        // Once-per-second message from the pinger thread
-                        counter++;
-                        break;
+                            // Now that this is received, can continue our turn.
+                            // Any specific action needed? Not for SC_WOND.
+                            break;
 
-                    }  // switch (mesType) - for some types, at bottom of loop body
+                        case SOCSetSpecialItem.OP_DECLINE:
+                            waitingForPickSpecialItem = null;
 
-                    if (counter > 15000)
-                    {
-                        // We've been waiting too long, must be a bug: Leave the game.
-                        client.leaveGame(game, "counter 15000", false);
-                        alive = false;
-                    }
+                            // TODO how to prevent asking again? (similar to whatWeFailedtoBuild)
+                            break;
 
-                    if ((failedBuildingAttempts > (2 * MAX_DENIED_BUILDING_PER_TURN))
-                        && game.isInitialPlacement())
-                    {
-                        // Apparently can't decide where we can initially place:
-                        // Leave the game.
-                        client.leaveGame(game, "failedBuildingAttempts at start", false);
-                        alive = false;
+                        // ignore SET or CLEAR that precedes the PICK message
+                        }
                     }
-
-                    /*
-                       if (D.ebugOn) {
-                       if (mes != null) {
-                       debugInfo();
-                       D.ebugPrintln("~~~~~~~~~~~~~~~~");
-                       }
-                       }
-                     */
-                    yield();
                 }
-                catch (Exception e)
+                break;
+
+            case SOCMessage.ROBOTDISMISS:
+                if ((! expectDISCARD) && (! expectPLACING_ROBBER))
                 {
-                    // Print exception; ignore errors due to game reset in another thread
-                    if (alive && ((game == null) || (game.getGameState() != SOCGame.RESET_OLD)))
-                    {
-                        ++turnExceptionCount;  // TODO end our turn if too many
-
-                        String eMsg = (turnExceptionCount == 1)
-                            ? "*** Robot caught an exception - " + e
-                            : "*** Robot caught an exception (" + turnExceptionCount + " this turn) - " + e;
-                        D.ebugPrintln(eMsg);
-                        System.out.println(eMsg);
-                        e.printStackTrace();
-                    }
+                    client.leaveGame(game, "dismiss msg", false);
+                    alive = false;
                 }
+                break;
+
+            case SOCMessage.TIMINGPING:
+                // Once-per-second message from the pinger thread;
+                // a faster clock counts more than 1 second per ping
+                counter += getClock().getPingSeconds();
+                break;
+
+            }  // switch (mesType) - for some types, at bottom of loop body
+
+            if (counter > 15000)
+            {
+                // We've been waiting too long, must be a bug: Leave the game.
+                client.leaveGame(game, "counter 15000", false);
+                alive = false;
+            }
+
+            if ((failedBuildingAttempts > (2 * MAX_DENIED_BUILDING_PER_TURN))
+                && game.isInitialPlacement())
+            {
+                // Apparently can't decide where we can initially place:
+                // Leave the game.
+                client.leaveGame(game, "failedBuildingAttempts at start", false);
+                alive = false;
             }
+
+            /*
+               if (D.ebugOn) {
+               if (mes != null) {
+               debugInfo();
+               D.ebugPrintln("~~~~~~~~~~~~~~~~");
+               }
+               }
+             */
+            yield();
         }
-        else
+        catch (Exception e)
         {
-            System.out.println("AGG! NO PINGER!");
+            // Print exception; ignore errors due to game reset in another thread
+            if (alive && ((game == null) || (game.getGameState() != SOCGame.RESET_OLD)))
+            {
+                ++turnExceptionCount;  // TODO end our turn if too many
+
+                String eMsg = (turnExceptionCount == 1)
+                    ? "*** Robot caught an exception - " + e
+                    : "*** Robot caught an exception (" + turnExceptionCount + " this turn) - " + e;
+                D.ebugPrintln(eMsg);
+                System.out.println(eMsg);
+                e.printStackTrace();
+            }
         }
+    }
+
+    /**
+     * The brain has stopped running: Release its references to game data and other objects.
+     * Called at the end of {@link #run()}, or by {@link SOCRobotBrainScheduler} once {@link #alive} is false.
+     * @since 2.0.00
+     */
+    void brainStopped()
+    {
+        runningInScheduler = false;
 
         //D.ebugPrintln("STOPPING AND DEALLOCATING");
         gameEventQ = null;
         client.addCleanKill();
+        timings.logIfChanged();
         client = null;
         game = null;
         ourPlayerData = null;
@@ -2297,7 +2481,9 @@ public class SOCRobotBrain extends Thread
                     expectPUTPIECE_FROM_START1A = true;
                     counter = 0;
                     waitingForGameState = true;
+                    final long t0 = timings.start();
                     final int firstSettleNode = openingBuildStrategy.planInitialSettlements();
+                    timings.end(SOCRobotTimings.PLAN_OPENING, t0);
                     placeFirstSettlement(firstSettleNode);
                 }
             }
@@ -2327,7 +2513,9 @@ public class SOCRobotBrain extends Thread
                     expectPUTPIECE_FROM_START2A = true;
                     counter = 0;
                     waitingForGameState = true;
+                    final long t0 = timings.start();
                     final int secondSettleNode = openingBuildStrategy.planSecondSettlement();
+                    timings.end(SOCRobotTimings.PLAN_OPENING, t0);
                     placeInitSettlement(secondSettleNode);
                 }
             }
@@ -2357,7 +2545,9 @@ public class SOCRobotBrain extends Thread
                     expectPUTPIECE_FROM_START3A = true;
                     counter = 0;
                     waitingForGameState = true;
+                    final long t0 = timings.start();
                     final int secondSettleNode = openingBuildStrategy.planSecondSettlement();  // TODO planThirdSettlement
+                    timings.end(SOCRobotTimings.PLAN_OPENING, t0);
                     placeInitSettlement(secondSettleNode);
                 }
             }
@@ -3062,13 +3252,15 @@ public class SOCRobotBrain extends Thread
      * in {@link #handlePUTPIECE_updateGameData(SOCPutPiece)}.
      * This prevents the need for tracker "undo" work if a human
      * player changes their mind on where to place the settlement.
+     *<P>
+     * Package access for {@link SOCRobotSimulator}, which calls this for each piece placed.
      *
      * @param pn  Piece's player number
      * @param coord  Piece coordinate
      * @param pieceType  Piece type, as in {@link SOCPlayingPiece#SETTLEMENT}
      * @since 1.1.08
      */
-    private void handlePUTPIECE_updateTrackers(final int pn, final int coord, final int pieceType)
+    void handlePUTPIECE_updateTrackers(final int pn, final int coord, final int pieceType)
     {
         switch (pieceType)
         {
@@ -3314,11 +3506,16 @@ public class SOCRobotBrain extends Thread
      * <LI> {@link SOCRobotNegotiator#setTargetPiece(int, SOCPossiblePiece)}
      *</UL>
      *
+     *<P>
+     * Package access for {@link SOCRobotSimulator}.
+     *
      * @since 1.1.08
      */
-    private final void planBuilding()
+    final void planBuilding()
     {
+        final long t0 = timings.start();
         decisionMaker.planStuff(robotParameters.getStrategyType());
+        timings.end(SOCRobotTimings.PLAN_BUILDING, t0);
 
         if (! buildingPlan.empty())
         {
@@ -3574,6 +3771,7 @@ public class SOCRobotBrain extends Thread
             }
         }
 
+        final long t0 = timings.start();
         trackersIter = playerTrackers.values().iterator();
 
         while (trackersIter.hasNext())
@@ -3581,6 +3779,7 @@ public class SOCRobotBrain extends Thread
             SOCPlayerTracker tracker = trackersIter.next();
             tracker.updateThreats(playerTrackers);
         }
+        timings.end(SOCRobotTimings.UPDATE_THREATS, t0);
 
         if (isCancel)
         {
@@ -3839,6 +4038,7 @@ public class SOCRobotBrain extends Thread
         ///
         /// update LR values and ETA
         ///
+        final long t0 = timings.start();
         trackersIter = playerTrackers.values().iterator();
 
         while (trackersIter.hasNext())
@@ -3869,6 +4069,7 @@ public class SOCRobotBrain extends Thread
 
             tracker.releaseMonitor();
         }
+        timings.end(SOCRobotTimings.UPDATE_THREATS, t0);
     }
 
     /**
@@ -4114,6 +4315,9 @@ public class SOCRobotBrain extends Thread
      * In a 6-player game, pause only 75% as long, to shorten the overall game delay,
      * except if {@link #waitingForTradeResponse}.
      * This is indicated by the {@link #pauseFaster} flag.
+     *<P>
+     * The pause is then scaled by this brain's {@link #getClock()}:
+     * A faster clock pauses for less time, and {@link SOCRobotClock#INSTANT} doesn't pause.
      *
      * @param msec  number of milliseconds to pause
      */
@@ -4124,12 +4328,7 @@ public class SOCRobotBrain extends Thread
         else if (pauseFaster && ! waitingForTradeResponse)
             msec = (msec / 2) + (msec / 4);
 
-        try
-        {
-            yield();
-            sleep(msec);
-        }
-        catch (InterruptedException exc) {}
+        getClock().pause(msec);
     }
 
     /**
@@ -4191,7 +4390,9 @@ public class SOCRobotBrain extends Thread
     {
         // TODO handle ships here
 
+        final long t0 = timings.start();
         final int roadEdge = openingBuildStrategy.planInitRoad();
+        timings.end(SOCRobotTimings.PLAN_OPENING, t0);
 
         //D.ebugPrintln("!!! PUTTING INIT ROAD !!!");
         pause(500);
@@ -4273,246 +4474,53 @@ public class SOCRobotBrain extends Thread
      * do some trading -- this method is obsolete and not called.
      * Instead see {@link #makeOffer(SOCPossiblePiece)}, {@link #considerOffer(SOCTradeOffer)},
      * etc, and the javadoc for {@link #negotiator}.
+     *<P>
+     * Before v2.0.00 this built a tree of {@code SOCTradeTree} nodes with a copy of our resources
+     * at each node. It now searches packed resource keys with {@link SOCBankTradePlanner}.
      */
     protected void tradeStuff()
     {
         /**
-         * make a tree of all the possible trades that we can
-         * make with the bank or ports
-         */
-        SOCTradeTree treeRoot = new SOCTradeTree(ourPlayerData.getResources(), (SOCTradeTree) null);
-        Hashtable<SOCResourceSet, SOCTradeTree> treeNodes = new Hashtable<SOCResourceSet, SOCTradeTree>();
-        treeNodes.put(treeRoot.getResourceSet(), treeRoot);
-
-        Queue<SOCTradeTree> queue = new Queue<SOCTradeTree>();
-        queue.put(treeRoot);
-
-        while (! queue.empty())
-        {
-            SOCTradeTree currentTreeNode = queue.get();
-
-            //D.ebugPrintln("%%% Expanding "+currentTreeNode.getResourceSet());
-            expandTradeTreeNode(currentTreeNode, treeNodes);
-
-            Enumeration<SOCTradeTree> childrenEnum = currentTreeNode.getChildren().elements();
-
-            while (childrenEnum.hasMoreElements())
-            {
-                SOCTradeTree child = childrenEnum.nextElement();
-
-                //D.ebugPrintln("%%% Child "+child.getResourceSet());
-                if (child.needsToBeExpanded())
-                {
-                    /**
-                     * make a new table entry
-                     */
-                    treeNodes.put(child.getResourceSet(), child);
-                    queue.put(child);
-                }
-            }
-        }
-
-        /**
-         * find the best trade result and then perform the trades
+         * search the possible trades that we can make
+         * with the bank or ports for the best outcome
          */
-        SOCResourceSet bestTradeOutcome = null;
-        int bestTradeScore = -1;
-        Enumeration<SOCResourceSet> possibleTrades = treeNodes.keys();
-
-        while (possibleTrades.hasMoreElements())
-        {
-            SOCResourceSet possibleTradeOutcome = possibleTrades.nextElement();
-
-            //D.ebugPrintln("%%% "+possibleTradeOutcome);
-            int score = scoreTradeOutcome(possibleTradeOutcome);
-
-            if (score > bestTradeScore)
-            {
-                bestTradeOutcome = possibleTradeOutcome;
-                bestTradeScore = score;
-            }
-        }
+        if (bankTradePlanner == null)
+            bankTradePlanner = new SOCBankTradePlanner();
+        if (! bankTradePlanner.plan(ourPlayerData))
+            return;
 
         /**
-         * find the trade outcome in the tree, then follow
-         * the chain of parents until you get to the root
-         * all the while pushing the outcomes onto a stack.
-         * then pop outcomes off of the stack and perfoem
-         * the trade to get each outcome
+         * perform the trades to get that outcome
          */
-        Stack<SOCTradeTree> stack = new Stack<SOCTradeTree>();
-        SOCTradeTree cursor = treeNodes.get(bestTradeOutcome);
-
-        while (cursor != treeRoot)
-        {
-            stack.push(cursor);
-            cursor = cursor.getParent();
-        }
-
         SOCResourceSet give = new SOCResourceSet();
         SOCResourceSet get = new SOCResourceSet();
-        SOCTradeTree currTreeNode;
-        SOCTradeTree prevTreeNode;
-        prevTreeNode = treeRoot;
-
-        while (! stack.empty())
+        for (int i = 0, n = bankTradePlanner.getTradeCount(); i < n; ++i)
         {
-            currTreeNode = stack.pop();
-            give.setAmounts(prevTreeNode.getResourceSet());
-            give.subtract(currTreeNode.getResourceSet());
-            get.setAmounts(currTreeNode.getResourceSet());
-            get.subtract(prevTreeNode.getResourceSet());
-
-            /**
-             * get rid of the negative numbers
-             */
-            for (int rt = SOCResourceConstants.CLAY;
-                    rt <= SOCResourceConstants.WOOD; rt++)
-            {
-                if (give.getAmount(rt) < 0)
-                {
-                    give.setAmount(0, rt);
-                }
-
-                if (get.getAmount(rt) < 0)
-                {
-                    get.setAmount(0, rt);
-                }
-            }
+            bankTradePlanner.getTrade(i, give, get);
 
             //D.ebugPrintln("Making bank trade:");
             //D.ebugPrintln("give: "+give);
             //D.ebugPrintln("get: "+get);
             client.bankTrade(game, give, get);
             pause(2000);
-            prevTreeNode = currTreeNode;
-        }
-    }
-
-    /**
-     * expand a trade tree node
-     *
-     * @param currentTreeNode   the tree node that we're expanding
-     * @param table  the table of all of the nodes in the tree except this one
-     */
-    protected void expandTradeTreeNode(SOCTradeTree currentTreeNode, Hashtable<SOCResourceSet,SOCTradeTree> table)
-    {
-        /**
-         * the resources that we have to work with
-         */
-        SOCResourceSet rSet = currentTreeNode.getResourceSet();
-
-        /**
-         * go through the resources one by one, and generate all possible
-         * resource sets that result from trading that type of resource
-         */
-        for (int giveResource = SOCResourceConstants.CLAY;
-                giveResource <= SOCResourceConstants.WOOD; giveResource++)
-        {
-            /**
-             * find the ratio at which we can trade
-             */
-            int tradeRatio;
-
-            if (ourPlayerData.getPortFlag(giveResource))
-            {
-                tradeRatio = 2;
-            }
-            else if (ourPlayerData.getPortFlag(SOCBoard.MISC_PORT))
-            {
-                tradeRatio = 3;
-            }
-            else
-            {
-                tradeRatio = 4;
-            }
-
-            /**
-             * make sure we have enough resources to trade
-             */
-            if (rSet.getAmount(giveResource) >= tradeRatio)
-            {
-                /**
-                 * trade the resource that we're looking at for one
-                 * of every other resource
-                 */
-                for (int getResource = SOCResourceConstants.CLAY;
-                        getResource <= SOCResourceConstants.WOOD;
-                        getResource++)
-                {
-                    if (getResource != giveResource)
-                    {
-                        SOCResourceSet newTradeResult = rSet.copy();
-                        newTradeResult.subtract(tradeRatio, giveResource);
-                        newTradeResult.add(1, getResource);
-
-                        SOCTradeTree newTree = new SOCTradeTree(newTradeResult, currentTreeNode);
-
-                        /**
-                         * if the trade results in a set of resources that is
-                         * equal to or worse than a trade we've already seen,
-                         * then we don't want to expand this tree node
-                         */
-                        Enumeration<SOCResourceSet> tableEnum = table.keys();
-
-                        while (tableEnum.hasMoreElements())
-                        {
-                            SOCResourceSet oldTradeResult = tableEnum.nextElement();
-
-                            /*
-                               //D.ebugPrintln("%%%     "+newTradeResult);
-                               //D.ebugPrintln("%%%  <= "+oldTradeResult+" : "+
-                               SOCResourceSet.lte(newTradeResult, oldTradeResult));
-                             */
-                            if (SOCResourceSet.lte(newTradeResult, oldTradeResult))
-                            {
-                                newTree.setNeedsToBeExpanded(false);
-
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
         }
     }
 
     /**
      * evaluate a trade outcome by calculating how much you could build with it
+     *<P>
+     * Before v2.0.00 this copied {@code tradeOutcome} and subtracted each piece's cost;
+     * it now calls {@link SOCBankTradePlanner#score(int, int, int, int, int, int)}, as does the
+     * trade search in {@link #tradeStuff()}.
      *
      * @param tradeOutcome  a set of resources that would be the result of trading
      */
     protected int scoreTradeOutcome(SOCResourceSet tradeOutcome)
     {
-        int score = 0;
-        SOCResourceSet tempTO = tradeOutcome.copy();
-
-        if ((ourPlayerData.getNumPieces(SOCPlayingPiece.SETTLEMENT) >= 1) && (ourPlayerData.hasPotentialSettlement()))
-        {
-            while (tempTO.contains(SOCGame.SETTLEMENT_SET))
-            {
-                score += 2;
-                tempTO.subtract(SOCGame.SETTLEMENT_SET);
-            }
-        }
-
-        if ((ourPlayerData.getNumPieces(SOCPlayingPiece.ROAD) >= 1) && (ourPlayerData.hasPotentialRoad()))
-        {
-            while (tempTO.contains(SOCGame.ROAD_SET))
-            {
-                score += 1;
-                tempTO.subtract(SOCGame.ROAD_SET);
-            }
-        }
-
-        if ((ourPlayerData.getNumPieces(SOCPlayingPiece.CITY) >= 1) && (ourPlayerData.hasPotentialCity()))
-        {
-            while (tempTO.contains(SOCGame.CITY_SET))
-            {
-                score += 2;
-                tempTO.subtract(SOCGame.CITY_SET);
-            }
-        }
+        final int score = SOCBankTradePlanner.score
+            (tradeOutcome.getAmount(SOCResourceConstants.CLAY), tradeOutcome.getAmount(SOCResourceConstants.ORE),
+             tradeOutcome.getAmount(SOCResourceConstants.SHEEP), tradeOutcome.getAmount(SOCResourceConstants.WHEAT),
+             tradeOutcome.getAmount(SOCResourceConstants.WOOD), SOCBankTradePlanner.getScoringFlags(ourPlayerData));
 
         //D.ebugPrintln("Score for "+tradeOutcome+" : "+score);
         return score;
@@ -4566,7 +4574,9 @@ public class SOCRobotBrain extends Thread
 
             if (offeredTo[ourPlayerNumber])
             {
+                final long t0 = timings.start();
                 response = negotiator.considerOffer2(offer, ourPlayerNumber);
+                timings.end(SOCRobotTimings.CONSIDER_OFFER, t0);
             }
         }
 
@@ -4585,7 +4595,9 @@ public class SOCRobotBrain extends Thread
     protected boolean makeOffer(SOCPossiblePiece target)
     {
         boolean result = false;
+        final long t0 = timings.start();
         SOCTradeOffer offer = negotiator.makeOffer(target);
+        timings.end(SOCRobotTimings.MAKE_OFFER, t0);
         ourPlayerData.setCurrentOffer(offer);
         negotiator.resetWantsAnotherOffer();
 
@@ -4721,6 +4733,8 @@ public class SOCRobotBrain extends Thread
      * or when a Gold Hex number is rolled.
      * If returns true, has called {@link #chooseFreeResources(SOCResourceSet, int, boolean)}
      * and has set {@link #resourceChoices}.
+     *<P>
+     * Package access for {@link SOCRobotSimulator}.
      *
      * @param targetResources  Resources needed to build our next planned piece,
      *             from {@link SOCPossiblePiece#getResourcesToBuild()}
@@ -4732,7 +4746,7 @@ public class SOCRobotBrain extends Thread
      * @return  true if we need <tt>numChoose</tt> resources
      * @since 2.0.00
      */
-    private boolean chooseFreeResourcesIfNeeded
+    boolean chooseFreeResourcesIfNeeded
         (SOCResourceSet targetResources, final int numChoose, final boolean chooseIfNotNeeded)
     {
         if (targetResources == null)
@@ -0,0 +1,277 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import soc.message.SOCMessage;
+import soc.message.SOCTimingPing;
+import soc.util.CappedQueue;
+import soc.util.CutoffExceededException;
+import soc.util.VirtualThreads;
+
+/**
+ * Runs many {@link SOCRobotBrain}s' message handling as tasks on a shared pool of worker threads,
+ * instead of each brain having its own thread waiting on its {@link SOCRobotBrain#gameEventQ gameEventQ}
+ * plus a {@link SOCRobotPinger} thread. A robot client seated in hundreds of games
+ * then needs only this pool and one timer thread.
+ *<P>
+ * When a message is put into a brain's queue, that brain is scheduled to run on a worker,
+ * which calls {@link SOCRobotBrain#processGameEvent(SOCMessage)} for each queued message
+ * (up to {@link #MAX_EVENTS_PER_RUN} before letting other brains run).
+ * Each brain runs on at most one worker at a time, and handles its messages in order.
+ *<P>
+ * Instead of a pinger thread per brain, a single timer thread puts each brain's once-per-second
+ * {@link SOCTimingPing} into its queue. Brains are spread over the {@link #TICK_SLOTS} slots of
+ * a timer wheel which ticks every 1/{@code TICK_SLOTS} second, so their pings don't all arrive at once.
+ *<P>
+ * Brain code sometimes sleeps, in {@link SOCRobotBrain#pause(int)}, which holds its worker thread;
+ * size the pool with that in mind, or use {@link VirtualThreads} whose workers are cheap.
+ *<P>
+ * To use, call {@link SOCRobotClient#setBrainScheduler(SOCRobotBrainScheduler)} before the client joins games;
+ * one scheduler can be shared by several robot clients.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCRobotBrainScheduler
+{
+    /** Number of slots in the timing ping wheel; each slot's brains are pinged once per second. */
+    public static final int TICK_SLOTS = 10;
+
+    /**
+     * Maximum number of messages a brain handles each time it's run, before
+     * it's put back at the end of the line for a worker thread.
+     */
+    public static final int MAX_EVENTS_PER_RUN = 32;
+
+    /** Worker threads which run brains' tasks */
+    private final ExecutorService workers;
+
+    /** Timer thread for the ping wheel */
+    private final ScheduledExecutorService ticker;
+
+    /** The ping wheel: Brains to ping at each tick, one list per slot; see {@link #TICK_SLOTS}. */
+    private final List<ConcurrentLinkedQueue<BrainTask>> wheel;
+
+    /** Number of ticks so far, to pick the {@link #wheel} slot to ping */
+    private int tickCount;
+
+    /** Slot number for the next brain added */
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    /** Number of brains currently scheduled here */
+    private final AtomicInteger brainCount = new AtomicInteger();
+
+    /**
+     * Create and start a scheduler.
+     * @param nThreads  Number of worker threads; if {@link VirtualThreads#isEnabled()}, they're virtual threads
+     * @throws IllegalArgumentException if {@code nThreads} &lt; 1
+     */
+    public SOCRobotBrainScheduler(final int nThreads)
+        throws IllegalArgumentException
+    {
+        if (nThreads < 1)
+            throw new IllegalArgumentException("nThreads: " + nThreads);
+
+        workers = Executors.newFixedThreadPool(nThreads, new ThreadFactory()
+        {
+            private final AtomicInteger n = new AtomicInteger();
+
+            public Thread newThread(Runnable r)
+            {
+                final Thread t = VirtualThreads.newThread(r, "robotBrainWorker-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+        wheel = new ArrayList<ConcurrentLinkedQueue<BrainTask>>(TICK_SLOTS);
+        for (int i = 0; i < TICK_SLOTS; ++i)
+            wheel.add(new ConcurrentLinkedQueue<BrainTask>());
+
+        ticker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+        {
+            public Thread newThread(Runnable r)
+            {
+                final Thread t = new Thread(r, "robotBrainTicker");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        final long tickMillis = 1000 / TICK_SLOTS;
+        ticker.scheduleAtFixedRate(new Runnable()
+        {
+            public void run()
+            {
+                tick();
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Start running a brain here; called from {@link SOCRobotBrain#start()}.
+     * Its messages will be handled by worker threads until it's no longer {@link SOCRobotBrain#alive alive}.
+     * @param brain  Brain to run
+     * @param q  The brain's game event queue
+     */
+    void add(final SOCRobotBrain brain, final CappedQueue<SOCMessage> q)
+    {
+        final BrainTask bt = new BrainTask(brain, q);
+        brainCount.incrementAndGet();
+        wheel.get((nextSlot.getAndIncrement() & 0x7FFFFFFF) % TICK_SLOTS).add(bt);
+        q.setPutListener(bt.putListener);
+        if (! q.empty())
+            bt.schedule();
+    }
+
+    /**
+     * Get the number of brains currently running here.
+     * @return the number of brains added which haven't yet stopped
+     */
+    public int getBrainCount()
+    {
+        return brainCount.get();
+    }
+
+    /**
+     * Stop the worker and timer threads. Brains still running here won't get any more messages handled.
+     */
+    public void shutdown()
+    {
+        ticker.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Ping each brain in the current wheel slot; called from {@link #ticker} thread.
+     * Removes brains which have stopped, or whose queues are full
+     * (like {@link SOCRobotPinger} stops when its queue is full).
+     */
+    private void tick()
+    {
+        final ConcurrentLinkedQueue<BrainTask> slot = wheel.get(tickCount);
+        tickCount = (tickCount + 1) % TICK_SLOTS;
+
+        for (Iterator<BrainTask> it = slot.iterator(); it.hasNext(); )
+        {
+            final BrainTask bt = it.next();
+            if (bt.stopped)
+            {
+                it.remove();
+                continue;
+            }
+
+            try
+            {
+                bt.q.put(bt.ping);  // will schedule bt
+            }
+            catch (CutoffExceededException e) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * A brain being run by this scheduler. Runs as a task on a worker thread
+     * whenever its queue's {@link #putListener} schedules it.
+     */
+    private final class BrainTask implements Runnable
+    {
+        final SOCRobotBrain brain;
+
+        final CappedQueue<SOCMessage> q;
+
+        /** This brain's timing ping */
+        final SOCTimingPing ping;
+
+        /** True while the task is waiting for or running on a worker thread */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /** Messages taken from {@link #q} to handle; used only by the worker running this task */
+        private final ArrayList<SOCMessage> events = new ArrayList<SOCMessage>(MAX_EVENTS_PER_RUN);
+
+        /** Set once the brain has stopped and {@link SOCRobotBrain#brainStopped()} has been called */
+        volatile boolean stopped;
+
+        /** Listener for {@link #q}: {@link #schedule()} this task when a message is put there. */
+        final Runnable putListener = new Runnable()
+        {
+            public void run()
+            {
+                schedule();
+            }
+        };
+
+        BrainTask(final SOCRobotBrain brain, final CappedQueue<SOCMessage> q)
+        {
+            this.brain = brain;
+            this.q = q;
+            ping = new SOCTimingPing(brain.getGame().getName());
+        }
+
+        /** Run this task on a worker, unless already waiting for or running on one. */
+        void schedule()
+        {
+            if ((! stopped) && scheduled.compareAndSet(false, true))
+                workers.execute(this);
+        }
+
+        /**
+         * On a worker thread: Handle some queued messages.
+         * Reschedules itself if more are queued, or cleans up if the brain has stopped.
+         */
+        public void run()
+        {
+            q.drainTo(events, MAX_EVENTS_PER_RUN);
+            for (final SOCMessage mes : events)
+            {
+                if (! brain.alive)
+                    break;
+                brain.processGameEvent(mes);
+            }
+            events.clear();
+
+            if (! brain.alive)
+            {
+                stopped = true;
+                q.setPutListener(null);
+                brainCount.decrementAndGet();
+                brain.brainStopped();
+                return;  // leave scheduled true, so we won't run again
+            }
+
+            scheduled.set(false);
+            if (! q.empty())
+                schedule();
+        }
+    }
+
+}
@@ -161,6 +161,13 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
      */
     private Hashtable<String, CappedQueue<SOCMessage>> brainQs = new Hashtable<String, CappedQueue<SOCMessage>>();
 
+    /**
+     * Scheduler to run our brains on a shared thread pool, or null to give each brain its own threads.
+     * @see #setBrainScheduler(SOCRobotBrainScheduler)
+     * @since 2.0.00
+     */
+    private volatile SOCRobotBrainScheduler brainScheduler;
+
     /**
      * a table of requests from the server to sit at games
      */
@@ -252,6 +259,28 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
         strSocketName = s;
     }
 
+    /**
+     * Run this client's robot brains as tasks on a shared {@link SOCRobotBrainScheduler},
+     * instead of giving each brain its own thread and {@link SOCRobotPinger} thread.
+     * Affects only brains started after this call; usually called before {@link #init()}.
+     * @param sched  Scheduler to use, or null for a thread per brain
+     * @since 2.0.00
+     */
+    public void setBrainScheduler(final SOCRobotBrainScheduler sched)
+    {
+        brainScheduler = sched;
+    }
+
+    /**
+     * Get this client's brain scheduler, if any.
+     * @return the scheduler from {@link #setBrainScheduler(SOCRobotBrainScheduler)}, or null
+     * @since 2.0.00
+     */
+    public SOCRobotBrainScheduler getBrainScheduler()
+    {
+        return brainScheduler;
+    }
+
     /**
      * Initialize the robot player; connect to server, send first messages
      */
@@ -890,7 +919,8 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
     }
 
     /**
-     * handle the admin ping message
+     * handle the admin ping message, sent by the server's {@code *BOTLIST*} debug command.
+     * If we're in the game, reply "OK" and since v2.0.00 our brain's {@link SOCRobotTimings#toSummary()}.
      * @param mes  the message
      */
     protected void handleADMINPING(SOCAdminPing mes)
@@ -911,6 +941,11 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
         if (ga != null)
         {
             sendText(ga, "OK");
+
+            // Since v2.0.00, for *BOTLIST*: Also report decision timings
+            SOCRobotBrain brain = robotBrains.get(mes.getGame());
+            if (brain != null)
+                sendText(ga, "Timings: " + brain.getTimings().toSummary());
         }
         else
         {
@@ -1006,6 +1041,9 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
 
         SOCRobotBrain rb = new SOCRobotBrain(this, currentRobotParameters, ga, brainQ);
         robotBrains.put(gaName, rb);
+
+        if (mes.getGameHandle() != 0)
+            gameHandles.put(gaName, SOCMessage.gameHandleField(mes.getGameHandle()));
     }
 
     /**
@@ -1349,6 +1387,21 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
             debugPrintBrainStatus(mes.getGame(), true);
         }
 
+        else if (dcmd.startsWith(":timings") || dcmd.startsWith(":tm"))
+        {
+            SOCGame ga = games.get(mes.getGame());
+            SOCRobotBrain brain = robotBrains.get(mes.getGame());
+
+            if (brain != null)
+            {
+                List<String> report = brain.getTimings().toReport();
+                if (report.isEmpty())
+                    sendText(ga, "Timings: no decisions timed");
+                for (final String st : report)
+                    sendText(ga, st);
+            }
+        }
+
         else if (dcmd.startsWith(":stats"))
         {
             SOCGame ga = games.get(mes.getGame());
@@ -1549,7 +1602,7 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
              */
             SOCRobotBrain brain = robotBrains.get(mes.getGame());
 
-            if ((brain == null) || (! brain.isAlive()))
+            if ((brain == null) || (! brain.isRunning()))
             {
                 leaveGame(games.get(mes.getGame()), "brain not alive in handleROBOTDISMISS", false);
             }
@@ -1709,6 +1762,7 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
                 System.err.flush();
             }
             put(SOCLeaveGame.toCmd(nickname, host, gaName));
+            gameHandles.remove(gaName);
         }
     }
 
@@ -0,0 +1,167 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+/**
+ * Clock for a {@link SOCRobotBrain}'s pacing and timekeeping: Real time, scaled to run faster,
+ * or instant. Brains {@link SOCRobotBrain#pause(int) pause} between actions so people can follow
+ * the game, and count once-per-second timing pings to give up waiting for a response that
+ * seems lost. In a robots-only game nobody needs to follow along, so a faster clock plays the
+ * game at machine speed.
+ *<UL>
+ * <LI> {@link #REAL}: Pauses and timeouts in real time; the default
+ * <LI> {@link #scaled(int) Scaled} by a speedup factor <em>n</em>: Pauses are <em>n</em> times
+ *      shorter, and each timing ping counts as <em>n</em> seconds
+ * <LI> {@link #INSTANT}: No pauses. Timeouts stay in real time, since without pauses the bot
+ *      waits only for the server and the other players
+ *</UL>
+ * A brain's clock is set with {@link SOCRobotBrain#setClock(SOCRobotClock)}, or for all robots-only
+ * games with {@link SOCRobotBrain#setBotsOnlyClock(SOCRobotClock)}.
+ *<P>
+ * Clocks are immutable and can be shared by any number of brains.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCRobotClock
+{
+    /** Real-time clock: Pauses and timeouts are as long as the brain asks for. */
+    public static final SOCRobotClock REAL = new SOCRobotClock(1);
+
+    /** Instant clock: Doesn't pause at all; timeouts are in real time. */
+    public static final SOCRobotClock INSTANT = new SOCRobotClock(0);
+
+    /** Speedup factor, or 0 for {@link #INSTANT} */
+    private final int speedup;
+
+    private SOCRobotClock(final int speedup)
+    {
+        this.speedup = speedup;
+    }
+
+    /**
+     * Get a clock which runs {@code speedup} times faster than real time.
+     * @param speedup  Speedup factor; 1 for {@link #REAL}, 0 for {@link #INSTANT}
+     * @return  a clock with that speedup
+     * @throws IllegalArgumentException if {@code speedup} &lt; 0
+     */
+    public static SOCRobotClock scaled(final int speedup)
+        throws IllegalArgumentException
+    {
+        switch (speedup)
+        {
+        case 0:
+            return INSTANT;
+
+        case 1:
+            return REAL;
+
+        default:
+            if (speedup < 0)
+                throw new IllegalArgumentException("speedup: " + speedup);
+            return new SOCRobotClock(speedup);
+        }
+    }
+
+    /**
+     * Parse a clock name: {@code real}, {@code instant}, or a speedup factor like {@code 10}.
+     * @param name  Name to parse, case-insensitive; may be null
+     * @param dflt  Clock to return if {@code name} is null or not recognized
+     * @return  the named clock, or {@code dflt}
+     */
+    public static SOCRobotClock parse(final String name, final SOCRobotClock dflt)
+    {
+        if (name == null)
+            return dflt;
+
+        final String n = name.trim();
+        if (n.equalsIgnoreCase("real"))
+            return REAL;
+        if (n.equalsIgnoreCase("instant"))
+            return INSTANT;
+
+        try
+        {
+            return scaled(Integer.parseInt(n));
+        }
+        catch (IllegalArgumentException e)
+        {
+            return dflt;
+        }
+    }
+
+    /**
+     * Get this clock's speedup factor.
+     * @return  the speedup: 1 for {@link #REAL}, 0 for {@link #INSTANT}
+     */
+    public int getSpeedup()
+    {
+        return speedup;
+    }
+
+    /**
+     * Pause the calling thread for {@code msec} milliseconds of this clock's time.
+     * If {@link #INSTANT}, only yields to other threads.
+     * @param msec  Milliseconds to pause, in real time
+     */
+    public void pause(final int msec)
+    {
+        Thread.yield();
+        if ((speedup == 0) || (msec <= 0))
+            return;
+
+        try
+        {
+            Thread.sleep(msec / speedup);
+        }
+        catch (InterruptedException e) {}
+    }
+
+    /**
+     * How many seconds of this clock's time does a once-per-second timing ping represent?
+     * A brain adds this to its counter for each ping, so its timeouts run as fast as its pauses.
+     * @return  the {@link #getSpeedup()} factor, or 1 for {@link #INSTANT}
+     */
+    public int getPingSeconds()
+    {
+        return (speedup != 0) ? speedup : 1;
+    }
+
+    /**
+     * For debugging, this clock's name.
+     * @return  {@code "real"}, {@code "instant"}, or the speedup factor like {@code "10"}
+     */
+    @Override
+    public String toString()
+    {
+        switch (speedup)
+        {
+        case 0:
+            return "instant";
+
+        case 1:
+            return "real";
+
+        default:
+            return Integer.toString(speedup);
+        }
+    }
+
+}
@@ -129,6 +129,13 @@ public class SOCRobotDM
   /** The game we're playing in */
   protected final SOCGame game;
 
+  /**
+   * Cache shared by our {@link SOCBuildingSpeedEstimate}s: The brain's {@link SOCRobotBrain#getBuildingSpeedCache()},
+   * or if no brain, {@link #ourPlayerTracker}'s brain's cache if any, or null.
+   * @since 2.0.00
+   */
+  protected final SOCBuildingSpeedCache buildingSpeedCache;
+
   /** Roads threatened by other players; currently unused. */
   protected Vector<SOCPossibleRoad> threatenedRoads;
 
@@ -177,6 +184,7 @@ public class SOCRobotDM
     ourPlayerNumber = ourPlayerData.getPlayerNumber();
     buildingPlan = brain.getBuildingPlan();
     game = brain.getGame();
+    buildingSpeedCache = brain.getBuildingSpeedCache();
 
     threatenedRoads = new Vector<SOCPossibleRoad>();
     goodRoads = new Vector<SOCPossibleRoad>();
@@ -215,6 +223,7 @@ public class SOCRobotDM
     ourPlayerNumber = opd.getPlayerNumber();
     buildingPlan = bp;
     game = ourPlayerData.getGame();
+    buildingSpeedCache = ((opt != null) && (opt.brain != null)) ? opt.brain.getBuildingSpeedCache() : null;
 
     maxGameLength = params.getMaxGameLength();
     maxETA = params.getMaxETA();
@@ -295,7 +304,7 @@ public class SOCRobotDM
       //long startTime = System.currentTimeMillis();
     D.ebugPrintln("PLANSTUFF");
 
-    SOCBuildingSpeedEstimate currentBSE = new SOCBuildingSpeedEstimate(ourPlayerData.getNumbers());
+    SOCBuildingSpeedEstimate currentBSE = new SOCBuildingSpeedEstimate(ourPlayerData.getNumbers(), buildingSpeedCache);
     int currentBuildingETAs[] = currentBSE.getEstimatesFromNowFast
         (ourPlayerData.getResources(), ourPlayerData.getPortFlags());
 
@@ -437,7 +446,7 @@ public class SOCRobotDM
         game.isSpecialBuilding() || (game.getCurrentPlayerNumber() != ourPlayerNumber);
 
     int bestETA = 500;
-    SOCBuildingSpeedEstimate ourBSE = new SOCBuildingSpeedEstimate(ourPlayerData.getNumbers());
+    SOCBuildingSpeedEstimate ourBSE = new SOCBuildingSpeedEstimate(ourPlayerData.getNumbers(), buildingSpeedCache);
 
     if (ourPlayerData.getTotalVP() < 5)
     {
@@ -1693,15 +1702,26 @@ public class SOCRobotDM
     ///
     if (ourPlayerData.getNumPieces(SOCPlayingPiece.CITY) > 0)
     {
-      HashMap<Integer, SOCPlayerTracker> trackersCopy = SOCPlayerTracker.copyPlayerTrackers(playerTrackers);
-      SOCPlayerTracker ourTrackerCopy = trackersCopy.get(Integer.valueOf(ourPlayerNumber));
+      // Try each city in place instead of on a copy of the trackers; spec.undo() puts them back after each one
+      final SOCPlayerTrackerSpeculation spec = new SOCPlayerTrackerSpeculation(game, playerTrackers);
       int originalWGETAs[] = new int[game.maxPlayers];
-      int WGETAdiffs[] = new int[game.maxPlayers];
       Vector<SOCPlayerTracker> leaders = new Vector<SOCPlayerTracker>();
-      int bestWGETA = 1000;
-      // int bonus = 0;
 
-      Iterator<SOCPossibleCity> posCitiesIter = ourPlayerTracker.getPossibleCities().values().iterator();
+      //
+      // win game ETAs before placing any city: the same for each one, so calculate them once
+      //
+      if ((brain != null) && (brain.getDRecorder().isOn())) {
+	brain.getDRecorder().suspend();
+      }
+      SOCPlayerTracker.updateWinGameETAs(playerTrackers);
+      calcWGETALeaders(playerTrackers, originalWGETAs, leaders);
+      if ((brain != null) && (brain.getDRecorder().isOn())) {
+	brain.getDRecorder().resume();
+      }
+
+      // iterate over a copy, since trying a city removes it from ourPlayerTracker.getPossibleCities() until undo
+      Iterator<SOCPossibleCity> posCitiesIter =
+          new ArrayList<SOCPossibleCity>(ourPlayerTracker.getPossibleCities().values()).iterator();
       while (posCitiesIter.hasNext())
       {
 	SOCPossibleCity posCity = posCitiesIter.next();
@@ -1712,53 +1732,19 @@ public class SOCRobotDM
 	}
 
 	//
-	// see how building this piece impacts our winETA
-	//
-	leaders.clear();
-	if ((brain != null) && (brain.getDRecorder().isOn())) {
-	  brain.getDRecorder().suspend();
-	}
-	SOCPlayerTracker.updateWinGameETAs(trackersCopy);
-
-	// TODO refactor? This section is like a copy of calcWGETABonus, with something added in the middle
-
-	Iterator<SOCPlayerTracker> trackersBeforeIter = trackersCopy.values().iterator();
-	while (trackersBeforeIter.hasNext())
-	{
-	  SOCPlayerTracker trackerBefore = trackersBeforeIter.next();
-	  final int pn = trackerBefore.getPlayer().getPlayerNumber();
-	  D.ebugPrintln("$$$ win game ETA for player " + pn + " = " + trackerBefore.getWinGameETA());
-	  originalWGETAs[pn] = trackerBefore.getWinGameETA();
-	  WGETAdiffs[pn] = trackerBefore.getWinGameETA();
-	  if (trackerBefore.getWinGameETA() < bestWGETA) {
-	    bestWGETA = trackerBefore.getWinGameETA();
-	    leaders.removeAllElements();
-	    leaders.addElement(trackerBefore);
-	  } else if (trackerBefore.getWinGameETA() == bestWGETA) {
-	    leaders.addElement(trackerBefore);
-	  }
-	}
-	D.ebugPrintln("^^^^ bestWGETA = "+bestWGETA);
-	if ((brain != null) && (brain.getDRecorder().isOn())) {
-	  brain.getDRecorder().resume();
-	}
-	//
-	// place the city
+	// place the city, see how building this piece impacts our winETA
 	//
 	SOCCity tmpCity = new SOCCity(ourPlayerData, posCity.getCoordinates(), null);
-	game.putTempPiece(tmpCity);
+	HashMap<Integer, SOCPlayerTracker> trackersAfter = spec.tryPutPiece(tmpCity);
 
-	ourTrackerCopy.addOurNewCity(tmpCity);
-
-	SOCPlayerTracker.updateWinGameETAs(trackersCopy);
+	SOCPlayerTracker.updateWinGameETAs(trackersAfter);
 
-	float wgetaScore = calcWGETABonusAux(originalWGETAs, trackersCopy, leaders);
+	float wgetaScore = calcWGETABonusAux(originalWGETAs, trackersAfter, leaders);
 
 	//
-	// remove the city
+	// remove the city, restore trackers' ETAs
 	//
-	ourTrackerCopy.undoAddOurNewCity(posCity);
-	game.undoPutTempPiece(tmpCity);
+	spec.undo();
 
 	D.ebugPrintln("*** ETA for city = "+buildingETAs[SOCBuildingSpeedEstimate.CITY]);
 	if ((brain != null) && (brain.getDRecorder().isOn())) {
@@ -1900,7 +1886,7 @@ public class SOCRobotDM
     if (game.isGameOptionSet(SOCGameOption.K_SC_PIRI) || game.isGameOptionSet(SOCGameOption.K_SC_WOND))
     {
         if (scenarioGameStrategyPlan(pickScore, devCardScore, true, (pick == SOCPlayingPiece.MAXPLUSONE),
-              new SOCBuildingSpeedEstimate(ourPlayerData.getNumbers()), leadersCurrentWGETA, forSpecialBuildingPhase))
+              new SOCBuildingSpeedEstimate(ourPlayerData.getNumbers(), buildingSpeedCache), leadersCurrentWGETA, forSpecialBuildingPhase))
             return;  // <--- Early return: Scenario-specific buildingPlan was pushed ---
     }
 
@@ -2450,10 +2436,7 @@ public class SOCRobotDM
    */
   protected float getWinGameETABonus(final SOCPossiblePiece posPiece)
   {
-    HashMap<Integer, SOCPlayerTracker> trackersCopy = null;
-    SOCSettlement tmpSet = null;
-    SOCCity tmpCity = null;
-    SOCRoad tmpRoad = null;  // road or ship
+    final SOCPlayingPiece tmpPiece;
     float bonus = 0;
 
     D.ebugPrintln("--- before [start] ---");
@@ -2464,31 +2447,33 @@ public class SOCRobotDM
     switch (posPiece.getType())
     {
     case SOCPossiblePiece.SETTLEMENT:
-      tmpSet = new SOCSettlement(ourPlayerData, posPiece.getCoordinates(), null);
-      trackersCopy = SOCPlayerTracker.tryPutPiece(tmpSet, game, playerTrackers);
+      tmpPiece = new SOCSettlement(ourPlayerData, posPiece.getCoordinates(), null);
       break;
 
     case SOCPossiblePiece.CITY:
-      trackersCopy = SOCPlayerTracker.copyPlayerTrackers(playerTrackers);
-      tmpCity = new SOCCity(ourPlayerData, posPiece.getCoordinates(), null);
-      game.putTempPiece(tmpCity);
-      SOCPlayerTracker trackerCopy = trackersCopy.get(Integer.valueOf(ourPlayerNumber));
-      if (trackerCopy != null) {
-	trackerCopy.addOurNewCity(tmpCity);
-      }
+      tmpPiece = new SOCCity(ourPlayerData, posPiece.getCoordinates(), null);
       break;
 
     case SOCPossiblePiece.ROAD:
-      tmpRoad = new SOCRoad(ourPlayerData, posPiece.getCoordinates(), null);
-      trackersCopy = SOCPlayerTracker.tryPutPiece(tmpRoad, game, playerTrackers);
+      tmpPiece = new SOCRoad(ourPlayerData, posPiece.getCoordinates(), null);
       break;
 
     case SOCPossiblePiece.SHIP:
-      tmpRoad = new SOCShip(ourPlayerData, posPiece.getCoordinates(), null);
-      trackersCopy = SOCPlayerTracker.tryPutPiece(tmpRoad, game, playerTrackers);
+      tmpPiece = new SOCShip(ourPlayerData, posPiece.getCoordinates(), null);
       break;
+
+    default:
+      tmpPiece = null;
     }
 
+    // Gather ETAs before trying the piece, because a city is tried in place, not on a copy of playerTrackers
+    int originalWGETAs[] = new int[game.maxPlayers];
+    Vector<SOCPlayerTracker> leaders = new Vector<SOCPlayerTracker>();
+    calcWGETALeaders(playerTrackers, originalWGETAs, leaders);
+
+    final SOCPlayerTrackerSpeculation spec = new SOCPlayerTrackerSpeculation(game, playerTrackers);
+    HashMap<Integer, SOCPlayerTracker> trackersAfter = spec.tryPutPiece(tmpPiece);
+
     //trackersCopyIter = trackersCopy.iterator();
     //while (trackersCopyIter.hasNext()) {
     //	SOCPlayerTracker trackerCopy = (SOCPlayerTracker)trackersCopyIter.next();
@@ -2496,31 +2481,17 @@ public class SOCRobotDM
     //}
 
     D.ebugPrintln("--- after [start] ---");
-    //SOCPlayerTracker.playerTrackersDebug(trackersCopy);
-    SOCPlayerTracker.updateWinGameETAs(trackersCopy);
+    //SOCPlayerTracker.playerTrackersDebug(trackersAfter);
+    SOCPlayerTracker.updateWinGameETAs(trackersAfter);
 
-    float WGETABonus = calcWGETABonus(playerTrackers, trackersCopy);
+    float WGETABonus = calcWGETABonusAux(originalWGETAs, trackersAfter, leaders);
     D.ebugPrintln("$$$ win game ETA bonus : +"+WGETABonus);
     bonus = WGETABonus;
 
     D.ebugPrintln("our player numbers = "+ourPlayerData.getNumbers());
     D.ebugPrintln("--- after [end] ---");
 
-    switch (posPiece.getType())
-    {
-    case SOCPossiblePiece.SETTLEMENT:
-      SOCPlayerTracker.undoTryPutPiece(tmpSet, game);
-      break;
-
-    case SOCPossiblePiece.CITY:
-      game.undoPutTempPiece(tmpCity);
-      break;
-
-    case SOCPossiblePiece.SHIP:  // fall through to ROAD
-    case SOCPossiblePiece.ROAD:
-      SOCPlayerTracker.undoTryPutPiece(tmpRoad, game);
-      break;
-    }
+    spec.undo();
 
     D.ebugPrintln("our player numbers = "+ourPlayerData.getNumbers());
     D.ebugPrintln("--- cleanup done ---");
@@ -2566,7 +2537,7 @@ public class SOCRobotDM
 
     D.ebugPrintln("--- before [start] ---");
     SOCResourceSet originalResources = ourPlayerData.getResources().copy();
-    SOCBuildingSpeedEstimate estimate = new SOCBuildingSpeedEstimate(ourPlayerData.getNumbers());
+    SOCBuildingSpeedEstimate estimate = new SOCBuildingSpeedEstimate(ourPlayerData.getNumbers(), buildingSpeedCache);
     //SOCPlayerTracker.playerTrackersDebug(playerTrackers);
     D.ebugPrintln("--- before [end] ---");
     try {
@@ -2623,11 +2594,33 @@ public class SOCRobotDM
   {
     D.ebugPrintln("^^^^^ calcWGETABonus");
     int originalWGETAs[] = new int[game.maxPlayers];
-    int WGETAdiffs[] = new int[game.maxPlayers];
     Vector<SOCPlayerTracker> leaders = new Vector<SOCPlayerTracker>();  // Players winning soonest, based on ETA
-    int bestWGETA = 1000;  // Lower is better
     float bonus = 0;
 
+    calcWGETALeaders(trackersBefore, originalWGETAs, leaders);
+
+    bonus = calcWGETABonusAux(originalWGETAs, trackersAfter, leaders);
+
+    D.ebugPrintln("^^^^ final bonus = "+bonus);
+
+    return bonus;
+  }
+
+  /**
+   * Gather each player's win game ETA before a move or other change in the game,
+   * for {@link #calcWGETABonusAux(int[], HashMap, Vector)}.
+   *
+   * @param trackersBefore   the playerTrackers before the change; their win game ETAs should be up to date
+   * @param originalWGETAs   array to fill with each player's {@link SOCPlayerTracker#getWinGameETA()},
+   *          indexed by player number
+   * @param leaders          empty list to fill with the player(s) winning soonest
+   * @since 2.0.00
+   */
+  private void calcWGETALeaders
+      (HashMap<Integer, SOCPlayerTracker> trackersBefore, final int[] originalWGETAs, Vector<SOCPlayerTracker> leaders)
+  {
+    int bestWGETA = 1000;  // Lower is better
+
     Iterator<SOCPlayerTracker> trackersBeforeIter = trackersBefore.values().iterator();
     while (trackersBeforeIter.hasNext())
     {
@@ -2635,7 +2628,6 @@ public class SOCRobotDM
       final int pn = trackerBefore.getPlayer().getPlayerNumber();
       D.ebugPrintln("$$$ win game ETA for player " + pn + " = " + trackerBefore.getWinGameETA());
       originalWGETAs[pn] = trackerBefore.getWinGameETA();
-      WGETAdiffs[pn] = trackerBefore.getWinGameETA();
 
       if (trackerBefore.getWinGameETA() < bestWGETA) {
 	bestWGETA = trackerBefore.getWinGameETA();
@@ -2647,12 +2639,6 @@ public class SOCRobotDM
     }
 
     D.ebugPrintln("^^^^ bestWGETA = "+bestWGETA);
-
-    bonus = calcWGETABonusAux(originalWGETAs, trackersAfter, leaders);
-
-    D.ebugPrintln("^^^^ final bonus = "+bonus);
-
-    return bonus;
   }
 
   /**
@@ -289,7 +289,7 @@ public class SOCRobotNegotiator
         SOCTradeOffer batna = getOfferToBank(targetResources);
         D.ebugPrintln("*** BATNA = " + batna);
 
-        SOCBuildingSpeedEstimate estimate = new SOCBuildingSpeedEstimate(ourPlayerData.getNumbers());
+        SOCBuildingSpeedEstimate estimate = new SOCBuildingSpeedEstimate(ourPlayerData.getNumbers(), brain.getBuildingSpeedCache());
 
         SOCResourceSet giveResourceSet = new SOCResourceSet();
         SOCResourceSet getResourceSet = new SOCResourceSet();
@@ -1086,7 +1086,7 @@ public class SOCRobotNegotiator
                 if (targetResources == null)
                     return REJECT_OFFER;
 
-                SOCBuildingSpeedEstimate estimate = new SOCBuildingSpeedEstimate(receiverPlayerData.getNumbers());
+                SOCBuildingSpeedEstimate estimate = new SOCBuildingSpeedEstimate(receiverPlayerData.getNumbers(), brain.getBuildingSpeedCache());
 
                 SOCTradeOffer receiverBatna = getOfferToBank(targetResources);
                 D.ebugPrintln("*** receiverBatna = " + receiverBatna);
@@ -1566,7 +1566,7 @@ public class SOCRobotNegotiator
         SOCTradeOffer batna = getOfferToBank(targetResources);
         D.ebugPrintln("*** BATNA = " + batna);
 
-        SOCBuildingSpeedEstimate estimate = new SOCBuildingSpeedEstimate(ourPlayerData.getNumbers());
+        SOCBuildingSpeedEstimate estimate = new SOCBuildingSpeedEstimate(ourPlayerData.getNumbers(), brain.getBuildingSpeedCache());
 
         SOCResourceSet giveResourceSet = new SOCResourceSet();
         SOCResourceSet getResourceSet = new SOCResourceSet();
@@ -2207,7 +2207,7 @@ public class SOCRobotNegotiator
             return bankTrade;
         }
 
-        SOCBuildingSpeedEstimate estimate = new SOCBuildingSpeedEstimate(ourPlayerData.getNumbers());
+        SOCBuildingSpeedEstimate estimate = new SOCBuildingSpeedEstimate(ourPlayerData.getNumbers(), brain.getBuildingSpeedCache());
         int[] rollsPerResource = estimate.getRollsPerResource();
         boolean[] ports = ourPlayerData.getPortFlags();
 
@@ -26,6 +26,7 @@ import soc.message.SOCTimingPing;
 
 import soc.util.CappedQueue;
 import soc.util.CutoffExceededException;
+import soc.util.VirtualThreads;
 
 
 /**
@@ -54,6 +55,20 @@ public class SOCRobotPinger extends Thread
         robotNickname = nickname;
     }
 
+    /**
+     * Start pinging, in this pinger's own thread. If {@link VirtualThreads#isEnabled()},
+     * {@link #run()} is called from a new virtual thread instead of this Thread object.
+     * @since 2.0.00
+     */
+    @Override
+    public void start()
+    {
+        if (VirtualThreads.isEnabled())
+            VirtualThreads.start(this, null);  // run() will set thread name
+        else
+            super.start();
+    }
+
     /**
      * DOCUMENT ME!
      */
@@ -0,0 +1,803 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+import java.util.Stack;
+import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import soc.game.SOCCity;
+import soc.game.SOCDevCardConstants;
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCPlayingPiece;
+import soc.game.SOCResourceConstants;
+import soc.game.SOCResourceSet;
+import soc.game.SOCRoad;
+import soc.game.SOCSettlement;
+import soc.game.SOCTradeOffer;
+import soc.message.SOCMessage;
+import soc.util.CappedQueue;
+import soc.util.SOCRobotParameters;
+
+/**
+ * Headless robot-vs-robot game simulator, for strategy tuning and benchmarking.
+ * Plays complete games in-process by calling {@link SOCGame}'s rules methods directly
+ * and asking each seat's {@link SOCRobotBrain}, {@link SOCRobotDM} and {@link SOCRobotNegotiator}
+ * what to do: No server, no connections, no message encoding, no brain threads or pingers,
+ * and no {@link SOCRobotBrain#pause(int)} delays. Each game runs start to finish
+ * in the caller's thread; separate simulators can run in separate threads.
+ *<P>
+ * Follows the same decisions as the brain's {@code run()} loop: Initial placement from
+ * {@link OpeningBuildStrategy}, discards from {@link DiscardStrategy}, robber from {@link RobberStrategy},
+ * building plans from {@link SOCRobotBrain#planBuilding()}, bank/port and player trades
+ * from the negotiator, and Knight, Road Building, Discovery and Monopoly cards.
+ * Differences from a game at the server:
+ *<UL>
+ * <LI> Only the classic 4-player board, with no game options or scenarios; no ships, gold hexes,
+ *      or 6-player Special Building Phase
+ * <LI> All brains share the game object, so each bot sees the other players' exact resources
+ *      and dev cards instead of "unknown" amounts
+ * <LI> Player trades are one round: Offer, then accept or reject; counter-offers are treated as rejections
+ * <LI> Games still running after {@link #getMaxRounds()} rounds are stopped without a winner
+ *</UL>
+ *<P>
+ * To run from the command line: {@code java soc.robot.SOCRobotSimulator [games [players [fast|smart [threads]]]]}
+ * prints the number of games per minute, each seat's wins, and the average game length.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCRobotSimulator
+{
+    /**
+     * Default maximum number of rounds to play before stopping a game without a winner.
+     * @see #setMaxRounds(int)
+     */
+    public static final int MAX_ROUNDS_DEFAULT = 300;
+
+    /**
+     * Maximum player trade offers made by each bot per turn. Brains stop offering sooner
+     * if {@link SOCRobotNegotiator#makeOffer(SOCPossiblePiece)} has nothing new to offer.
+     */
+    public static final int MAX_OFFERS_PER_TURN = 4;
+
+    /**
+     * Robot parameters like {@code SOCServer.ROBOT_PARAMS_DEFAULT}, with the given strategy type.
+     * @param strategyType  {@link SOCRobotDM#FAST_STRATEGY} or {@link SOCRobotDM#SMART_STRATEGY}
+     * @return  new parameters with trading on
+     */
+    public static SOCRobotParameters makeDefaultParameters(final int strategyType)
+    {
+        return new SOCRobotParameters(120, 35, 0.13f, 1.0f, 1.0f, 3.0f, 1.0f, strategyType, 1);
+    }
+
+    /** Robot parameters for each seat; length is the number of players */
+    private final SOCRobotParameters[] seatParams;
+
+    /** @see #setMaxRounds(int) */
+    private int maxRounds = MAX_ROUNDS_DEFAULT;
+
+    /** Number of games played by this simulator; used for game names */
+    private int gameCount;
+
+    /** Optional listener; see {@link #setTurnListener(TurnListener)} */
+    private TurnListener turnListener;
+
+    /**
+     * Create a simulator whose bots all use the same parameters.
+     * @param params  Robot parameters for each seat
+     * @param numPlayers  Number of players, 2 to 4
+     * @throws IllegalArgumentException if {@code numPlayers} is out of range
+     */
+    public SOCRobotSimulator(final SOCRobotParameters params, final int numPlayers)
+        throws IllegalArgumentException
+    {
+        this(fill(params, numPlayers));
+    }
+
+    /**
+     * Create a simulator with different parameters per seat, to compare strategies.
+     * @param seatParams  Robot parameters for each seat; length 2 to 4 is the number of players
+     * @throws IllegalArgumentException if {@code seatParams.length} is out of range or any element is null
+     */
+    public SOCRobotSimulator(final SOCRobotParameters[] seatParams)
+        throws IllegalArgumentException
+    {
+        if ((seatParams.length < SOCGame.MINPLAYERS) || (seatParams.length > SOCGame.MAXPLAYERS_STANDARD))
+            throw new IllegalArgumentException("numPlayers: " + seatParams.length);
+        for (int i = 0; i < seatParams.length; ++i)
+            if (seatParams[i] == null)
+                throw new IllegalArgumentException("seatParams[" + i + "]");
+
+        this.seatParams = seatParams.clone();
+    }
+
+    private static SOCRobotParameters[] fill(final SOCRobotParameters params, final int numPlayers)
+    {
+        if ((numPlayers < SOCGame.MINPLAYERS) || (numPlayers > SOCGame.MAXPLAYERS_STANDARD))
+            throw new IllegalArgumentException("numPlayers: " + numPlayers);
+
+        SOCRobotParameters[] sp = new SOCRobotParameters[numPlayers];
+        for (int i = 0; i < numPlayers; ++i)
+            sp[i] = params;
+
+        return sp;
+    }
+
+    /**
+     * Get the maximum number of rounds played before a game is stopped without a winner.
+     * @return  the maximum, default {@link #MAX_ROUNDS_DEFAULT}
+     */
+    public int getMaxRounds()
+    {
+        return maxRounds;
+    }
+
+    /**
+     * Set the maximum number of rounds played before a game is stopped without a winner.
+     * @param max  Maximum number of rounds
+     */
+    public void setMaxRounds(final int max)
+    {
+        maxRounds = max;
+    }
+
+    /**
+     * Set or clear a listener to be called during each player's turn,
+     * for example to record game states for a benchmark.
+     * @param li  Listener, or null for none
+     */
+    public void setTurnListener(final TurnListener li)
+    {
+        turnListener = li;
+    }
+
+    /**
+     * Play one complete game.
+     * @return  the game; its state is {@link SOCGame#OVER} and {@link SOCGame#getPlayerWithWin()}
+     *     is non-null unless it was stopped at {@link #getMaxRounds()} or a bot couldn't place
+     *     an initial piece. Seat number <em>n</em> played with parameters {@code seatParams[n]}.
+     */
+    public SOCGame playGame()
+    {
+        ++gameCount;
+        final SOCGame ga = new SOCGame("sim~" + gameCount);
+        ga.isBotsOnly = true;
+
+        final int numPlayers = seatParams.length;
+        for (int pn = 0; pn < numPlayers; ++pn)
+        {
+            ga.addPlayer("robot " + pn, pn);
+            ga.getPlayer(pn).setRobotFlag(true, true);
+        }
+        ga.startGame();
+
+        final SimBot[] bots = new SimBot[numPlayers];
+        for (int pn = 0; pn < numPlayers; ++pn)
+            bots[pn] = new SimBot(ga, pn, seatParams[pn]);
+
+        new SimGame(ga, bots).play();
+
+        return ga;
+    }
+
+    /**
+     * Callback for {@link SOCRobotSimulator#setTurnListener(TurnListener)}.
+     */
+    public interface TurnListener
+    {
+        /**
+         * Called in state {@link SOCGame#PLAY1} after rolling, before the current player
+         * plans, trades and builds. May be called again in the same turn, for example
+         * after moving the robber. Must not change the game or player.
+         * @param ga  Game being played
+         * @param pl  Current player
+         */
+        void play1(SOCGame ga, SOCPlayer pl);
+    }
+
+    /**
+     * One seat's robot: Its brain and the strategies the brain keeps privately.
+     */
+    private static class SimBot
+    {
+        final SOCRobotBrain brain;
+        final SOCPlayer pl;
+        final OpeningBuildStrategy openingBuildStrategy;
+        final MonopolyStrategy monopolyStrategy;
+
+        SimBot(final SOCGame ga, final int pn, final SOCRobotParameters params)
+        {
+            pl = ga.getPlayer(pn);
+            final SOCRobotClient cli = new SOCRobotClient(null, 0, pl.getName(), null, null);
+            brain = new SOCRobotBrain(cli, params, ga, new CappedQueue<SOCMessage>());
+            brain.setOurPlayerData();
+            brain.setClock(SOCRobotClock.INSTANT);  // in case anything calls pause()
+            openingBuildStrategy = new OpeningBuildStrategy(ga, pl);
+            monopolyStrategy = new MonopolyStrategy(ga, pl);
+        }
+    }
+
+    /**
+     * State for playing one game: Calls the game's rules methods for each state
+     * until game over, and tells all brains about each piece placed.
+     */
+    private class SimGame
+    {
+        final SOCGame ga;
+        final SimBot[] bots;
+
+        /** True if a bot can't make a legal move, so the game can't continue */
+        boolean stuck;
+
+        SimGame(final SOCGame ga, final SimBot[] bots)
+        {
+            this.ga = ga;
+            this.bots = bots;
+        }
+
+        /**
+         * Play until game over, {@link #stuck}, or {@link SOCRobotSimulator#maxRounds} is reached.
+         */
+        void play()
+        {
+            while ((! stuck) && (ga.getGameState() != SOCGame.OVER) && (ga.getRoundCount() <= maxRounds))
+            {
+                final SimBot cb = bots[ga.getCurrentPlayerNumber()];
+
+                switch (ga.getGameState())
+                {
+                case SOCGame.START1A:
+                    placeInitSettlement(cb, cb.openingBuildStrategy.planInitialSettlements());
+                    break;
+
+                case SOCGame.START2A:
+                    placeInitSettlement(cb, cb.openingBuildStrategy.planSecondSettlement());
+                    break;
+
+                case SOCGame.START1B:
+                case SOCGame.START2B:
+                    placeInitRoad(cb, cb.openingBuildStrategy.planInitRoad());
+                    break;
+
+                case SOCGame.PLAY:
+                    startTurn();
+                    if (knightBeforeRoll(cb))
+                        ga.playKnight();
+                    else
+                        ga.rollDice();
+                    break;
+
+                case SOCGame.WAITING_FOR_DISCARDS:
+                    discards();
+                    break;
+
+                case SOCGame.PLACING_ROBBER:
+                    moveRobber(cb);
+                    break;
+
+                case SOCGame.WAITING_FOR_ROB_CHOOSE_PLAYER:
+                    {
+                        final boolean[] choices = new boolean[ga.maxPlayers];
+                        final Vector<SOCPlayer> victims = ga.getPossibleVictims();
+                        for (SOCPlayer vpl : victims)
+                            choices[vpl.getPlayerNumber()] = true;
+                        ga.choosePlayerForRobbery
+                            (RobberStrategy.chooseRobberVictim(choices, ga, cb.brain.getPlayerTrackers()));
+                    }
+                    break;
+
+                case SOCGame.PLAY1:
+                    if (turnListener != null)
+                        turnListener.play1(ga, cb.pl);
+                    playTurn(cb);
+                    if ((ga.getGameState() == SOCGame.PLAY1) && ga.canEndTurn(cb.pl.getPlayerNumber()))
+                        ga.endTurn();
+                    break;
+
+                default:
+                    // not expected on the classic board; can't continue
+                    System.err.println
+                        ("SOCRobotSimulator: " + ga.getName() + ": Unexpected game state " + ga.getGameState());
+                    stuck = true;
+                }
+            }
+        }
+
+        /**
+         * Start of any player's turn: Reset each brain's per-turn plans and
+         * negotiation history, as it would when receiving a TURN message.
+         */
+        void startTurn()
+        {
+            for (SimBot b : bots)
+            {
+                b.brain.negotiator.resetIsSelling();
+                b.brain.negotiator.resetOffersMade();
+                b.brain.buildingPlan.clear();
+                b.brain.negotiator.resetTargetPieces();
+            }
+        }
+
+        /**
+         * Tell every brain's player trackers about a piece just placed.
+         * @param pp  The piece, already put into {@link #ga}
+         */
+        void trackPiece(final SOCPlayingPiece pp)
+        {
+            final int pn = pp.getPlayer().getPlayerNumber(), coord = pp.getCoordinates(), ptype = pp.getType();
+            for (SimBot b : bots)
+                b.brain.handlePUTPIECE_updateTrackers(pn, coord, ptype);
+        }
+
+        void placeInitSettlement(final SimBot cb, final int node)
+        {
+            if ((node == -1) || ! cb.pl.canPlaceSettlement(node))
+            {
+                stuck = true;
+                return;
+            }
+
+            final SOCSettlement se = new SOCSettlement(cb.pl, node, ga.getBoard());
+            ga.putPiece(se);
+            trackPiece(se);  // for START1B/2B, trackers set it pending until the road is placed
+        }
+
+        void placeInitRoad(final SimBot cb, final int edge)
+        {
+            if (! cb.pl.isPotentialRoad(edge))
+            {
+                stuck = true;
+                return;
+            }
+
+            // Before the road, brains track the settlement placed with it
+            for (SimBot b : bots)
+            {
+                final SOCPlayerTracker tr = b.brain.getPlayerTrackers().get(Integer.valueOf(cb.pl.getPlayerNumber()));
+                final SOCSettlement se = tr.getPendingInitSettlement();
+                if (se != null)
+                    b.brain.trackNewSettlement(se, false);
+            }
+
+            final SOCRoad rd = new SOCRoad(cb.pl, edge, ga.getBoard());
+            ga.putPiece(rd);
+            trackPiece(rd);
+        }
+
+        /**
+         * Should the current player play a knight before rolling,
+         * because the robber's on one of their numbers?
+         * Same logic as the brain's {@code rollOrPlayKnightOrExpectDice()}.
+         */
+        boolean knightBeforeRoll(final SimBot cb)
+        {
+            return cb.pl.getInventory().hasPlayable(SOCDevCardConstants.KNIGHT)
+                && ga.canPlayKnight(cb.pl.getPlayerNumber())
+                && ! cb.pl.getNumbers().hasNoResourcesForHex(ga.getBoard().getRobberHex());
+        }
+
+        void discards()
+        {
+            for (SimBot b : bots)
+            {
+                if (! b.pl.getNeedToDiscard())
+                    continue;
+
+                final SOCRobotBrain br = b.brain;
+                ga.discard(b.pl.getPlayerNumber(), DiscardStrategy.discard
+                    (b.pl.getResources().getTotal() / 2, br.buildingPlan, br.rand,
+                     b.pl, br.getRobotParameters(), br.getDecisionMaker(), br.negotiator));
+            }
+        }
+
+        void moveRobber(final SimBot cb)
+        {
+            final int pn = cb.pl.getPlayerNumber();
+            int hex = RobberStrategy.getBestRobberHex(ga, cb.pl, cb.brain.getPlayerTrackers(), cb.brain.rand);
+            if (! ga.canMoveRobber(pn, hex))
+            {
+                // shouldn't happen; pick any other land hex
+                for (int h : ga.getBoard().getLandHexCoords())
+                {
+                    if (ga.canMoveRobber(pn, h))
+                    {
+                        hex = h;
+                        break;
+                    }
+                }
+            }
+
+            ga.moveRobber(pn, hex);
+            for (SimBot b : bots)
+                b.brain.getBuildingSpeedCache().clear();
+        }
+
+        /**
+         * Current player's actions in state {@link SOCGame#PLAY1}, after rolling:
+         * Like the brain's {@code run()} loop, maybe play a knight, then plan,
+         * trade and build until the building plan can't be afforded.
+         * Returns at end of turn, or if the robber must be moved or the game is over.
+         */
+        void playTurn(final SimBot cb)
+        {
+            final SOCRobotBrain br = cb.brain;
+            final SOCPlayer pl = cb.pl;
+
+            if (! pl.hasPlayedDevCard())
+            {
+                considerPlayKnight(cb);
+                if (ga.getGameState() != SOCGame.PLAY1)
+                    return;  // move robber, then resume in PLAY1
+            }
+
+            int failedBuildingAttempts = 0, numOffers = 0;
+            boolean doneTrading = (br.getRobotParameters().getTradeFlag() != 1);
+
+            while (ga.getGameState() == SOCGame.PLAY1)
+            {
+                final Stack<SOCPossiblePiece> plan = br.buildingPlan;
+                if (plan.empty() && (pl.getResources().getTotal() > 1)
+                    && (failedBuildingAttempts < SOCRobotBrain.MAX_DENIED_BUILDING_PER_TURN))
+                    br.planBuilding();
+                if (plan.empty())
+                    return;
+
+                if (playRoadBuilding(cb))
+                    continue;
+
+                final SOCPossiblePiece targetPiece = plan.peek();
+                final SOCResourceSet targetResources = targetPiece.getResourcesToBuild();  // may be null
+                br.negotiator.setTargetPiece(pl.getPlayerNumber(), targetPiece);
+
+                if ((! pl.hasPlayedDevCard()) && pl.getInventory().hasPlayable(SOCDevCardConstants.DISC)
+                    && br.chooseFreeResourcesIfNeeded(targetResources, 2, false))
+                {
+                    ga.playDiscovery();
+                    ga.doDiscoveryAction(br.resourceChoices);
+                }
+                else if ((! pl.hasPlayedDevCard()) && pl.getInventory().hasPlayable(SOCDevCardConstants.MONO)
+                    && cb.monopolyStrategy.decidePlayMonopoly())
+                {
+                    ga.playMonopoly();
+                    ga.doMonopolyAction(cb.monopolyStrategy.getMonopolyChoice());
+                }
+
+                if ((! doneTrading) && ! pl.getResources().contains(targetResources))
+                {
+                    if ((numOffers < MAX_OFFERS_PER_TURN) && offerTrade(cb, targetPiece))
+                    {
+                        ++numOffers;
+                        continue;  // made an offer; maybe replan if accepted
+                    }
+                    doneTrading = true;
+                }
+
+                while (bankTrade(cb, targetResources))
+                    ;
+
+                if ((targetResources != null) && ! pl.getResources().contains(targetResources))
+                    return;  // can't build it this turn
+
+                if (! buildPlannedPiece(cb))
+                    ++failedBuildingAttempts;
+            }
+        }
+
+        /**
+         * Play a knight if that would give us Largest Army.
+         * Same logic as the brain's {@code considerPlayKnightCard()} for the classic board.
+         */
+        void considerPlayKnight(final SimBot cb)
+        {
+            final SOCPlayer pl = cb.pl;
+            final SOCPlayer laPlayer = ga.getPlayerWithLargestArmy();
+            if ((laPlayer != null) && (laPlayer == pl))
+                return;
+
+            final int larmySize = (laPlayer == null) ? 3 : laPlayer.getNumKnights() + 1;
+            if (((pl.getNumKnights() + pl.getInventory().getAmount(SOCDevCardConstants.KNIGHT)) >= larmySize)
+                && ga.canPlayKnight(pl.getPlayerNumber()))
+                ga.playKnight();
+        }
+
+        /**
+         * If the top 2 pieces of the building plan are roads and we have a Road Building card,
+         * play it and place both roads.
+         * @return true if the card was played
+         */
+        boolean playRoadBuilding(final SimBot cb)
+        {
+            final SOCPlayer pl = cb.pl;
+            final Stack<SOCPossiblePiece> plan = cb.brain.buildingPlan;
+            if (pl.hasPlayedDevCard() || (plan.size() < 2)
+                || (pl.getNumPieces(SOCPlayingPiece.ROAD) < 2)
+                || ! pl.getInventory().hasPlayable(SOCDevCardConstants.ROADS)
+                || ! ga.canPlayRoadBuilding(pl.getPlayerNumber()))
+                return false;
+
+            final SOCPossiblePiece first = plan.pop();
+            if ((first.getType() != SOCPossiblePiece.ROAD) || (plan.peek().getType() != SOCPossiblePiece.ROAD))
+            {
+                plan.push(first);
+                return false;
+            }
+            final SOCPossiblePiece second = plan.pop();
+
+            ga.playRoadBuilding();
+            for (SOCPossiblePiece pp : new SOCPossiblePiece[]{ first, second })
+            {
+                final int st = ga.getGameState();
+                if ((st != SOCGame.PLACING_FREE_ROAD1) && (st != SOCGame.PLACING_FREE_ROAD2))
+                    break;
+
+                final SOCRoad rd = new SOCRoad(pl, pp.getCoordinates(), ga.getBoard());
+                if (pl.isPotentialRoad(rd.getCoordinates()))
+                {
+                    ga.putPiece(rd);
+                    trackPiece(rd);
+                } else {
+                    // skip the remaining free road(s); card was played during PLAY1
+                    cb.brain.cancelWrongPiecePlacementLocal(rd);
+                    if (st == SOCGame.PLACING_FREE_ROAD2)
+                        ga.cancelBuildRoad(pl.getPlayerNumber());
+                    else
+                        ga.setGameState(SOCGame.PLAY1);
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Make a bank or port trade towards our target, like the brain's {@code tradeToTarget2(..)}.
+         * @return true if we traded
+         */
+        boolean bankTrade(final SimBot cb, final SOCResourceSet targetResources)
+        {
+            final SOCResourceSet ourResources = cb.pl.getResources();
+            if ((targetResources == null) || ourResources.contains(targetResources))
+                return false;
+
+            final SOCTradeOffer bankTrade = cb.brain.negotiator.getOfferToBank(targetResources, ourResources);
+            if ((bankTrade == null) || ! ourResources.contains(bankTrade.getGiveSet())
+                || ! ga.canMakeBankTrade(bankTrade.getGiveSet(), bankTrade.getGetSet()))
+                return false;
+
+            ga.makeBankTrade(bankTrade.getGiveSet(), bankTrade.getGetSet());
+            return true;
+        }
+
+        /**
+         * Offer a trade to the other players, who each consider it with their negotiator
+         * like the brain's {@code handleMAKEOFFER(..)}. If any accept, trade with the first one.
+         * Rejections are remembered like the brain's {@code handleREJECTOFFER(..)}.
+         * @return true if an offer was made, false if the negotiator has no offer to make
+         */
+        boolean offerTrade(final SimBot cb, final SOCPossiblePiece targetPiece)
+        {
+            final SOCRobotNegotiator neg = cb.brain.negotiator;
+            final SOCTradeOffer offer = neg.makeOffer(targetPiece);
+            cb.pl.setCurrentOffer(offer);
+            neg.resetWantsAnotherOffer();
+            if (offer == null)
+                return false;
+
+            final int fromPN = offer.getFrom();
+            final boolean[] offeredTo = offer.getTo();
+            final SOCResourceSet giveSet = offer.getGiveSet(), getSet = offer.getGetSet();
+            int acceptPN = -1;
+
+            for (int pn = 0; pn < bots.length; ++pn)
+            {
+                if ((pn == fromPN) || ! offeredTo[pn])
+                    continue;
+
+                final SOCRobotNegotiator oppNeg = bots[pn].brain.negotiator;
+                for (int rtype = SOCResourceConstants.CLAY; rtype <= SOCResourceConstants.WOOD; ++rtype)
+                {
+                    if (giveSet.contains(rtype))
+                        oppNeg.markAsWantsAnotherOffer(fromPN, rtype);
+                    if (getSet.contains(rtype))
+                        oppNeg.markAsNotSelling(fromPN, rtype);
+                }
+
+                if ((acceptPN == -1) && (oppNeg.considerOffer2(offer, pn) == SOCRobotNegotiator.ACCEPT_OFFER)
+                    && ga.canMakeTrade(fromPN, pn))
+                {
+                    acceptPN = pn;
+                } else {
+                    for (int rtype = SOCResourceConstants.CLAY; rtype <= SOCResourceConstants.WOOD; ++rtype)
+                        if (getSet.contains(rtype) && ! neg.wantsAnotherOffer(pn, rtype))
+                            neg.markAsNotSelling(pn, rtype);
+                }
+            }
+
+            if (acceptPN != -1)
+            {
+                ga.makeTrade(fromPN, acceptPN);
+
+                // accepting player will replan
+                final SOCRobotBrain accBrain = bots[acceptPN].brain;
+                accBrain.buildingPlan.clear();
+                accBrain.negotiator.setTargetPiece(acceptPN, null);
+            } else {
+                neg.addToOffersMade(offer);
+            }
+            cb.pl.setCurrentOffer(null);
+
+            return true;
+        }
+
+        /**
+         * Buy and place the top piece of the building plan, like the brain's
+         * {@code buildRequestPlannedPiece()} and {@code placeIfExpectPlacing()}.
+         * If the location isn't legal, cancels it like the server would and calls
+         * {@link SOCRobotBrain#cancelWrongPiecePlacementLocal(SOCPlayingPiece)}.
+         * @return  true if built, false if cancelled
+         */
+        boolean buildPlannedPiece(final SimBot cb)
+        {
+            final SOCRobotBrain br = cb.brain;
+            final SOCPlayer pl = cb.pl;
+            final int pn = pl.getPlayerNumber();
+            final SOCPossiblePiece targetPiece = br.buildingPlan.pop();
+            br.negotiator.setTargetPiece(pn, targetPiece);
+
+            final int coord = targetPiece.getCoordinates();
+            final SOCPlayingPiece pp;
+            final boolean canBuild;
+            switch (targetPiece.getType())
+            {
+            case SOCPossiblePiece.CARD:
+                if (! ga.couldBuyDevCard(pn))
+                    return false;
+                ga.buyDevCard();
+                return true;
+
+            case SOCPossiblePiece.ROAD:
+                pp = new SOCRoad(pl, coord, ga.getBoard());
+                canBuild = ga.couldBuildRoad(pn) && pl.isPotentialRoad(coord);
+                if (canBuild)
+                    ga.buyRoad(pn);
+                break;
+
+            case SOCPossiblePiece.SETTLEMENT:
+                pp = new SOCSettlement(pl, coord, ga.getBoard());
+                canBuild = ga.couldBuildSettlement(pn) && pl.canPlaceSettlement(coord);
+                if (canBuild)
+                    ga.buySettlement(pn);
+                break;
+
+            case SOCPossiblePiece.CITY:
+                pp = new SOCCity(pl, coord, ga.getBoard());
+                canBuild = ga.couldBuildCity(pn) && pl.isPotentialCity(coord);
+                if (canBuild)
+                    ga.buyCity(pn);
+                break;
+
+            default:
+                // ships and special items aren't used on the classic board
+                br.buildingPlan.clear();
+                return false;
+            }
+
+            if (! canBuild)
+            {
+                br.cancelWrongPiecePlacementLocal(pp);
+                return false;
+            }
+
+            ga.putPiece(pp);
+            trackPiece(pp);
+
+            return true;
+        }
+    }
+
+    /**
+     * Play games from the command line and print statistics.
+     * @param args  Optional: Number of games (default 100), number of players (default 4),
+     *     {@code fast} or {@code smart} strategy (default fast), number of threads (default 1)
+     */
+    public static void main(final String[] args)
+    {
+        int numGames = 100, numPlayers = 4, strategy = SOCRobotDM.FAST_STRATEGY, numThreads = 1;
+        try
+        {
+            if (args.length > 0)
+                numGames = Integer.parseInt(args[0]);
+            if (args.length > 1)
+                numPlayers = Integer.parseInt(args[1]);
+            if (args.length > 2)
+            {
+                if (args[2].equalsIgnoreCase("smart"))
+                    strategy = SOCRobotDM.SMART_STRATEGY;
+                else if (! args[2].equalsIgnoreCase("fast"))
+                    throw new IllegalArgumentException(args[2]);
+            }
+            if (args.length > 3)
+                numThreads = Integer.parseInt(args[3]);
+            if ((numGames < 1) || (numThreads < 1)
+                || (numPlayers < SOCGame.MINPLAYERS) || (numPlayers > SOCGame.MAXPLAYERS_STANDARD))
+                throw new IllegalArgumentException();
+        } catch (IllegalArgumentException e) {
+            System.err.println("usage: java soc.robot.SOCRobotSimulator [games [players [fast|smart [threads]]]]");
+            System.err.println("  players: " + SOCGame.MINPLAYERS + " to " + SOCGame.MAXPLAYERS_STANDARD);
+            System.exit(1);
+        }
+
+        final SOCRobotParameters params = makeDefaultParameters(strategy);
+        final int np = numPlayers;
+        final int[] wins = new int[numPlayers];
+        final int[] numUnfinished = new int[1];
+        final long[] totalRounds = new long[1];
+        final AtomicInteger gamesLeft = new AtomicInteger(numGames);
+
+        // Each thread has its own simulator; games are independent
+        final Runnable player = new Runnable()
+        {
+            public void run()
+            {
+                final SOCRobotSimulator sim = new SOCRobotSimulator(params, np);
+                while (gamesLeft.getAndDecrement() > 0)
+                {
+                    final SOCGame ga = sim.playGame();
+                    final SOCPlayer winner = ga.getPlayerWithWin();
+                    synchronized (wins)
+                    {
+                        if (winner != null)
+                            ++wins[winner.getPlayerNumber()];
+                        else
+                            ++numUnfinished[0];
+                        totalRounds[0] += ga.getRoundCount();
+                    }
+                }
+            }
+        };
+
+        final long startTime = System.currentTimeMillis();
+        final Thread[] threads = new Thread[numThreads];
+        for (int i = 0; i < numThreads; ++i)
+        {
+            threads[i] = new Thread(player, "robotSimulator-" + i);
+            threads[i].start();
+        }
+        for (int i = 0; i < numThreads; ++i)
+        {
+            try
+            {
+                threads[i].join();
+            }
+            catch (InterruptedException e) {}
+        }
+        final long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+
+        System.out.println("Played " + numGames + " games in " + elapsed + " ms: "
+            + ((numGames * 60000L) / elapsed) + " games/minute, average "
+            + (totalRounds[0] / (float) numGames) + " rounds");
+        for (int pn = 0; pn < numPlayers; ++pn)
+            System.out.println("  seat " + pn + ": " + wins[pn] + " wins");
+        if (numUnfinished[0] > 0)
+            System.out.println("  " + numUnfinished[0] + " games stopped without a winner");
+    }
+
+}
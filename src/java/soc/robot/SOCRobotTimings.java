@@ -0,0 +1,354 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A robot brain's decision timings, to find the bots that slow down games:
+ * For each phase of decision-making such as {@link #PLAN_BUILDING}, counts calls and keeps
+ * total and maximum elapsed nanoseconds, a histogram of elapsed times, and if the JVM can
+ * report it, total bytes allocated by the brain's thread during the phase.
+ *<P>
+ * Each {@link SOCRobotBrain} has one, from {@link SOCRobotBrain#getTimings()}. The brain times a phase with:
+ *<pre>
+ *    final long t0 = timings.start();
+ *    decisionMaker.planStuff(...);
+ *    timings.end(SOCRobotTimings.PLAN_BUILDING, t0);
+ *</pre>
+ * Phases aren't nested. Work done for a phase in other threads, such as
+ * {@link SOCPlayerTracker#setWinGameETAThreads(int) parallel ETAs}, counts towards
+ * its elapsed time but not its allocation.
+ *<P>
+ * To see timings:
+ *<UL>
+ * <LI> Robot debug command <tt><em>botname</em>:timings</tt> (or <tt>:tm</tt>) in a game
+ *      prints that bot's histogram for each phase
+ * <LI> Server debug command {@code *BOTLIST*}: Each bot in the game replies with its {@link #toSummary()}
+ * <LI> {@link SOCRobotBrain#debugPrintBrainStatus()} includes the summary
+ * <LI> If {@link #setLogInterval(int)} is set, by server property {@code jsettlers.bots.timings.log},
+ *      each brain prints its summary to {@link System#err} at that interval while it's
+ *      making decisions, and again when it leaves the game
+ *</UL>
+ * Updated by the brain's thread and read by others, so the methods which update or read
+ * the counters are synchronized; the lock is almost never contended.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCRobotTimings
+{
+    /** Phase: Building plans, {@link SOCRobotDM#planStuff(int)} */
+    public static final int PLAN_BUILDING = 0;
+
+    /** Phase: Making a trade offer, {@link SOCRobotNegotiator#makeOffer(SOCPossiblePiece)} */
+    public static final int MAKE_OFFER = 1;
+
+    /** Phase: Considering another player's offer, {@link SOCRobotNegotiator#considerOffer2(soc.game.SOCTradeOffer, int)} */
+    public static final int CONSIDER_OFFER = 2;
+
+    /**
+     * Phase: Initial placement, {@link OpeningBuildStrategy#planInitialSettlements()},
+     * {@link OpeningBuildStrategy#planSecondSettlement() planSecondSettlement()}
+     * or {@link OpeningBuildStrategy#planInitRoad() planInitRoad()}
+     */
+    public static final int PLAN_OPENING = 3;
+
+    /** Phase: After a piece is placed, {@link SOCPlayerTracker#updateThreats(java.util.HashMap)} for every player's tracker */
+    public static final int UPDATE_THREATS = 4;
+
+    /** Number of phases */
+    public static final int PHASE_COUNT = 5;
+
+    /** Short name of each phase, for reports */
+    private static final String[] PHASE_NAMES =
+        { "planStuff", "makeOffer", "considerOffer", "opening", "updateThreats" };
+
+    /**
+     * Upper limit of each histogram bucket, in nanoseconds: 10us, 100us, 1ms, 10ms, 100ms, 1s.
+     * The last bucket holds everything 1 second or longer.
+     */
+    private static final long[] BUCKET_LIMITS =
+        { 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L };
+
+    /** Label for each bucket, same order as {@link #BUCKET_LIMITS} plus the last one */
+    private static final String[] BUCKET_NAMES =
+        { "<10us", "<100us", "<1ms", "<10ms", "<100ms", "<1s", ">=1s" };
+
+    /**
+     * The JVM's thread bean, if it can measure allocated bytes, or null.
+     * {@code com.sun.management.ThreadMXBean} isn't part of every JVM,
+     * so its method is found with reflection.
+     */
+    private static final ThreadMXBean THREAD_BEAN;
+
+    /** {@code com.sun.management.ThreadMXBean.getThreadAllocatedBytes(long)}, or null if not available */
+    private static final Method GET_ALLOCATED_BYTES;
+
+    static
+    {
+        ThreadMXBean bean = null;
+        Method gab = null;
+        try
+        {
+            bean = ManagementFactory.getThreadMXBean();
+            gab = Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes", long.class);
+            if (! gab.getDeclaringClass().isInstance(bean))
+                gab = null;
+        }
+        catch (Throwable e) {
+            gab = null;  // not a HotSpot-based JVM, or management not available
+        }
+
+        THREAD_BEAN = (gab != null) ? bean : null;
+        GET_ALLOCATED_BYTES = gab;
+    }
+
+    /** Log interval in milliseconds, or 0; see {@link #setLogInterval(int)} */
+    private static volatile long logIntervalMillis;
+
+    /** Label for log and report lines, like "robot 3 in ~botsOnly~1" */
+    private final String label;
+
+    /** Number of calls per phase */
+    private final int[] count = new int[PHASE_COUNT];
+
+    /** Total nanoseconds per phase */
+    private final long[] totalNanos = new long[PHASE_COUNT];
+
+    /** Longest call's nanoseconds per phase */
+    private final long[] maxNanos = new long[PHASE_COUNT];
+
+    /** Total bytes allocated per phase, or all 0 if not available */
+    private final long[] totalAlloc = new long[PHASE_COUNT];
+
+    /** Histogram of calls per phase: {@code [phase][bucket]}, buckets as in {@link #BUCKET_LIMITS} */
+    private final int[][] histogram = new int[PHASE_COUNT][BUCKET_LIMITS.length + 1];
+
+    /** Thread's allocated bytes at the last {@link #start()}, or -1 */
+    private long allocAtStart = -1;
+
+    /** Time of the last periodic log, from {@link System#currentTimeMillis()} */
+    private long lastLogTime;
+
+    /** Has a phase ended since the last periodic log? */
+    private boolean changedSinceLog;
+
+    /**
+     * Create a brain's timings, all counters 0.
+     * @param label  Label for logging, like "robot 3 in ~botsOnly~1"
+     */
+    public SOCRobotTimings(final String label)
+    {
+        this.label = label;
+        lastLogTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Can this JVM report allocated bytes per thread, for each phase's allocation totals?
+     * @return true if allocation is counted
+     */
+    public static boolean isAllocationCounted()
+    {
+        return (GET_ALLOCATED_BYTES != null);
+    }
+
+    /**
+     * Set how often each brain logs its {@link #toSummary()} to {@link System#err}.
+     * Affects all brains in this JVM.
+     * @param seconds  Interval in seconds, or 0 to not log
+     */
+    public static void setLogInterval(final int seconds)
+    {
+        logIntervalMillis = (seconds > 0) ? seconds * 1000L : 0;
+    }
+
+    /** This thread's total allocated bytes, or -1 if not available */
+    private static long threadAllocatedBytes()
+    {
+        if (GET_ALLOCATED_BYTES == null)
+            return -1;
+
+        try
+        {
+            return ((Long) GET_ALLOCATED_BYTES.invoke(THREAD_BEAN, Thread.currentThread().getId())).longValue();
+        }
+        catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Start timing a phase.
+     * @return  the start time, to pass to {@link #end(int, long)}
+     */
+    public long start()
+    {
+        allocAtStart = threadAllocatedBytes();
+        return System.nanoTime();
+    }
+
+    /**
+     * End timing a phase, and add its elapsed time and allocation to the totals.
+     * If {@link #setLogInterval(int)} is set and it's been that long since the last log, log a summary.
+     * @param phase  Phase, such as {@link #PLAN_BUILDING}
+     * @param startNanos  Start time from {@link #start()}
+     */
+    public void end(final int phase, final long startNanos)
+    {
+        final long elapsed = System.nanoTime() - startNanos;
+        final long alloc = (allocAtStart != -1) ? threadAllocatedBytes() - allocAtStart : 0;
+
+        int bucket = 0;
+        while ((bucket < BUCKET_LIMITS.length) && (elapsed >= BUCKET_LIMITS[bucket]))
+            ++bucket;
+
+        synchronized (this)
+        {
+            ++count[phase];
+            totalNanos[phase] += elapsed;
+            if (elapsed > maxNanos[phase])
+                maxNanos[phase] = elapsed;
+            if (alloc > 0)
+                totalAlloc[phase] += alloc;
+            ++histogram[phase][bucket];
+            changedSinceLog = true;
+        }
+
+        final long interval = logIntervalMillis;
+        if (interval > 0)
+        {
+            final long now = System.currentTimeMillis();
+            if (now - lastLogTime >= interval)
+            {
+                lastLogTime = now;
+                log();
+            }
+        }
+    }
+
+    /**
+     * If {@link #setLogInterval(int)} is set and any phase has ended since the last log,
+     * log {@link #toSummary()} to {@link System#err}. Called when the brain leaves its game.
+     */
+    public void logIfChanged()
+    {
+        if ((logIntervalMillis > 0) && changedSinceLog)
+            log();
+    }
+
+    /** Log {@link #toSummary()} to {@link System#err}. */
+    private void log()
+    {
+        final String summary;
+        synchronized (this)
+        {
+            changedSinceLog = false;
+            summary = toSummary();
+        }
+
+        System.err.println("Robot timings: " + label + ": " + summary);
+    }
+
+    /**
+     * One-line summary of each phase which has been called: Count, average and maximum time,
+     * and average allocation if counted.
+     * @return  a summary like "planStuff 42x avg 1.20ms max 15.10ms 120KB, makeOffer 3x ...",
+     *     or "no decisions timed" if no phase has ended
+     */
+    public synchronized String toSummary()
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int ph = 0; ph < PHASE_COUNT; ++ph)
+        {
+            final int n = count[ph];
+            if (n == 0)
+                continue;
+
+            if (sb.length() > 0)
+                sb.append(", ");
+            sb.append(PHASE_NAMES[ph]).append(' ');
+            appendPhase(sb, ph);
+        }
+
+        if (sb.length() == 0)
+            return "no decisions timed";
+
+        return sb.toString();
+    }
+
+    /**
+     * Report lines for each phase which has been called: Its summary and its histogram.
+     * @return  a list of lines like "planStuff: 42x avg 1.20ms max 15.10ms 120KB; &lt;10us:0 &lt;100us:3 ...";
+     *     empty if no phase has ended
+     */
+    public synchronized List<String> toReport()
+    {
+        List<String> lines = new ArrayList<String>();
+        for (int ph = 0; ph < PHASE_COUNT; ++ph)
+        {
+            final int n = count[ph];
+            if (n == 0)
+                continue;
+
+            StringBuilder sb = new StringBuilder(PHASE_NAMES[ph]);
+            sb.append(": ");
+            appendPhase(sb, ph);
+            sb.append(';');
+            for (int b = 0; b < BUCKET_NAMES.length; ++b)
+                sb.append(' ').append(BUCKET_NAMES[b]).append(':').append(histogram[ph][b]);
+
+            lines.add(sb.toString());
+        }
+
+        return lines;
+    }
+
+    /**
+     * Append a phase's count, average and maximum time, and average allocation if counted,
+     * like "42x avg 1.20ms max 15.10ms 120KB". Call only if the phase's count isn't 0.
+     */
+    private void appendPhase(final StringBuilder sb, final int ph)
+    {
+        final int n = count[ph];
+        sb.append(n).append("x avg ");
+        appendMillis(sb, totalNanos[ph] / n);
+        sb.append(" max ");
+        appendMillis(sb, maxNanos[ph]);
+        if (GET_ALLOCATED_BYTES != null)
+            sb.append(' ').append((totalAlloc[ph] / n) / 1024).append("KB");
+    }
+
+    /** Append nanoseconds as milliseconds with 2 decimal places, like "1.20ms" */
+    private static void appendMillis(final StringBuilder sb, final long nanos)
+    {
+        final long hundredths = nanos / 10000L;
+        sb.append(hundredths / 100).append('.');
+        final long frac = hundredths % 100;
+        if (frac < 10)
+            sb.append('0');
+        sb.append(frac).append("ms");
+    }
+
+}
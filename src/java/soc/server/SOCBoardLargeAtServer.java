@@ -151,6 +151,23 @@ public class SOCBoardLargeAtServer extends SOCBoardLarge
         // Nothing special for now at server
     }
 
+    /**
+     * Copy this board for a copy of its game, including any stack of items waiting to be claimed.
+     * See {@link SOCBoard#clone()}.
+     * @return  A copy of this board
+     * @since 2.0.00
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    protected SOCBoard clone()
+    {
+        final SOCBoardLargeAtServer b = (SOCBoardLargeAtServer) super.clone();
+        if (drawStack != null)
+            b.drawStack = (Stack<Integer>) drawStack.clone();
+
+        return b;
+    }
+
     // javadoc inherited from SOCBoardLarge.
     // If this scenario has dev cards or items waiting to be claimed by any player, draw the next item from that stack.
     public Integer drawItemFromStack()
@@ -1,7 +1,7 @@
 /**
  * Java Settlers - An online multiplayer version of the game Settlers of Catan
  * Copyright (C) 2003  Robert S. Thomas
- * This file copyright (C) 2008-2010,2013,2015 Jeremy D Monin <jeremy@nand.net>
+ * This file copyright (C) 2008-2010,2013,2015-2016 Jeremy D Monin <jeremy@nand.net>
  *
  * This program is free software; you can redistribute it and/or
  * modify it under the terms of the GNU General Public License
@@ -22,6 +22,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.TimerTask;
 
+import soc.game.SOCGame;
 import soc.message.SOCGameOptionGetInfos;  // for javadoc
 import soc.message.SOCMessage;  // for javadoc
 import soc.server.genericServer.StringConnection;
@@ -225,6 +226,29 @@ public class SOCClientData
      */
     private SOCCDCliVersionTask cliVersionTask;
 
+    /**
+     * Maximum number of game handles per client; see {@link #assignGameHandle(SOCGame, GameHandler)}.
+     * @since 2.0.00
+     */
+    public static final int MAX_GAME_HANDLES = 64;
+
+    /**
+     * This client's game handles ({@link SOCMessage#GAME_HANDLE_MARKER}):
+     * The game for each handle number, or null if that handle is unused.
+     * Index 0 is never used. Null until the first handle is assigned.
+     * Please synchronize on this SOCClientData.
+     * @see #handleHandlers
+     * @since 2.0.00
+     */
+    private SOCGame[] handleGames;
+
+    /**
+     * The game type handler for each game in {@link #handleGames}, at the same index.
+     * Please synchronize on this SOCClientData.
+     * @since 2.0.00
+     */
+    private GameHandler[] handleHandlers;
+
     public SOCClientData()
     {
         isRobot = false;
@@ -380,6 +404,132 @@ public class SOCClientData
         sentGameList = true;
     }
 
+    /**
+     * Give this client a handle for a game it's joining, to send in place of the game's name.
+     * If the client already has a handle for a game with that name, returns it
+     * after updating it to {@code ga}, in case the game was reset since then.
+     * Thread-safe.
+     *
+     * @param ga  Game being joined
+     * @param hand  Game type handler for {@code ga}
+     * @return  The new handle, from 1 to {@link #MAX_GAME_HANDLES} - 1, or 0 if all handles are in use
+     * @see #releaseGameHandle(String)
+     * @since 2.0.00
+     */
+    public synchronized int assignGameHandle(final SOCGame ga, final GameHandler hand)
+    {
+        if (handleGames == null)
+        {
+            handleGames = new SOCGame[MAX_GAME_HANDLES];
+            handleHandlers = new GameHandler[MAX_GAME_HANDLES];
+        }
+
+        int h = findGameHandle(ga.getName());
+        if (h == 0)
+        {
+            for (int i = 1; i < MAX_GAME_HANDLES; ++i)
+                if (handleGames[i] == null)
+                {
+                    h = i;
+                    break;
+                }
+            if (h == 0)
+                return 0;  // <--- Early return: all in use ---
+        }
+
+        handleGames[h] = ga;
+        handleHandlers[h] = hand;
+
+        return h;
+    }
+
+    /**
+     * Find this client's handle for a game.
+     * Call only when synchronized on this SOCClientData.
+     * @param gaName  Game name
+     * @return  The handle number, or 0 if none
+     * @since 2.0.00
+     */
+    private int findGameHandle(final String gaName)
+    {
+        if (handleGames == null)
+            return 0;
+
+        for (int h = 1; h < MAX_GAME_HANDLES; ++h)
+        {
+            final SOCGame ga = handleGames[h];
+            if ((ga != null) && gaName.equals(ga.getName()))
+                return h;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Get the game which this client has a handle for.
+     * Thread-safe.
+     * @param handle  Game handle number received from client
+     * @return  The game given to {@link #assignGameHandle(SOCGame, GameHandler)}
+     *     or {@link #resetGameHandle(SOCGame)}, or null if {@code handle} isn't in use
+     * @see #getGameHandlerByHandle(int)
+     * @since 2.0.00
+     */
+    public synchronized SOCGame getGameByHandle(final int handle)
+    {
+        if ((handleGames == null) || (handle <= 0) || (handle >= MAX_GAME_HANDLES))
+            return null;
+
+        return handleGames[handle];
+    }
+
+    /**
+     * Get the game type handler for the game which this client has a handle for.
+     * Thread-safe.
+     * @param handle  Game handle number received from client
+     * @return  The handler given to {@link #assignGameHandle(SOCGame, GameHandler)},
+     *     or null if {@code handle} isn't in use
+     * @see #getGameByHandle(int)
+     * @since 2.0.00
+     */
+    public synchronized GameHandler getGameHandlerByHandle(final int handle)
+    {
+        if ((handleHandlers == null) || (handle <= 0) || (handle >= MAX_GAME_HANDLES))
+            return null;
+
+        return handleHandlers[handle];
+    }
+
+    /**
+     * A game's board has been reset, replacing its {@link SOCGame} with a new one of the same name:
+     * If this client has a handle for that game, point it to the new game.
+     * Thread-safe.
+     * @param reGame  New game from the board reset
+     * @since 2.0.00
+     */
+    public synchronized void resetGameHandle(final SOCGame reGame)
+    {
+        final int h = findGameHandle(reGame.getName());
+        if (h != 0)
+            handleGames[h] = reGame;
+    }
+
+    /**
+     * The client is leaving a game, or the game is being destroyed:
+     * Release its handle, if any, to be reused for another game.
+     * Thread-safe.
+     * @param gaName  Game name
+     * @since 2.0.00
+     */
+    public synchronized void releaseGameHandle(final String gaName)
+    {
+        final int h = findGameHandle(gaName);
+        if (h != 0)
+        {
+            handleGames[h] = null;
+            handleHandlers[h] = null;
+        }
+    }
+
     /**
      * Set up the version timer.
      * It will fire after {@link SOCServer#CLI_VERSION_TIMER_FIRE_MS} milliseconds.
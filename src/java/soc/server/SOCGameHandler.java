@@ -949,8 +949,15 @@ public class SOCGameHandler extends GameHandler
             if (gameScen != null)
                 srv.sendGameScenarioInfo(gameScen, null, c, false);
 
-            // Now, join game
-            c.put(SOCJoinGameAuth.toCmd(gameName));
+            // Now, join game; give client a short handle to use instead of the game name, if it's new enough
+            int gaHandle = 0;
+            if (c.getVersion() >= SOCJoinGameAuth.VERSION_FOR_GAME_HANDLE)
+            {
+                final SOCClientData scd = (SOCClientData) c.getAppData();
+                if (scd != null)
+                    gaHandle = scd.assignGameHandle(gameData, this);
+            }
+            c.put(SOCJoinGameAuth.toCmd(gameName, gaHandle));
             c.put(SOCStatusMessage.toCmd
                     (SOCStatusMessage.SV_OK, c.getLocalized("member.welcome")));  // "Welcome to Java Settlers of Catan!"
         }
@@ -2611,7 +2618,7 @@ public class SOCGameHandler extends GameHandler
 
         final String gaName = ga.getName();
 
-        srv.numberOfGamesStarted++;  // TODO once multiple handler threads, encapsulate this
+        srv.gameStartedIncrGamesStartedCount();
 
         /**
          * start the game, place any initial pieces
@@ -23,6 +23,7 @@ package soc.server;
 
 import java.util.Hashtable;
 
+import soc.robot.SOCRobotBrainScheduler;
 import soc.robot.SOCRobotClient;
 
 /**
@@ -49,6 +50,13 @@ class SOCLocalRobotClient implements Runnable
      */
     public static Hashtable<String, SOCRobotClient> robotClients = new Hashtable<String, SOCRobotClient>();
 
+    /**
+     * Shared scheduler for the brains of local robots, or null to give each brain its own threads.
+     * @see #setBrainSchedulerThreads(int)
+     * @since 2.0.00
+     */
+    private static SOCRobotBrainScheduler brainScheduler;
+
     /**
      * This bot's client in {@link #robotClients}.
      */
@@ -67,6 +75,21 @@ class SOCLocalRobotClient implements Runnable
         rob.init();
     }
 
+    /**
+     * Run the brains of local robots created from now on as tasks on a shared
+     * {@link SOCRobotBrainScheduler} with this many worker threads, instead of giving
+     * each brain its own thread and pinger thread. If a scheduler was already created
+     * by an earlier call, it's kept and {@code nThreads} is ignored.
+     * @param nThreads  Number of worker threads, or 0 for a thread per brain
+     * @see SOCServer#PROP_JSETTLERS_BOTS_BRAIN_THREADS
+     * @since 2.0.00
+     */
+    static synchronized void setBrainSchedulerThreads(final int nThreads)
+    {
+        if ((nThreads > 0) && (brainScheduler == null))
+            brainScheduler = new SOCRobotBrainScheduler(nThreads);
+    }
+
     /**
      * Create and start a robot client within a {@link SOCLocalRobotClient} thread.
      * After creating it, {@link Thread#yield() yield} the current thread and then sleep
@@ -91,6 +114,10 @@ class SOCLocalRobotClient implements Runnable
             rcli = new SOCRobotClient(strSocketName, rname, "pw", cookie);
         else
             rcli = new SOCRobotClient("localhost", port, rname, "pw", cookie);
+        synchronized (SOCLocalRobotClient.class)
+        {
+            rcli.setBrainScheduler(brainScheduler);
+        }
         Thread rth = new Thread(new SOCLocalRobotClient(rcli));
         rth.setDaemon(true);
         rth.start();  // run() will add to robotClients
@@ -27,13 +27,20 @@ import soc.debug.D;  // JM
 import soc.game.*;
 import soc.message.*;
 
+import soc.robot.SOCPlayerTracker;
+import soc.robot.SOCRobotBrain;
+import soc.robot.SOCRobotClock;
+import soc.robot.SOCRobotTimings;
 import soc.robot.SOCRobotClient;
 import soc.server.database.SOCDBHelper;
 
+import soc.server.genericServer.EncodedMessage;
+import soc.server.genericServer.InboundCommandQueue;
 import soc.server.genericServer.LocalStringConnection;
 import soc.server.genericServer.Server;
 import soc.server.genericServer.StringConnection;
 
+import soc.util.BinaryMessageCodec;
 import soc.util.I18n;
 import soc.util.SOCGameBoardReset;
 import soc.util.SOCGameList;  // used in javadoc
@@ -42,6 +49,7 @@ import soc.util.SOCServerFeatures;
 import soc.util.SOCStringManager;
 import soc.util.Triple;
 import soc.util.Version;
+import soc.util.VirtualThreads;
 
 import java.io.BufferedReader;
 import java.io.EOFException;
@@ -197,6 +205,43 @@ public class SOCServer extends Server
      */
     public static final String PROP_JSETTLERS_BOTS_BOTGAMES_TOTAL = "jsettlers.bots.botgames.total";
 
+    /**
+     * Integer property <tt>jsettlers.bots.brain.threads</tt> to run the server's local robots' brains
+     * as tasks on a shared pool of this many worker threads, with one timer thread for all their timing pings,
+     * instead of 2 threads per robot per game. Useful for running many bot games at once.
+     * Default is 0, a thread per brain. See {@link soc.robot.SOCRobotBrainScheduler}.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_BOTS_BRAIN_THREADS = "jsettlers.bots.brain.threads";
+
+    /**
+     * Integer property <tt>jsettlers.bots.planner.threads</tt> to have the server's local smart robots
+     * calculate each player's win-game ETA in parallel when scoring possible pieces,
+     * on a shared pool of this many threads. Plans are the same as without the pool, just faster
+     * on multi-core servers. Default is 0, one player at a time.
+     * See {@link soc.robot.SOCPlayerTracker#setWinGameETAThreads(int)}.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_BOTS_PLANNER_THREADS = "jsettlers.bots.planner.threads";
+
+    /**
+     * Property <tt>jsettlers.bots.botgames.clock</tt> for how fast the server's local robots play
+     * in robots-only games: {@code real} (the default), {@code instant} for no pauses between actions,
+     * or a speedup factor like {@code 10}. Games with human players always use real time.
+     * See {@link soc.robot.SOCRobotClock}.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_BOTS_BOTGAMES_CLOCK = "jsettlers.bots.botgames.clock";
+
+    /**
+     * Integer property <tt>jsettlers.bots.timings.log</tt>: If set, every this many seconds each of the
+     * server's local robot brains logs how long it spends in each phase of decision-making,
+     * to find bots that slow down games. Default 0 doesn't log; bots still keep timings,
+     * shown by the {@code *BOTLIST*} debug command. See {@link soc.robot.SOCRobotTimings}.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_BOTS_TIMINGS_LOG = "jsettlers.bots.timings.log";
+
     /**
      * Property <tt>jsettlers.startrobots</tt> to start some robots when the server starts.
      * (The default is {@link #SOC_STARTROBOTS_DEFAULT}.)
@@ -286,6 +331,87 @@ public class SOCServer extends Server
      */
     public static final String PROP_JSETTLERS_CLI_MAXCREATECHANNELS = "jsettlers.client.maxcreatechannels";
 
+    /**
+     * Integer property <tt>jsettlers.server.nio.threads</tt> to use non-blocking network I/O
+     * for all TCP clients, handled by this many event loop threads.
+     * Default is 0, which gives each client connection its own reader and writer threads.
+     * A server with many thousands of mostly-idle connections should set this to a small number like 2 or 4.
+     * See {@link Server#Server(int, int)} for details.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_SERVER_NIO_THREADS = "jsettlers.server.nio.threads";
+
+    /**
+     * Integer property <tt>jsettlers.server.game.threads</tt> to process each game's
+     * inbound messages in parallel using a pool of this many worker threads.
+     * Default is 0, which processes all messages in the server's single "treater" thread.
+     * Each game's messages are still processed in the order received.
+     * See {@link #processCommand(String, StringConnection)} and {@link Server#setCommandLaneThreads(int)}.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_SERVER_GAME_THREADS = "jsettlers.server.game.threads";
+
+    /**
+     * Integer property <tt>jsettlers.server.inqueue.capacity</tt> for the maximum number of inbound
+     * client messages waiting to be processed (default {@link InboundCommandQueue#DEFAULT_CAPACITY}).
+     * When full, {@link #PROP_JSETTLERS_SERVER_INQUEUE_OVERLOAD} is used.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_SERVER_INQUEUE_CAPACITY = "jsettlers.server.inqueue.capacity";
+
+    /**
+     * Property <tt>jsettlers.server.inqueue.overload</tt> for what to do with a new inbound
+     * client message when the inbound queue is full ({@link #PROP_JSETTLERS_SERVER_INQUEUE_CAPACITY}):
+     * {@code block} (default) to make the client's reader wait for room,
+     * {@code drop_ping} to discard the oldest queued ping reply ({@link SOCServerPing}) or else the new message,
+     * or {@code reject} to discard the new message.
+     * See {@link InboundCommandQueue.OverloadPolicy}.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_SERVER_INQUEUE_OVERLOAD = "jsettlers.server.inqueue.overload";
+
+    /**
+     * Integer property <tt>jsettlers.server.outqueue.delay</tt> for the maximum time in milliseconds
+     * that each client connection's writer thread waits for more outbound messages before flushing a batch.
+     * Default is 0, which flushes as soon as everything queued so far has been written.
+     * Not used with {@link #PROP_JSETTLERS_SERVER_NIO_THREADS}.
+     * See {@link Server#setOutputBatchDelay(int)}.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_SERVER_OUTQUEUE_DELAY = "jsettlers.server.outqueue.delay";
+
+    /**
+     * Boolean property <tt>jsettlers.server.virtual_threads</tt> to run client connections' reader and writer threads,
+     * and robot brains and their pingers, on lightweight virtual threads instead of platform threads,
+     * so that one JVM can run thousands of bot games for load tests or tournaments.
+     * Default is false. Needs Java 21 or higher; if not available, prints a warning and uses platform threads.
+     * See {@link VirtualThreads}.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_SERVER_VIRTUAL_THREADS = "jsettlers.server.virtual_threads";
+
+    /**
+     * Boolean property <tt>jsettlers.server.binary_protocol</tt> to offer compact binary frames
+     * to clients which can read them, instead of text, for messages from server to client.
+     * Default is false. When true, the server's features include {@link SOCServerFeatures#FEAT_BINARY_PROTOCOL};
+     * clients ask with {@link SOCBinaryProtocol}. Older clients are sent text as usual.
+     * See {@link soc.util.BinaryMessageCodec} for the frame format.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_SERVER_BINARY_PROTOCOL = "jsettlers.server.binary_protocol";
+
+    /**
+     * Integer property <tt>jsettlers.server.compression</tt> to offer deflate compression of
+     * messages from server to client, at this compression level: 1 (fastest) to 9 (smallest).
+     * Default is 0, no compression. When set, the server's features include {@link SOCServerFeatures#FEAT_COMPRESSION};
+     * clients ask with {@link SOCCompression}. Older clients are sent uncompressed messages as usual.
+     * Compression stats are shown in {@code *STATS*}.
+     * Requires Java 7 or higher.
+     * See {@link soc.util.BinaryMessageCodec.Compressor}.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_SERVER_COMPRESSION = "jsettlers.server.compression";
+
     /**
      * Property prefix {@code jsettlers.gameopt.} to specify game option defaults in a server properties file.
      * Option names are case-insensitive past this prefix. Syntax for default value is the same as on the
@@ -318,9 +444,21 @@ public class SOCServer extends Server
         PROP_JSETTLERS_ALLOW_DEBUG,   "Allow remote debug commands? (if Y)",
         PROP_JSETTLERS_CLI_MAXCREATECHANNELS,   "Maximum simultaneous channels that a client can create",
         PROP_JSETTLERS_CLI_MAXCREATEGAMES,      "Maximum simultaneous games that a client can create",
+        PROP_JSETTLERS_SERVER_NIO_THREADS,      "Use non-blocking network I/O with this many threads (default 0: 2 threads per client)",
+        PROP_JSETTLERS_SERVER_GAME_THREADS,     "Process games' messages in parallel with this many threads (default 0: 1 thread)",
+        PROP_JSETTLERS_SERVER_INQUEUE_CAPACITY, "Maximum inbound messages waiting to be processed (default " + InboundCommandQueue.DEFAULT_CAPACITY + ")",
+        PROP_JSETTLERS_SERVER_INQUEUE_OVERLOAD, "When inbound queue is full: block, drop_ping, or reject (default block)",
+        PROP_JSETTLERS_SERVER_OUTQUEUE_DELAY,   "Max milliseconds to wait for more outbound messages before sending a batch (default 0)",
+        PROP_JSETTLERS_SERVER_VIRTUAL_THREADS,  "Use virtual threads for connections and robots, if Java 21+ (if Y)",
+        PROP_JSETTLERS_SERVER_BINARY_PROTOCOL,  "Offer compact binary frames to clients which support them? (if Y)",
+        PROP_JSETTLERS_SERVER_COMPRESSION,      "Offer compression to clients which support it, at this level 1-9 (default 0: none)",
         PROP_JSETTLERS_GAMEOPT_PREFIX + "*",    "Game option defaults, case-insensitive: jsettlers.gameopt.RD=y",
         I18n.PROP_JSETTLERS_LOCALE,             "Locale override from the default, such as es or en_US",
         PROP_JSETTLERS_BOTS_BOTGAMES_TOTAL,     "Run this many robot-only games, a few at a time (default 0); allow bot-only games",
+        PROP_JSETTLERS_BOTS_BRAIN_THREADS,      "Run robot brains on a shared pool of this many threads (default 0: 2 threads per brain)",
+        PROP_JSETTLERS_BOTS_PLANNER_THREADS,    "Smart robots score possible pieces on this many shared threads (default 0)",
+        PROP_JSETTLERS_BOTS_BOTGAMES_CLOCK,     "Robot speed in robot-only games: real (default), instant, or a speedup like 10",
+        PROP_JSETTLERS_BOTS_TIMINGS_LOG,        "Log each robot's decision timings every this many seconds (default 0: none)",
         PROP_JSETTLERS_BOTS_COOKIE,             "Robot cookie value (default is random generated each startup)",
         PROP_JSETTLERS_BOTS_SHOWCOOKIE,         "Flag to show the robot cookie value at startup",
         SOCDBHelper.PROP_JSETTLERS_DB_USER,     "DB username",
@@ -544,6 +682,13 @@ public class SOCServer extends Server
      */
     private SOCServerFeatures features = new SOCServerFeatures(false);
 
+    /**
+     * Deflate compression level (1 to 9) for clients which ask for compression,
+     * or 0 if not offered; see {@link #PROP_JSETTLERS_SERVER_COMPRESSION}.
+     * @since 2.0.00
+     */
+    private int compressionLevel;
+
     /**
      * Game type handler, currently shared by all game instances.
      * @since 2.0.00
@@ -745,7 +890,7 @@ public class SOCServer extends Server
      * The total number of games that have been started:
      * {@link GameHandler#startGame(SOCGame)} has been called
      * and game play has begun. Game state became {@link SOCGame#READY}
-     * or higher from an earlier/lower state.
+     * or higher from an earlier/lower state. Incremented in {@link #gameStartedIncrGamesStartedCount()}.
      */
     protected int numberOfGamesStarted;
 
@@ -759,7 +904,7 @@ public class SOCServer extends Server
     protected int numberOfGamesFinished;
 
     /**
-     * Synchronization for {@link #numberOfGamesFinished} writes.
+     * Synchronization for {@link #numberOfGamesStarted} and {@link #numberOfGamesFinished} writes.
      * @since 2.0.00
      */
     private Object countFieldSync = new Object();
@@ -940,7 +1085,17 @@ public class SOCServer extends Server
     public SOCServer(final int p, Properties props)
         throws SocketException, EOFException, SQLException, IllegalArgumentException
     {
-        super(p);
+        super(p, getConfigIntProperty(props, PROP_JSETTLERS_SERVER_NIO_THREADS, 0));
+        setCommandLaneThreads(getConfigIntProperty(props, PROP_JSETTLERS_SERVER_GAME_THREADS, 0));
+        setInboundQueue
+            (Math.max(0, getConfigIntProperty(props, PROP_JSETTLERS_SERVER_INQUEUE_CAPACITY, 0)),
+             InboundCommandQueue.OverloadPolicy.parse
+                 (props.getProperty(PROP_JSETTLERS_SERVER_INQUEUE_OVERLOAD), InboundCommandQueue.OverloadPolicy.BLOCK));
+        setOutputBatchDelay(Math.max(0, getConfigIntProperty(props, PROP_JSETTLERS_SERVER_OUTQUEUE_DELAY, 0)));
+        if (getConfigBoolProperty(props, PROP_JSETTLERS_SERVER_VIRTUAL_THREADS, false)
+            && ! VirtualThreads.setEnabled(true))
+            System.err.println
+                ("* Warning: " + PROP_JSETTLERS_SERVER_VIRTUAL_THREADS + " needs Java 21 or higher; using platform threads");
         maxConnections = getConfigIntProperty(props, PROP_JSETTLERS_CONNECTIONS, SOC_MAXCONN_DEFAULT);
         allowDebugUser = getConfigBoolProperty(props, PROP_JSETTLERS_ALLOW_DEBUG, false);
         CLIENT_MAX_CREATE_GAMES = getConfigIntProperty(props, PROP_JSETTLERS_CLI_MAXCREATEGAMES, CLIENT_MAX_CREATE_GAMES);
@@ -1257,6 +1412,19 @@ public class SOCServer extends Server
         if (CLIENT_MAX_CREATE_CHANNELS != 0)
             features.add(SOCServerFeatures.FEAT_CHANNELS);
 
+        if (getConfigBoolProperty(props, PROP_JSETTLERS_SERVER_BINARY_PROTOCOL, false))
+            features.add(SOCServerFeatures.FEAT_BINARY_PROTOCOL);
+
+        compressionLevel = getConfigIntProperty(props, PROP_JSETTLERS_SERVER_COMPRESSION, 0);
+        if ((compressionLevel < 0) || (compressionLevel > 9))
+        {
+            final String errmsg = "*** " + PROP_JSETTLERS_SERVER_COMPRESSION + " must be 0 to 9";
+            System.err.println(errmsg);
+            throw new IllegalArgumentException(errmsg);
+        }
+        if (compressionLevel > 0)
+            features.add(SOCServerFeatures.FEAT_COMPRESSION);
+
         if (props.containsKey(PROP_JSETTLERS_ACCOUNTS_ADMINS))
         {
             String errmsg = null;
@@ -1991,6 +2159,10 @@ public class SOCServer extends Server
 
         gameList.removeMember(c, gm);
 
+        final SOCClientData scd = (SOCClientData) c.getAppData();
+        if (scd != null)
+            scd.releaseGameHandle(gm);
+
         SOCGame ga = gameList.getGameData(gm);
         if (ga == null)
         {
@@ -2088,6 +2260,14 @@ public class SOCServer extends Server
     {
         try
         {
+            SOCLocalRobotClient.setBrainSchedulerThreads
+                (getConfigIntProperty(props, PROP_JSETTLERS_BOTS_BRAIN_THREADS, 0));
+            SOCPlayerTracker.setWinGameETAThreads
+                (getConfigIntProperty(props, PROP_JSETTLERS_BOTS_PLANNER_THREADS, 0));
+            SOCRobotBrain.setBotsOnlyClock(SOCRobotClock.parse
+                ((props != null) ? props.getProperty(PROP_JSETTLERS_BOTS_BOTGAMES_CLOCK) : null, SOCRobotClock.REAL));
+            SOCRobotTimings.setLogInterval(getConfigIntProperty(props, PROP_JSETTLERS_BOTS_TIMINGS_LOG, 0));
+
             // ASSUMPTION: Server ROBOT_PARAMS_DEFAULT uses SOCRobotDM.FAST_STRATEGY.
 
             // Make some faster ones first.
@@ -2177,6 +2357,17 @@ public class SOCServer extends Server
         Vector<StringConnection> members = null;
         members = gameList.getMembers(gm);
 
+        // release members' game handles before deleteGame clears members
+        if (members != null)
+        {
+            for (StringConnection con : members)
+            {
+                final SOCClientData scd = (SOCClientData) con.getAppData();
+                if (scd != null)
+                    scd.releaseGameHandle(gm);
+            }
+        }
+
         gameList.deleteGame(gm);  // also calls SOCGame.destroyGame
 
         if (members != null)
@@ -2500,7 +2691,7 @@ public class SOCServer extends Server
      */
     public void messageToChannel(String ch, SOCMessage mes)
     {
-        final String mesCmd = mes.toCmd();
+        final EncodedMessage mesCmd = new EncodedMessage(mes.toCmd());
 
         channelList.takeMonitorForChannel(ch);
 
@@ -2546,7 +2737,7 @@ public class SOCServer extends Server
 
         if (v != null)
         {
-            final String mesCmd = mes.toCmd();
+            final EncodedMessage mesCmd = new EncodedMessage(mes.toCmd());
 
             Enumeration<StringConnection> menum = v.elements();
 
@@ -2689,6 +2880,8 @@ public class SOCServer extends Server
     /**
      * Send a message to the given game.
      *<P>
+     * The message is encoded only once for all members' connections; see {@link EncodedMessage}.
+     *<P>
      * <b>Locks:</b> Takes, releases {@link SOCGameList#takeMonitorForGame(String)}.
      *
      * @param ga  the name of the game
@@ -2702,7 +2895,7 @@ public class SOCServer extends Server
      */
     public void messageToGame(String ga, SOCMessage mes)
     {
-        final String mesCmd = mes.toCmd();
+        final EncodedMessage mesCmd = new EncodedMessage(mes.toCmd());
 
         gameList.takeMonitorForGame(ga);
 
@@ -2761,7 +2954,7 @@ public class SOCServer extends Server
      */
     public void messageToGame(final String ga, final String txt)
     {
-        final String gameServTxtMsg = SOCGameServerText.toCmd(ga, txt);
+        final EncodedMessage gameServTxtMsg = new EncodedMessage(SOCGameServerText.toCmd(ga, txt));
 
         gameList.takeMonitorForGame(ga);
 
@@ -3275,7 +3468,7 @@ public class SOCServer extends Server
             return;
 
         //D.ebugPrintln("M2G - "+mes);
-        final String mesCmd = mes.toCmd();
+        final EncodedMessage mesCmd = new EncodedMessage(mes.toCmd());
         Enumeration<StringConnection> menum = v.elements();
 
         while (menum.hasMoreElements())
@@ -3341,7 +3534,7 @@ public class SOCServer extends Server
             if (v != null)
             {
                 //D.ebugPrintln("M2GE - "+mes);
-                final String mesCmd = mes.toCmd();
+                final EncodedMessage mesCmd = new EncodedMessage(mes.toCmd());
                 Enumeration<StringConnection> menum = v.elements();
 
                 while (menum.hasMoreElements())
@@ -3390,7 +3583,7 @@ public class SOCServer extends Server
             if (v != null)
             {
                 //D.ebugPrintln("M2GE - "+mes);
-                final String mesCmd = mes.toCmd();
+                final EncodedMessage mesCmd = new EncodedMessage(mes.toCmd());
                 Enumeration<StringConnection> menum = v.elements();
 
                 while (menum.hasMoreElements())
@@ -3468,7 +3661,7 @@ public class SOCServer extends Server
             Vector<StringConnection> v = gameList.getMembers(gn);
             if (v != null)
             {
-                String mesCmd = null;  // lazy init, will be mes.toCmd()
+                EncodedMessage mesCmd = null;  // lazy init, will be mes.toCmd()
                 Enumeration<StringConnection> menum = v.elements();
 
                 while (menum.hasMoreElements())
@@ -3483,7 +3676,7 @@ public class SOCServer extends Server
 
                     //currentGameEventRecord.addMessageOut(new SOCMessageRecord(mes, "SERVER", con.getData()));
                     if (mesCmd == null)
-                        mesCmd = mes.toCmd();
+                        mesCmd = new EncodedMessage(mes.toCmd());
                     con.put(mesCmd);
                 }
             }
@@ -4154,6 +4347,25 @@ public class SOCServer extends Server
      * The first message from a client is treated by
      * {@link #processFirstCommand(String, StringConnection)} instead.
      *<P>
+     * If the server has per-game worker threads ({@link #PROP_JSETTLERS_SERVER_GAME_THREADS}),
+     * each {@link SOCMessageForGame} for a current game is handed off to that game's lane
+     * via {@link Server#executeInCommandLane(Object, Runnable)}: Messages for one game are
+     * still processed in the order received, but different games are processed in parallel.
+     * All other messages (lobby, channels, auth, new games) are processed in the treater thread.
+     * So a client's non-game message such as {@link SOCLeaveAll} can be processed before that client's
+     * earlier game messages still queued in a lane. The messages which remove a client from its games
+     * ({@code LEAVEALL}, or losing the connection) disconnect it before leaving the games, and a lane
+     * drops any queued message from a client which is no longer connected, so a game never processes
+     * a message from a client after that client has left it. This is the same order as when a client
+     * disconnects while its earlier messages are still in the inbound queue.
+     * Either way, the message is processed in {@link #processCommandMessage(SOCMessage, StringConnection, String, int)}.
+     *<P>
+     * If the message's first field is a game handle ({@link SOCMessage#GAME_HANDLE_MARKER}) which the
+     * client was given in {@link SOCJoinGameAuth}, the game and its handler are found from the client's
+     * handle table in {@link SOCClientData} instead of by looking up a game name, and the message is parsed
+     * with that game's name by {@link SOCMessage#toMsg(String, String)}. A handle which the client
+     * doesn't have is logged and the message is ignored, like a message for an unknown game.
+     *<P>
      * Note: When there is a choice, always use local information
      *       over information from the message.  For example, use
      *       the nickname from the connection to get the player
@@ -4166,12 +4378,98 @@ public class SOCServer extends Server
      * @param c    Connection (client) sending this message
      */
     @Override
-    public void processCommand(String s, StringConnection c)
+    public void processCommand(String s, final StringConnection c)
     {
         try
         {
-            SOCMessage mes = SOCMessage.toMsg(s);
+            final int gaHandle = SOCMessage.getGameHandle(s);
+            SOCGame handleGa = null;  // game from client's handle table, if message used a handle
+            if (gaHandle != -1)
+            {
+                final SOCClientData scd = (SOCClientData) c.getAppData();
+                if (scd != null)
+                    handleGa = scd.getGameByHandle(gaHandle);
+                if (handleGa == null)
+                {
+                    D.ebugPrintln("processCommand: unknown game handle " + gaHandle + " from " + c.getData());
+                    return;  // <--- Early return: unknown handle ---
+                }
+            }
+
+            final SOCMessage mes = (handleGa != null)
+                ? SOCMessage.toMsg(s, handleGa.getName())
+                : SOCMessage.toMsg(s);
+            if (mes == null)
+                return;
+
+            final String gaName = (mes instanceof SOCMessageForGame)
+                ? ((SOCMessageForGame) mes).getGame()
+                : null;
+
+            if (hasCommandLanes() && (mes instanceof SOCMessageForGame))
+            {
+                if ((gaName != null) && ! gaName.equals(SOCMessage.GAME_NONE)
+                    && ((handleGa != null) || (null != gameList.getGameData(gaName))))
+                {
+                    executeInCommandLane(gaName, new Runnable()
+                    {
+                        public void run()
+                        {
+                            if (c.isConnected())
+                                processCommandMessage(mes, c, gaName, gaHandle);
+                            // else, client left while this was queued: see javadoc
+                        }
+                    });
+
+                    return;  // <--- Early return: handed off to game's lane ---
+                }
+            }
 
+            processCommandMessage(mes, c, gaName, gaHandle);
+        }
+        catch (Throwable e)
+        {
+            D.ebugPrintStackTrace(e, "ERROR -> processCommand");
+        }
+    }
+
+    /**
+     * Is this queued inbound message a client's reply to a {@link SOCServerPing},
+     * which can be dropped if the inbound queue is full?
+     * @param str Contents of message from the client
+     * @return  true if {@code str} is a {@link SOCMessage#SERVERPING} message
+     * @since 2.0.00
+     */
+    @Override
+    public boolean isDroppableCommand(final String str)
+    {
+        return str.startsWith(SERVERPING_PREFIX);
+    }
+
+    /**
+     * Start of a {@link SOCMessage#SERVERPING} message string, for {@link #isDroppableCommand(String)}.
+     * @since 2.0.00
+     */
+    private static final String SERVERPING_PREFIX = Integer.toString(SOCMessage.SERVERPING) + SOCMessage.sep;
+
+    /**
+     * Process one parsed incoming message; see {@link #processCommand(String, StringConnection)}.
+     * Called from the treater thread, or from a game's worker thread if
+     * {@link #PROP_JSETTLERS_SERVER_GAME_THREADS} is used.
+     *
+     * @param mes  Message from the client
+     * @param c    Connection (client) sending this message
+     * @param gaName  If {@code mes} is a {@link SOCMessageForGame}, its game name; otherwise null
+     * @param gaHandle  If the client sent a game handle instead of {@code gaName}, that handle number,
+     *     to get the game and its handler from the client's {@link SOCClientData} handle table
+     *     instead of looking up {@code gaName}; otherwise -1
+     * @since 2.0.00
+     */
+    private void processCommandMessage
+        (final SOCMessage mes, final StringConnection c, final String gaName, final int gaHandle)
+    {
+        try
+        {
             // D.ebugPrintln(c.getData()+" - "+mes);
             if (mes != null)
             {
@@ -4180,17 +4478,26 @@ public class SOCServer extends Server
                     // Try to process message through its game type's handler
                     // before falling through to server-wide handler
 
-                    final String gaName = ((SOCMessageForGame) mes).getGame();
                     if (gaName == null)
                         return;  // <--- Early return: malformed ---
 
                     if (! gaName.equals(SOCMessage.GAME_NONE))
                     {
-                        SOCGame ga = gameList.getGameData(gaName);
+                        final SOCGame ga;
+                        final GameHandler hand;
+                        if (gaHandle != -1)
+                        {
+                            // Resolve again here: game may have been reset or destroyed since it was queued
+                            final SOCClientData scd = (SOCClientData) c.getAppData();
+                            ga = scd.getGameByHandle(gaHandle);
+                            hand = scd.getGameHandlerByHandle(gaHandle);
+                        } else {
+                            ga = gameList.getGameData(gaName);
+                            hand = gameList.getGameTypeHandler(gaName);
+                        }
                         if ((ga == null) || (c == null))
                             return;  // <--- Early return: ignore unknown games ---
 
-                        final GameHandler hand = gameList.getGameTypeHandler(gaName);
                         if (hand != null)  // all consistent games will have a handler
                         {
                             if (hand.processCommand(ga, (SOCMessageForGame) mes, c))
@@ -4219,6 +4526,20 @@ public class SOCServer extends Server
 
                     break;
 
+                /**
+                 * client's request for binary frames (v2.0.00+)
+                 */
+                case SOCMessage.BINARYPROTOCOL:
+                    handleBINARYPROTOCOL(c, (SOCBinaryProtocol) mes);
+                    break;
+
+                /**
+                 * client's request for compression (v2.0.00+)
+                 */
+                case SOCMessage.COMPRESSION:
+                    handleCOMPRESSION(c, (SOCCompression) mes);
+                    break;
+
                 /**
                  * client's optional authentication request before creating a game
                  * or when connecting using {@code SOCAccountClient} (v1.1.19+).
@@ -4436,7 +4757,7 @@ public class SOCServer extends Server
             D.ebugPrintStackTrace(e, "ERROR -> processCommand");
         }
 
-    }  // processCommand
+    }  // processCommandMessage
 
     /**
      * List and description of general commands that any game member can run.
@@ -4498,6 +4819,7 @@ public class SOCServer extends Server
         {
         "--- Debug Commands ---",
         "*BCAST*  broadcast msg to all games/channels",
+        "*BOTLIST*  list connected bots; bots in this game reply with decision timings",
         "*GC*    trigger the java garbage-collect",
         "*KILLBOT*  botname  End a bot's connection",
         "*KILLGAME*  end the current game",
@@ -5009,6 +5331,51 @@ public class SOCServer extends Server
         setClientVersSendGamesOrReject(c, mes.getVersionNumber(), mes.localeOrFeats, true);
     }
 
+    /**
+     * Handle the "binary protocol" message, client's request for binary frames.
+     * If {@link SOCServerFeatures#FEAT_BINARY_PROTOCOL} is active and the connection supports the
+     * requested format, reply with that format version and switch the connection to binary frames.
+     * Otherwise reply with format version 0, and keep sending text.
+     *
+     * @param c  the connection that sent the message
+     * @param mes  the message
+     * @since 2.0.00
+     */
+    private void handleBINARYPROTOCOL(StringConnection c, SOCBinaryProtocol mes)
+    {
+        if (c == null)
+            return;
+
+        final int fv = mes.getFormatVersion();
+        if (features.isActive(SOCServerFeatures.FEAT_BINARY_PROTOCOL) && (fv > 0) && c.setBinaryProtocol(fv))
+            c.put(SOCBinaryProtocol.toCmd(fv));  // sent in binary; client is already reading those
+        else
+            c.put(SOCBinaryProtocol.toCmd(0));
+    }
+
+    /**
+     * Handle the "compression" message, client's request for compressed messages.
+     * If {@link SOCServerFeatures#FEAT_COMPRESSION} is active and the connection supports the
+     * requested format, reply with that format version and start compressing at {@link #compressionLevel}.
+     * Otherwise reply with format version 0, and keep sending uncompressed.
+     *
+     * @param c  the connection that sent the message
+     * @param mes  the message
+     * @since 2.0.00
+     */
+    private void handleCOMPRESSION(StringConnection c, SOCCompression mes)
+    {
+        if (c == null)
+            return;
+
+        final int fv = mes.getFormatVersion();
+        if (features.isActive(SOCServerFeatures.FEAT_COMPRESSION) && (fv > 0)
+            && c.setCompression(fv, compressionLevel))
+            c.put(SOCCompression.toCmd(fv));  // sent compressed; client is already reading those
+        else
+            c.put(SOCCompression.toCmd(0));
+    }
+
     /**
      * Set client's version and locale, and check against minimum required version {@link #CLI_VERSION_MIN}.
      * If version is too low, send {@link SOCRejectConnection REJECTCONNECTION}.
@@ -5563,6 +5930,30 @@ public class SOCServer extends Server
             messageToPlayer(c, gaName, "> Total Users: " + numberOfUsers);
             messageToPlayer(c, gaName, "> Games started: " + numberOfGamesStarted);
             messageToPlayer(c, gaName, "> Games finished: " + numberOfGamesFinished);
+            messageToPlayer(c, gaName, "> Inbound queue: " + getInboundQueue());
+            if (VirtualThreads.isEnabled())
+                messageToPlayer(c, gaName, "> Using virtual threads");
+            long outBytes = 0, outFlushes = 0;
+            synchronized (unnamedConns)
+            {
+                Enumeration<StringConnection> ec = getConnections();  // the named ones
+                while (ec.hasMoreElements())
+                {
+                    final StringConnection sc = ec.nextElement();
+                    outBytes += sc.getBytesSent();
+                    outFlushes += sc.getFlushCount();
+                }
+            }
+            messageToPlayer(c, gaName, "> Outbound, current connections: " + outBytes + " bytes in "
+                + outFlushes + " flushes; yours: " + c.getBytesSent() + " bytes in " + c.getFlushCount());
+            if (compressionLevel > 0)
+            {
+                final long cin = BinaryMessageCodec.Compressor.getTotalBytesIn(),
+                    cout = BinaryMessageCodec.Compressor.getTotalBytesOut();
+                messageToPlayer(c, gaName, "> Compression: " + cin + " bytes to " + cout
+                    + ((cin > 0) ? (" (" + (cout * 100 / cin) + "%)") : "")
+                    + ", " + (BinaryMessageCodec.Compressor.getTotalNanos() / 1000000L) + " ms cpu, level " + compressionLevel);
+            }
             messageToPlayer(c, gaName, "> Total Memory: " + rt.totalMemory());
             messageToPlayer(c, gaName, "> Free Memory: " + rt.freeMemory());
             final int vers = Version.versionNumber();
@@ -8112,6 +8503,18 @@ public class SOCServer extends Server
         }
         SOCGame reGame = reBoard.newGame;
 
+        // Point members' game handles to the new game
+        {
+            final Vector<StringConnection> members = gameList.getMembers(gaName);
+            if (members != null)
+                for (StringConnection con : members)
+                {
+                    final SOCClientData scd = (SOCClientData) con.getAppData();
+                    if (scd != null)
+                        scd.resetGameHandle(reGame);
+                }
+        }
+
         // Announce who asked for this reset
         {
             String plName = reGame.getPlayer(requestingPlayer).getName();
@@ -8229,6 +8632,23 @@ public class SOCServer extends Server
         // All set.
     }  // resetBoardAndNotify_finish
 
+    /**
+     * Increment the "number of games started" server-statistics field.
+     * Call when a game's play begins: Its state becomes {@link SOCGame#READY} (or higher)
+     * from a lower/earlier state.
+     *<P>
+     * Thread-safe; synchronizes on an internal object.
+     * Package-level access for calls from {@link GameHandler}s.
+     * @since 2.0.00
+     */
+    void gameStartedIncrGamesStartedCount()
+    {
+        synchronized (countFieldSync)
+        {
+            ++numberOfGamesStarted;
+        }
+    }
+
     /**
      * Increment the "number of games finished" server-statistics field.
      * Call when a game's state becomes {@link SOCGame#OVER} (or higher)
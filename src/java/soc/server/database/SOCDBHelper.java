@@ -70,6 +70,11 @@ import java.util.Properties;
  * CREATE TABLE games (gamename VARCHAR(20), player1 VARCHAR(20), player2 VARCHAR(20), player3 VARCHAR(20), player4 VARCHAR(20), score1 TINYINT, score2 TINYINT, score3 TINYINT, score4 TINYINT, starttime TIMESTAMP);
  * CREATE TABLE robotparams (robotname VARCHAR(20), maxgamelength INT, maxeta INT, etabonusfactor FLOAT, adversarialfactor FLOAT, leaderadversarialfactor FLOAT, devcardmultiplier FLOAT, threatmultiplier FLOAT, strategytype INT, starttime TIMESTAMP, endtime TIMESTAMP, gameswon INT, gameslost INT, tradeFlag BOOL);
  *</code>
+ *<P>
+ * The methods which use the connection's shared prepared statements are {@code synchronized},
+ * since v2.0.00 the server can call them from more than one thread: For example
+ * {@link #saveGameScores(SOCGame, long)} from a game's command lane while the treater
+ * thread is calling {@link #getUserPassword(String)} to authenticate a client.
  *
  * @author Robert S. Thomas
  */
@@ -562,7 +567,7 @@ public class SOCDBHelper
      * @since 1.1.20
      * @see #getUserPassword(String)
      */
-    public static boolean doesUserExist(final String userName)
+    public static synchronized boolean doesUserExist(final String userName)
         throws IllegalArgumentException, SQLException
     {
         if (userName == null)
@@ -594,7 +599,7 @@ public class SOCDBHelper
      * @throws SQLException if any unexpected database problem
      * @see #doesUserExist(String)
      */
-    public static String getUserPassword(String sUserName) throws SQLException
+    public static synchronized String getUserPassword(String sUserName) throws SQLException
     {
         String password = null;
 
@@ -637,7 +642,7 @@ public class SOCDBHelper
      *
      * @throws SQLException DOCUMENT ME!
      */
-    public static String getUserFromHost(String host) throws SQLException
+    public static synchronized String getUserFromHost(String host) throws SQLException
     {
         String nickname = null;
 
@@ -690,7 +695,7 @@ public class SOCDBHelper
      *
      * @throws SQLException if any unexpected database problem occurs
      */
-    public static boolean createAccount
+    public static synchronized boolean createAccount
         (String userName, String host, String password, String email, long time)
         throws SQLException
     {
@@ -739,7 +744,7 @@ public class SOCDBHelper
      *
      * @throws SQLException if any unexpected database problem
      */
-    public static boolean recordLogin(String userName, String host, long time) throws SQLException
+    public static synchronized boolean recordLogin(String userName, String host, long time) throws SQLException
     {
         // ensure that the JDBC connection is still valid
         if (checkConnection())
@@ -780,7 +785,7 @@ public class SOCDBHelper
      *
      * @throws SQLException if any unexpected database problem
      */
-    public static boolean updateLastlogin(String userName, long time) throws SQLException
+    public static synchronized boolean updateLastlogin(String userName, long time) throws SQLException
     {
         // ensure that the JDBC connection is still valid
         if (checkConnection())
@@ -821,7 +826,7 @@ public class SOCDBHelper
      * @throws SQLException if an error occurs
      * @since 1.1.20
      */
-    public static boolean updateUserPassword(final String userName, final String newPassword)
+    public static synchronized boolean updateUserPassword(final String userName, final String newPassword)
         throws IllegalArgumentException, SQLException
     {
         if (userName == null)
@@ -862,7 +867,7 @@ public class SOCDBHelper
      *
      * @throws SQLException DOCUMENT ME!
      */
-    public static boolean saveGameScores
+    public static synchronized boolean saveGameScores
         (SOCGame ga, final long gameLengthSeconds)
         throws SQLException
     {
@@ -1091,7 +1096,7 @@ public class SOCDBHelper
      *
      * @throws SQLException if unexpected problem retrieving the params
      */
-    public static SOCRobotParameters retrieveRobotParams(String robotName) throws SQLException
+    public static synchronized SOCRobotParameters retrieveRobotParams(String robotName) throws SQLException
     {
         SOCRobotParameters robotParams = null;
 
@@ -1144,7 +1149,7 @@ public class SOCDBHelper
      * @throws SQLException if unexpected problem counting the users
      * @since 1.1.19
      */
-    public static int countUsers()
+    public static synchronized int countUsers()
         throws SQLException
     {
         if (! checkConnection())
@@ -1182,7 +1187,7 @@ public class SOCDBHelper
      * @throws IllegalStateException  If not connected and if {@link #checkConnection()} fails
      * @since 1.1.14
      */
-    public static boolean doesTableColumnExist
+    public static synchronized boolean doesTableColumnExist
         (final String tabname, final String colname)
         throws IllegalStateException
     {
@@ -1252,7 +1257,7 @@ public class SOCDBHelper
      * @param isForShutdown  If true, set <tt>connection = null</tt>
      *          so we won't try to reconnect later.
      */
-    public static void cleanup(final boolean isForShutdown) throws SQLException
+    public static synchronized void cleanup(final boolean isForShutdown) throws SQLException
     {
         if (checkConnection())
         {
@@ -22,7 +22,10 @@
 package soc.server.genericServer;
 
 import soc.disableDebug.D;
+import soc.util.BinaryMessageCodec;
+import soc.util.VirtualThreads;
 
+import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -30,8 +33,12 @@ import java.io.Serializable;
 
 import java.net.Socket;
 
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.Vector;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 /** A client's connection at a server.
@@ -57,6 +64,19 @@ public final class Connection
     static Object puttersMonitor = new Object();
     protected final static int TIMEOUT_VALUE = 3600000; // approx. 1 hour
 
+    /**
+     * Size of the buffer between {@link #out} and the socket, so that each batch of
+     * messages is written with one flush instead of one socket write per message.
+     * @since 2.0.00
+     */
+    private static final int OUT_BUFFER_SIZE = 8192;
+
+    /**
+     * Maximum number of messages the {@link Putter} takes from {@link #outQueue} for one batch.
+     * @since 2.0.00
+     */
+    private static final int OUT_MAX_BATCH = 256;
+
     DataInputStream in = null;
     DataOutputStream out = null;
     Socket s = null;
@@ -66,7 +86,50 @@ public final class Connection
     protected boolean connected = false;
     /** @see #disconnectSoft() */
     protected boolean inputConnected = false;
-    private Vector<String> outQueue = new Vector<String>();
+
+    /**
+     * Messages waiting to be sent by the {@link Putter}. Guarded by {@link #outLock}.
+     * Before v2.0.00 this was a {@code Vector} which was also used with {@code wait/notify}.
+     */
+    private final ArrayList<EncodedMessage> outQueue = new ArrayList<EncodedMessage>();
+
+    /**
+     * Lock for {@link #outQueue}. A lock and {@link #outQueueAdded condition} are used
+     * instead of {@code synchronized} and {@code wait}, so that a {@link Putter} waiting
+     * on a {@link VirtualThreads virtual thread} doesn't pin its carrier thread.
+     * @since 2.0.00
+     */
+    private final ReentrantLock outLock = new ReentrantLock();
+
+    /**
+     * Signalled when a message is added to {@link #outQueue}.
+     * @since 2.0.00
+     */
+    private final Condition outQueueAdded = outLock.newCondition();
+
+    /**
+     * Encoder if we're sending {@link BinaryMessageCodec binary frames}, otherwise null.
+     * Used only by the {@link Putter} thread.
+     * @see #setBinaryProtocol(int)
+     * @since 2.0.00
+     */
+    private volatile BinaryMessageCodec.Encoder binaryEncoder;
+
+    /**
+     * Compressor if we're sending {@link BinaryMessageCodec#DEFLATE_MARKER compressed chunks}, otherwise null.
+     * Used only by the {@link Putter} thread, which also frees it when done.
+     * @see #setCompression(int, int)
+     * @since 2.0.00
+     */
+    private volatile BinaryMessageCodec.Compressor compressor;
+
+    /**
+     * Total bytes written to the socket, and number of batches flushed; updated only by the {@link Putter} thread.
+     * @see #getBytesSent()
+     * @see #getFlushCount()
+     * @since 2.0.00
+     */
+    private volatile long bytesSent, flushCount;
 
     /** initialize the connection data */
     Connection(Socket so, Server sve)
@@ -109,13 +172,13 @@ public final class Connection
         {
             s.setSoTimeout(TIMEOUT_VALUE);
             in = new DataInputStream(s.getInputStream());
-            out = new DataOutputStream(s.getOutputStream());
+            out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream(), OUT_BUFFER_SIZE));
             connected = true;
             inputConnected = true;
             connectTime = new Date();
 
             Putter putter = new Putter();
-            putter.start();
+            VirtualThreads.start(putter, putter.getName());
 
             //(reader=new Thread(this)).start();
         }
@@ -199,27 +262,43 @@ public final class Connection
      */
     public final void put(String str)
     {
-        synchronized (outQueue)
+        put(new EncodedMessage(str));
+    }
+
+    /**
+     * Send an already-encoded message over the connection.  Adds it to the {@link #outQueue}
+     * to be sent by the Putter thread, which writes its frame bytes without encoding them again.
+     *
+     * @param msg Message to send
+     * @since 2.0.00
+     */
+    @Override
+    public final void put(EncodedMessage msg)
+    {
+        outLock.lock();
+        try
         {
-            // D.ebugPrintln("Adding " + str + " to outQueue for " + data);
-            outQueue.addElement(str);
-            outQueue.notify();
+            // D.ebugPrintln("Adding " + msg + " to outQueue for " + data);
+            outQueue.add(msg);
+            outQueueAdded.signal();
+        } finally {
+            outLock.unlock();
         }
     }
 
     /**
      * Data is added asynchronously (sitting in {@link #outQueue}).
-     * This method is called when it's dequeued and sent over
+     * This method is called when a batch of it is dequeued and sent over
      * the connection to the remote end.
      *
-     * @param str Data to send
+     * @param batch Data to send; not empty
      *
      * @return True if sent, false if error
      *         (and sets {@link #error})
      */
-    private boolean putForReal(final String str)
+    private boolean putForReal(final List<EncodedMessage> batch)
     {
-        boolean rv = putAux(str);
+        boolean rv = putAux(batch);
 
         if (! rv)
         {
@@ -240,11 +319,11 @@ public final class Connection
         }
     }
 
-    /** put a message on the net
+    /** put a batch of messages on the net, then flush them
      * @return true for success, false and disconnects on failure
      *         (and sets {@link #error})
      */
-    private final boolean putAux(final String str)
+    private final boolean putAux(final List<EncodedMessage> batch)
     {
         if ((error != null) || ! connected)
         {
@@ -253,8 +332,36 @@ public final class Connection
 
         try
         {
-            //D.ebugPrintln("trying to put "+str+" to "+data);
-            out.writeUTF(str);
+            final BinaryMessageCodec.Encoder enc = binaryEncoder;
+            final BinaryMessageCodec.Compressor comp = compressor;
+            long nBytes = 0;
+            for (final EncodedMessage msg : batch)
+            {
+                //D.ebugPrintln("trying to put "+msg+" to "+data);
+                final byte[] frame = (enc != null)
+                    ? enc.encodeFrame(msg.getString())
+                    : msg.getFrame();  // same bytes as out.writeUTF(msg.getString())
+
+                if (comp == null)
+                {
+                    out.write(frame);
+                    nBytes += frame.length;
+                } else {
+                    comp.addFrame(frame);
+                }
+            }
+
+            if (comp != null)
+            {
+                // Compress the whole batch together
+                final byte[] chunks = comp.finishBatch();
+                out.write(chunks);
+                nBytes += chunks.length;
+            }
+
+            out.flush();
+            bytesSent += nBytes;
+            ++flushCount;
         }
         catch (IOException e)
         {
@@ -284,6 +391,68 @@ public final class Connection
         return true;
     }
 
+    /**
+     * Start sending {@link BinaryMessageCodec binary frames} to this client.
+     * The client must already be able to read them; messages already queued may be sent either way.
+     * @param formatVersion  Binary format version requested, such as {@link BinaryMessageCodec#FORMAT_VERSION}
+     * @return  true if {@code formatVersion} is supported and binary frames will be sent
+     * @since 2.0.00
+     */
+    @Override
+    public boolean setBinaryProtocol(final int formatVersion)
+    {
+        if (formatVersion != BinaryMessageCodec.FORMAT_VERSION)
+            return false;
+
+        if (binaryEncoder == null)
+            binaryEncoder = new BinaryMessageCodec.Encoder();
+
+        return true;
+    }
+
+    /**
+     * Start compressing messages sent to this client.
+     * The client must already be able to inflate them; messages already queued may be sent either way.
+     * Each batch of messages written by the {@link Putter} thread is compressed together
+     * and flushed at once.
+     * @param formatVersion  Compression format version requested,
+     *     such as {@link BinaryMessageCodec#COMPRESSION_FORMAT_VERSION}
+     * @param level  Deflate compression level, from 1 (fastest) to 9 (smallest)
+     * @return  true if {@code formatVersion} is supported and messages will be compressed
+     * @since 2.0.00
+     */
+    @Override
+    public boolean setCompression(final int formatVersion, final int level)
+    {
+        if ((formatVersion != BinaryMessageCodec.COMPRESSION_FORMAT_VERSION) || (level < 1) || (level > 9))
+            return false;
+
+        if (compressor == null)
+            compressor = new BinaryMessageCodec.Compressor(level);
+
+        return true;
+    }
+
+    /**
+     * Number of bytes written to the socket so far, after any compression.
+     * @since 2.0.00
+     */
+    @Override
+    public long getBytesSent()
+    {
+        return bytesSent;
+    }
+
+    /**
+     * Number of batches of messages flushed to the socket so far.
+     * @since 2.0.00
+     */
+    @Override
+    public long getFlushCount()
+    {
+        return flushCount;
+    }
+
     /** close the socket, stop the reader; called after conn is removed from server structures */
     public void disconnect()
     {
@@ -357,64 +526,96 @@ public final class Connection
         return sb.toString();
     }
 
-    /** Connection inner class thread to send {@link Connection#outQueue} messages to the net. */
-    class Putter extends Thread
+    /**
+     * Connection inner class thread to send {@link Connection#outQueue} messages to the net.
+     * Takes all messages queued so far (up to {@link Connection#OUT_MAX_BATCH}), writes them, and flushes once.
+     * If the server has an {@link Server#setOutputBatchDelay(int) output batch delay}, first waits
+     * up to that long for more messages to be queued.
+     *<P>
+     * Before v2.0.00 this class extended {@link Thread}; it's now started with
+     * {@link VirtualThreads#start(Runnable, String)}, so it can run on a virtual thread.
+     */
+    class Putter implements Runnable
     {
+        /** Thread name for debug */
+        private final String name;
+
         //public boolean putting = true;
         public Putter()
         {
             D.ebugPrintln("NEW PUTTER CREATED FOR " + data);
-            
-            /* thread name for debug */
+
             String cn = host();
             if (cn != null)
-                setName("putter-" + cn + "-" + Integer.toString(s.getPort()));
+                name = "putter-" + cn + "-" + Integer.toString(s.getPort());
             else
-                setName("putter-(null)-" + Integer.toString(hashCode()));
+                name = "putter-(null)-" + Integer.toString(hashCode());
+        }
+
+        /** Thread name for debug: "putter-" remotehostname-portnumber */
+        public String getName()
+        {
+            return name;
         }
 
         public void run()
         {
+            final ArrayList<EncodedMessage> batch = new ArrayList<EncodedMessage>();
+
             while (connected)
             {
-                String c = null;
-
                 D.ebugPrintln("** " + data + " is at the top of the putter loop");
 
-                synchronized (outQueue)
-                {
-                    if (outQueue.size() > 0)
-                    {
-                        c = outQueue.elementAt(0);
-                        outQueue.removeElementAt(0);
-                    }
-                }
-
-                if (c != null)
-                {
-                    /* boolean rv = */ putForReal(c);
-
-                    // rv ignored because handled by putForReal
-                }
-
-                synchronized (outQueue)
+                outLock.lock();
+                try
                 {
-                    if (outQueue.size() == 0)
+                    try
                     {
-                        try
+                        if (outQueue.isEmpty())
                         {
                             //D.ebugPrintln("** "+data+" is WAITING for outQueue");
-                            outQueue.wait(1000);
+                            outQueueAdded.await(1000, TimeUnit.MILLISECONDS);
                         }
-                        catch (Exception ex)
+
+                        final int delay = ourServer.getOutputBatchDelay();
+                        if ((delay > 0) && ! outQueue.isEmpty())
                         {
-                            D.ebugPrintln("Exception while waiting for outQueue in " + data + ". - " + ex);
+                            // Wait for more of this burst to be queued
+                            long remain = TimeUnit.MILLISECONDS.toNanos(delay);
+                            while ((remain > 0) && connected && (outQueue.size() < OUT_MAX_BATCH))
+                                remain = outQueueAdded.awaitNanos(remain);
                         }
                     }
+                    catch (InterruptedException ex)
+                    {
+                        D.ebugPrintln("Exception while waiting for outQueue in " + data + ". - " + ex);
+                    }
+
+                    final int n = outQueue.size();
+                    if (n > 0)
+                    {
+                        final List<EncodedMessage> taken = outQueue.subList(0, Math.min(n, OUT_MAX_BATCH));
+                        batch.addAll(taken);
+                        taken.clear();
+                    }
+                } finally {
+                    outLock.unlock();
+                }
+
+                if (! batch.isEmpty())
+                {
+                    /* boolean rv = */ putForReal(batch);
+
+                    // rv ignored because handled by putForReal
+                    batch.clear();
                 }
             }
 
             D.ebugPrintln("putter not putting connected==false : " + data);
+
+            final BinaryMessageCodec.Compressor comp = compressor;
+            if (comp != null)
+                comp.end();
         }
     }
 }
@@ -0,0 +1,106 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server.genericServer;
+
+import java.io.UTFDataFormatException;
+
+import soc.util.BinaryMessageCodec;
+
+/**
+ * An immutable outbound message, which can be sent to many connections
+ * but is encoded into network bytes at most once.
+ *<P>
+ * When the server sends the same message to all members of a game, or to all clients,
+ * it wraps the message string in one of these and calls {@link StringConnection#put(EncodedMessage)}
+ * for each connection. TCP connections all write the same {@link #getFrame() frame} bytes,
+ * instead of each encoding the string again with {@link java.io.DataOutputStream#writeUTF(String)}.
+ * Local connections (such as the server's robots) use the {@link #getString() string} and never
+ * need the encoded frame.
+ *<P>
+ * The frame is encoded the first time it's needed, then kept. Thread-safe.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public final class EncodedMessage
+{
+    private final String str;
+
+    /** The encoded frame, or null if not yet needed; see {@link #getFrame()}. */
+    private volatile byte[] frame;
+
+    /**
+     * Wrap a message string; doesn't encode it yet.
+     * @param str  Message string, such as from {@link soc.message.SOCMessage#toCmd()}; not null
+     * @throws NullPointerException if {@code str} is null
+     */
+    public EncodedMessage(final String str)
+        throws NullPointerException
+    {
+        if (str == null)
+            throw new NullPointerException();
+
+        this.str = str;
+    }
+
+    /**
+     * Get the message string.
+     * @return the message string given to the constructor
+     */
+    public String getString()
+    {
+        return str;
+    }
+
+    /**
+     * Get the message's network frame, encoding it if this is the first call.
+     * The frame is the same bytes that {@link java.io.DataOutputStream#writeUTF(String)} would write.
+     *<P>
+     * The returned array is shared by all connections sending this message; callers must not change its contents.
+     *
+     * @return  the encoded frame
+     * @throws UTFDataFormatException if the encoded string is longer than 65535 bytes
+     */
+    byte[] getFrame()
+        throws UTFDataFormatException
+    {
+        byte[] f = frame;
+        if (f == null)
+        {
+            synchronized (this)
+            {
+                f = frame;
+                if (f == null)
+                    frame = f = BinaryMessageCodec.encodeTextFrame(str);
+            }
+        }
+
+        return f;
+    }
+
+    /**
+     * For debugging, the message string.
+     */
+    public String toString()
+    {
+        return str;
+    }
+
+}
@@ -0,0 +1,341 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server.genericServer;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer single-consumer queue of inbound client messages,
+ * for the server's single "treater" thread.
+ * Replaces a synchronized {@code Vector} with {@code remove(0)} and {@code wait/notify}
+ * for each message.
+ *<P>
+ * Producers are the clients' reader threads (or non-blocking I/O event loops), calling {@link #offer(Server.Command)}.
+ * The one consumer calls {@link #drainTo(List, int, long)} to take a batch of all messages queued so far,
+ * parking only when the queue is empty. Neither side takes a lock.
+ *<P>
+ * When the queue reaches its capacity, the {@link OverloadPolicy} decides what happens to the next message.
+ * Counters for queue depth and overload actions are kept for server stats.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class InboundCommandQueue
+{
+    /**
+     * What to do with an inbound message when the queue is full.
+     * @see InboundCommandQueue#InboundCommandQueue(int, OverloadPolicy, Server)
+     */
+    public static enum OverloadPolicy
+    {
+        /** Discard the new message. */
+        REJECT,
+
+        /**
+         * Discard the oldest queued message that the server says is droppable
+         * (such as a client's ping reply; see {@link Server#isDroppableCommand(String)}),
+         * to make room for the new one. If none are droppable, discard the new message.
+         */
+        DROP_PING,
+
+        /**
+         * Make the client's reader wait until there's room, which slows down
+         * reading from that client.  No messages are discarded.
+         * With non-blocking I/O, the event loop doesn't wait: It stops reading from
+         * that client until there's room, using {@link InboundCommandQueue#offerNoWait(Server.Command)},
+         * and keeps reading from its other clients.
+         */
+        BLOCK;
+
+        /**
+         * Parse a policy name, case-insensitive.
+         * @param name  Policy name such as {@code "reject"}, or null
+         * @param dflt  Default to return if {@code name} is null or not recognized
+         * @return  The policy named, or {@code dflt}
+         */
+        public static OverloadPolicy parse(final String name, final OverloadPolicy dflt)
+        {
+            if (name == null)
+                return dflt;
+
+            final String n = name.trim();
+            for (OverloadPolicy p : values())
+                if (p.name().equalsIgnoreCase(n))
+                    return p;
+
+            return dflt;
+        }
+    }
+
+    /** Default capacity, if not specified: 10000 messages */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    /** How long {@link OverloadPolicy#BLOCK} parks between checks for room, in nanoseconds (1 ms) */
+    private static final long BLOCK_PARK_NANOS = 1000L * 1000L;
+
+    private final ConcurrentLinkedQueue<Server.Command> q = new ConcurrentLinkedQueue<Server.Command>();
+
+    /** Current number of queued messages; kept separately since {@link ConcurrentLinkedQueue#size()} is O(n). */
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final int capacity;
+
+    private final OverloadPolicy policy;
+
+    /** Server to ask {@link Server#isDroppableCommand(String)}; used with {@link OverloadPolicy#DROP_PING} */
+    private final Server srv;
+
+    /** The consumer thread, if parked waiting for messages; see {@link #drainTo(List, int, long)} */
+    private volatile Thread waitingConsumer;
+
+    /** Highest depth seen so far */
+    private volatile int maxDepth;
+
+    private final AtomicLong totalQueued = new AtomicLong(),
+        totalRejected = new AtomicLong(),
+        totalDropped = new AtomicLong(),
+        totalBlocked = new AtomicLong();
+
+    /**
+     * Create a new empty queue.
+     * @param capacity  Maximum number of queued messages, or 0 for {@link #DEFAULT_CAPACITY}
+     * @param policy  What to do when the queue is full
+     * @param srv  Server to ask whether a message is droppable for {@link OverloadPolicy#DROP_PING};
+     *     may be null if another policy is used
+     * @throws IllegalArgumentException if {@code capacity} &lt; 0 or {@code policy} is null
+     */
+    public InboundCommandQueue(final int capacity, final OverloadPolicy policy, final Server srv)
+        throws IllegalArgumentException
+    {
+        if ((capacity < 0) || (policy == null))
+            throw new IllegalArgumentException();
+
+        this.capacity = (capacity > 0) ? capacity : DEFAULT_CAPACITY;
+        this.policy = policy;
+        this.srv = srv;
+    }
+
+    /**
+     * Add a message to the queue, if there's room or room can be made by the overload policy.
+     * Called from client reader threads.
+     * @param c  Message to add
+     * @return  True if added, false if discarded because the queue was full
+     */
+    boolean offer(final Server.Command c)
+    {
+        return offer(c, true);
+    }
+
+    /**
+     * Add a message to the queue like {@link #offer(Server.Command)}, but never wait:
+     * With {@link OverloadPolicy#BLOCK}, if the queue is full the message isn't added
+     * and the caller should offer it again later.
+     * Called from non-blocking I/O event loop threads, which must not wait.
+     * @param c  Message to add
+     * @return  True if added, false if not added because the queue was full
+     * @since 2.0.00
+     */
+    boolean offerNoWait(final Server.Command c)
+    {
+        return offer(c, false);
+    }
+
+    /**
+     * Add a message to the queue; see {@link #offer(Server.Command)} and {@link #offerNoWait(Server.Command)}.
+     * @param c  Message to add
+     * @param canWait  If true and policy is {@link OverloadPolicy#BLOCK}, wait for room when full
+     * @return  True if added
+     */
+    private boolean offer(final Server.Command c, final boolean canWait)
+    {
+        if (depth.get() >= capacity)
+        {
+            switch (policy)
+            {
+            case REJECT:
+                totalRejected.incrementAndGet();
+                return false;
+
+            case DROP_PING:
+                if (! dropOldestDroppable())
+                {
+                    totalRejected.incrementAndGet();
+                    return false;
+                }
+                break;
+
+            case BLOCK:
+                totalBlocked.incrementAndGet();
+                if (! canWait)
+                    return false;
+                while (depth.get() >= capacity)
+                    LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                break;
+            }
+        }
+
+        q.offer(c);
+        final int d = depth.incrementAndGet();
+        if (d > maxDepth)
+            maxDepth = d;
+        totalQueued.incrementAndGet();
+
+        final Thread t = waitingConsumer;
+        if (t != null)
+            LockSupport.unpark(t);
+
+        return true;
+    }
+
+    /**
+     * Remove the oldest queued message which is {@link Server#isDroppableCommand(String) droppable}, if any.
+     * @return true if a message was removed
+     */
+    private boolean dropOldestDroppable()
+    {
+        if (srv == null)
+            return false;
+
+        for (Iterator<Server.Command> it = q.iterator(); it.hasNext(); )
+        {
+            final Server.Command c = it.next();
+            if (srv.isDroppableCommand(c.str) && q.remove(c))
+            {
+                depth.decrementAndGet();
+                totalDropped.incrementAndGet();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Take all queued messages (up to {@code maxBatch}) and add them to {@code batch} in order.
+     * If the queue is empty, waits up to {@code timeoutMillis} for a message to arrive.
+     * Only one thread should call this method.
+     *
+     * @param batch  List to add messages to; not cleared here
+     * @param maxBatch  Maximum number of messages to take
+     * @param timeoutMillis  Maximum time to wait if queue is empty
+     * @return  Number of messages added to {@code batch}, or 0 if timed out or interrupted
+     */
+    int drainTo(final List<Server.Command> batch, final int maxBatch, final long timeoutMillis)
+    {
+        int n = drainNow(batch, maxBatch);
+        if (n > 0)
+            return n;
+
+        waitingConsumer = Thread.currentThread();
+        try
+        {
+            // re-check after publishing waitingConsumer, in case a producer just added one
+            if (q.isEmpty())
+                LockSupport.parkNanos(this, timeoutMillis * 1000L * 1000L);
+        } finally {
+            waitingConsumer = null;
+        }
+
+        return drainNow(batch, maxBatch);
+    }
+
+    private int drainNow(final List<Server.Command> batch, final int maxBatch)
+    {
+        int n = 0;
+        Server.Command c;
+        while ((n < maxBatch) && (null != (c = q.poll())))
+        {
+            batch.add(c);
+            ++n;
+        }
+        if (n > 0)
+            depth.addAndGet(-n);
+
+        return n;
+    }
+
+    /** Number of messages currently queued. */
+    public int getDepth()
+    {
+        return depth.get();
+    }
+
+    /** Highest number of messages queued at once since startup. */
+    public int getMaxDepth()
+    {
+        return maxDepth;
+    }
+
+    /** Maximum number of queued messages before the {@link #getOverloadPolicy() overload policy} is used. */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /** This queue's policy when full. */
+    public OverloadPolicy getOverloadPolicy()
+    {
+        return policy;
+    }
+
+    /** Total messages queued since startup. */
+    public long getTotalQueued()
+    {
+        return totalQueued.get();
+    }
+
+    /** Total new messages discarded because the queue was full. */
+    public long getTotalRejected()
+    {
+        return totalRejected.get();
+    }
+
+    /** Total older droppable messages discarded to make room, with {@link OverloadPolicy#DROP_PING}. */
+    public long getTotalDropped()
+    {
+        return totalDropped.get();
+    }
+
+    /**
+     * Total times a reader had to wait for room, with {@link OverloadPolicy#BLOCK}.
+     * Includes each time {@link #offerNoWait(Server.Command)} found no room.
+     */
+    public long getTotalBlocked()
+    {
+        return totalBlocked.get();
+    }
+
+    /**
+     * Summary of this queue's stats, for debugging or server stats output.
+     * @return a string like "depth 0 (max 17 of 10000), queued 2345, rejected 0, dropped 0, blocked 0, policy REJECT"
+     */
+    public String toString()
+    {
+        return "depth " + depth.get() + " (max " + maxDepth + " of " + capacity + "), queued " + totalQueued.get()
+            + ", rejected " + totalRejected.get() + ", dropped " + totalDropped.get()
+            + ", blocked " + totalBlocked.get() + ", policy " + policy;
+    }
+
+}
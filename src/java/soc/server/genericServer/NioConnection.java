@@ -0,0 +1,718 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server.genericServer;
+
+import soc.disableDebug.D;
+import soc.util.BinaryMessageCodec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * A client's TCP connection at a server, using non-blocking I/O.
+ * Unlike {@link Connection}, no threads are started for each client:
+ * Reads and writes are done by one of the event loop threads of a
+ * shared {@link NioSelectorPool}, so thousands of mostly-idle clients
+ * can be connected without using thousands of threads.
+ *<P>
+ * The wire format is identical to {@link Connection}'s:
+ * Each message is sent as {@link java.io.DataOutputStream#writeUTF(String)} would,
+ * a 2-byte unsigned length followed by the string in modified UTF-8.
+ * Clients can't tell which type of connection the server is using.
+ *<P>
+ * The event loop thread handles I/O for many other clients, so it never waits for the server:
+ * Inbound messages are passed to {@link Server#treatNoWait(String, StringConnection)}.
+ * If the server's inbound queue is full, this connection stops reading until there's room
+ * (see {@link #resumeRead()}); its unprocessed data stays in {@link #inBuf}.
+ * The first message is passed to {@link Server#processFirstCommand(String, StringConnection)}
+ * on the {@link NioSelectorPool}'s dispatch thread, with reading paused until it returns.
+ * When the connection is lost, {@link Server#removeConnection(StringConnection)} is also
+ * called on the dispatch thread.
+ *<P>
+ * The server's accept thread calls {@link #run()}, which calls {@link Server#addConnection(StringConnection)}
+ * and then registers this connection's channel with its event loop; no thread is started.
+ *<P>
+ * As used within JSettlers, the structure of this class has much in common
+ * with {@link Connection}, as they both subclass {@link StringConnection}.
+ * If you add something to one class, you should probably add it to the other, or to the superclass instead.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public final class NioConnection
+    extends StringConnection
+{
+    /**
+     * Initial size of the inbound buffer; will grow if needed to hold
+     * a complete message, up to the 65535-byte writeUTF maximum plus length.
+     */
+    private static final int IN_BUFFER_INITIAL_SIZE = 2048;
+
+    /** Maximum size of one framed message: 2-byte length plus 65535 bytes of data. */
+    private static final int FRAME_MAX_SIZE = 2 + 65535;
+
+    /** Maximum number of queued buffers to write with one gathering write call in {@link #doWrite()}. */
+    private static final int OUT_MAX_GATHER = 128;
+
+    /** Our channel, or null after {@link #disconnect()} */
+    private SocketChannel chan;
+
+    /** Event loop which does our reads and writes */
+    private final NioSelectorPool.EventLoop loop;
+
+    /** Our channel's key in {@link #loop}'s selector, or null if not yet registered */
+    volatile SelectionKey key;
+
+    /** Hostname of the remote end of the connection, for {@link #host()} */
+    private final String hst;
+
+    /** Remote port number, for {@link #getName()} */
+    private final int remotePort;
+
+    private volatile boolean connected = false;
+
+    /** @see #disconnectSoft() */
+    private volatile boolean inputConnected = false;
+
+    /** Has the first message been passed to {@link Server#processFirstCommand(String, StringConnection)} yet? */
+    private boolean firstMsgTreated = false;
+
+    /**
+     * True while reading is paused, waiting for the first message's dispatched task
+     * or for room in the server's inbound queue; see {@link #resumeRead()}.
+     * Accessed only by {@link #loop}'s thread.
+     */
+    private boolean readPaused;
+
+    /**
+     * True once {@link #removeFromServer()} has dispatched our removal.
+     * Accessed only by {@link #loop}'s thread.
+     */
+    private boolean removing;
+
+    /**
+     * Partially-read inbound data, in "write mode" (position is the end of data read so far).
+     * Accessed only by {@link #loop}'s thread.
+     */
+    private ByteBuffer inBuf = ByteBuffer.allocate(IN_BUFFER_INITIAL_SIZE);
+
+    /**
+     * Encoded outbound messages not yet written to the socket.
+     * Synchronized on itself; also see {@link #writePending}.
+     */
+    private final LinkedList<ByteBuffer> outQueue = new LinkedList<ByteBuffer>();
+
+    /**
+     * True if {@link #outQueue} has data and our event loop has been asked to
+     * watch for write readiness. Synchronized on {@link #outQueue}.
+     */
+    private boolean writePending = false;
+
+    /**
+     * Encoder if we're sending {@link BinaryMessageCodec binary frames}, otherwise null.
+     * Used only while synchronized on {@link #outQueue}.
+     * @see #setBinaryProtocol(int)
+     */
+    private volatile BinaryMessageCodec.Encoder binaryEncoder;
+
+    /**
+     * Compressor if we're sending {@link BinaryMessageCodec#DEFLATE_MARKER compressed chunks}, otherwise null.
+     * Frames are added to it as they're queued; {@link #doWrite()} finishes each batch.
+     * Used only while synchronized on {@link #outQueue}.
+     * @see #setCompression(int, int)
+     * @since 2.0.00
+     */
+    private BinaryMessageCodec.Compressor compressor;
+
+    /**
+     * Time of last inbound data, from {@link System#currentTimeMillis()}, for the idle timeout.
+     * @see Connection#TIMEOUT_VALUE
+     */
+    volatile long lastReadTime;
+
+    /**
+     * Total bytes written to the channel, and number of write calls; updated only by {@link #loop}'s thread.
+     * @see #getBytesSent()
+     * @see #getFlushCount()
+     */
+    private volatile long bytesSent, flushCount;
+
+    /**
+     * Create a new connection; called from {@link Server.NioStringServerSocket#accept()}.
+     * @param sc  Newly accepted channel; will be configured non-blocking here
+     * @param sve  Our server
+     * @param lp  Event loop to do this connection's I/O
+     * @throws IOException if {@code sc} can't be configured non-blocking
+     */
+    NioConnection(final SocketChannel sc, final Server sve, final NioSelectorPool.EventLoop lp)
+        throws IOException
+    {
+        sc.configureBlocking(false);
+        final Socket so = sc.socket();
+        hst = so.getInetAddress().getHostName();
+        remotePort = so.getPort();
+        chan = sc;
+        ourServer = sve;
+        loop = lp;
+    }
+
+    /**
+     * Get our connection name for debugging.  Also used by {@link #toString()}.
+     * @return "nioconnection-"remotehostname-portnumber
+     */
+    public String getName()
+    {
+        return "nioconnection-" + hst + "-" + Integer.toString(remotePort);
+    }
+
+    /**
+     * @return Hostname of the remote end of the connection
+     */
+    public String host()
+    {
+        return hst;
+    }
+
+    /**
+     * Set up to read and write with our event loop; called only by the server
+     * from {@link Server#addConnection(StringConnection)}.
+     * Sets connectTime to now. The channel isn't registered with the loop until
+     * {@link #run()} has finished adding us to the server; any messages {@link #put(String)}
+     * before then are queued and sent once registered.
+     *
+     * @return true, since no I/O is done yet
+     */
+    public boolean connect()
+    {
+        connected = true;
+        inputConnected = true;
+        connectTime = new Date();
+        lastReadTime = System.currentTimeMillis();
+
+        return true;
+    }
+
+    /**
+     * Called from the server's accept thread: Add this connection to the server,
+     * then register with our event loop to begin reading. Returns right away
+     * without starting a thread.
+     */
+    public void run()
+    {
+        ourServer.addConnection(this);
+        if (connected)
+            loop.register(this);
+    }
+
+    /**
+     * Is input available now, without blocking?
+     * True if a partial or complete message has been read but not yet processed.
+     */
+    public boolean isInputAvailable()
+    {
+        return inputConnected && (inBuf.position() > 0);
+    }
+
+    /**
+     * Send this data over the connection. Encodes it and adds to the outbound queue,
+     * which will be written by our event loop thread.
+     *
+     * @param str Data to send
+     */
+    public final void put(final String str)
+    {
+        putMessage(str, null);
+    }
+
+    /**
+     * Send an already-encoded message over the connection.
+     * Its frame bytes are shared with other connections, not copied,
+     * unless this connection is using {@link #setBinaryProtocol(int) binary frames}.
+     *
+     * @param msg Message to send
+     * @since 2.0.00
+     */
+    @Override
+    public final void put(final EncodedMessage msg)
+    {
+        putMessage(null, msg);
+    }
+
+    /**
+     * Encode a message, add its frame to the outbound queue, and ask our event loop to write it.
+     * Binary frames are encoded while synchronized on {@link #outQueue}, so that they're queued
+     * in the same order as {@link #binaryEncoder} saw them.
+     * If compressing, the frame is added to the {@link #compressor}'s current batch instead of the queue.
+     * @param str  Message to send, or null if {@code msg} is given
+     * @param msg  Message to send, or null if {@code str} is given
+     */
+    private void putMessage(final String str, final EncodedMessage msg)
+    {
+        boolean needWake = false;
+        try
+        {
+            byte[] frame = null;
+            if (binaryEncoder == null)
+                frame = (msg != null) ? msg.getFrame() : BinaryMessageCodec.encodeTextFrame(str);
+
+            synchronized (outQueue)
+            {
+                if (frame == null)
+                    frame = binaryEncoder.encodeFrame((msg != null) ? msg.getString() : str);
+
+                if (compressor != null)
+                    compressor.addFrame(frame);
+                else
+                    outQueue.addLast(ByteBuffer.wrap(frame));
+                if (! writePending)
+                {
+                    writePending = true;
+                    needWake = true;
+                }
+            }
+        }
+        catch (UTFDataFormatException e)
+        {
+            D.ebugPrintln("NioConnection.put (" + hst + ") message too long - " + e);
+            return;
+        }
+
+        if (needWake && (key != null))
+            loop.wantWrite(this);
+    }
+
+    /**
+     * Start sending {@link BinaryMessageCodec binary frames} to this client.
+     * The client must already be able to read them; messages already queued may be sent either way.
+     * @param formatVersion  Binary format version requested, such as {@link BinaryMessageCodec#FORMAT_VERSION}
+     * @return  true if {@code formatVersion} is supported and binary frames will be sent
+     * @since 2.0.00
+     */
+    @Override
+    public boolean setBinaryProtocol(final int formatVersion)
+    {
+        if (formatVersion != BinaryMessageCodec.FORMAT_VERSION)
+            return false;
+
+        synchronized (outQueue)
+        {
+            if (binaryEncoder == null)
+                binaryEncoder = new BinaryMessageCodec.Encoder();
+        }
+
+        return true;
+    }
+
+    /**
+     * Start compressing messages sent to this client.
+     * The client must already be able to inflate them; messages already queued may be sent either way.
+     * All messages queued between writes are compressed together and flushed as a batch.
+     * @param formatVersion  Compression format version requested,
+     *     such as {@link BinaryMessageCodec#COMPRESSION_FORMAT_VERSION}
+     * @param level  Deflate compression level, from 1 (fastest) to 9 (smallest)
+     * @return  true if {@code formatVersion} is supported and messages will be compressed
+     * @since 2.0.00
+     */
+    @Override
+    public boolean setCompression(final int formatVersion, final int level)
+    {
+        if ((formatVersion != BinaryMessageCodec.COMPRESSION_FORMAT_VERSION) || (level < 1) || (level > 9))
+            return false;
+
+        synchronized (outQueue)
+        {
+            if ((compressor == null) && connected)
+                compressor = new BinaryMessageCodec.Compressor(level);
+        }
+
+        return true;
+    }
+
+    /**
+     * Our channel is readable: Read available data, and treat any complete messages.
+     * Called only from {@link #loop}'s thread.
+     */
+    void doRead()
+    {
+        if (readPaused)
+            return;
+
+        try
+        {
+            final int n = chan.read(inBuf);
+            if (n < 0)
+                throw new EOFException();
+            if (n == 0)
+                return;
+
+            lastReadTime = System.currentTimeMillis();
+            treatInBuf();
+        }
+        catch (IOException e)
+        {
+            D.ebugPrintln("IOException in NioConnection.doRead (" + hst + ") - " + e);
+
+            if (! connected)
+                return;  // Don't set error twice
+
+            error = e;
+            removeFromServer();
+        }
+    }
+
+    /**
+     * Treat the complete messages in {@link #inBuf}, removing them from the buffer.
+     * If the server can't take one now, or it's the first message, pause reading:
+     * See {@link #resumeRead()}.
+     * Called only from {@link #loop}'s thread.
+     * @throws UTFDataFormatException if a message isn't valid modified UTF-8
+     */
+    private void treatInBuf()
+        throws UTFDataFormatException
+    {
+        boolean pauseForFirst = false, pauseForRoom = false;
+
+        inBuf.flip();
+        while (inputConnected && (inBuf.remaining() >= 2))
+        {
+            final int start = inBuf.position();
+            final int len = ((inBuf.get(start) & 0xFF) << 8) | (inBuf.get(start + 1) & 0xFF);
+            if (inBuf.remaining() < 2 + len)
+            {
+                if (inBuf.capacity() < 2 + len)
+                {
+                    // grow to hold this message
+                    ByteBuffer bigger = ByteBuffer.allocate(Math.min(FRAME_MAX_SIZE, Math.max(2 + len, 2 * inBuf.capacity())));
+                    bigger.put(inBuf);
+                    bigger.flip();
+                    inBuf = bigger;
+                }
+                break;
+            }
+
+            final String msg = BinaryMessageCodec.decodeUTF(inBuf.array(), inBuf.arrayOffset() + start + 2, len);
+
+            if (! firstMsgTreated)
+            {
+                firstMsgTreated = true;
+                inBuf.position(start + 2 + len);
+                treatFirstMessage(msg);
+                pauseForFirst = true;
+                break;
+            }
+
+            if (! ourServer.treatNoWait(msg, this))
+            {
+                pauseForRoom = true;  // leave msg in inBuf, to treat again soon
+                break;
+            }
+
+            inBuf.position(start + 2 + len);
+        }
+        inBuf.compact();
+
+        if (pauseForFirst || pauseForRoom)
+        {
+            readPaused = true;
+            if ((key != null) && key.isValid())
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            if (pauseForRoom)
+                loop.retryReadSoon(this);
+        }
+    }
+
+    /**
+     * Pass the first message to {@link Server#processFirstCommand(String, StringConnection)}
+     * on the dispatch thread, and to {@link Server#treat(String, StringConnection)} if that returns false.
+     * When done, asks {@link #loop} to call {@link #resumeRead()}.
+     * @param msg  First message received from the client
+     */
+    private void treatFirstMessage(final String msg)
+    {
+        loop.dispatch(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    if (! ourServer.processFirstCommand(msg, NioConnection.this))
+                        ourServer.treat(msg, NioConnection.this);
+                } finally {
+                    loop.resumeRead(NioConnection.this);
+                }
+            }
+        });
+    }
+
+    /**
+     * Reading was paused by {@link #treatInBuf()}: Treat any complete messages already buffered,
+     * then if none are left waiting for the server, resume reading from our channel.
+     * Called only from {@link #loop}'s thread, after the dispatched first message is done
+     * or periodically while waiting for room in the server's inbound queue.
+     */
+    void resumeRead()
+    {
+        if (removing || ! (readPaused && connected))
+            return;
+
+        readPaused = false;
+        lastReadTime = System.currentTimeMillis();  // waiting for the server isn't idle time
+        try
+        {
+            treatInBuf();
+            if ((! readPaused) && (key != null) && key.isValid())
+                key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+        }
+        catch (IOException e)
+        {
+            D.ebugPrintln("IOException in NioConnection.resumeRead (" + hst + ") - " + e);
+            error = e;
+            removeFromServer();
+        }
+    }
+
+    /**
+     * Our connection has failed: Stop selecting for it, and call
+     * {@link Server#removeConnection(StringConnection)} on the dispatch thread,
+     * since that can wait for server locks. Does nothing if already called.
+     * Called only from {@link #loop}'s thread.
+     */
+    private void removeFromServer()
+    {
+        if (removing)
+            return;
+
+        removing = true;
+        if ((key != null) && key.isValid())
+            key.interestOps(0);
+        loop.dispatch(new Runnable()
+        {
+            public void run()
+            {
+                ourServer.removeConnection(NioConnection.this);
+            }
+        });
+    }
+
+    /**
+     * Our channel is writable: Write as much queued data as the socket will take.
+     * All queued frames (up to {@link #OUT_MAX_GATHER}) are written with one gathering write call,
+     * instead of a write call per message.
+     * Called only from {@link #loop}'s thread.
+     */
+    void doWrite()
+    {
+        try
+        {
+            for (;;)
+            {
+                final ByteBuffer[] bufs;
+                synchronized (outQueue)
+                {
+                    if ((compressor != null) && compressor.hasPending())
+                        outQueue.addLast(ByteBuffer.wrap(compressor.finishBatch()));
+
+                    if (outQueue.isEmpty())
+                    {
+                        writePending = false;
+                        if ((key != null) && key.isValid())
+                            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                        return;
+                    }
+
+                    bufs = new ByteBuffer[Math.min(outQueue.size(), OUT_MAX_GATHER)];
+                    final Iterator<ByteBuffer> qi = outQueue.iterator();
+                    for (int i = 0; i < bufs.length; ++i)
+                        bufs[i] = qi.next();
+                }
+
+                final long nw = chan.write(bufs);
+                if (nw > 0)
+                {
+                    bytesSent += nw;
+                    ++flushCount;
+                }
+
+                // Remove fully written buffers; only this thread removes from outQueue
+                synchronized (outQueue)
+                {
+                    for (int i = 0; (i < bufs.length) && ! bufs[i].hasRemaining(); ++i)
+                        outQueue.removeFirst();
+                }
+
+                if (bufs[bufs.length - 1].hasRemaining())
+                    return;  // socket buffer is full; wait for next OP_WRITE
+            }
+        }
+        catch (IOException e)
+        {
+            D.ebugPrintln("IOException in NioConnection.doWrite (" + hst + ") - " + e);
+
+            if (! connected)
+                return;
+
+            error = e;
+            removeFromServer();
+        }
+    }
+
+    /**
+     * Check whether this connection has been idle longer than {@link Connection#TIMEOUT_VALUE};
+     * if so, set {@link #error} to a {@link SocketTimeoutException} and remove it from the server.
+     * Called periodically from {@link #loop}'s thread.
+     * @param now  Current time from {@link System#currentTimeMillis()}
+     */
+    void checkIdle(final long now)
+    {
+        if ((! connected) || readPaused || (now - lastReadTime < Connection.TIMEOUT_VALUE))
+            return;
+
+        error = new SocketTimeoutException("idle timeout");
+        removeFromServer();
+    }
+
+    /**
+     * Number of bytes written to the channel so far, after any compression.
+     */
+    @Override
+    public long getBytesSent()
+    {
+        return bytesSent;
+    }
+
+    /**
+     * Number of write calls to the channel so far; each one writes all the frames queued at that time.
+     */
+    @Override
+    public long getFlushCount()
+    {
+        return flushCount;
+    }
+
+    /** close the socket, stop reading; called after conn is removed from server structures */
+    public void disconnect()
+    {
+        if (! connected)
+            return;  // <--- Early return: Already disconnected ---
+
+        D.ebugPrintln("DISCONNECTING " + data);
+        connected = false;
+        inputConnected = false;
+
+        try
+        {
+            if (key != null)
+                key.cancel();
+            if (chan != null)
+                chan.close();
+        }
+        catch (IOException e)
+        {
+            D.ebugPrintln("IOException in NioConnection.disconnect (" + hst + ") - " + e);
+            error = e;
+        }
+
+        synchronized (outQueue)
+        {
+            outQueue.clear();
+            if (compressor != null)
+            {
+                compressor.end();
+                compressor = null;
+            }
+        }
+    }
+
+    /**
+     * Accept no further input, allow output to drain, don't immediately close the socket.
+     * Once called, {@link #isConnected()} will return false, even if output is still being
+     * sent to the other side.
+     */
+    public void disconnectSoft()
+    {
+        if (! inputConnected)
+            return;
+
+        D.ebugPrintln("DISCONNECTING(SOFT) " + data);
+        inputConnected = false;
+    }
+
+    /**
+     * Are we currently connected and active?
+     */
+    public boolean isConnected()
+    {
+        return connected && inputConnected;
+    }
+
+    /**
+     * Our channel, for registration with the event loop's selector.
+     * @throws ClosedChannelException if already disconnected
+     */
+    SocketChannel getChannel()
+        throws ClosedChannelException
+    {
+        if (! connected)
+            throw new ClosedChannelException();
+
+        return chan;
+    }
+
+    /**
+     * Does this connection have queued output waiting to be written?
+     */
+    boolean hasPendingWrite()
+    {
+        synchronized (outQueue)
+        {
+            return writePending;
+        }
+    }
+
+    /**
+     * toString includes data.toString for debugging, and {@link #getName()}.
+     */
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer("NioConnection[");
+        if (data != null)
+            sb.append(data.toString());
+        else
+            sb.append(super.hashCode());
+        sb.append('-');
+        sb.append(getName());
+        sb.append(']');
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,344 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server.genericServer;
+
+import soc.disableDebug.D;
+
+import java.io.IOException;
+
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A small fixed pool of {@link Selector} event loop threads, which do all
+ * network reads and writes for the server's {@link NioConnection}s.
+ * Connections are assigned to loops round-robin when accepted.
+ *<P>
+ * The event loops never wait for the server: Server calls which may block, such as
+ * {@link Server#processFirstCommand(String, StringConnection)} and
+ * {@link Server#removeConnection(StringConnection)}, are run on the pool's one
+ * dispatch thread instead. When the server's inbound queue is full, a loop
+ * stops reading from that client and retries soon, instead of waiting for room.
+ *<P>
+ * Used when the server is constructed with a nonzero number of selector threads;
+ * see {@link Server#Server(int, int)}.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+class NioSelectorPool
+{
+    /**
+     * How often each loop wakes to check its connections for the idle timeout, in milliseconds.
+     * @see Connection#TIMEOUT_VALUE
+     */
+    private static final int IDLE_CHECK_INTERVAL_MS = 30 * 1000;
+
+    /**
+     * How soon a loop retries treating a connection's messages, in milliseconds,
+     * when the server's inbound queue was full.
+     * @see NioConnection#resumeRead()
+     */
+    private static final int RETRY_READ_MS = 1;
+
+    private final EventLoop[] loops;
+
+    /**
+     * Single thread to run server calls which may block, so the event loops don't wait for them.
+     * @see #dispatch(Runnable)
+     */
+    private final ExecutorService dispatcher;
+
+    /** Round-robin index into {@link #loops} for {@link #next()}; synchronized on this pool. */
+    private int nextIdx = 0;
+
+    /**
+     * Create and start the pool's threads.
+     * @param nThreads  Number of event loop threads, at least 1
+     * @param namePrefix  Prefix for thread names, for debugging
+     * @throws IOException if a selector can't be opened
+     * @throws IllegalArgumentException if {@code nThreads} &lt; 1
+     */
+    NioSelectorPool(final int nThreads, final String namePrefix)
+        throws IOException, IllegalArgumentException
+    {
+        if (nThreads < 1)
+            throw new IllegalArgumentException("nThreads");
+
+        final String dname = namePrefix + "-dispatch";
+        dispatcher = Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            public Thread newThread(Runnable r)
+            {
+                Thread t = new Thread(r, dname);
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+        loops = new EventLoop[nThreads];
+        for (int i = 0; i < nThreads; ++i)
+        {
+            loops[i] = new EventLoop(namePrefix + "-" + i, this);
+            loops[i].start();
+        }
+    }
+
+    /**
+     * Run a task on the pool's dispatch thread, after any tasks already dispatched.
+     * Exceptions thrown by {@code task} are caught and printed.
+     * @param task  Task to run, such as a call to {@link Server#removeConnection(StringConnection)}
+     */
+    void dispatch(final Runnable task)
+    {
+        dispatcher.execute(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    task.run();
+                }
+                catch (Throwable t)
+                {
+                    System.err.println("Exception in nio dispatch - " + t);
+                    t.printStackTrace();
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the event loop which should handle the next new connection.
+     */
+    synchronized EventLoop next()
+    {
+        final EventLoop lp = loops[nextIdx];
+        ++nextIdx;
+        if (nextIdx >= loops.length)
+            nextIdx = 0;
+
+        return lp;
+    }
+
+    /**
+     * Stop all event loop threads. Doesn't disconnect their connections;
+     * call this after the server has done so.
+     */
+    void shutdown()
+    {
+        for (int i = 0; i < loops.length; ++i)
+            loops[i].shutdown();
+        dispatcher.shutdown();
+    }
+
+    /**
+     * One selector thread, handling reads and writes for some of the server's connections.
+     * Other threads communicate with it only through its concurrent queues and {@link Selector#wakeup()}.
+     */
+    static final class EventLoop extends Thread
+    {
+        private final Selector selector;
+
+        /** Our pool, for {@link NioSelectorPool#dispatch(Runnable)} */
+        private final NioSelectorPool pool;
+
+        /** Connections waiting to be registered with {@link #selector} */
+        private final ConcurrentLinkedQueue<NioConnection> pendingRegister = new ConcurrentLinkedQueue<NioConnection>();
+
+        /** Connections which have queued output and need {@link SelectionKey#OP_WRITE} interest */
+        private final ConcurrentLinkedQueue<NioConnection> pendingWrite = new ConcurrentLinkedQueue<NioConnection>();
+
+        /** Connections whose reads were paused until a dispatched task finished; see {@link #resumeRead(NioConnection)} */
+        private final ConcurrentLinkedQueue<NioConnection> pendingResume = new ConcurrentLinkedQueue<NioConnection>();
+
+        /**
+         * Connections whose reads are paused because the server's inbound queue was full;
+         * see {@link #retryReadSoon(NioConnection)}. Accessed only by this loop's thread.
+         */
+        private final ArrayList<NioConnection> retryReads = new ArrayList<NioConnection>();
+
+        private volatile boolean running = true;
+
+        /** Last time connections were checked for idle timeout, from {@link System#currentTimeMillis()} */
+        private long lastIdleCheck = System.currentTimeMillis();
+
+        EventLoop(final String name, final NioSelectorPool pool)
+            throws IOException
+        {
+            this.pool = pool;
+            selector = Selector.open();
+            setName(name);  // Thread name for debug
+            setDaemon(true);
+        }
+
+        /**
+         * Register a new connection's channel with this loop, to begin reading; thread-safe.
+         */
+        void register(final NioConnection c)
+        {
+            pendingRegister.add(c);
+            selector.wakeup();
+        }
+
+        /**
+         * A connection has queued output; watch for write readiness. Thread-safe.
+         */
+        void wantWrite(final NioConnection c)
+        {
+            pendingWrite.add(c);
+            selector.wakeup();
+        }
+
+        /**
+         * Run a task on the pool's dispatch thread instead of this loop's thread. Thread-safe.
+         * @see NioSelectorPool#dispatch(Runnable)
+         */
+        void dispatch(final Runnable task)
+        {
+            pool.dispatch(task);
+        }
+
+        /**
+         * A connection's dispatched task has finished; call its {@link NioConnection#resumeRead()}
+         * from this loop's thread. Thread-safe.
+         */
+        void resumeRead(final NioConnection c)
+        {
+            pendingResume.add(c);
+            selector.wakeup();
+        }
+
+        /**
+         * The server's inbound queue was full; call this connection's {@link NioConnection#resumeRead()}
+         * again after {@link NioSelectorPool#RETRY_READ_MS}. Call only from this loop's thread.
+         */
+        void retryReadSoon(final NioConnection c)
+        {
+            retryReads.add(c);
+        }
+
+        /** Ask this loop's thread to exit. */
+        void shutdown()
+        {
+            running = false;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run()
+        {
+            while (running)
+            {
+                try
+                {
+                    selector.select((retryReads.isEmpty()) ? 1000 : RETRY_READ_MS);
+                    processPending();
+
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext())
+                    {
+                        final SelectionKey k = it.next();
+                        it.remove();
+
+                        final NioConnection c = (NioConnection) k.attachment();
+                        if (k.isValid() && k.isReadable())
+                            c.doRead();
+                        if (k.isValid() && k.isWritable())
+                            c.doWrite();
+                    }
+
+                    final long now = System.currentTimeMillis();
+                    if (now - lastIdleCheck >= IDLE_CHECK_INTERVAL_MS)
+                    {
+                        lastIdleCheck = now;
+                        for (SelectionKey k : selector.keys())
+                            if (k.isValid())
+                                ((NioConnection) k.attachment()).checkIdle(now);
+                    }
+                }
+                catch (Throwable t)
+                {
+                    // Don't let one bad connection stop the loop for all the others
+                    System.err.println("Exception in " + getName() + " - " + t);
+                    if (D.ebugOn)
+                        t.printStackTrace(System.out);
+                }
+            }
+
+            try
+            {
+                selector.close();
+            }
+            catch (IOException e) {}
+        }
+
+        /**
+         * Register new connections, update write interest, and resume paused reads, from this loop's thread.
+         */
+        private void processPending()
+        {
+            NioConnection c;
+            while (null != (c = pendingRegister.poll()))
+            {
+                try
+                {
+                    int ops = SelectionKey.OP_READ;
+                    c.key = c.getChannel().register(selector, ops, c);
+                    if (c.hasPendingWrite())
+                        c.key.interestOps(ops | SelectionKey.OP_WRITE);
+                }
+                catch (ClosedChannelException e)
+                {
+                    // disconnected before registration; nothing to do
+                }
+            }
+
+            while (null != (c = pendingWrite.poll()))
+            {
+                final SelectionKey k = c.key;
+                if ((k != null) && k.isValid())
+                    k.interestOps(k.interestOps() | SelectionKey.OP_WRITE);
+            }
+
+            while (null != (c = pendingResume.poll()))
+                c.resumeRead();
+
+            if (! retryReads.isEmpty())
+            {
+                // resumeRead may call retryReadSoon again
+                final NioConnection[] retry = retryReads.toArray(new NioConnection[retryReads.size()]);
+                retryReads.clear();
+                for (int i = 0; i < retry.length; ++i)
+                    retry[i].resumeRead();
+            }
+        }
+
+    }  // EventLoop
+
+}
@@ -0,0 +1,104 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server.genericServer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A fixed pool of worker threads which run tasks in "lanes":
+ * Each lane is identified by a key object, such as a game name,
+ * and all tasks with the same key are run one at a time in the order they were submitted.
+ * Tasks with different keys may run in parallel on different workers.
+ *<P>
+ * Lanes are sharded over the workers by {@link Object#hashCode() key.hashCode()},
+ * so a given key always runs on the same worker thread; a slow task delays only
+ * the other lanes sharing its worker, not the whole server.
+ *<P>
+ * Used by {@link Server} to process each game's inbound messages in parallel;
+ * see {@link Server#setCommandLaneThreads(int)}.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+class SerialLanePool
+{
+    /** Each worker is a single-thread executor, so its tasks run serially in submission order. */
+    private final ExecutorService[] workers;
+
+    /**
+     * Create and start the pool's threads.
+     * @param nThreads  Number of worker threads, at least 1
+     * @param namePrefix  Prefix for daemon thread names, for debugging
+     * @throws IllegalArgumentException if {@code nThreads} &lt; 1
+     */
+    SerialLanePool(final int nThreads, final String namePrefix)
+        throws IllegalArgumentException
+    {
+        if (nThreads < 1)
+            throw new IllegalArgumentException("nThreads");
+
+        workers = new ExecutorService[nThreads];
+        for (int i = 0; i < nThreads; ++i)
+        {
+            final String tname = namePrefix + "-" + i;
+            workers[i] = Executors.newSingleThreadExecutor(new ThreadFactory()
+            {
+                public Thread newThread(Runnable r)
+                {
+                    Thread t = new Thread(r, tname);
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+    }
+
+    /**
+     * Number of worker threads in this pool.
+     */
+    int size()
+    {
+        return workers.length;
+    }
+
+    /**
+     * Queue a task to run in this key's lane, after all previously submitted tasks with the same key.
+     * @param key  Lane key; not null
+     * @param task  Task to run; should catch and report its own exceptions
+     */
+    void execute(final Object key, final Runnable task)
+    {
+        int h = key.hashCode();
+        h ^= (h >>> 16);  // spread bits; hashCode of similar short strings can differ only in the low bits
+        workers[(h & 0x7FFFFFFF) % workers.length].execute(task);
+    }
+
+    /**
+     * Stop accepting tasks; tasks already queued will still run.
+     */
+    void shutdown()
+    {
+        for (int i = 0; i < workers.length; ++i)
+            workers[i].shutdown();
+    }
+
+}
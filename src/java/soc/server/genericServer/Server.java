@@ -23,15 +23,21 @@ package soc.server.genericServer;
 
 import soc.debug.D; // JM
 import soc.server.SOCServer;
+import soc.util.VirtualThreads;
 
 import java.io.IOException;
 import java.io.Serializable;
 
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -64,6 +70,8 @@ import java.util.Vector;
  *<P>
  *  To handle inbound messages from the clients, the server-wide "treater" thread
  *  will call {@link #processCommand(String, StringConnection)} for each message.
+ *  Optionally your app can hand off some messages from there to a pool of worker threads,
+ *  to process them in parallel: See {@link #setCommandLaneThreads(int)}.
  *<P>
  *  The first processed message over the connection will be from the server to the client,
  *  in {@link #newConnection1(StringConnection)} or {@link #newConnection2(StringConnection)}.
@@ -72,6 +80,9 @@ import java.util.Vector;
  *  The client should ideally be named and versioned in newConnection1, but this
  *  can also be done later.
  *<P>
+ *  Instead of a thread per client, the server can use a small pool of non-blocking I/O
+ *  event loop threads for all TCP clients: See {@link #Server(int, int)} and {@link NioConnection}.
+ *<P>
  *  Although this generic client/server will track client versions once they are set,
  *  its basic protocol has no standardized way to inform server/client of each other's
  *  version.  You must send this in an app-specific way, during the initial exchange
@@ -96,6 +107,22 @@ public abstract class Server extends Thread implements Serializable, Cloneable
     /** {@link LocalStringServerSocket} name, or {@code null} for network mode. */
     protected String strSocketName;
 
+    /**
+     * For TCP mode, the non-blocking I/O event loops used by all {@link NioConnection}s,
+     * or {@code null} to use a {@link Connection} with its own threads for each client.
+     * @see #Server(int, int)
+     * @since 2.0.00
+     */
+    private NioSelectorPool nioPool;
+
+    /**
+     * Optional worker threads for processing some inbound messages in parallel,
+     * or {@code null} if all are processed in the single treater thread.
+     * @see #setCommandLaneThreads(int)
+     * @since 2.0.00
+     */
+    private SerialLanePool commandLanes;
+
     /**
      * Consistency-check the {@link #cliVersionsConnected} set every so often (33 minutes).
      * @since 1.1.06
@@ -131,8 +158,29 @@ public abstract class Server extends Thread implements Serializable, Cloneable
      */
     protected Vector<StringConnection> unnamedConns = new Vector<StringConnection>();
 
-    /** command messages from clients for {@link #treat(String, StringConnection)} */
-    public Vector<Command> inQueue = new Vector<Command>();
+    /**
+     * command messages from clients for {@link #treat(String, StringConnection)}.
+     *<P>
+     * Before v2.0.00 this was a {@code public Vector<Command>} which the treater and readers
+     * synchronized on. Subclasses which added to it directly should call {@link #treat(String, StringConnection)}
+     * instead; code outside the package can read its stats from {@link #getInboundQueue()}.
+     * @see #setInboundQueue(int, InboundCommandQueue.OverloadPolicy)
+     */
+    protected InboundCommandQueue inQueue = new InboundCommandQueue(0, InboundCommandQueue.OverloadPolicy.BLOCK, this);
+
+    /**
+     * Maximum number of messages the treater takes from {@link #inQueue} at once.
+     * @since 2.0.00
+     */
+    private static final int TREATER_MAX_BATCH = 256;
+
+    /**
+     * How long a {@link Connection}'s writer may wait for more outbound messages
+     * before flushing a batch, in milliseconds, or 0 to flush as soon as its queue is empty.
+     * @see #setOutputBatchDelay(int)
+     * @since 2.0.00
+     */
+    private volatile int outBatchDelay;
 
     /**
      * Versions of currently connected clients, according to
@@ -209,15 +257,35 @@ public abstract class Server extends Thread implements Serializable, Cloneable
      */
     public static int CLI_CONN_PRINT_TIMER_FIRE_MS = 1000;
 
-    /** start listening to the given port */
+    /** start listening to the given port, with a thread-per-client {@link Connection} for each client */
     public Server(int port)
+    {
+        this(port, 0);
+    }
+
+    /**
+     * Start listening to the given TCP port, optionally using non-blocking I/O.
+     *<P>
+     * If {@code nioThreads} is 0, each client gets a {@link Connection} which has
+     * a reader thread and a writer thread.  Otherwise clients get a {@link NioConnection},
+     * and all their network I/O is done by a pool of {@code nioThreads} event loop threads,
+     * so many thousands of clients can connect without running out of threads.
+     * Either way, the message format on the network is the same.
+     *
+     * @param port  TCP port number to listen on
+     * @param nioThreads  Number of non-blocking I/O event loop threads, or 0 to use a thread per client
+     * @since 2.0.00
+     */
+    public Server(final int port, final int nioThreads)
     {
         this.port = port;
         this.strSocketName = null;
 
         try
         {
-            ss = new NetStringServerSocket(port, this);
+            if (nioThreads > 0)
+                nioPool = new NioSelectorPool(nioThreads, "nio-" + port);
+            ss = createNetServerSocket();
         }
         catch (IOException e)
         {
@@ -363,9 +431,13 @@ public abstract class Server extends Thread implements Serializable, Cloneable
                     // Currently it's limited in SOCServer.newConnection1 by checking connectionCount()
                     // which is more modular.
                     StringConnection con = ss.accept();
-                    if (port != -1)
+                    if (con instanceof NioConnection)
+                    {
+                        ((NioConnection) con).run();  // adds to server, registers with event loop; doesn't block
+                    }
+                    else if (port != -1)
                     {
-                        new Thread((Connection) con).start();
+                        VirtualThreads.start((Connection) con, null);  // run() will set thread name
                     }
                     else
                     {
@@ -389,7 +461,7 @@ public abstract class Server extends Thread implements Serializable, Cloneable
             {
                 ss.close();
                 if (strSocketName == null)
-                    ss = new NetStringServerSocket(port, this);
+                    ss = createNetServerSocket();
                 else
                     ss = new LocalStringServerSocket(strSocketName);
             }
@@ -402,15 +474,130 @@ public abstract class Server extends Thread implements Serializable, Cloneable
         }
     }
 
-    /** treat a request from the given connection, by adding to {@link #inQueue} */
+    /**
+     * Create the TCP server socket for {@link #port}: A {@link NioStringServerSocket}
+     * if {@link #nioPool} != null, otherwise a {@link NetStringServerSocket}.
+     * @throws IOException if can't listen on the port
+     * @since 2.0.00
+     */
+    private StringServerSocket createNetServerSocket()
+        throws IOException
+    {
+        if (nioPool != null)
+            return new NioStringServerSocket(port, this);
+        else
+            return new NetStringServerSocket(port, this);
+    }
+
+    /**
+     * treat a request from the given connection, by adding to {@link #inQueue}.
+     * If the queue is full, its overload policy may discard this message or
+     * make this client's reader thread wait; see {@link #setInboundQueue(int, InboundCommandQueue.OverloadPolicy)}.
+     */
     public void treat(String s, StringConnection c)
     {
         // D.ebugPrintln("IN got: " + s);
-        synchronized (inQueue)
-        {
-            inQueue.addElement(new Command(s, c));
-            inQueue.notify();
-        }
+        if (! inQueue.offer(new Command(s, c)))
+            D.ebugPrintln("Inbound queue full, discarded message from " + c);
+    }
+
+    /**
+     * Treat a request from the given connection like {@link #treat(String, StringConnection)},
+     * but never wait for room in {@link #inQueue}: Called from a {@link NioConnection}'s
+     * event loop thread, which also handles I/O for many other clients.
+     * If the queue is full and its overload policy is
+     * {@link InboundCommandQueue.OverloadPolicy#BLOCK BLOCK}, the message isn't queued
+     * and the caller should stop reading from that client and try this message again soon.
+     * With the other policies, the message may be discarded as in {@code treat}.
+     *
+     * @param s  Contents of message from the client
+     * @param c  Connection (client) sending this message
+     * @return  true if the message was queued or discarded, false if it should be treated again later
+     * @since 2.0.00
+     */
+    boolean treatNoWait(final String s, final StringConnection c)
+    {
+        if (inQueue.offerNoWait(new Command(s, c)))
+            return true;
+        if (inQueue.getOverloadPolicy() == InboundCommandQueue.OverloadPolicy.BLOCK)
+            return false;
+
+        D.ebugPrintln("Inbound queue full, discarded message from " + c);
+        return true;
+    }
+
+    /**
+     * Set the capacity and overload policy of the inbound message queue {@link #inQueue}.
+     * Call this before starting the server thread.
+     * The default is {@link InboundCommandQueue#DEFAULT_CAPACITY} messages and
+     * {@link InboundCommandQueue.OverloadPolicy#BLOCK BLOCK}, which never discards messages.
+     *
+     * @param capacity  Maximum number of queued messages, or 0 for the default
+     * @param policy  What to do with new messages when the queue is full
+     * @throws IllegalArgumentException if {@code capacity} &lt; 0 or {@code policy} is null
+     * @since 2.0.00
+     */
+    public void setInboundQueue(final int capacity, final InboundCommandQueue.OverloadPolicy policy)
+        throws IllegalArgumentException
+    {
+        inQueue = new InboundCommandQueue(capacity, policy, this);
+    }
+
+    /**
+     * Set how long each TCP {@link Connection}'s writer thread may wait for more messages to be queued
+     * before flushing what it has to the network, so that a burst of small messages
+     * (such as the player element updates after a dice roll) is sent together in fewer TCP segments.
+     * The default is 0: Write everything queued so far, then flush as soon as the queue is empty,
+     * which already batches messages queued while the previous batch was being written.
+     * A short delay batches more messages, but adds up to that much latency to each batch.
+     *<P>
+     * Not used by {@link NioConnection}s, whose event loop writes everything queued when the socket is ready.
+     *
+     * @param millis  Maximum delay in milliseconds, or 0 for none
+     * @throws IllegalArgumentException if {@code millis} &lt; 0
+     * @since 2.0.00
+     */
+    public void setOutputBatchDelay(final int millis)
+        throws IllegalArgumentException
+    {
+        if (millis < 0)
+            throw new IllegalArgumentException("millis: " + millis);
+
+        outBatchDelay = millis;
+    }
+
+    /**
+     * Get the outbound batch delay set by {@link #setOutputBatchDelay(int)}.
+     * @return  Maximum delay in milliseconds, or 0 for none
+     * @since 2.0.00
+     */
+    public int getOutputBatchDelay()
+    {
+        return outBatchDelay;
+    }
+
+    /**
+     * Get the inbound message queue, for its stats such as {@link InboundCommandQueue#getDepth()}.
+     * @since 2.0.00
+     */
+    public InboundCommandQueue getInboundQueue()
+    {
+        return inQueue;
+    }
+
+    /**
+     * Can this queued inbound message be discarded when the inbound queue is full,
+     * under the {@link InboundCommandQueue.OverloadPolicy#DROP_PING DROP_PING} overload policy?
+     * This default implementation returns false; override it in your app if needed.
+     * Must be quick, and not change any state: Called from client reader threads.
+     *
+     * @param str Contents of message from the client
+     * @return  true if this message can be dropped, such as a reply to a keepalive ping
+     * @since 2.0.00
+     */
+    public boolean isDroppableCommand(String str)
+    {
+        return false;
     }
 
     /**
@@ -423,6 +610,68 @@ public abstract class Server extends Thread implements Serializable, Cloneable
      */
     abstract public void processCommand(String str, StringConnection con);
 
+    /**
+     * Set up a fixed pool of worker threads so that {@link #processCommand(String, StringConnection)}
+     * can hand off messages to be processed in parallel, by calling
+     * {@link #executeInCommandLane(Object, Runnable)}. Each "lane" key (such as a game name)
+     * has its messages processed one at a time in order received; different lanes can run
+     * at the same time on different threads.  Messages not handed off are processed as usual
+     * in the single treater thread.
+     *<P>
+     * Call this before starting the server thread.  By default there's no worker pool.
+     *
+     * @param nThreads  Number of worker threads, or 0 to process all messages in the treater thread
+     * @throws IllegalStateException if already called with {@code nThreads} &gt; 0
+     * @since 2.0.00
+     */
+    public void setCommandLaneThreads(final int nThreads)
+        throws IllegalStateException
+    {
+        if (commandLanes != null)
+            throw new IllegalStateException("already set");
+        if (nThreads > 0)
+            commandLanes = new SerialLanePool(nThreads, "treater-lane");
+    }
+
+    /**
+     * Does this server have worker threads to process some messages in parallel?
+     * @return true if {@link #setCommandLaneThreads(int)} was called with a nonzero thread count
+     * @since 2.0.00
+     */
+    protected final boolean hasCommandLanes()
+    {
+        return (commandLanes != null);
+    }
+
+    /**
+     * Queue a task to run in a command lane's worker thread, after any tasks previously
+     * queued for that lane key. Call only if {@link #hasCommandLanes()}.
+     * Exceptions thrown by {@code task} are caught and printed with their stack trace,
+     * like those from {@link #processCommand(String, StringConnection)} in the treater thread.
+     *
+     * @param laneKey  Lane key, such as a game name; not null
+     * @param task  Task to run, usually to process one message
+     * @since 2.0.00
+     */
+    protected void executeInCommandLane(final Object laneKey, final Runnable task)
+    {
+        commandLanes.execute(laneKey, new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    task.run();
+                }
+                catch (Throwable e)
+                {
+                    System.out.println("Exception in treater lane (processCommand) - " + e);
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
     /**
      * Callback to process the client's first message command specially.
      * This default implementation does nothing and returns false;
@@ -524,6 +773,11 @@ public abstract class Server extends Thread implements Serializable, Cloneable
         }
 
         conns.clear();
+
+        if (nioPool != null)
+            nioPool.shutdown();
+        if (commandLanes != null)
+            commandLanes.shutdown();
     }
 
     /**
@@ -1001,19 +1255,21 @@ public abstract class Server extends Thread implements Serializable, Cloneable
 
     /**
      * Broadcast a SOCmessage to all connected clients, named and unnamed.
+     * The message is encoded only once for all clients; see {@link EncodedMessage}.
      *
      * @param m SOCmessage string, generated by {@link soc.message.SOCMessage#toCmd()}
      * @see #broadcastToVers(String, int, int)
      */
     protected synchronized void broadcast(String m)
     {
+        final EncodedMessage em = new EncodedMessage(m);
         for (Enumeration<StringConnection> e = getConnections(); e.hasMoreElements();)
         {
-            e.nextElement().put(m);
+            e.nextElement().put(em);
         }
         for (Enumeration<StringConnection> e = unnamedConns.elements(); e.hasMoreElements();)
         {
-            e.nextElement().put(m);
+            e.nextElement().put(em);
         }
     }
 
@@ -1024,6 +1280,7 @@ public abstract class Server extends Thread implements Serializable, Cloneable
      * The range is inclusive: Clients of version <tt>vmin</tt> and newer,
      * up to and including <tt>vmax</tt>, receive the broadcast.
      * If vmin > vmax, do nothing.
+     * The message is encoded only once for all clients; see {@link EncodedMessage}.
      *
      * @param m SOCmessage string, generated by {@link soc.message.SOCMessage#toCmd()}
      * @param vmin Minimum version, as returned by {@link StringConnection#getVersion()},
@@ -1036,19 +1293,20 @@ public abstract class Server extends Thread implements Serializable, Cloneable
     {
         if (vmin > vmax)
             return;
+        final EncodedMessage em = new EncodedMessage(m);
         for (Enumeration<StringConnection> e = getConnections(); e.hasMoreElements();)
         {
             StringConnection c = e.nextElement();
             int cvers = c.getVersion();
             if ((cvers >= vmin) && (cvers <= vmax))
-                c.put(m);
+                c.put(em);
         }
         for (Enumeration<StringConnection> e = unnamedConns.elements(); e.hasMoreElements();)
         {
             StringConnection c = e.nextElement();
             int cvers = c.getVersion();
             if ((cvers >= vmin) && (cvers <= vmax))
-                c.put(m);
+                c.put(em);
         }
     }
 
@@ -1073,7 +1331,9 @@ public abstract class Server extends Thread implements Serializable, Cloneable
     }  // Command
 
     /**
-     * Single-threaded reader of {@link Server#inQueue}
+     * Single-threaded reader of {@link Server#inQueue}.
+     * Takes all queued messages at once as a batch (up to {@link Server#TREATER_MAX_BATCH}),
+     * processes them in order, and waits only when the queue is empty.
      */
     class Treater extends Thread
     {
@@ -1085,49 +1345,27 @@ public abstract class Server extends Thread implements Serializable, Cloneable
         @Override
         public void run()
         {
+            final ArrayList<Command> batch = new ArrayList<Command>(TREATER_MAX_BATCH);
+
             while (isUp())
             {
                 //D.ebugPrintln("treater server is up");
-                Command c = null;
-
-                synchronized (inQueue)
-                {
-                    if (inQueue.size() > 0)
-                    {
-                        //D.ebugPrintln("treater getting command");
-                        c = inQueue.remove(0);
-                    }
-                }
+                inQueue.drainTo(batch, TREATER_MAX_BATCH, 1000);
 
-                try
+                final int n = batch.size();
+                for (int i = 0; i < n; ++i)
                 {
-                    if (c != null)
+                    final Command c = batch.get(i);
+                    try
                     {
                         processCommand(c.str, c.con);
                     }
-                }
-                catch (Exception e)
-                {
-                    System.out.println("Exception in treater (processCommand) - " + e);
-                }
-
-                yield();
-
-                synchronized (inQueue)
-                {
-                    if (inQueue.size() == 0)
+                    catch (Exception e)
                     {
-                        try
-                        {
-                            //D.ebugPrintln("treater waiting");
-                            inQueue.wait(1000);
-                        }
-                        catch (Exception ex)
-                        {
-                            ;   // catch InterruptedException from inQueue.notify() in treat(...)
-                        }
+                        System.out.println("Exception in treater (processCommand) - " + e);
                     }
                 }
+                batch.clear();
             }
 
             // D.ebugPrintln("treater returning; server not up");
@@ -1162,6 +1400,52 @@ public abstract class Server extends Thread implements Serializable, Cloneable
 
     }  // NetStringServerSocket
 
+    /**
+     * Uses a {@link ServerSocketChannel} to implement StringServerSocket over a network,
+     * creating {@link NioConnection}s which are handled by {@link Server#nioPool}.
+     * {@link #accept()} blocks as usual; only the accepted clients' channels are non-blocking.
+     * @since 2.0.00
+     */
+    protected class NioStringServerSocket implements StringServerSocket
+    {
+        private ServerSocketChannel implServChannel;
+        private Server server;
+
+        public NioStringServerSocket(int port, Server serv) throws IOException
+        {
+            implServChannel = ServerSocketChannel.open();
+            implServChannel.socket().bind(new InetSocketAddress(port));
+            server = serv;
+        }
+
+        public StringConnection accept() throws SocketException, IOException
+        {
+            for (;;)
+            {
+                SocketChannel sc = implServChannel.accept();
+                try
+                {
+                    return new NioConnection(sc, server, nioPool.next());
+                }
+                catch (IOException e)
+                {
+                    // Problem with this client only; don't throw, since that would re-bind the server socket
+                    D.ebugPrintln("IOException in NioStringServerSocket.accept - " + e);
+                    try
+                    {
+                        sc.close();
+                    } catch (IOException e2) {}
+                }
+            }
+        }
+
+        public void close() throws IOException
+        {
+            implServChannel.close();
+        }
+
+    }  // NioStringServerSocket
+
     /**
      * Hold info about 1 version of connected clients; for use in {@link #cliVersionsConnected}.
      *
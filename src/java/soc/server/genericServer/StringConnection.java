@@ -108,6 +108,86 @@ public abstract class StringConnection
     public abstract void put(String str)
         throws IllegalStateException;
 
+    /**
+     * Send an already-encoded message over the connection.
+     * Used when the same message is sent to many connections, so that it's encoded only once;
+     * see {@link EncodedMessage}.
+     *<P>
+     * This default implementation calls {@link #put(String) put}({@link EncodedMessage#getString() msg.getString()}).
+     * Network connections override it to send the message's shared frame bytes.
+     *
+     * @param msg Message to send
+     *
+     * @throws IllegalStateException if not yet accepted by server
+     * @since 2.0.00
+     */
+    public void put(EncodedMessage msg)
+        throws IllegalStateException
+    {
+        put(msg.getString());
+    }
+
+    /**
+     * Start sending messages to this client as {@link soc.util.BinaryMessageCodec binary frames}, if supported.
+     * The client must already be able to read them; since each frame is marked as text or binary,
+     * messages already queued may be sent either way.
+     *<P>
+     * This default implementation returns false; network connections override it.
+     *
+     * @param formatVersion  Binary format version requested, such as
+     *     {@link soc.util.BinaryMessageCodec#FORMAT_VERSION}
+     * @return  true if this connection supports {@code formatVersion} and will send binary frames
+     * @since 2.0.00
+     */
+    public boolean setBinaryProtocol(final int formatVersion)
+    {
+        return false;
+    }
+
+    /**
+     * Start compressing messages sent to this client, as
+     * {@link soc.util.BinaryMessageCodec#DEFLATE_MARKER compressed chunks}, if supported.
+     * The client must already be able to inflate them; since each chunk is marked,
+     * messages already queued may be sent either way.
+     *<P>
+     * This default implementation returns false; network connections override it.
+     *
+     * @param formatVersion  Compression format version requested, such as
+     *     {@link soc.util.BinaryMessageCodec#COMPRESSION_FORMAT_VERSION}
+     * @param level  Deflate compression level, from 1 (fastest) to 9 (smallest)
+     * @return  true if this connection supports {@code formatVersion} and will compress
+     * @since 2.0.00
+     */
+    public boolean setCompression(final int formatVersion, final int level)
+    {
+        return false;
+    }
+
+    /**
+     * Number of bytes written to the network so far, after any compression.
+     * This default implementation returns 0; network connections override it.
+     * @return  Total bytes written
+     * @see #getFlushCount()
+     * @since 2.0.00
+     */
+    public long getBytesSent()
+    {
+        return 0;
+    }
+
+    /**
+     * Number of times the connection has flushed a batch of queued messages to the network so far.
+     * Several messages queued at about the same time are sent with one flush;
+     * compare with {@link #getBytesSent()} to see how well they're being batched.
+     * This default implementation returns 0; network connections override it.
+     * @return  Total flushes (or write calls)
+     * @since 2.0.00
+     */
+    public long getFlushCount()
+    {
+        return 0;
+    }
+
     /** For server-side thread which reads and treats incoming messages */
     public abstract void run();
 
@@ -0,0 +1,838 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.util;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Network framing for messages: The standard text frames, and optional compact binary and
+ * compressed forms for messages from server to client.
+ *<P>
+ * <B>Text frames</B> are what {@link java.io.DataOutputStream#writeUTF(String)} writes:
+ * A 2-byte unsigned length, then the message string in modified UTF-8.
+ * This is the only framing used by clients and servers older than 2.0.00.
+ *<P>
+ * <B>Binary frames</B> have the same 2-byte length prefix, but the first data byte is
+ * {@link #BINARY_MARKER} (0), which never starts a text frame. The rest of the frame is
+ * the message type number as a varint, then each of the message's fields with a 1-byte tag:
+ * Integer fields are zigzag varints (or fit in the tag byte itself), other fields are
+ * length-prefixed modified UTF-8.  The message's first field (usually its game name) is
+ * interned per connection: The first time it's sent, it's given a slot number in a small table,
+ * and later messages send only that number.  Decoding a binary frame gives back exactly the
+ * original message string, which is then parsed as usual by {@link soc.message.SOCMessage#toMsg(String)}.
+ *<P>
+ * Because each frame is marked, a client which reads with a {@link Decoder} can receive text
+ * and binary frames mixed in any order; the server may switch a connection to binary at any time
+ * after that client asks for it (see {@link soc.message.SOCBinaryProtocol}).
+ * A binary frame is only sent when it's smaller than the text frame would be.
+ *<P>
+ * <B>Compressed chunks</B> have the same 2-byte length prefix, then {@link #DEFLATE_MARKER} (1),
+ * then part of a per-connection raw deflate stream. Inflating the stream gives the bytes of
+ * ordinary text or binary frames, each with its 2-byte length. The sender's {@link Compressor}
+ * does a sync flush at the end of each batch of frames, so the receiver can read
+ * all of a batch's messages as soon as its last chunk arrives.
+ * Text frames never start with this byte, since every message starts with its type number.
+ * See {@link soc.message.SOCCompression}.
+ *<P>
+ * Field separators are {@link soc.message.SOCMessage#sep_char} and {@link soc.message.SOCMessage#sep2_char}.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class BinaryMessageCodec
+{
+    /**
+     * Version of the binary frame format described here: 1.
+     * Sent in {@link soc.message.SOCBinaryProtocol} when client asks for binary frames.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /** First data byte of a binary frame. Text frames never start with this byte. */
+    public static final byte BINARY_MARKER = 0;
+
+    /**
+     * Version of the compressed chunk format described here: 1.
+     * Sent in {@link soc.message.SOCCompression} when client asks for compression.
+     */
+    public static final int COMPRESSION_FORMAT_VERSION = 1;
+
+    /** First data byte of a compressed chunk. Text frames never start with this byte. */
+    public static final byte DEFLATE_MARKER = 1;
+
+    /** Largest amount of compressed data in one chunk: 65535 less 1 for {@link #DEFLATE_MARKER}. */
+    private static final int DEFLATE_CHUNK_MAXLEN = 65534;
+
+    /** Message field separator, same as {@link soc.message.SOCMessage#sep_char} */
+    private static final char SEP = '|';
+
+    /** Message sub-field separator, same as {@link soc.message.SOCMessage#sep2_char} */
+    private static final char SEP2 = ',';
+
+    /**
+     * Maximum size of the per-connection intern table.
+     * Older entries are replaced round-robin when full.
+     */
+    private static final int INTERN_SLOTS = 32;
+
+    /** Longest first field which will be interned, in characters */
+    private static final int INTERN_MAXLEN = 64;
+
+    // Field tags: Bit 7 set if field follows SEP2, clear if it follows SEP.
+    // Bits 6-0 are the field kind, or a small int's value.
+
+    private static final int TAG_SEP2 = 0x80;
+
+    /** Empty field, as between two consecutive separators */
+    private static final int KIND_EMPTY = 0;
+
+    /** Int field; zigzag varint follows */
+    private static final int KIND_INT = 1;
+
+    /** String field; varint length in bytes, then modified UTF-8 */
+    private static final int KIND_STR = 2;
+
+    /** Interned string reference; varint slot number follows */
+    private static final int KIND_INTERN_REF = 3;
+
+    /** New interned string; varint slot number, then same as {@link #KIND_STR} */
+    private static final int KIND_INTERN_DEF = 4;
+
+    /** Kind for {@link #SMALLINT_MIN}; kinds from here to 0x7F are small int values */
+    private static final int KIND_SMALLINT_BASE = 5;
+
+    /** Smallest int value sent in the tag byte itself */
+    private static final int SMALLINT_MIN = -1;
+
+    /** Largest int value sent in the tag byte itself */
+    private static final int SMALLINT_MAX = 0x7F - KIND_SMALLINT_BASE + SMALLINT_MIN;
+
+    /**
+     * Encodes outbound messages for one connection, keeping that connection's intern table.
+     * Messages must be written to the network in the same order they're encoded here.
+     * Not thread-safe.
+     */
+    public static final class Encoder
+    {
+        /** Interned strings' slot numbers */
+        private final HashMap<String, Integer> interned = new HashMap<String, Integer>();
+
+        /** Interned string in each slot, or null */
+        private final String[] slots = new String[INTERN_SLOTS];
+
+        /** Next slot to use for a new interned string */
+        private int nextSlot;
+
+        /** Frame contents being built; grows as needed */
+        private byte[] buf = new byte[256];
+
+        private int len;
+
+        /**
+         * Encode a message into a frame for this connection: Binary if that's smaller, otherwise text.
+         * @param msg  Message string, such as from {@link soc.message.SOCMessage#toCmd()}
+         * @return  the encoded frame, including its 2-byte length
+         * @throws UTFDataFormatException if the message is too long for either frame format
+         */
+        public byte[] encodeFrame(final String msg)
+            throws UTFDataFormatException
+        {
+            final int utflen = utfLength(msg, 0, msg.length());
+            final int slen = msg.length();
+
+            // Type number: must be a canonical int followed by SEP or end of msg
+            int i = msg.indexOf(SEP);
+            if (i == -1)
+                i = slen;
+            final long typ = parseCanonicalInt(msg, 0, i);
+            if (typ < 0)
+                return encodeTextFrame(msg, utflen);
+
+            len = 2;
+            put(BINARY_MARKER);
+            putVarint((int) typ);
+
+            String defStr = null;  // new interned string, if any; added to table only if binary frame is used
+            int defSlot = -1;
+            boolean isFirstField = true;
+            while (i < slen)
+            {
+                // msg.charAt(i) is SEP or SEP2
+                final int sepBit = (msg.charAt(i) == SEP2) ? TAG_SEP2 : 0;
+                final int fStart = i + 1;
+                int fEnd = fStart;
+                while ((fEnd < slen) && (msg.charAt(fEnd) != SEP) && (msg.charAt(fEnd) != SEP2))
+                    ++fEnd;
+
+                if (fEnd == fStart)
+                {
+                    put(sepBit | KIND_EMPTY);
+                } else {
+                    final long v = parseCanonicalInt(msg, fStart, fEnd);
+                    if (v != Long.MIN_VALUE)
+                    {
+                        if ((v >= SMALLINT_MIN) && (v <= SMALLINT_MAX))
+                        {
+                            put(sepBit | (KIND_SMALLINT_BASE + (int) v - SMALLINT_MIN));
+                        } else {
+                            put(sepBit | KIND_INT);
+                            final int iv = (int) v;
+                            putVarint((iv << 1) ^ (iv >> 31));
+                        }
+                    }
+                    else if (isFirstField && (fEnd - fStart <= INTERN_MAXLEN))
+                    {
+                        final String fs = msg.substring(fStart, fEnd);
+                        final Integer slot = interned.get(fs);
+                        if (slot != null)
+                        {
+                            put(sepBit | KIND_INTERN_REF);
+                            putVarint(slot.intValue());
+                        } else {
+                            defStr = fs;
+                            defSlot = nextSlot;
+                            put(sepBit | KIND_INTERN_DEF);
+                            putVarint(defSlot);
+                            putString(msg, fStart, fEnd);
+                        }
+                    } else {
+                        put(sepBit | KIND_STR);
+                        putString(msg, fStart, fEnd);
+                    }
+                }
+
+                isFirstField = false;
+                i = fEnd;
+            }
+
+            final int datalen = len - 2;
+            if ((datalen >= utflen) || (datalen > 65535))
+                return encodeTextFrame(msg, utflen);  // not worth it, or too long
+
+            if (defStr != null)
+            {
+                final String prev = slots[defSlot];
+                if (prev != null)
+                    interned.remove(prev);
+                slots[defSlot] = defStr;
+                interned.put(defStr, Integer.valueOf(defSlot));
+                nextSlot = (defSlot + 1) % INTERN_SLOTS;
+            }
+
+            buf[0] = (byte) ((datalen >>> 8) & 0xFF);
+            buf[1] = (byte) (datalen & 0xFF);
+            final byte[] frame = new byte[len];
+            System.arraycopy(buf, 0, frame, 0, len);
+
+            return frame;
+        }
+
+        private void ensureRoom(final int n)
+        {
+            if (len + n > buf.length)
+            {
+                final byte[] b = new byte[Math.max(buf.length * 2, len + n)];
+                System.arraycopy(buf, 0, b, 0, len);
+                buf = b;
+            }
+        }
+
+        private void put(final int b)
+        {
+            ensureRoom(1);
+            buf[len++] = (byte) b;
+        }
+
+        private void putVarint(int v)
+        {
+            ensureRoom(5);
+            while ((v & ~0x7F) != 0)
+            {
+                buf[len++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[len++] = (byte) v;
+        }
+
+        /** Put a varint byte length, then the modified UTF-8 of part of {@code s}. */
+        private void putString(final String s, final int start, final int end)
+        {
+            final int utflen = utfLength(s, start, end);
+            putVarint(utflen);
+            ensureRoom(utflen);
+            len = writeUTF(s, start, end, buf, len);
+        }
+    }
+
+    /**
+     * Reads inbound text or binary frames for one connection, keeping that connection's intern table.
+     * Not thread-safe; use from the connection's reader thread only.
+     */
+    public static final class Decoder
+    {
+        /** Interned string in each slot, or null */
+        private final String[] slots = new String[INTERN_SLOTS];
+
+        /** Frame data buffer; grows as needed */
+        private byte[] buf = new byte[256];
+
+        /** Position in {@link #buf} while decoding a binary frame */
+        private int pos, end;
+
+        /** Inflater for compressed chunks, or null if none received yet */
+        private Inflater inflater;
+
+        /**
+         * Frames inflated from compressed chunks, not yet returned by {@link #readFrame(DataInputStream)};
+         * from {@link #inPos} to {@link #inEnd}. The last frame may be incomplete until the next chunk arrives.
+         */
+        private byte[] inflated;
+
+        private int inPos, inEnd;
+
+        /**
+         * Read and decode the next frame, text or binary, inflating compressed chunks as needed.
+         * Replaces {@link DataInputStream#readUTF()} at the client.
+         * @param in  Stream to read from
+         * @return  the message string
+         * @throws IOException  if an I/O error occurs, or the frame is malformed
+         *     ({@link UTFDataFormatException})
+         */
+        public String readFrame(final DataInputStream in)
+            throws IOException
+        {
+            int flen;
+            for (;;)
+            {
+                // Next frame from earlier compressed chunks, if complete
+                if (inEnd - inPos >= 2)
+                {
+                    flen = ((inflated[inPos] & 0xFF) << 8) | (inflated[inPos + 1] & 0xFF);
+                    if (inEnd - inPos - 2 >= flen)
+                    {
+                        if (flen > buf.length)
+                            buf = new byte[Math.max(flen, buf.length * 2)];
+                        System.arraycopy(inflated, inPos + 2, buf, 0, flen);
+                        inPos += 2 + flen;
+                        break;
+                    }
+                }
+
+                flen = in.readUnsignedShort();
+                if (flen > buf.length)
+                    buf = new byte[Math.max(flen, buf.length * 2)];
+                in.readFully(buf, 0, flen);
+
+                if ((flen > 0) && (buf[0] == DEFLATE_MARKER))
+                    inflateChunk(flen);
+                else if (inPos < inEnd)
+                    throw new UTFDataFormatException("frame inside incomplete compressed frame");
+                else
+                    break;
+            }
+
+            if ((flen == 0) || (buf[0] != BINARY_MARKER))
+                return decodeUTF(buf, 0, flen);
+
+            pos = 1;
+            end = flen;
+            try
+            {
+                return decodeBinary();
+            }
+            catch (ArrayIndexOutOfBoundsException e)
+            {
+                throw new UTFDataFormatException("truncated binary frame");
+            }
+        }
+
+        /** Inflate a compressed chunk of length {@code flen} from {@link #buf}, adding to {@link #inflated}. */
+        private void inflateChunk(final int flen)
+            throws UTFDataFormatException
+        {
+            if (inflater == null)
+            {
+                inflater = new Inflater(true);
+                inflated = new byte[4096];
+            }
+            else if (inPos > 0)
+            {
+                // move remaining partial frame to start of buffer
+                System.arraycopy(inflated, inPos, inflated, 0, inEnd - inPos);
+                inEnd -= inPos;
+                inPos = 0;
+            }
+
+            inflater.setInput(buf, 1, flen - 1);
+            try
+            {
+                for (;;)
+                {
+                    if (inEnd == inflated.length)
+                    {
+                        final byte[] b = new byte[inflated.length * 2];
+                        System.arraycopy(inflated, 0, b, 0, inEnd);
+                        inflated = b;
+                    }
+                    final int n = inflater.inflate(inflated, inEnd, inflated.length - inEnd);
+                    inEnd += n;
+                    if (n == 0)
+                    {
+                        if (inflater.needsInput())
+                            break;
+                        if (inflater.finished() || inflater.needsDictionary())
+                            throw new UTFDataFormatException("compressed stream ended");
+                    }
+                }
+            }
+            catch (DataFormatException e)
+            {
+                throw new UTFDataFormatException("bad compressed chunk: " + e.getMessage());
+            }
+        }
+
+        private String decodeBinary()
+            throws UTFDataFormatException
+        {
+            final StringBuilder sb = new StringBuilder(end * 2);
+            sb.append(getVarint());
+
+            while (pos < end)
+            {
+                final int tag = buf[pos++] & 0xFF;
+                sb.append(((tag & TAG_SEP2) != 0) ? SEP2 : SEP);
+                final int kind = tag & 0x7F;
+                switch (kind)
+                {
+                case KIND_EMPTY:
+                    break;
+
+                case KIND_INT:
+                    {
+                        final int zz = getVarint();
+                        sb.append((zz >>> 1) ^ -(zz & 1));
+                    }
+                    break;
+
+                case KIND_STR:
+                    sb.append(getString());
+                    break;
+
+                case KIND_INTERN_REF:
+                    {
+                        final int slot = getVarint();
+                        if ((slot < 0) || (slot >= INTERN_SLOTS) || (slots[slot] == null))
+                            throw new UTFDataFormatException("unknown intern slot " + slot);
+                        sb.append(slots[slot]);
+                    }
+                    break;
+
+                case KIND_INTERN_DEF:
+                    {
+                        final int slot = getVarint();
+                        if ((slot < 0) || (slot >= INTERN_SLOTS))
+                            throw new UTFDataFormatException("bad intern slot " + slot);
+                        final String s = getString();
+                        slots[slot] = s;
+                        sb.append(s);
+                    }
+                    break;
+
+                default:
+                    sb.append(kind - KIND_SMALLINT_BASE + SMALLINT_MIN);
+                }
+            }
+
+            return sb.toString();
+        }
+
+        private int getVarint()
+            throws UTFDataFormatException
+        {
+            int v = 0;
+            for (int shift = 0; shift < 35; shift += 7)
+            {
+                if (pos >= end)
+                    throw new UTFDataFormatException("truncated varint");
+                final int b = buf[pos++];
+                v |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return v;
+            }
+
+            throw new UTFDataFormatException("bad varint");
+        }
+
+        private String getString()
+            throws UTFDataFormatException
+        {
+            final int slen = getVarint();
+            if ((slen < 0) || (pos + slen > end))
+                throw new UTFDataFormatException("truncated string");
+            final String s = decodeUTF(buf, pos, slen);
+            pos += slen;
+
+            return s;
+        }
+    }
+
+    /**
+     * Compresses outbound frames for one connection into {@link #DEFLATE_MARKER compressed chunks},
+     * keeping that connection's deflate stream.
+     * Call {@link #addFrame(byte[])} for each frame in a batch, then {@link #finishBatch()}
+     * to sync-flush the stream and get the chunks to write.
+     * Chunks must be written to the network in the same order they're returned here.
+     *<P>
+     * Also keeps stats on the bytes compressed and the time taken, for this connection and
+     * for all connections ({@link #getTotalBytesIn()} etc).
+     *<P>
+     * Not thread-safe. Call {@link #end()} when the connection is closed, to free the native deflater.
+     * Requires Java 7 or higher, for sync flush.
+     */
+    public static final class Compressor
+    {
+        private static final AtomicLong totalBytesIn = new AtomicLong(),
+            totalBytesOut = new AtomicLong(), totalNanos = new AtomicLong();
+
+        private final Deflater deflater;
+
+        /** Compressed output of the current batch, from 0 to {@link #olen}; grows as needed */
+        private byte[] obuf = new byte[1024];
+
+        private int olen;
+
+        /** True if frames were added since the last {@link #finishBatch()} */
+        private boolean hasPending;
+
+        /** This connection's stats */
+        private long bytesIn, bytesOut, nanos;
+
+        /**
+         * Create a Compressor with a new deflate stream.
+         * @param level  Compression level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION},
+         *     or {@link Deflater#DEFAULT_COMPRESSION}
+         * @throws IllegalArgumentException if {@code level} is out of range
+         */
+        public Compressor(final int level)
+            throws IllegalArgumentException
+        {
+            deflater = new Deflater(level, true);
+        }
+
+        /**
+         * Add a frame to the current batch.
+         * @param frame  Text or binary frame, including its 2-byte length
+         */
+        public void addFrame(final byte[] frame)
+        {
+            final long t0 = System.nanoTime();
+            deflater.setInput(frame);
+            while (! deflater.needsInput())
+                deflate(Deflater.NO_FLUSH);
+            hasPending = true;
+            bytesIn += frame.length;
+            totalBytesIn.addAndGet(frame.length);
+            addNanos(t0);
+        }
+
+        /**
+         * Have any frames been added since the last {@link #finishBatch()}?
+         * @return true if {@link #finishBatch()} would return data
+         */
+        public boolean hasPending()
+        {
+            return hasPending;
+        }
+
+        /**
+         * Sync-flush the deflate stream, and return the current batch as one or more compressed chunks.
+         * @return  the compressed chunks, each with its 2-byte length and {@link #DEFLATE_MARKER},
+         *     or null if no frames were added since the last call
+         */
+        public byte[] finishBatch()
+        {
+            if (! hasPending)
+                return null;
+
+            final long t0 = System.nanoTime();
+            do
+            {
+                deflate(Deflater.SYNC_FLUSH);
+            } while (olen == obuf.length);  // buffer was filled; there may be more
+
+            // Split into chunks
+            final int nChunks = (olen + DEFLATE_CHUNK_MAXLEN - 1) / DEFLATE_CHUNK_MAXLEN;
+            final byte[] chunks = new byte[olen + 3 * nChunks];
+            int i = 0;
+            for (int off = 0; off < olen; off += DEFLATE_CHUNK_MAXLEN)
+            {
+                final int clen = Math.min(DEFLATE_CHUNK_MAXLEN, olen - off);
+                chunks[i++] = (byte) (((clen + 1) >>> 8) & 0xFF);
+                chunks[i++] = (byte) ((clen + 1) & 0xFF);
+                chunks[i++] = DEFLATE_MARKER;
+                System.arraycopy(obuf, off, chunks, i, clen);
+                i += clen;
+            }
+
+            olen = 0;
+            hasPending = false;
+            bytesOut += chunks.length;
+            totalBytesOut.addAndGet(chunks.length);
+            addNanos(t0);
+
+            return chunks;
+        }
+
+        /** Deflate into {@link #obuf}, growing it if full. */
+        private void deflate(final int flush)
+        {
+            if (olen == obuf.length)
+            {
+                final byte[] b = new byte[obuf.length * 2];
+                System.arraycopy(obuf, 0, b, 0, olen);
+                obuf = b;
+            }
+            olen += deflater.deflate(obuf, olen, obuf.length - olen, flush);
+        }
+
+        private void addNanos(final long t0)
+        {
+            final long dt = System.nanoTime() - t0;
+            nanos += dt;
+            totalNanos.addAndGet(dt);
+        }
+
+        /** Free the native deflater. This Compressor can't be used afterwards. */
+        public void end()
+        {
+            deflater.end();
+        }
+
+        /** Bytes of frames compressed by this Compressor. */
+        public long getBytesIn()
+        {
+            return bytesIn;
+        }
+
+        /** Bytes of compressed chunks from this Compressor. */
+        public long getBytesOut()
+        {
+            return bytesOut;
+        }
+
+        /** Time spent compressing by this Compressor, in nanoseconds. */
+        public long getNanos()
+        {
+            return nanos;
+        }
+
+        /** Bytes of frames compressed by all Compressors. */
+        public static long getTotalBytesIn()
+        {
+            return totalBytesIn.get();
+        }
+
+        /** Bytes of compressed chunks from all Compressors. */
+        public static long getTotalBytesOut()
+        {
+            return totalBytesOut.get();
+        }
+
+        /** Time spent compressing by all Compressors, in nanoseconds. */
+        public static long getTotalNanos()
+        {
+            return totalNanos.get();
+        }
+    }
+
+    /**
+     * If this part of {@code s} is an int in canonical decimal form (no leading zeros or '+', not "-0"),
+     * get its value.
+     * @return  the int value, or {@link Long#MIN_VALUE} if not a canonical int
+     */
+    private static long parseCanonicalInt(final String s, int i, final int end)
+    {
+        final int n = end - i;
+        if ((n == 0) || (n > 11))
+            return Long.MIN_VALUE;
+
+        final boolean neg = (s.charAt(i) == '-');
+        if (neg)
+        {
+            ++i;
+            if (i == end)
+                return Long.MIN_VALUE;
+        }
+        if ((s.charAt(i) == '0') && ((end - i > 1) || neg))
+            return Long.MIN_VALUE;
+
+        long v = 0;
+        for (; i < end; ++i)
+        {
+            final char c = s.charAt(i);
+            if ((c < '0') || (c > '9'))
+                return Long.MIN_VALUE;
+            v = v * 10 + (c - '0');
+        }
+        if (neg)
+            v = -v;
+        if ((v < Integer.MIN_VALUE) || (v > Integer.MAX_VALUE))
+            return Long.MIN_VALUE;
+
+        return v;
+    }
+
+    /**
+     * Encode a string into a text frame, the same bytes as
+     * {@link java.io.DataOutputStream#writeUTF(String)}:
+     * 2-byte unsigned length, then modified UTF-8.
+     * @param str  String to encode
+     * @return the encoded frame
+     * @throws UTFDataFormatException if the encoded string is longer than 65535 bytes
+     */
+    public static byte[] encodeTextFrame(final String str)
+        throws UTFDataFormatException
+    {
+        return encodeTextFrame(str, utfLength(str, 0, str.length()));
+    }
+
+    private static byte[] encodeTextFrame(final String str, final int utflen)
+        throws UTFDataFormatException
+    {
+        if (utflen > 65535)
+            throw new UTFDataFormatException("encoded string too long: " + utflen + " bytes");
+
+        final byte[] b = new byte[utflen + 2];
+        b[0] = (byte) ((utflen >>> 8) & 0xFF);
+        b[1] = (byte) (utflen & 0xFF);
+        writeUTF(str, 0, str.length(), b, 2);
+
+        return b;
+    }
+
+    /** Length of part of {@code s} in modified UTF-8 bytes. */
+    private static int utfLength(final String s, final int start, final int end)
+    {
+        int utflen = 0;
+        for (int i = start; i < end; ++i)
+        {
+            final char c = s.charAt(i);
+            if ((c >= 0x0001) && (c <= 0x007F))
+                utflen++;
+            else if (c > 0x07FF)
+                utflen += 3;
+            else
+                utflen += 2;
+        }
+
+        return utflen;
+    }
+
+    /**
+     * Write part of {@code s} as modified UTF-8 into {@code b}, which must have room.
+     * @return  Index in {@code b} just past the written bytes
+     */
+    private static int writeUTF(final String s, final int start, final int end, final byte[] b, int i)
+    {
+        for (int j = start; j < end; ++j)
+        {
+            final char c = s.charAt(j);
+            if ((c >= 0x0001) && (c <= 0x007F))
+            {
+                b[i++] = (byte) c;
+            }
+            else if (c > 0x07FF)
+            {
+                b[i++] = (byte) (0xE0 | ((c >> 12) & 0x0F));
+                b[i++] = (byte) (0x80 | ((c >>  6) & 0x3F));
+                b[i++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                b[i++] = (byte) (0xC0 | ((c >>  6) & 0x1F));
+                b[i++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        return i;
+    }
+
+    /**
+     * Decode a modified UTF-8 string, as written by {@link java.io.DataOutputStream#writeUTF(String)}
+     * but without its 2-byte length prefix.
+     * @param b  Byte array containing the data
+     * @param off  Offset of the first data byte within {@code b}
+     * @param len  Length of the encoded data
+     * @return  the decoded string
+     * @throws UTFDataFormatException if the bytes aren't valid modified UTF-8
+     */
+    public static String decodeUTF(final byte[] b, final int off, final int len)
+        throws UTFDataFormatException
+    {
+        final char[] ca = new char[len];
+        final int end = off + len;
+        int i = off, n = 0;
+        while (i < end)
+        {
+            final int c = b[i] & 0xFF;
+            switch (c >> 4)
+            {
+            case 0: case 1: case 2: case 3: case 4: case 5: case 6: case 7:
+                ++i;
+                ca[n++] = (char) c;
+                break;
+
+            case 12: case 13:
+                if (i + 2 > end)
+                    throw new UTFDataFormatException("partial character at end");
+                {
+                    final int c2 = b[i + 1];
+                    if ((c2 & 0xC0) != 0x80)
+                        throw new UTFDataFormatException("malformed input around byte " + (i - off));
+                    ca[n++] = (char) (((c & 0x1F) << 6) | (c2 & 0x3F));
+                }
+                i += 2;
+                break;
+
+            case 14:
+                if (i + 3 > end)
+                    throw new UTFDataFormatException("partial character at end");
+                {
+                    final int c2 = b[i + 1], c3 = b[i + 2];
+                    if (((c2 & 0xC0) != 0x80) || ((c3 & 0xC0) != 0x80))
+                        throw new UTFDataFormatException("malformed input around byte " + (i - off));
+                    ca[n++] = (char) (((c & 0x0F) << 12) | ((c2 & 0x3F) << 6) | (c3 & 0x3F));
+                }
+                i += 3;
+                break;
+
+            default:
+                throw new UTFDataFormatException("malformed input around byte " + (i - off));
+            }
+        }
+
+        return new String(ca, 0, n);
+    }
+
+}
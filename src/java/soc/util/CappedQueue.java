@@ -20,20 +20,39 @@
  **/
 package soc.util;
 
-import java.util.Vector;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 /**
  * This queue has a size limit
+ *<P>
+ * Before v2.0.00 this class used {@code synchronized} methods and {@code wait/notifyAll}.
+ * It now uses a {@link ReentrantLock}, so that a robot brain waiting in {@link #get()} on a
+ * {@link VirtualThreads virtual thread} doesn't pin that thread to its carrier.
  */
 public class CappedQueue<T>
 {
-    // Internal storage for the queue'd objects
-    private Vector<T> vec = new Vector<T>();
+    // Internal storage for the queue'd objects, which may include null; guarded by lock
+    private final LinkedList<T> q = new LinkedList<T>();
+
+    /** Lock for {@link #q}; also see {@link #notEmpty}. @since 2.0.00 */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signalled when an object is added to {@link #q}. @since 2.0.00 */
+    private final Condition notEmpty = lock.newCondition();
 
     // The max size for this queue
     private int sizeLimit;
 
+    /**
+     * Optional callback after each {@link #put(Object)}, or null; see {@link #setPutListener(Runnable)}.
+     * @since 2.0.00
+     */
+    private volatile Runnable putListener;
+
     /**
      * constructor
      */
@@ -53,71 +72,120 @@ public class CappedQueue<T>
     }
 
     /**
-     * DOCUMENT ME!
+     * Add an object to the end of the queue, and wake up a thread waiting in {@link #get()}.
      *
-     * @param o DOCUMENT ME!
+     * @param o  the object to add
      *
-     * @throws CutoffExceededException DOCUMENT ME!
+     * @throws CutoffExceededException if the queue has reached its size limit;
+     *     {@code o} is still added
      */
-    synchronized public void put(T o) throws CutoffExceededException
+    public void put(T o) throws CutoffExceededException
     {
         //D.ebugPrintln(">put-> "+o);
-        // Add the element
-        vec.addElement(o);
+        final int size;
+        lock.lock();
+        try
+        {
+            // Add the element
+            q.addLast(o);
+            size = q.size();
 
-        // There might be threads waiting for the new object --
-        // give them a chance to get it
-        notifyAll();
+            // There might be threads waiting for the new object --
+            // give them a chance to get it
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
 
-        if (vec.size() == sizeLimit)
+        final Runnable pl = putListener;
+        if (pl != null)
+            pl.run();
+
+        if (size == sizeLimit)
         {
             throw new CutoffExceededException("CappedQueue sizeLimit exceeded");
         }
     }
 
     /**
-     * DOCUMENT ME!
+     * Remove and return the object at the front of the queue,
+     * waiting until one is added if the queue is empty.
      *
-     * @return DOCUMENT ME!
+     * @return the oldest object in the queue
      */
-    synchronized public T get()
+    public T get()
     {
-        while (true)
+        lock.lock();
+        try
         {
-            if (vec.size() > 0)
+            // If there aren't any objects available, wait,
+            // and when we wake up, check again to see if there are any.
+            while (q.isEmpty())
             {
-                // There's an available object!
-                T o = vec.elementAt(0);
+                notEmpty.awaitUninterruptibly();
+            }
 
-                //D.ebugPrintln("<-get< "+o);
-                // Remove it from our internal list, so someone else
-                // doesn't get it.
-                vec.removeElementAt(0);
+            //D.ebugPrintln("<-get< "+o);
+            return q.removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
 
-                // Return the object
-                return o;
-            }
-            else
+    /**
+     * Remove up to {@code max} objects from the front of the queue without waiting,
+     * and add them to {@code to} in order. Used by code which is told about new objects
+     * by a {@link #setPutListener(Runnable) put listener} instead of waiting in {@link #get()}.
+     *
+     * @param to  Collection to add the objects to; must allow null if null objects are put
+     * @param max  Maximum number of objects to remove
+     * @return  the number of objects removed, 0 if the queue is empty
+     * @since 2.0.00
+     */
+    public int drainTo(final Collection<? super T> to, final int max)
+    {
+        lock.lock();
+        try
+        {
+            int n = 0;
+            while ((n < max) && ! q.isEmpty())
             {
-                // There aren't any objects available.  Do a wait(),
-                // and when we wake up, check again to see if there
-                // are any.
-                try
-                {
-                    wait();
-                }
-                catch (InterruptedException ie) {}
+                to.add(q.removeFirst());
+                ++n;
             }
+
+            return n;
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * DOCUMENT ME!
+     * Set or clear a callback to run after each object is {@link #put(Object)}, in the thread calling {@code put}.
+     * Lets a scheduler know this queue has work, instead of a thread waiting in {@link #get()}.
+     * The callback should be quick and not call {@code put}.
      *
-     * @return DOCUMENT ME!
+     * @param pl  Callback to run, or null for none
+     * @since 2.0.00
      */
-    synchronized public boolean empty()
+    public void setPutListener(final Runnable pl)
     {
-        return vec.isEmpty();
+        putListener = pl;
+    }
+
+    /**
+     * Is the queue empty?
+     *
+     * @return true if there are no objects in the queue
+     */
+    public boolean empty()
+    {
+        lock.lock();
+        try
+        {
+            return q.isEmpty();
+        } finally {
+            lock.unlock();
+        }
     }
 }
@@ -74,6 +74,31 @@ public class SOCServerFeatures
      */
     public static final String FEAT_OPEN_REG = "oreg";
 
+    /**
+     * Binary frames.
+     * If this feature is active, clients can ask the server to send messages as compact
+     * {@link BinaryMessageCodec binary frames} instead of text, with {@link soc.message.SOCBinaryProtocol}.
+     * Otherwise all messages are sent as text.
+     *<P>
+     * The server can optionally be configured to offer this,
+     * see {@link soc.server.SOCServer#PROP_JSETTLERS_SERVER_BINARY_PROTOCOL}.
+     * @since 2.0.00
+     */
+    public static final String FEAT_BINARY_PROTOCOL = "bin";
+
+    /**
+     * Compression.
+     * If this feature is active, clients can ask the server to compress the messages it sends,
+     * as a deflate stream in {@link BinaryMessageCodec#DEFLATE_MARKER compressed chunks},
+     * with {@link soc.message.SOCCompression}.
+     * Otherwise messages are sent uncompressed.
+     *<P>
+     * The server can optionally be configured to offer this,
+     * see {@link soc.server.SOCServer#PROP_JSETTLERS_SERVER_COMPRESSION}.
+     * @since 2.0.00
+     */
+    public static final String FEAT_COMPRESSION = "z";
+
     /**
      * Separator character ';' between features in {@link #featureList}.
      * Avoid separators defined in {@code SOCMessage}.
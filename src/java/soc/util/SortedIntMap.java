@@ -0,0 +1,332 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Map from primitive int keys, such as board coordinates, to objects, kept sorted by key.
+ * Used by the robots' {@link soc.robot.SOCPlayerTracker} for its possible pieces
+ * in place of a {@code TreeMap<Integer, V>}: Iteration order is the same (ascending key),
+ * lookups are a binary search over an {@code int[]} with no boxing, and copying the map
+ * is 2 array copies instead of rebuilding a tree.
+ *<P>
+ * Keys and values are kept in parallel arrays, so {@link #put(int, Object)} and {@link #remove(int)}
+ * of a new key shift the later entries. That's fast for the few hundred entries of a player's
+ * possible pieces, even on a large board, but this class isn't meant for much larger maps.
+ *<P>
+ * Like {@code TreeMap}, not thread-safe, and iterators of {@link #values()} are fail-fast:
+ * They throw {@link ConcurrentModificationException} if the map is changed during iteration
+ * except through the iterator's own {@code remove()}.
+ *
+ * @param <V>  Type of values; null values are not allowed
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SortedIntMap<V>
+{
+    /** Keys of the map's entries, ascending; only the first {@link #size} are used */
+    private int[] keys;
+
+    /** Values of the map's entries, same order as {@link #keys} */
+    private Object[] vals;
+
+    /** Number of entries */
+    private int size;
+
+    /** Count of structural changes, for fail-fast iterators */
+    private int modCount;
+
+    /**
+     * Create an empty map with a default capacity.
+     */
+    public SortedIntMap()
+    {
+        this(16);
+    }
+
+    /**
+     * Create an empty map.
+     * @param capacity  Initial capacity; the map grows as needed
+     */
+    public SortedIntMap(final int capacity)
+    {
+        keys = new int[Math.max(capacity, 4)];
+        vals = new Object[keys.length];
+    }
+
+    /**
+     * Copy constructor: Create a map with the same entries as {@code m}.
+     * The values themselves are not copied.
+     * @param m  Map to copy
+     */
+    public SortedIntMap(final SortedIntMap<V> m)
+    {
+        size = m.size;
+        keys = Arrays.copyOf(m.keys, Math.max(size + 4, 4));
+        vals = Arrays.copyOf(m.vals, keys.length);
+    }
+
+    /** @return the number of entries */
+    public int size()
+    {
+        return size;
+    }
+
+    /** @return true if the map has no entries */
+    public boolean isEmpty()
+    {
+        return (size == 0);
+    }
+
+    /**
+     * Index of {@code key} in {@link #keys}, or if not found, {@code -(insertion point) - 1}.
+     * @see Arrays#binarySearch(int[], int, int, int)
+     */
+    private int indexOf(final int key)
+    {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    /**
+     * Get the value for a key.
+     * @param key  Key to look up
+     * @return  the value, or null if {@code key} is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final int key)
+    {
+        final int i = indexOf(key);
+        return (i >= 0) ? (V) vals[i] : null;
+    }
+
+    /**
+     * Is this key in the map?
+     * @param key  Key to look for
+     * @return true if the map has an entry for {@code key}
+     */
+    public boolean containsKey(final int key)
+    {
+        return (indexOf(key) >= 0);
+    }
+
+    /**
+     * Add or replace the value for a key.
+     * @param key  Key
+     * @param value  Value, not null
+     * @return  the previous value for {@code key}, or null if it wasn't in the map
+     * @throws NullPointerException if {@code value} is null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final int key, final V value)
+        throws NullPointerException
+    {
+        if (value == null)
+            throw new NullPointerException("value");
+
+        int i = indexOf(key);
+        if (i >= 0)
+        {
+            final V prev = (V) vals[i];
+            vals[i] = value;
+            return prev;
+        }
+
+        i = -(i + 1);
+        if (size == keys.length)
+        {
+            final int newLen = size + (size >> 1) + 1;
+            keys = Arrays.copyOf(keys, newLen);
+            vals = Arrays.copyOf(vals, newLen);
+        }
+        if (i < size)
+        {
+            System.arraycopy(keys, i, keys, i + 1, size - i);
+            System.arraycopy(vals, i, vals, i + 1, size - i);
+        }
+        keys[i] = key;
+        vals[i] = value;
+        ++size;
+        ++modCount;
+
+        return null;
+    }
+
+    /**
+     * Remove a key's entry, if present.
+     * @param key  Key to remove
+     * @return  the removed value, or null if {@code key} wasn't in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(final int key)
+    {
+        final int i = indexOf(key);
+        if (i < 0)
+            return null;
+
+        final V prev = (V) vals[i];
+        removeAt(i);
+
+        return prev;
+    }
+
+    /** Remove the entry at index {@code i}, shifting later entries down. */
+    private void removeAt(final int i)
+    {
+        --size;
+        if (i < size)
+        {
+            System.arraycopy(keys, i + 1, keys, i, size - i);
+            System.arraycopy(vals, i + 1, vals, i, size - i);
+        }
+        vals[size] = null;
+        ++modCount;
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear()
+    {
+        Arrays.fill(vals, 0, size, null);
+        size = 0;
+        ++modCount;
+    }
+
+    /**
+     * Get the key at an index, for iterating in key order without allocating.
+     * @param i  Index, from 0 to {@link #size()} - 1
+     * @return  the key at index {@code i}
+     * @throws ArrayIndexOutOfBoundsException if {@code i} is out of range
+     */
+    public int keyAt(final int i)
+        throws ArrayIndexOutOfBoundsException
+    {
+        if (i >= size)
+            throw new ArrayIndexOutOfBoundsException(i);
+
+        return keys[i];
+    }
+
+    /**
+     * Get the value at an index, for iterating in key order without allocating.
+     * @param i  Index, from 0 to {@link #size()} - 1
+     * @return  the value at index {@code i}
+     * @throws ArrayIndexOutOfBoundsException if {@code i} is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(final int i)
+        throws ArrayIndexOutOfBoundsException
+    {
+        if (i >= size)
+            throw new ArrayIndexOutOfBoundsException(i);
+
+        return (V) vals[i];
+    }
+
+    /**
+     * Get a view of the map's values in ascending key order, like {@code TreeMap.values()}.
+     * Changes to the map are visible in the view. Its iterator supports {@code remove()}.
+     * @return  a collection view of the values
+     */
+    public Collection<V> values()
+    {
+        return new AbstractCollection<V>()
+        {
+            public int size()
+            {
+                return size;
+            }
+
+            public Iterator<V> iterator()
+            {
+                return new ValuesIterator();
+            }
+        };
+    }
+
+    /**
+     * For debugging, this map's keys (in hex) and values.
+     * @return  A string like <tt>{0x23=value, 0x45=value}</tt>
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < size; ++i)
+        {
+            if (i > 0)
+                sb.append(", ");
+            sb.append("0x").append(Integer.toHexString(keys[i])).append('=').append(vals[i]);
+        }
+        sb.append('}');
+
+        return sb.toString();
+    }
+
+    /** Iterator for {@link SortedIntMap#values()}. */
+    private class ValuesIterator implements Iterator<V>
+    {
+        /** Index of the next value to return */
+        private int next;
+
+        /** Index of the value last returned, or -1 */
+        private int last = -1;
+
+        private int expectedModCount = modCount;
+
+        public boolean hasNext()
+        {
+            return (next < size);
+        }
+
+        @SuppressWarnings("unchecked")
+        public V next()
+        {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (next >= size)
+                throw new NoSuchElementException();
+
+            last = next;
+            ++next;
+            return (V) vals[last];
+        }
+
+        public void remove()
+        {
+            if (last < 0)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+}
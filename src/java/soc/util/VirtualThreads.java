@@ -0,0 +1,147 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.util;
+
+import java.lang.reflect.Method;
+
+/**
+ * Starts the threads which there are many of in a large server, one or more per client or per game
+ * (client connections' readers and writers, robot brains and their pingers),
+ * either as usual platform threads or, if {@link #setEnabled(boolean) enabled}, as lightweight virtual threads.
+ * Virtual threads let one JVM run thousands of bot games at once, for load tests or tournaments.
+ *<P>
+ * Virtual threads need Java 21 or higher; they're found with reflection so that JSettlers
+ * still builds and runs on older versions, where {@link #isSupported()} is false
+ * and platform threads are always used.
+ *<P>
+ * Code run on these threads should wait with {@code java.util.concurrent} locks and conditions
+ * instead of {@code synchronized} and {@code wait()}, so that waiting doesn't pin a virtual thread
+ * to its carrier thread; see {@link CappedQueue}.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public final class VirtualThreads
+{
+    /** {@code Thread.ofVirtual()}, or null if not supported by this JVM */
+    private static final Method OF_VIRTUAL;
+
+    /** {@code Thread.Builder.name(String)}, or null if not supported */
+    private static final Method BUILDER_NAME;
+
+    /** {@code Thread.Builder.unstarted(Runnable)}, or null if not supported */
+    private static final Method BUILDER_UNSTARTED;
+
+    static
+    {
+        Method ofv = null, bname = null, bunst = null;
+        try
+        {
+            ofv = Thread.class.getMethod("ofVirtual");
+            final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            bname = builder.getMethod("name", String.class);
+            bunst = builder.getMethod("unstarted", Runnable.class);
+        }
+        catch (Exception e) {
+            ofv = null;  // Java 20 or older
+        }
+
+        OF_VIRTUAL = ofv;
+        BUILDER_NAME = bname;
+        BUILDER_UNSTARTED = bunst;
+    }
+
+    /** Are new threads virtual? Set by {@link #setEnabled(boolean)}. */
+    private static volatile boolean enabled;
+
+    private VirtualThreads() {}
+
+    /**
+     * Does this JVM support virtual threads?
+     * @return true if running on Java 21 or higher
+     */
+    public static boolean isSupported()
+    {
+        return (OF_VIRTUAL != null);
+    }
+
+    /**
+     * Are threads from {@link #newThread(Runnable, String)} virtual?
+     * @return true if {@link #setEnabled(boolean) enabled} and supported
+     */
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Use virtual threads for threads created from now on, if supported by this JVM.
+     * Threads already running aren't affected.
+     * @param enable  True to use virtual threads, false for platform threads
+     * @return  true if virtual threads are now used, false if not enabled or not {@link #isSupported()}
+     */
+    public static boolean setEnabled(final boolean enable)
+    {
+        enabled = enable && isSupported();
+        return enabled;
+    }
+
+    /**
+     * Create a new thread, not yet started: A virtual thread if {@link #isEnabled()},
+     * otherwise a platform thread. Virtual threads are always daemon threads.
+     * @param r  Code to run in the thread
+     * @param name  Thread name for debugging, or null for a default name
+     * @return  a new unstarted thread which will run {@code r}
+     */
+    public static Thread newThread(final Runnable r, final String name)
+    {
+        if (enabled)
+        {
+            try
+            {
+                Object builder = OF_VIRTUAL.invoke(null);
+                if (name != null)
+                    builder = BUILDER_NAME.invoke(builder, name);
+
+                return (Thread) BUILDER_UNSTARTED.invoke(builder, r);
+            }
+            catch (Exception e) {
+                // unlikely; fall back to a platform thread
+            }
+        }
+
+        return (name != null) ? new Thread(r, name) : new Thread(r);
+    }
+
+    /**
+     * Create and start a new thread: A virtual thread if {@link #isEnabled()}, otherwise a platform thread.
+     * @param r  Code to run in the thread
+     * @param name  Thread name for debugging, or null for a default name
+     * @return  the new thread, already started
+     * @see #newThread(Runnable, String)
+     */
+    public static Thread start(final Runnable r, final String name)
+    {
+        final Thread t = newThread(r, name);
+        t.start();
+        return t;
+    }
+
+}
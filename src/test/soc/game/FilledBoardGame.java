@@ -0,0 +1,222 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import soc.server.SOCBoardLargeAtServer;
+
+/**
+ * A started game whose board is filled with randomly placed legal pieces, for tests and
+ * {@link SOCBoardBenchmark}: {@link #fill(Random)} places 2 initial settlements and roads per player,
+ * then in rounds has each player build a random potential road, ship, settlement or city
+ * (no cities on sea boards) until nobody can build any more.
+ *<P>
+ * To check something after each piece is placed, override {@link #piecePlaced(SOCPlayingPiece)}.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+class FilledBoardGame
+{
+    /** The game, started and with all players seated */
+    final SOCGame ga;
+
+    final SOCBoard board;
+
+    /** All land nodes on the board, in coordinate order */
+    final int[] landNodes;
+
+    /**
+     * All edges where a road or ship could be placed, in coordinate order:
+     * Edges adjacent to {@link #landNodes}, or on a sea board, adjacent to any node.
+     */
+    final int[] edges;
+
+    /**
+     * Create and start a game for {@link #fill(Random)}.
+     * @param numPlayers  Number of players, 4 or 6
+     * @param scenario  Sea board scenario key such as {@link SOCScenario#K_SC_4ISL}, or null for the classic board
+     */
+    FilledBoardGame(final int numPlayers, final String scenario)
+    {
+        final Map<String, SOCGameOption> opts;
+        if (scenario != null)
+        {
+            SOCGame.boardFactory = new SOCBoardLargeAtServer.BoardFactoryAtServer();
+            opts = SOCGameOption.parseOptionsToMap("PL=" + numPlayers + ",SBL=t,SC=" + scenario);
+            SOCGameOption.adjustOptionsToKnown(opts, null, true);
+        } else {
+            opts = SOCGameOption.parseOptionsToMap("PL=" + numPlayers);
+        }
+
+        ga = new SOCGame("test", opts);
+        for (int pn = 0; pn < ga.maxPlayers; ++pn)
+            ga.addPlayer("player " + pn, pn);
+        ga.startGame();
+        board = ga.getBoard();
+
+        final boolean isLarge = (board.getBoardEncodingFormat() == SOCBoard.BOARD_ENCODING_LARGE);
+        final int maxRow, maxCol;
+        if (isLarge)
+        {
+            maxRow = board.getBoardHeight();
+            maxCol = board.getBoardWidth();
+        } else {
+            maxRow = 0xFF;
+            maxCol = 0;
+        }
+
+        final TreeSet<Integer> nodeSet = new TreeSet<Integer>(), edgeSet = new TreeSet<Integer>();
+        for (int r = 0; r <= maxRow; ++r)
+        {
+            for (int c = 0; c <= maxCol; ++c)
+            {
+                final int node = (isLarge) ? ((r << 8) | c) : r;
+                final boolean onLand = board.isNodeOnLand(node);
+                if (onLand)
+                    nodeSet.add(Integer.valueOf(node));
+                else if (! ga.hasSeaBoard)
+                    continue;
+
+                for (final int edge : board.getAdjacentEdgesToNode_arr(node))
+                    if (edge != -9)
+                        edgeSet.add(Integer.valueOf(edge));
+            }
+        }
+        landNodes = toArray(nodeSet);
+        edges = toArray(edgeSet);
+    }
+
+    private static int[] toArray(final TreeSet<Integer> set)
+    {
+        final int[] arr = new int[set.size()];
+        int i = 0;
+        for (Integer c : set)
+            arr[i++] = c.intValue();
+        return arr;
+    }
+
+    /**
+     * Place 2 initial settlements and roads per player, then in rounds have each player
+     * build a random potential road or ship, settlement or city until nobody can build any more.
+     * @param rand  Random source for piece placement
+     * @return  this game, for convenience
+     */
+    FilledBoardGame fill(final Random rand)
+    {
+        final List<Integer> choices = new ArrayList<Integer>();
+
+        for (int i = 0; i < 2; ++i)
+        {
+            for (int pn = 0; pn < ga.maxPlayers; ++pn)
+            {
+                final SOCPlayer pl = ga.getPlayer(pn);
+                final int node = pick(pl.getPotentialSettlements_arr(), rand);
+                if ((node == 0) || ! pl.canPlaceSettlement(node))
+                    continue;
+                put(new SOCSettlement(pl, node, board));
+
+                choices.clear();
+                for (final int edge : board.getAdjacentEdgesToNode_arr(node))
+                    if ((edge != -9) && pl.isPotentialRoad(edge))
+                        choices.add(Integer.valueOf(edge));
+                if (! choices.isEmpty())
+                    put(new SOCRoad(pl, choices.get(rand.nextInt(choices.size())).intValue(), board));
+            }
+        }
+
+        boolean anyBuilt;
+        do
+        {
+            anyBuilt = false;
+            for (int pn = 0; pn < ga.maxPlayers; ++pn)
+            {
+                final SOCPlayer pl = ga.getPlayer(pn);
+
+                if (pl.getNumPieces(SOCPlayingPiece.SETTLEMENT) > 0)
+                {
+                    final int node = pick(pl.getPotentialSettlements_arr(), rand);
+                    if ((node != 0) && pl.canPlaceSettlement(node))
+                    {
+                        put(new SOCSettlement(pl, node, board));
+                        anyBuilt = true;
+                        continue;
+                    }
+                }
+
+                choices.clear();
+                final boolean canRoad = (pl.getNumPieces(SOCPlayingPiece.ROAD) > 0),
+                    canShip = ga.hasSeaBoard && (pl.getNumPieces(SOCPlayingPiece.SHIP) > 0);
+                for (final int edge : edges)
+                    if ((canRoad && pl.isPotentialRoad(edge)) || (canShip && ga.canPlaceShip(pl, edge)))
+                        choices.add(Integer.valueOf(edge));
+                if (! choices.isEmpty())
+                {
+                    final int edge = choices.get(rand.nextInt(choices.size())).intValue();
+                    put((canRoad && pl.isPotentialRoad(edge))
+                        ? new SOCRoad(pl, edge, board)
+                        : new SOCShip(pl, edge, board));
+                    anyBuilt = true;
+                    continue;
+                }
+
+                // No cities on sea boards: Upgrading out of turn order can leave ship
+                // trade routes which SOCPlayer's route checks reject
+                if ((! ga.hasSeaBoard) && (pl.getNumPieces(SOCPlayingPiece.CITY) > 0)
+                    && ! pl.getSettlements().isEmpty())
+                {
+                    final List<SOCSettlement> sets = pl.getSettlements();
+                    put(new SOCCity(pl, sets.get(rand.nextInt(sets.size())).getCoordinates(), board));
+                    anyBuilt = true;
+                }
+            }
+        } while (anyBuilt);
+
+        return this;
+    }
+
+    /** Pick a random element of {@code coords}, or 0 if empty or null. */
+    private static int pick(final int[] coords, final Random rand)
+    {
+        if ((coords == null) || (coords.length == 0))
+            return 0;
+        return coords[rand.nextInt(coords.length)];
+    }
+
+    /** Put a piece in game state {@link SOCGame#PLAY1}, so the game's current player and state don't change. */
+    private void put(final SOCPlayingPiece pp)
+    {
+        ga.setGameState(SOCGame.PLAY1);
+        ga.putPiece(pp);
+        piecePlaced(pp);
+    }
+
+    /**
+     * Called by {@link #fill(Random)} after each piece is placed. Does nothing unless overridden.
+     * @param pp  Piece just placed
+     */
+    protected void piecePlaced(final SOCPlayingPiece pp) {}
+
+}
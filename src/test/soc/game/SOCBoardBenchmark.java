@@ -0,0 +1,427 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.game;
+
+import java.util.Random;
+import java.util.Vector;
+
+
+/**
+ * Benchmark for board lookups on a full 6-player board: Fills the board with
+ * randomly placed legal roads, settlements and cities for all 6 players using {@link FilledBoardGame},
+ * then times the checks which robots and the server make many times per turn:
+ *<UL>
+ *<LI> Occupancy: {@link SOCBoard#settlementAtNode(int)} at each land node and its adjacent nodes
+ *     (the distance rule), and {@link SOCBoard#roadAtEdge(int)} at each edge.
+ *     These are also timed against a linear search of the board's piece lists,
+ *     which is how those methods worked before v2.0.00; {@link TestBoardOccupancy} checks that they agree.
+ *<LI> Longest road: {@link SOCPlayer#calcLongestRoad2()} for each player, after a road is placed
+ *     (which searches only the changed part of the player's road network) and with no change (which reuses
+ *     all previous results). These are also timed against a full search of all the player's roads,
+ *     which is how that method worked before v2.0.00; {@link TestLongestRoad} checks that they agree.
+ *<LI> Placement legality: Each player's potential roads and settlements are placed and removed
+ *     with {@link SOCGame#putTempPiece(SOCPlayingPiece)} and {@link SOCGame#undoPutTempPiece(SOCPlayingPiece)},
+ *     which updates all players' potential and legal locations like a robot's planning does.
+ *<LI> Player copies: {@link SOCPlayer#SOCPlayer(SOCPlayer)} for each player, as robots do when planning,
+ *     which copies the player's legal and potential location sets; see {@link TestCoordSet}.
+ *<LI> Game copies: {@link SOCGame#SOCGame(SOCGame)}, for simulations and checkpoints; see {@link TestGameCopy}.
+ *<LI> Adjacency: Nodes, edges and hexes adjacent to each land node and edge, from the board geometry's
+ *     shared precomputed tables with accessors such as {@link SOCBoard#getAdjacentNodesToNode_arr(int, int[])}.
+ *     These are also timed against computing them on the fly, as the board did before v2.0.00;
+ *     {@link TestBoardAdjacency} checks that they agree.
+ *</UL>
+ *<P>
+ * This is a timing harness, not a unit test, so it's kept in the test source tree
+ * but not named {@code Test*}. To run after {@code ant compile-tests}:
+ * {@code java -cp target/classes:target/test-classes soc.game.SOCBoardBenchmark [passes [seed]]}
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCBoardBenchmark
+{
+    /** The game being benchmarked, with its board filled by {@link FilledBoardGame#fill(Random)} */
+    private final SOCGame ga;
+
+    private final SOCBoard board;
+
+    /** All land nodes on the board, in coordinate order */
+    private final int[] landNodes;
+
+    /** All edges adjacent to {@link #landNodes}, in coordinate order */
+    private final int[] edges;
+
+    /**
+     * Create a 6-player game, start it to lay out its board, and fill the board with pieces.
+     * @param rand  Random source for piece placement
+     */
+    public SOCBoardBenchmark(final Random rand)
+    {
+        final FilledBoardGame fg = new FilledBoardGame(6, null).fill(rand);
+
+        ga = fg.ga;
+        board = fg.board;
+        landNodes = fg.landNodes;
+        edges = fg.edges;
+    }
+
+    /**
+     * Check occupancy of every land node, each node's adjacent nodes, and every edge,
+     * using {@link SOCBoard#settlementAtNode(int)} and {@link SOCBoard#roadAtEdge(int)}.
+     * @return  Number of occupied locations found, to compare with {@link #checkOccupancyLinear()}
+     */
+    public int checkOccupancy()
+    {
+        int n = 0;
+        for (final int node : landNodes)
+        {
+            if (board.settlementAtNode(node) != null)
+                ++n;
+            for (final int adj : board.getAdjacentNodesToNode_arr(node))
+                if ((adj != -9) && (board.settlementAtNode(adj) != null))
+                    ++n;
+        }
+        for (final int edge : edges)
+            if (board.roadAtEdge(edge) != null)
+                ++n;
+
+        return n;
+    }
+
+    /**
+     * Same checks as {@link #checkOccupancy()}, by searching the board's piece lists
+     * like {@link SOCBoard#settlementAtNode(int)} and {@link SOCBoard#roadAtEdge(int)} did before v2.0.00.
+     * @return  Number of occupied locations found
+     */
+    public int checkOccupancyLinear()
+    {
+        int n = 0;
+        for (final int node : landNodes)
+        {
+            if (TestBoardOccupancy.linearSettlementAtNode(board, node) != null)
+                ++n;
+            for (final int adj : board.getAdjacentNodesToNode_arr(node))
+                if ((adj != -9) && (TestBoardOccupancy.linearSettlementAtNode(board, adj) != null))
+                    ++n;
+        }
+        for (final int edge : edges)
+            if (TestBoardOccupancy.linearRoadAtEdge(board, edge) != null)
+                ++n;
+
+        return n;
+    }
+
+    /**
+     * Look up adjacencies of each land node and edge with the non-allocating accessors,
+     * which read the board geometry's shared precomputed tables:
+     * Nodes, edges and hexes adjacent to each node, and nodes and edges adjacent to each edge.
+     * @return  Sum of the adjacent coordinates found, so the lookups are used
+     */
+    public int checkAdjacency()
+    {
+        final int[] a3 = new int[3], a4 = new int[4];
+        int n = 0;
+        for (final int node : landNodes)
+        {
+            n += sum(board.getAdjacentNodesToNode_arr(node, a3), 3);
+            n += sum(board.getAdjacentEdgesToNode_arr(node, a3), 3);
+            n += sum(board.getAdjacentHexesToNode_arr(node, a3), 3);
+        }
+        for (final int edge : edges)
+        {
+            n += sum(board.getAdjacentNodesToEdge_arr(edge, a3), 2);
+            n += sum(board.getAdjacentEdgesToEdge_arr(edge, a4), 4);
+        }
+        return n;
+    }
+
+    /**
+     * Same lookups as {@link #checkAdjacency()}, computed on the fly into newly allocated arrays
+     * and Vectors like the board's adjacency methods did before v2.0.00.
+     * @return  Sum of the adjacent coordinates found; same as {@link #checkAdjacency()}
+     */
+    public int checkAdjacencyComputed()
+    {
+        int n = 0;
+        for (final int node : landNodes)
+        {
+            final int[] nodes = new int[3], nedges = new int[3];
+            for (int dir = 0; dir < 3; ++dir)
+            {
+                nodes[dir] = board.getAdjacentNodeToNode(node, dir);
+                nedges[dir] = board.getAdjacentEdgeToNode(node, dir);
+            }
+            n += sum(nodes, 3) + sum(nedges, 3);
+            for (final int hex : board.getAdjacentHexesToNode(node))
+                n += hex;
+        }
+        for (final int edge : edges)
+        {
+            n += sum(board.getAdjacentNodesToEdge_arr(edge), 2);
+            for (final int adj : board.getAdjacentEdgesToEdge(edge))
+                n += adj;
+        }
+        return n;
+    }
+
+    /** Sum the first {@code len} coordinates in {@code coords}, skipping unused -9 elements. */
+    private static int sum(final int[] coords, final int len)
+    {
+        int n = 0;
+        for (int i = 0; i < len; ++i)
+            if (coords[i] != -9)
+                n += coords[i];
+        return n;
+    }
+
+    /**
+     * Calculate each player's longest road with {@link SOCPlayer#calcLongestRoad2()}.
+     * @return  Sum of all players' longest road lengths
+     */
+    public int calcLongestRoads()
+    {
+        int n = 0;
+        for (int pn = 0; pn < ga.maxPlayers; ++pn)
+            n += ga.getPlayer(pn).calcLongestRoad2();
+        return n;
+    }
+
+    /**
+     * Calculate each player's longest road with {@link TestLongestRoad#calcLongestRoadFull(SOCPlayer, Vector)}.
+     * @return  Sum of all players' longest road lengths
+     */
+    public int calcLongestRoadsFull()
+    {
+        final Vector<SOCLRPathData> paths = new Vector<SOCLRPathData>();
+        int n = 0;
+        for (int pn = 0; pn < ga.maxPlayers; ++pn)
+            n += TestLongestRoad.calcLongestRoadFull(ga.getPlayer(pn), paths);
+        return n;
+    }
+
+    /**
+     * For each player, place a temporary road at each of their potential road locations,
+     * calculate their longest road, and remove the road; robots do this while planning.
+     * @param full  If true, use {@link TestLongestRoad#calcLongestRoadFull(SOCPlayer, Vector)}
+     *     instead of {@link SOCPlayer#calcLongestRoad2()}
+     * @return  Number of temporary roads placed
+     */
+    public int calcTempRoads(final boolean full)
+    {
+        final Vector<SOCLRPathData> paths = new Vector<SOCLRPathData>();
+        int n = 0;
+        for (int pn = 0; pn < ga.maxPlayers; ++pn)
+        {
+            final SOCPlayer pl = ga.getPlayer(pn);
+            for (final int edge : edges)
+            {
+                if (! pl.isPotentialRoad(edge))
+                    continue;
+                final SOCRoad rd = new SOCRoad(pl, edge, board);
+                ga.putTempPiece(rd);
+                if (full)
+                    TestLongestRoad.calcLongestRoadFull(pl, paths);
+                else
+                    pl.calcLongestRoad2();
+                ga.undoPutTempPiece(rd);
+                ++n;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * For each player, place and remove a temporary piece at each of their
+     * current potential road and settlement locations.
+     * @return  Number of temporary pieces placed
+     */
+    public int placeTempPieces()
+    {
+        int n = 0;
+        for (int pn = 0; pn < ga.maxPlayers; ++pn)
+        {
+            final SOCPlayer pl = ga.getPlayer(pn);
+            for (final int edge : edges)
+            {
+                if (! pl.isPotentialRoad(edge))
+                    continue;
+                final SOCRoad rd = new SOCRoad(pl, edge, board);
+                ga.putTempPiece(rd);
+                ga.undoPutTempPiece(rd);
+                ++n;
+            }
+
+            final int[] nodes = pl.getPotentialSettlements_arr();
+            if (nodes != null)
+                for (final int node : nodes)
+                {
+                    final SOCSettlement se = new SOCSettlement(pl, node, board);
+                    ga.putTempPiece(se);
+                    ga.undoPutTempPiece(se);
+                    ++n;
+                }
+        }
+        return n;
+    }
+
+    /**
+     * Copy each player with {@link SOCPlayer#SOCPlayer(SOCPlayer)}.
+     * @return  Total size of the copies' potential settlements, so the copies are used
+     */
+    public int copyPlayers()
+    {
+        int n = 0;
+        for (int pn = 0; pn < ga.maxPlayers; ++pn)
+            n += new SOCPlayer(ga.getPlayer(pn)).getPotentialSettlementsSet().size();
+        return n;
+    }
+
+    /**
+     * Copy the game with {@link SOCGame#SOCGame(SOCGame)}.
+     * @return  The copy's number of pieces on the board, so the copy is used
+     */
+    public int copyGame()
+    {
+        return new SOCGame(ga).getBoard().getRoads().size();
+    }
+
+    /**
+     * Run the benchmark from the command line and print results.
+     * @param args  Optional: Number of timed passes (default 2000), random seed for piece placement (default 1)
+     */
+    public static void main(final String[] args)
+    {
+        int numPasses = 2000;
+        long seed = 1;
+        try
+        {
+            if (args.length > 0)
+                numPasses = Integer.parseInt(args[0]);
+            if (args.length > 1)
+                seed = Long.parseLong(args[1]);
+            if (numPasses < 1)
+                throw new IllegalArgumentException();
+        } catch (IllegalArgumentException e) {
+            System.err.println("usage: java soc.game.SOCBoardBenchmark [passes [seed]]");
+            System.exit(1);
+        }
+
+        final SOCBoardBenchmark bench = new SOCBoardBenchmark(new Random(seed));
+        final SOCBoard board = bench.board;
+        System.out.println("6-player board: " + board.getRoads().size() + " roads, "
+            + board.getSettlements().size() + " settlements, " + board.getCities().size() + " cities; "
+            + bench.landNodes.length + " land nodes, " + bench.edges.length + " edges");
+
+        final int occupied = bench.checkOccupancy();
+
+        // warm up, then time each workload
+        for (int p = 0; p < 200; ++p)
+        {
+            bench.checkOccupancy();
+            bench.checkOccupancyLinear();
+            bench.calcLongestRoads();
+            bench.calcLongestRoadsFull();
+            bench.copyPlayers();
+            bench.copyGame();
+            bench.checkAdjacency();
+            bench.checkAdjacencyComputed();
+        }
+        bench.placeTempPieces();
+        bench.calcTempRoads(false);
+        bench.calcTempRoads(true);
+
+        long t0 = System.nanoTime();
+        for (int p = 0; p < numPasses; ++p)
+            bench.checkOccupancy();
+        final long occupancyNanos = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        for (int p = 0; p < numPasses; ++p)
+            bench.checkOccupancyLinear();
+        final long linearNanos = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        for (int p = 0; p < numPasses; ++p)
+            bench.calcLongestRoads();
+        final long longestNanos = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        for (int p = 0; p < numPasses; ++p)
+            bench.calcLongestRoadsFull();
+        final long longestFullNanos = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        for (int p = 0; p < numPasses; ++p)
+            bench.copyPlayers();
+        final long copyNanos = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        for (int p = 0; p < numPasses; ++p)
+            bench.copyGame();
+        final long gameCopyNanos = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        for (int p = 0; p < numPasses; ++p)
+            bench.checkAdjacency();
+        final long adjNanos = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        for (int p = 0; p < numPasses; ++p)
+            bench.checkAdjacencyComputed();
+        final long adjComputedNanos = System.nanoTime() - t0;
+
+        final int tempPasses = Math.max(1, numPasses / 20);
+        int numTemp = 0;
+        t0 = System.nanoTime();
+        for (int p = 0; p < tempPasses; ++p)
+            numTemp += bench.placeTempPieces();
+        final long tempNanos = System.nanoTime() - t0;
+
+        int numTempRoads = 0;
+        t0 = System.nanoTime();
+        for (int p = 0; p < tempPasses; ++p)
+            numTempRoads += bench.calcTempRoads(false);
+        final long tempRoadNanos = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        for (int p = 0; p < tempPasses; ++p)
+            bench.calcTempRoads(true);
+        final long tempRoadFullNanos = System.nanoTime() - t0;
+
+        System.out.println("Occupancy checks: " + (occupancyNanos / numPasses) + " ns/pass indexed, "
+            + (linearNanos / numPasses) + " ns/pass linear search; " + occupied + " occupied per pass");
+        System.out.println("Longest road, unchanged: " + (longestNanos / ((long) numPasses * bench.ga.maxPlayers))
+            + " ns/player calcLongestRoad2, "
+            + (longestFullNanos / ((long) numPasses * bench.ga.maxPlayers)) + " ns/player full search");
+        System.out.println("Longest road, temp road placed: "
+            + ((numTempRoads > 0) ? (tempRoadNanos / numTempRoads) : 0) + " ns calcLongestRoad2, "
+            + ((numTempRoads > 0) ? (tempRoadFullNanos / numTempRoads) : 0)
+            + " ns full search, per road incl. putTempPiece + undoPutTempPiece");
+        System.out.println("Player copy: " + (copyNanos / ((long) numPasses * bench.ga.maxPlayers))
+            + " ns/player");
+        System.out.println("Game copy: " + (gameCopyNanos / numPasses) + " ns, "
+            + ((gameCopyNanos > 0) ? (1000000000L * numPasses / gameCopyNanos) : 0) + " copies/second");
+        System.out.println("Adjacency lookups: " + (adjNanos / numPasses) + " ns/pass from tables, "
+            + (adjComputedNanos / numPasses) + " ns/pass computed and allocated");
+        System.out.println("Temp placement: " + ((numTemp > 0) ? (tempNanos / numTemp) : 0)
+            + " ns per putTempPiece + undoPutTempPiece, " + (numTemp / tempPasses) + " per pass");
+    }
+
+}
@@ -0,0 +1,145 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.game;
+
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCBoardAdjacency}'s precomputed tables: The board's non-allocating adjacency accessors,
+ * which read those tables, must agree with the methods which compute adjacencies on the fly,
+ * and boards with the same geometry must share one set of tables.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class TestBoardAdjacency
+{
+    /**
+     * Assert that the board's non-allocating adjacency accessors agree with the methods which
+     * compute adjacencies on the fly, at every coordinate in the board's range and a margin past it.
+     * @param desc  Description for assertion messages
+     * @param board  Board to check; any encoding format
+     */
+    private static void assertAdjacencyMatches(final String desc, final SOCBoard board)
+    {
+        final boolean isLarge = (board.getBoardEncodingFormat() == SOCBoard.BOARD_ENCODING_LARGE);
+        final int maxR, maxC;
+        if (isLarge)
+        {
+            maxR = board.getBoardHeight() + 2;
+            maxC = board.getBoardWidth() + 2;
+        } else {
+            maxR = 0x0F;
+            maxC = 0x0F;
+        }
+
+        final int[] a3 = new int[3], a4 = new int[4];
+        for (int r = 0; r <= maxR; ++r)
+        {
+            for (int c = 0; c <= maxC; ++c)
+            {
+                final int coord = (isLarge) ? ((r << 8) | c) : ((r << 4) | c);
+                final String cdesc = desc + ": 0x" + Integer.toHexString(coord);
+
+                board.getAdjacentNodesToNode_arr(coord, a3);
+                for (int dir = 0; dir < 3; ++dir)
+                    assertEquals(cdesc + " node to node " + dir, board.getAdjacentNodeToNode(coord, dir), a3[dir]);
+
+                board.getAdjacentEdgesToNode_arr(coord, a3);
+                for (int dir = 0; dir < 3; ++dir)
+                    assertEquals(cdesc + " edge to node " + dir, board.getAdjacentEdgeToNode(coord, dir), a3[dir]);
+
+                final int[] enodes = board.getAdjacentNodesToEdge_arr(coord);
+                board.getAdjacentNodesToEdge_arr(coord, a3);
+                assertEquals(cdesc + " nodes to edge", enodes[0], a3[0]);
+                assertEquals(cdesc + " nodes to edge", enodes[1], a3[1]);
+                assertEquals(cdesc + " far end", enodes[1], board.getAdjacentNodeFarEndOfEdge(coord, enodes[0]));
+                assertEquals(cdesc + " far end", enodes[0], board.getAdjacentNodeFarEndOfEdge(coord, enodes[1]));
+
+                assertSameCoords(cdesc + " hexes to node",
+                    board.getAdjacentHexesToNode(coord), board.getAdjacentHexesToNode_arr(coord, a3), 3);
+                assertSameCoords(cdesc + " edges to edge",
+                    board.getAdjacentEdgesToEdge(coord), board.getAdjacentEdgesToEdge_arr(coord, a4), 4);
+            }
+        }
+    }
+
+    /**
+     * Assert that this -9-padded array holds the same coordinates in the same order as this list.
+     * @param desc  Description for assertion messages
+     * @param expected  List from the method which computes on the fly, or null if none
+     * @param coords  Array of {@code len} coordinates, padded with -9
+     * @param len  Number of array elements to compare
+     */
+    private static void assertSameCoords
+        (final String desc, final List<Integer> expected, final int[] coords, final int len)
+    {
+        final int size = (expected != null) ? expected.size() : 0;
+        assertTrue(desc + ": too many", size <= len);
+        for (int i = 0; i < len; ++i)
+            assertEquals(desc + " " + i, (i < size) ? expected.get(i).intValue() : -9, coords[i]);
+    }
+
+    /** Check the classic 4-player (v1 encoding) and 6-player (v2) boards. */
+    @Test
+    public void testClassicBoards()
+    {
+        assertAdjacencyMatches("4 players", new FilledBoardGame(4, null).board);
+        assertAdjacencyMatches("6 players", new FilledBoardGame(6, null).board);
+    }
+
+    /** Check every scenario's sea board (v3 encoding), which have several sizes. */
+    @Test
+    public void testSeaBoards()
+    {
+        for (final int numPlayers : new int[]{ 4, 6 })
+        {
+            for (final String sc : new TreeSet<String>(SOCScenario.getAllKnownScenarios().keySet()))
+            {
+                final SOCBoard board = new FilledBoardGame(numPlayers, sc).board;
+                assertAdjacencyMatches(numPlayers + " players, scenario " + sc
+                    + ", size " + board.getBoardHeight() + "x" + board.getBoardWidth(), board);
+            }
+        }
+    }
+
+    /**
+     * Boards with the same geometry share one set of tables, and
+     * boards with different geometries don't.
+     */
+    @Test
+    public void testTablesShared()
+    {
+        final SOCBoard b4 = new FilledBoardGame(4, null).board, b4b = new FilledBoardGame(4, null).board,
+            b6 = new FilledBoardGame(6, null).board;
+        assertSame(SOCBoardAdjacency.forBoard(b4), SOCBoardAdjacency.forBoard(b4b));
+        assertNotSame(SOCBoardAdjacency.forBoard(b4), SOCBoardAdjacency.forBoard(b6));
+
+        final SOCBoard sea = new FilledBoardGame(4, SOCScenario.K_SC_4ISL).board,
+            seaB = new FilledBoardGame(4, SOCScenario.K_SC_4ISL).board;
+        assertSame(SOCBoardAdjacency.forBoard(sea), SOCBoardAdjacency.forBoard(seaB));
+        assertNotSame(SOCBoardAdjacency.forBoard(b4), SOCBoardAdjacency.forBoard(sea));
+    }
+
+}
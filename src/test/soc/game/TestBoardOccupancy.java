@@ -0,0 +1,167 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.game;
+
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCBoard}'s coordinate index of pieces on the board:
+ * {@link SOCBoard#settlementAtNode(int)} and {@link SOCBoard#roadAtEdge(int)} must return
+ * the same pieces as a linear search of the board's piece lists, which is how those methods
+ * worked before v2.0.00, as pieces are placed and as temporary pieces are placed and removed.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class TestBoardOccupancy
+{
+    /**
+     * Find the settlement or city at a node by searching the board's piece lists,
+     * like {@link SOCBoard#settlementAtNode(int)} did before v2.0.00.
+     * @param board  Board to search
+     * @param node  Node coordinate
+     * @return  The settlement or city at {@code node}, or null
+     */
+    static SOCPlayingPiece linearSettlementAtNode(final SOCBoard board, final int node)
+    {
+        for (SOCSettlement p : board.getSettlements())
+            if (node == p.getCoordinates())
+                return p;
+        for (SOCCity p : board.getCities())
+            if (node == p.getCoordinates())
+                return p;
+        return null;
+    }
+
+    /**
+     * Find the road or ship at an edge by searching the board's piece list,
+     * like {@link SOCBoard#roadAtEdge(int)} did before v2.0.00.
+     * @param board  Board to search
+     * @param edge  Edge coordinate
+     * @return  The road or ship at {@code edge}, or null
+     */
+    static SOCRoad linearRoadAtEdge(final SOCBoard board, final int edge)
+    {
+        for (SOCRoad p : board.getRoads())
+            if (edge == p.getCoordinates())
+                return p;
+        return null;
+    }
+
+    /**
+     * Assert that the board's index agrees with a linear search at every land node and edge.
+     * @param fg  Game to check
+     * @param desc  Description for assertion messages
+     */
+    private static void assertIndexMatches(final FilledBoardGame fg, final String desc)
+    {
+        for (final int node : fg.landNodes)
+            assertSame(desc + ": node 0x" + Integer.toHexString(node),
+                linearSettlementAtNode(fg.board, node), fg.board.settlementAtNode(node));
+        for (final int edge : fg.edges)
+            assertSame(desc + ": edge 0x" + Integer.toHexString(edge),
+                linearRoadAtEdge(fg.board, edge), fg.board.roadAtEdge(edge));
+    }
+
+    /**
+     * Fill a board, checking the index at the placed piece's location after each piece and
+     * at all locations once full, then place and remove a temporary road at each player's
+     * potential locations, and on the classic board a temporary settlement, and check again.
+     * @param numPlayers  Number of players
+     * @param scenario  Sea board scenario, or null for the classic board
+     * @param seed  Random seed for piece placement
+     */
+    private static void checkFilledBoard(final int numPlayers, final String scenario, final long seed)
+    {
+        final String desc = numPlayers + " players, scenario " + scenario + ", seed " + seed;
+        final FilledBoardGame fg = new FilledBoardGame(numPlayers, scenario)
+        {
+            protected void piecePlaced(final SOCPlayingPiece pp)
+            {
+                final int coord = pp.getCoordinates();
+                if (pp instanceof SOCRoad)
+                    assertSame(desc + ": placed " + pp, pp, board.roadAtEdge(coord));
+                else
+                    assertSame(desc + ": placed " + pp, pp, board.settlementAtNode(coord));
+                assertSame(desc + ": placed " + pp, linearSettlementAtNode(board, coord), board.settlementAtNode(coord));
+                assertSame(desc + ": placed " + pp, linearRoadAtEdge(board, coord), board.roadAtEdge(coord));
+            }
+        };
+        fg.fill(new Random(seed));
+        assertFalse(desc, fg.board.getRoads().isEmpty());
+        assertIndexMatches(fg, desc);
+
+        for (int pn = 0; pn < fg.ga.maxPlayers; ++pn)
+        {
+            final SOCPlayer pl = fg.ga.getPlayer(pn);
+            for (final int edge : fg.edges)
+            {
+                if (! pl.isPotentialRoad(edge))
+                    continue;
+
+                final SOCRoad rd = new SOCRoad(pl, edge, fg.board);
+                fg.ga.putTempPiece(rd);
+                assertSame(desc + ": temp " + rd, rd, fg.board.roadAtEdge(edge));
+                fg.ga.undoPutTempPiece(rd);
+                assertNull(desc + ": undo temp " + rd, fg.board.roadAtEdge(edge));
+            }
+
+            // undoPutTempPiece doesn't reopen ship trade routes closed by a temporary settlement,
+            // so place those only on the classic board
+            final int[] nodes = (fg.ga.hasSeaBoard) ? null : pl.getPotentialSettlements_arr();
+            if (nodes != null)
+                for (final int node : nodes)
+                {
+                    final SOCSettlement se = new SOCSettlement(pl, node, fg.board);
+                    fg.ga.putTempPiece(se);
+                    assertSame(desc + ": temp " + se, se, fg.board.settlementAtNode(node));
+                    fg.ga.undoPutTempPiece(se);
+                    assertNull(desc + ": undo temp " + se, fg.board.settlementAtNode(node));
+                }
+        }
+        assertIndexMatches(fg, desc + ", after temp pieces");
+    }
+
+    /** Check the index on classic 4- and 6-player boards with several random fills. */
+    @Test
+    public void testClassicBoards()
+    {
+        for (long seed = 1; seed <= 5; ++seed)
+        {
+            checkFilledBoard(4, null, seed);
+            checkFilledBoard(6, null, seed);
+        }
+    }
+
+    /** Check the index on sea boards, where {@link SOCBoard#roadAtEdge(int)} also finds ships. */
+    @Test
+    public void testSeaBoards()
+    {
+        for (final String sc : new String[]{ SOCScenario.K_SC_4ISL, SOCScenario.K_SC_FOG, SOCScenario.K_SC_NSHO })
+        {
+            checkFilledBoard(4, sc, 1);
+            checkFilledBoard(6, sc, 2);
+        }
+    }
+
+}
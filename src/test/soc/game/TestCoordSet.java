@@ -0,0 +1,271 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.game;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCCoordSet} and the {@link SOCPlayer} legal and potential location sets
+ * which use it: The set must behave like the {@code HashSet<Integer>} it replaced, and
+ * {@link SOCPlayer#SOCPlayer(SOCPlayer)} must copy a player's sets and keep them independent.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class TestCoordSet
+{
+    /**
+     * Boards of each geometry to test: Classic 4-player (v1 encoding), 6-player (v2),
+     * and a sea board (v3).
+     */
+    private static List<FilledBoardGame> makeGames()
+    {
+        final List<FilledBoardGame> games = new ArrayList<FilledBoardGame>();
+        games.add(new FilledBoardGame(4, null));
+        games.add(new FilledBoardGame(6, null));
+        games.add(new FilledBoardGame(6, SOCScenario.K_SC_4ISL));
+        return games;
+    }
+
+    /**
+     * Highest coordinate in a board's range: 0xFF for v1 and v2, {@code (height << 8) | width} for v3.
+     * @param board  Board to check
+     */
+    private static int maxCoord(final SOCBoard board)
+    {
+        return (board.getBoardEncodingFormat() == SOCBoard.BOARD_ENCODING_LARGE)
+            ? ((board.getBoardHeight() << 8) | board.getBoardWidth())
+            : 0xFF;
+    }
+
+    /**
+     * Is this coordinate within a board's range, so it can be added to a {@link SOCCoordSet}?
+     * @param board  Board to check
+     * @param coord  Coordinate
+     */
+    private static boolean inRange(final SOCBoard board, final int coord)
+    {
+        if (board.getBoardEncodingFormat() != SOCBoard.BOARD_ENCODING_LARGE)
+            return (coord >= 0) && (coord <= 0xFF);
+
+        return (coord >= 0) && ((coord >> 8) <= board.getBoardHeight()) && ((coord & 0xFF) <= board.getBoardWidth());
+    }
+
+    /**
+     * Assert that a set has the same contents and order as a reference set.
+     * @param desc  Description for assertion messages
+     * @param expected  Reference set
+     * @param actual  Set to check
+     * @param maxCoord  Highest coordinate to check with {@link SOCCoordSet#contains(int)}
+     */
+    private static void assertSameContents
+        (final String desc, final TreeSet<Integer> expected, final SOCCoordSet actual, final int maxCoord)
+    {
+        assertEquals(desc, expected.size(), actual.size());
+        assertEquals(desc, expected.isEmpty(), actual.isEmpty());
+        assertEquals(desc, expected, actual);
+        assertEquals(desc, new ArrayList<Integer>(expected), new ArrayList<Integer>(actual));
+        for (int coord = 0; coord <= maxCoord; ++coord)
+            assertEquals(desc + " 0x" + Integer.toHexString(coord),
+                expected.contains(Integer.valueOf(coord)), actual.contains(coord));
+
+        final int[] arr = actual.toIntArray();
+        if (expected.isEmpty())
+        {
+            assertNull(desc, arr);
+        } else {
+            int i = 0;
+            for (Integer c : expected)
+                assertEquals(desc, c.intValue(), arr[i++]);
+            assertEquals(desc, expected.size(), arr.length);
+        }
+    }
+
+    /**
+     * Random adds, removes, copies and unions must give the same results as a reference {@code TreeSet}.
+     */
+    @Test
+    public void testMatchesReferenceSet()
+    {
+        final Random rand = new Random(22);
+        for (final FilledBoardGame fg : makeGames())
+        {
+            final SOCBoard board = fg.board;
+            final int maxCoord = maxCoord(board);
+            final String desc = "encoding " + board.getBoardEncodingFormat();
+
+            final SOCCoordSet set = new SOCCoordSet(board), other = new SOCCoordSet(board);
+            final TreeSet<Integer> expected = new TreeSet<Integer>(), otherExpected = new TreeSet<Integer>();
+            for (int i = 0; i < 5000; ++i)
+            {
+                final int coord = rand.nextInt(maxCoord + 1);
+                final Integer c = Integer.valueOf(coord);
+                if (! inRange(board, coord))
+                {
+                    assertFalse(desc, set.contains(coord));
+                    assertFalse(desc, set.remove(coord));
+                    try
+                    {
+                        set.add(coord);
+                        fail(desc + ": add 0x" + Integer.toHexString(coord) + " should throw");
+                    } catch (IllegalArgumentException e) {}
+                    continue;
+                }
+
+                switch (rand.nextInt(4))
+                {
+                case 0:
+                case 1:
+                    assertEquals(desc, expected.add(c), set.add(coord));
+                    break;
+                case 2:
+                    assertEquals(desc, expected.remove(c), set.remove(coord));
+                    break;
+                default:
+                    assertEquals(desc, otherExpected.add(c), other.add(c));
+                }
+            }
+            assertSameContents(desc, expected, set, maxCoord);
+            assertSameContents(desc + " other", otherExpected, other, maxCoord);
+            assertFalse(desc, set.contains(-1));
+            assertFalse(desc, set.contains(Integer.valueOf(maxCoord + 1)));
+
+            // copy is equal and independent
+            final SOCCoordSet copy = new SOCCoordSet(set);
+            assertSameContents(desc + " copy", expected, copy, maxCoord);
+            final Integer first = expected.first();
+            assertTrue(desc, copy.remove(first.intValue()));
+            assertTrue(desc, set.contains(first.intValue()));
+
+            // union
+            final TreeSet<Integer> union = new TreeSet<Integer>(expected);
+            assertEquals(desc, union.addAll(otherExpected), set.addAll(other));
+            assertSameContents(desc + " addAll", union, set, maxCoord);
+            assertFalse(desc, set.addAll(other));
+
+            // iterator remove
+            for (Iterator<Integer> it = set.iterator(); it.hasNext(); )
+                if ((it.next().intValue() & 1) != 0)
+                    it.remove();
+            for (Iterator<Integer> it = union.iterator(); it.hasNext(); )
+                if ((it.next().intValue() & 1) != 0)
+                    it.remove();
+            assertSameContents(desc + " iterator remove", union, set, maxCoord);
+
+            set.clear();
+            assertSameContents(desc + " clear", new TreeSet<Integer>(), set, maxCoord);
+        }
+    }
+
+    /**
+     * A set must deserialize to an equal set, since {@link SOCPlayer} is serializable.
+     */
+    @Test
+    public void testSerialization()
+        throws Exception
+    {
+        final FilledBoardGame fg = new FilledBoardGame(4, SOCScenario.K_SC_4ISL);
+        final SOCCoordSet set = new SOCCoordSet(fg.board);
+        for (final int edge : fg.edges)
+            if ((edge & 3) == 0)
+                set.add(edge);
+
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bout);
+        out.writeObject(set);
+        out.close();
+        final SOCCoordSet copy = (SOCCoordSet) new ObjectInputStream
+            (new ByteArrayInputStream(bout.toByteArray())).readObject();
+
+        assertSameContents("deserialized", new TreeSet<Integer>(set), copy, maxCoord(fg.board));
+        assertTrue(copy.add(fg.edges[1]));  // still usable after deserializing
+    }
+
+    /**
+     * On filled boards, a player copy's legal and potential locations must equal the original's
+     * at every coordinate, and changing the copy's potentials must not change the original.
+     */
+    @Test
+    public void testPlayerCopy()
+    {
+        long seed = 1;
+        for (final FilledBoardGame fg : makeGames())
+        {
+            fg.fill(new Random(seed++));
+            final int maxCoord = maxCoord(fg.board);
+
+            for (int pn = 0; pn < fg.ga.maxPlayers; ++pn)
+            {
+                final SOCPlayer pl = fg.ga.getPlayer(pn);
+                final SOCPlayer copy = new SOCPlayer(pl);
+                final String desc = "encoding " + fg.board.getBoardEncodingFormat() + " player " + pn;
+
+                for (int coord = 0; coord <= maxCoord; ++coord)
+                {
+                    final String cdesc = desc + " 0x" + Integer.toHexString(coord);
+                    assertEquals(cdesc, pl.isPotentialSettlement(coord), copy.isPotentialSettlement(coord));
+                    assertEquals(cdesc, pl.isLegalSettlement(coord), copy.isLegalSettlement(coord));
+                    assertEquals(cdesc, pl.isPotentialCity(coord), copy.isPotentialCity(coord));
+                    assertEquals(cdesc, pl.isPotentialRoad(coord), copy.isPotentialRoad(coord));
+                    assertEquals(cdesc, pl.isLegalRoad(coord), copy.isLegalRoad(coord));
+                    assertEquals(cdesc, pl.isPotentialShip(coord), copy.isPotentialShip(coord));
+                    assertEquals(cdesc, pl.isLegalShip(coord), copy.isLegalShip(coord));
+                }
+                assertEquals(desc, pl.getPotentialSettlementsSet(), copy.getPotentialSettlementsSet());
+                assertEquals(desc, pl.getPotentialSettlementsSet(), copy.getPotentialSettlements());
+                assertEquals(desc, pl.hasPotentialSettlement(), copy.hasPotentialSettlement());
+                assertEquals(desc, pl.hasPotentialRoad(), copy.hasPotentialRoad());
+                assertEquals(desc, pl.hasPotentialCity(), copy.hasPotentialCity());
+
+                final int[] settles = copy.getPotentialSettlements_arr();
+                if (settles != null)
+                {
+                    // getPotentialSettlements returns a copy
+                    assertTrue(desc, copy.getPotentialSettlements().remove(Integer.valueOf(settles[0])));
+                    assertTrue(desc, copy.isPotentialSettlement(settles[0]));
+
+                    for (final int node : settles)
+                        copy.clearPotentialSettlement(node);
+                    assertFalse(desc, copy.hasPotentialSettlement());
+                    for (final int node : settles)
+                        assertTrue(desc, pl.isPotentialSettlement(node));
+                }
+                for (final int edge : fg.edges)
+                    if (copy.isPotentialRoad(edge))
+                    {
+                        copy.clearPotentialRoad(edge);
+                        assertTrue(desc, pl.isPotentialRoad(edge));
+                    }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,203 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link SOCGame#SOCGame(SOCGame)} deep copy: A copy must have the same state as the original,
+ * its pieces must belong to its own players and board, and changing the copy must not change the original.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class TestGameCopy
+{
+    /** Marker added by {@link #describePiece(SOCPlayingPiece, SOCGame, StringBuilder)} for another game's piece */
+    private static final String OTHER_GAME = "(OTHER GAME)";
+
+    /**
+     * Copy a game and check the copy: Compare the copy's state to the original's,
+     * then place a temporary settlement for each player (classic board only) and a new road in the copy
+     * and make sure the original doesn't change.
+     * @param desc  Description for assertion messages
+     * @param ga  Game to copy; won't be changed
+     */
+    private static void assertGameCopy(final String desc, final SOCGame ga)
+    {
+        final String before = describeGame(ga);
+        assertFalse(desc + ": original has pieces from another game", before.contains(OTHER_GAME));
+        final SOCGame copy = new SOCGame(ga);
+        final String copied = describeGame(copy);
+        assertFalse(desc + ": copy has pieces from original", copied.contains(OTHER_GAME));
+        assertEquals(desc + ": copy differs from original", before, copied);
+
+        final SOCBoard cboard = copy.getBoard();
+        SOCRoad lastRoad = null;
+        for (int pn = 0; pn < copy.maxPlayers; ++pn)
+        {
+            final SOCPlayer pl = copy.getPlayer(pn);
+
+            // undoPutTempPiece doesn't reopen ship trade routes closed by a temporary settlement,
+            // so place those only on the classic board
+            final int[] nodes = (copy.hasSeaBoard) ? null : pl.getPotentialSettlements_arr();
+            if (nodes != null)
+            {
+                final SOCSettlement se = new SOCSettlement(pl, nodes[0], cboard);
+                copy.putTempPiece(se);
+                copy.undoPutTempPiece(se);
+            }
+
+            if (lastRoad != null)
+                continue;
+            for (final SOCRoad rd : pl.getRoads())
+            {
+                for (final int edge : cboard.getAdjacentEdgesToEdge(rd.getCoordinates()))
+                {
+                    if (pl.isPotentialRoad(edge))
+                    {
+                        lastRoad = new SOCRoad(pl, edge, cboard);
+                        break;
+                    }
+                }
+                if (lastRoad != null)
+                    break;
+            }
+        }
+        if (lastRoad != null)
+        {
+            final int gstate = copy.getGameState();
+            copy.setGameState(SOCGame.PLAY1);
+            copy.putPiece(lastRoad);
+            copy.setGameState(gstate);
+            assertFalse(desc + ": new road not in copy", copied.equals(describeGame(copy)));
+        }
+
+        assertEquals(desc + ": original changed by changes to copy", before, describeGame(ga));
+    }
+
+    /** Copy newly started games on classic boards and on every scenario's sea board. */
+    @Test
+    public void testStartedGames()
+    {
+        for (final int numPlayers : new int[]{ 4, 6 })
+        {
+            assertGameCopy(numPlayers + " players", new FilledBoardGame(numPlayers, null).ga);
+            for (final String sc : new TreeSet<String>(SOCScenario.getAllKnownScenarios().keySet()))
+                assertGameCopy(numPlayers + " players, scenario " + sc, new FilledBoardGame(numPlayers, sc).ga);
+        }
+    }
+
+    /** Copy games with filled classic and sea boards. */
+    @Test
+    public void testFilledBoards()
+    {
+        for (long seed = 1; seed <= 3; ++seed)
+        {
+            assertGameCopy("4 players, seed " + seed, new FilledBoardGame(4, null).fill(new Random(seed)).ga);
+            assertGameCopy("6 players, seed " + seed, new FilledBoardGame(6, null).fill(new Random(seed)).ga);
+        }
+        for (final String sc : new String[]{ SOCScenario.K_SC_4ISL, SOCScenario.K_SC_FOG, SOCScenario.K_SC_NSHO })
+        {
+            assertGameCopy("4 players, scenario " + sc, new FilledBoardGame(4, sc).fill(new Random(1)).ga);
+            assertGameCopy("6 players, scenario " + sc, new FilledBoardGame(6, sc).fill(new Random(2)).ga);
+        }
+    }
+
+    /**
+     * Describe a game's state for {@link #assertGameCopy(String, SOCGame)}: The board's hexes, robber, pirate,
+     * villages and pieces, and each player's resources, inventory, pieces, potential and legal locations,
+     * longest road and VP. Also checks that each piece belongs to the game's own player and board.
+     * @param ga  Game to describe
+     * @return  Description of the game's state; equal for two games with equal state
+     */
+    static String describeGame(final SOCGame ga)
+    {
+        final SOCBoard board = ga.getBoard();
+        final StringBuilder sb = new StringBuilder();
+        sb.append("state=").append(ga.getGameState()).append(" cpn=").append(ga.getCurrentPlayerNumber())
+          .append(" dice=").append(ga.getCurrentDice()).append(" devcards=").append(ga.getNumDevCards())
+          .append(" robber=").append(board.getRobberHex());
+        if (board instanceof SOCBoardLarge)
+        {
+            final SOCBoardLarge bl = (SOCBoardLarge) board;
+            sb.append(" pirate=").append(bl.getPirateHex());
+            if (bl.getVillages() != null)
+                for (SOCVillage v : bl.getVillages().values())
+                    sb.append(" village@").append(v.getCoordinates()).append('=').append(v.getCloth());
+        }
+
+        final int maxCoord = (board.getBoardHeight() << 8) | board.getBoardWidth();
+        sb.append("\nhexes:");
+        for (final int coord : board.getLandHexCoords())
+            sb.append(' ').append(coord).append(':').append(board.getHexTypeFromCoord(coord)).append('/')
+              .append(board.getNumberOnHexFromCoord(coord));
+
+        sb.append("\npieces:");
+        final List<SOCPlayingPiece> onBoard = new ArrayList<SOCPlayingPiece>(board.getRoads());
+        onBoard.addAll(board.getSettlements());
+        onBoard.addAll(board.getCities());
+        for (SOCPlayingPiece pp : onBoard)
+            describePiece(pp, ga, sb);
+
+        for (int pn = 0; pn < ga.maxPlayers; ++pn)
+        {
+            final SOCPlayer pl = ga.getPlayer(pn);
+            sb.append("\nplayer ").append(pn).append(": ").append(pl.getResources())
+              .append(" cards=").append(pl.getInventory().getTotal())
+              .append(" knights=").append(pl.getNumKnights()).append(" cloth=").append(pl.getCloth())
+              .append(" lr=").append(pl.getLongestRoadLength()).append('/').append(pl.getLRPaths().size())
+              .append(" vp=").append(pl.getTotalVP()).append(" left=");
+            for (int ptype = SOCPlayingPiece.ROAD; ptype <= SOCPlayingPiece.SHIP; ++ptype)
+                sb.append(pl.getNumPieces(ptype)).append(',');
+            for (SOCPlayingPiece pp : pl.getPieces())
+                describePiece(pp, ga, sb);
+
+            sb.append("\n  potential/legal:");
+            for (int coord = 0; coord <= maxCoord; ++coord)
+            {
+                final int bits = (pl.isPotentialSettlement(coord) ? 1 : 0) | (pl.isLegalSettlement(coord) ? 2 : 0)
+                    | (pl.isPotentialCity(coord) ? 4 : 0) | (pl.isPotentialRoad(coord) ? 8 : 0)
+                    | (pl.isLegalRoad(coord) ? 0x10 : 0) | (pl.isPotentialShip(coord) ? 0x20 : 0)
+                    | (pl.isLegalShip(coord) ? 0x40 : 0);
+                if (bits != 0)
+                    sb.append(' ').append(coord).append(':').append(bits);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /** Append a piece to {@link #describeGame(SOCGame)}'s description, noting if it belongs to another game. */
+    private static void describePiece(final SOCPlayingPiece pp, final SOCGame ga, final StringBuilder sb)
+    {
+        sb.append(' ').append(pp.getType()).append('@').append(pp.getCoordinates())
+          .append('p').append(pp.getPlayerNumber());
+        if ((pp.getPlayer() != ga.getPlayer(pp.getPlayerNumber())) || (pp.board != ga.getBoard()))
+            sb.append(OTHER_GAME);
+    }
+
+}
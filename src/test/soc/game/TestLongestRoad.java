@@ -0,0 +1,280 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.game;
+
+import java.util.Random;
+import java.util.Stack;
+import java.util.Vector;
+
+import soc.util.IntPair;
+import soc.util.NodeLenVis;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCPlayer#calcLongestRoad2()}, which recalculates only the groups of roads and ships
+ * changed since its previous result: Its length and paths must equal those from a full search of all
+ * the player's roads and ships, which is how it worked before v2.0.00;
+ * see {@link #calcLongestRoadFull(SOCPlayer, Vector)}.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class TestLongestRoad
+{
+    /**
+     * Calculate a player's longest road with a full depth-first search of all their roads and ships,
+     * the way {@link SOCPlayer#calcLongestRoad2()} did before v2.0.00.
+     * Doesn't change the player's longest road fields.
+     * @param pl  Player to calculate
+     * @param lrPaths  Vector to clear and fill with the player's longest paths
+     * @return  Length of the player's longest road
+     */
+    static int calcLongestRoadFull(final SOCPlayer pl, final Vector<SOCLRPathData> lrPaths)
+    {
+        lrPaths.removeAllElements();
+
+        final SOCGame game = pl.getGame();
+        final SOCBoard board = game.getBoard();
+        final int playerNumber = pl.getPlayerNumber();
+        final Stack<NodeLenVis<IntPair>> pending = new Stack<NodeLenVis<IntPair>>();
+        int longest = 0;
+
+        for (Integer rn : pl.getRoadNodes())
+        {
+            final int pathStartNodeCoord = rn.intValue();
+            pending.push(new NodeLenVis<IntPair>(pathStartNodeCoord, 0, new Vector<IntPair>()));
+
+            while (! pending.isEmpty())
+            {
+                NodeLenVis<IntPair> curNode = pending.pop();
+                final int coord = curNode.node;
+                final int len = curNode.len;
+                Vector<IntPair> visited = curNode.vis;
+                boolean pathEnd = false;
+                final SOCPlayingPiece settlementAtNodeCoord;
+
+                if (len > 0)
+                {
+                    settlementAtNodeCoord = board.settlementAtNode(coord);
+                    if ((settlementAtNodeCoord != null)
+                        && (settlementAtNodeCoord.getPlayerNumber() != playerNumber))
+                        pathEnd = true;
+                } else {
+                    settlementAtNodeCoord = null;
+                }
+
+                if (! pathEnd)
+                {
+                    pathEnd = true;  // may be set false in loop
+
+                    final int[] adjacNodes = board.getAdjacentNodesToNode_arr(coord);
+                    for (int ni = adjacNodes.length - 1; ni>=0; --ni)
+                    {
+                        final int j = adjacNodes[ni];
+                        if ((j == -9) || ! pl.isConnectedByRoad(coord, j))
+                            continue;
+
+                        final SOCRoad roadFromNode;
+                        if (game.hasSeaBoard)
+                        {
+                            roadFromNode = pl.getRoadOrShip(board.getEdgeBetweenAdjacentNodes(coord, j));
+                            if (len > 0)
+                            {
+                                if (roadFromNode == null)
+                                    continue;
+
+                                if ((roadFromNode.isRoadNotShip() != curNode.inboundRoad.isRoadNotShip())
+                                    && (settlementAtNodeCoord == null))
+                                    continue;
+                            }
+                        } else {
+                            roadFromNode = null;
+                        }
+
+                        IntPair pair = new IntPair(coord, j);
+                        boolean match = false;
+                        for (IntPair vis : visited)
+                        {
+                            if (vis.equals(pair))
+                            {
+                                match = true;
+                                break;
+                            }
+                        }
+
+                        if (! match)
+                        {
+                            Vector<IntPair> newVis = new Vector<IntPair>(visited);
+                            newVis.addElement(pair);
+                            pending.push(new NodeLenVis<IntPair>(j, len + 1, newVis, roadFromNode));
+                            pathEnd = false;
+                        }
+                    }
+                }
+
+                if (pathEnd)
+                {
+                    if (len > longest)
+                        longest = len;
+
+                    // keep only the longest of any paths which share an edge
+                    boolean addNewPath = true;
+                    Vector<SOCLRPathData> trash = new Vector<SOCLRPathData>();
+                    for (SOCLRPathData oldPathData : lrPaths)
+                    {
+                        boolean intersection = false;
+                        for (IntPair vis : visited)
+                        {
+                            for (IntPair np : oldPathData.getNodePairs())
+                            {
+                                if (np.equals(vis))
+                                {
+                                    intersection = true;
+                                    break;
+                                }
+                            }
+                            if (intersection)
+                                break;
+                        }
+
+                        if (intersection)
+                        {
+                            if (oldPathData.getLength() < len)
+                                trash.addElement(oldPathData);
+                            else
+                                addNewPath = false;
+                        }
+                    }
+
+                    for (SOCLRPathData oldPathData : trash)
+                        lrPaths.removeElement(oldPathData);
+
+                    if (addNewPath)
+                        lrPaths.addElement(new SOCLRPathData(pathStartNodeCoord, coord, len, visited));
+                }
+            }
+        }
+
+        return longest;
+    }
+
+    /**
+     * Assert that {@link SOCPlayer#calcLongestRoad2()} gives the same length and paths
+     * as {@link #calcLongestRoadFull(SOCPlayer, Vector)}.
+     * @param desc  Description for assertion messages
+     * @param pl  Player to check
+     */
+    static void assertLongestRoadMatches(final String desc, final SOCPlayer pl)
+    {
+        final Vector<SOCLRPathData> expected = new Vector<SOCLRPathData>();
+        final int len = calcLongestRoadFull(pl, expected);
+        assertEquals(desc + ": length", len, pl.calcLongestRoad2());
+
+        final Vector<SOCLRPathData> actual = pl.getLRPaths();
+        assertEquals(desc + ": number of paths", expected.size(), actual.size());
+        for (int i = 0; i < actual.size(); ++i)
+        {
+            final SOCLRPathData a = actual.get(i), e = expected.get(i);
+            final String pdesc = desc + ": path " + i;
+            assertEquals(pdesc + " beginning", e.getBeginning(), a.getBeginning());
+            assertEquals(pdesc + " end", e.getEnd(), a.getEnd());
+            assertEquals(pdesc + " length", e.getLength(), a.getLength());
+
+            final Vector<IntPair> ap = a.getNodePairs(), ep = e.getNodePairs();
+            assertEquals(pdesc + " node pairs", ep.size(), ap.size());
+            for (int k = 0; k < ap.size(); ++k)
+            {
+                assertEquals(pdesc + " node pair " + k, ep.get(k).getA(), ap.get(k).getA());
+                assertEquals(pdesc + " node pair " + k, ep.get(k).getB(), ap.get(k).getB());
+            }
+        }
+    }
+
+    /**
+     * Fill a board, checking every player and a copy of each player after each piece is placed,
+     * since an opponent's settlement can break a road. Then for each player, place and remove
+     * a temporary road at each potential road location, checking before and after removal.
+     * @param numPlayers  Number of players
+     * @param scenario  Sea board scenario, or null for the classic board
+     * @param seed  Random seed for piece placement
+     */
+    private static void checkFilledBoard(final int numPlayers, final String scenario, final long seed)
+    {
+        final String desc = numPlayers + " players, scenario " + scenario + ", seed " + seed;
+        final FilledBoardGame fg = new FilledBoardGame(numPlayers, scenario)
+        {
+            protected void piecePlaced(final SOCPlayingPiece pp)
+            {
+                for (int pn = 0; pn < ga.maxPlayers; ++pn)
+                {
+                    final SOCPlayer pl = ga.getPlayer(pn);
+                    final String pdesc = desc + ", placed " + pp + ", player " + pn;
+                    assertLongestRoadMatches(pdesc, pl);
+                    assertLongestRoadMatches(pdesc + " copy", new SOCPlayer(pl));
+                }
+            }
+        };
+        fg.fill(new Random(seed));
+
+        for (int pn = 0; pn < fg.ga.maxPlayers; ++pn)
+        {
+            final SOCPlayer pl = fg.ga.getPlayer(pn);
+            for (final int edge : fg.edges)
+            {
+                if (! pl.isPotentialRoad(edge))
+                    continue;
+
+                final SOCRoad rd = new SOCRoad(pl, edge, fg.board);
+                fg.ga.putTempPiece(rd);
+                assertLongestRoadMatches(desc + ", temp " + rd, pl);
+                fg.ga.undoPutTempPiece(rd);
+                assertLongestRoadMatches(desc + ", undo temp " + rd, pl);
+            }
+        }
+    }
+
+    /** Check longest roads on classic 4- and 6-player boards with several random fills. */
+    @Test
+    public void testClassicBoards()
+    {
+        for (long seed = 1; seed <= 5; ++seed)
+        {
+            checkFilledBoard(4, null, seed);
+            checkFilledBoard(6, null, seed);
+        }
+    }
+
+    /**
+     * Check longest roads on sea boards, where a route can mix roads and ships
+     * only at the player's own settlement or city.
+     */
+    @Test
+    public void testSeaBoards()
+    {
+        for (final String sc : new String[]{ SOCScenario.K_SC_4ISL, SOCScenario.K_SC_FOG, SOCScenario.K_SC_NSHO })
+        {
+            checkFilledBoard(4, sc, 1);
+            checkFilledBoard(6, sc, 2);
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCResourceConstants;
+
+/**
+ * Benchmark for {@link SOCBankTradePlanner}: Records each player's resources, trade ratios and
+ * scoring flags at every turn of some {@link SOCRobotSimulator} games, then times planning
+ * trades for all of those recorded states.
+ *<P>
+ * Also plans each state again with a search large enough to never be cut off,
+ * and reports any states where the default {@link SOCBankTradePlanner#getMaxNodes()}
+ * found a lower score than that exhaustive search. {@link TestBankTradePlanner} checks
+ * the planner's results against a brute-force search.
+ *<P>
+ * This is a timing harness, not a unit test, so it's kept in the test source tree
+ * but not named {@code Test*}. To run after {@code ant compile-tests}:
+ * {@code java -cp target/classes:target/test-classes soc.robot.SOCBankTradePlannerBenchmark [games [passes]]}
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCBankTradePlannerBenchmark
+{
+    /** Max nodes for the exhaustive comparison search; more than any recorded hand needs */
+    private static final int EXHAUSTIVE_MAX_NODES = 1 << 20;
+
+    /**
+     * Recorded game states, from {@link #recordStates(int)}. Each is {@code {key, flags, ratio[CLAY] .. ratio[WOOD]}}
+     * in {@link SOCBankTradePlanner#plan(int, int[], int)} format, with the ratios starting at index 2.
+     */
+    final List<int[]> states = new ArrayList<int[]>();
+
+    /**
+     * Play some simulated games, recording each player's state in each turn.
+     * States with no resources or nothing to build are skipped, since planning returns at once.
+     * @param numGames  Number of 4-player games to play
+     */
+    public void recordStates(final int numGames)
+    {
+        final SOCRobotSimulator sim = new SOCRobotSimulator
+            (SOCRobotSimulator.makeDefaultParameters(SOCRobotDM.FAST_STRATEGY), 4);
+        final int[] ratios = new int[SOCResourceConstants.WOOD + 1];
+        sim.setTurnListener(new SOCRobotSimulator.TurnListener()
+        {
+            public void play1(final SOCGame ga, final SOCPlayer pl)
+            {
+                final int key = SOCBankTradePlanner.packResources(pl.getResources());
+                final int flags = SOCBankTradePlanner.getScoringFlags(pl);
+                if ((key <= 0) || (flags == 0))
+                    return;
+
+                SOCBankTradePlanner.getTradeRatios(pl, ratios);
+                final int[] st = new int[2 + SOCResourceConstants.WOOD];
+                st[0] = key;
+                st[1] = flags;
+                System.arraycopy(ratios, SOCResourceConstants.CLAY, st, 2, SOCResourceConstants.WOOD);
+                states.add(st);
+            }
+        });
+
+        for (int i = 0; i < numGames; ++i)
+            sim.playGame();
+    }
+
+    /**
+     * Plan trades for every recorded state.
+     * @param planner  Planner to use
+     * @param results  If not null, each state's best score is stored here
+     * @param stats  If not null, totals are stored here: {@code {nodes expanded, trades, states improved, cut off}}
+     */
+    public void planAll(final SOCBankTradePlanner planner, final int[] results, final long[] stats)
+    {
+        final int[] ratios = new int[SOCResourceConstants.WOOD + 1];
+        for (int i = 0; i < states.size(); ++i)
+        {
+            final int[] st = states.get(i);
+            System.arraycopy(st, 2, ratios, SOCResourceConstants.CLAY, SOCResourceConstants.WOOD);
+            final boolean improved = planner.plan(st[0], ratios, st[1]);
+
+            if (results != null)
+                results[i] = planner.getBestScore();
+            if (stats != null)
+            {
+                stats[0] += planner.getNodesExpanded();
+                stats[1] += planner.getTradeCount();
+                if (improved)
+                    ++stats[2];
+                if (planner.wasCutOff())
+                    ++stats[3];
+            }
+        }
+    }
+
+    /**
+     * Run the benchmark from the command line and print results.
+     * @param args  Optional: Number of games to record (default 50), number of timed passes over all states (default 20)
+     */
+    public static void main(final String[] args)
+    {
+        int numGames = 50, numPasses = 20;
+        try
+        {
+            if (args.length > 0)
+                numGames = Integer.parseInt(args[0]);
+            if (args.length > 1)
+                numPasses = Integer.parseInt(args[1]);
+            if ((numGames < 1) || (numPasses < 1))
+                throw new IllegalArgumentException();
+        } catch (IllegalArgumentException e) {
+            System.err.println("usage: java soc.robot.SOCBankTradePlannerBenchmark [games [passes]]");
+            System.exit(1);
+        }
+
+        final SOCBankTradePlannerBenchmark bench = new SOCBankTradePlannerBenchmark();
+        bench.recordStates(numGames);
+        final int numStates = bench.states.size();
+        if (numStates == 0)
+        {
+            System.out.println("No states recorded");
+            return;
+        }
+
+        final SOCBankTradePlanner planner = new SOCBankTradePlanner();
+        final int[] scores = new int[numStates];
+        final long[] stats = new long[4];
+        bench.planAll(planner, scores, stats);  // also warms up
+
+        final long startTime = System.nanoTime();
+        for (int p = 0; p < numPasses; ++p)
+            bench.planAll(planner, null, null);
+        final long elapsed = Math.max(1, System.nanoTime() - startTime);
+
+        final SOCBankTradePlanner exhaustive = new SOCBankTradePlanner();
+        exhaustive.setMaxNodes(EXHAUSTIVE_MAX_NODES);
+        final int[] bestScores = new int[numStates];
+        bench.planAll(exhaustive, bestScores, null);
+        int numWorse = 0;
+        for (int i = 0; i < numStates; ++i)
+            if (scores[i] < bestScores[i])
+                ++numWorse;
+
+        System.out.println("Recorded " + numStates + " states from " + numGames + " games");
+        System.out.println("Planned " + numPasses + " passes in " + (elapsed / 1000000L) + " ms: "
+            + (elapsed / ((long) numPasses * numStates)) + " ns/plan, "
+            + ((numPasses * (long) numStates * 1000000000L) / elapsed) + " plans/second");
+        System.out.println("  average " + (stats[0] / (float) numStates) + " states expanded, "
+            + (stats[1] / (float) numStates) + " trades per plan");
+        System.out.println("  " + stats[2] + " states improved by trading, " + stats[3] + " cut off at "
+            + planner.getMaxNodes() + " nodes, " + numWorse + " scored lower than an exhaustive search");
+    }
+
+}
@@ -0,0 +1,288 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import soc.game.SOCGame;
+import soc.game.SOCResourceConstants;
+import soc.game.SOCResourceSet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCBankTradePlanner}: Its scoring must match the scoring done by
+ * {@link SOCRobotBrain#scoreTradeOutcome(SOCResourceSet)} before v2.0.00, and its
+ * planned trades must reach the best score found by searching every sequence of trades.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class TestBankTradePlanner
+{
+    /** All combinations of {@link SOCBankTradePlanner#SCORE_SETTLEMENT}, {@code SCORE_ROAD}, {@code SCORE_CITY} */
+    private static final int ALL_FLAGS = 0x07;
+
+    /**
+     * Seed for random hands and trade ratios, so any failure can be repeated.
+     */
+    private static final long SEED = 20160417L;
+
+    /**
+     * Largest total resources in a random hand: Small enough that the planner's default
+     * {@link SOCBankTradePlanner#getMaxNodes()} always covers every reachable state,
+     * since trading never increases the total.
+     */
+    private static final int MAX_HAND_TOTAL = 10;
+
+    /**
+     * Score a trade outcome the way {@link SOCRobotBrain#scoreTradeOutcome(SOCResourceSet)} did
+     * before v2.0.00: Copy the set, then subtract each piece's cost while it can be afforded.
+     * @param tradeOutcome  Resources to score; not changed
+     * @param flags  {@link SOCBankTradePlanner#getScoringFlags(soc.game.SOCPlayer)} flags
+     * @return  the score
+     */
+    private static int oldScoreTradeOutcome(final SOCResourceSet tradeOutcome, final int flags)
+    {
+        int score = 0;
+        SOCResourceSet tempTO = tradeOutcome.copy();
+
+        if ((flags & SOCBankTradePlanner.SCORE_SETTLEMENT) != 0)
+        {
+            while (tempTO.contains(SOCGame.SETTLEMENT_SET))
+            {
+                score += 2;
+                tempTO.subtract(SOCGame.SETTLEMENT_SET);
+            }
+        }
+
+        if ((flags & SOCBankTradePlanner.SCORE_ROAD) != 0)
+        {
+            while (tempTO.contains(SOCGame.ROAD_SET))
+            {
+                score += 1;
+                tempTO.subtract(SOCGame.ROAD_SET);
+            }
+        }
+
+        if ((flags & SOCBankTradePlanner.SCORE_CITY) != 0)
+        {
+            while (tempTO.contains(SOCGame.CITY_SET))
+            {
+                score += 2;
+                tempTO.subtract(SOCGame.CITY_SET);
+            }
+        }
+
+        return score;
+    }
+
+    /**
+     * Find the best old-style score reachable from a hand by any sequence of bank or port trades,
+     * by searching every reachable hand.
+     * @param rs  Starting hand; not changed
+     * @param ratios  Trade ratio per resource type, indexed {@code [1..5]}
+     * @param flags  Scoring flags
+     * @param seen  Best score already found from each hand, keyed by {@link SOCBankTradePlanner#packResources(SOCResourceSet)}
+     * @return  the best score
+     */
+    private static int bestReachableScore
+        (final SOCResourceSet rs, final int[] ratios, final int flags, final HashMap<Integer, Integer> seen)
+    {
+        final Integer key = Integer.valueOf(SOCBankTradePlanner.packResources(rs));
+        final Integer already = seen.get(key);
+        if (already != null)
+            return already.intValue();
+
+        int best = oldScoreTradeOutcome(rs, flags);
+        for (int give = SOCResourceConstants.CLAY; give <= SOCResourceConstants.WOOD; ++give)
+        {
+            if (rs.getAmount(give) < ratios[give])
+                continue;
+
+            for (int get = SOCResourceConstants.CLAY; get <= SOCResourceConstants.WOOD; ++get)
+            {
+                if (get == give)
+                    continue;
+
+                final SOCResourceSet traded = rs.copy();
+                traded.subtract(ratios[give], give);
+                traded.add(1, get);
+                best = Math.max(best, bestReachableScore(traded, ratios, flags, seen));
+            }
+        }
+
+        seen.put(key, Integer.valueOf(best));
+        return best;
+    }
+
+    /**
+     * Make a random hand with at most {@link #MAX_HAND_TOTAL} resources.
+     * @param rand  Random generator
+     * @return  the hand
+     */
+    private static SOCResourceSet randomHand(final Random rand)
+    {
+        final SOCResourceSet rs = new SOCResourceSet();
+        final int total = rand.nextInt(MAX_HAND_TOTAL + 1);
+        for (int i = 0; i < total; ++i)
+            rs.add(1, SOCResourceConstants.CLAY + rand.nextInt(5));
+
+        return rs;
+    }
+
+    /**
+     * Make random trade ratios: Each type 2, 3 or 4, as if from ports.
+     * @param rand  Random generator
+     * @return  Ratios indexed {@code [1..5]}
+     */
+    private static int[] randomRatios(final Random rand)
+    {
+        final int[] ratios = new int[SOCResourceConstants.WOOD + 1];
+        final int misc = (rand.nextBoolean()) ? 3 : 4;
+        for (int rtype = SOCResourceConstants.CLAY; rtype <= SOCResourceConstants.WOOD; ++rtype)
+            ratios[rtype] = (rand.nextInt(5) == 0) ? 2 : misc;
+
+        return ratios;
+    }
+
+    /**
+     * {@link SOCBankTradePlanner#score(int, int)} and {@code score(int, int, int, int, int, int)}
+     * must equal the old scoring for every hand of up to 7 of each resource, with every combination of flags.
+     */
+    @Test
+    public void testScoreMatchesOldScoring()
+    {
+        final int[] amt = new int[SOCResourceConstants.WOOD + 1];
+        for (int n = 0; n < 8 * 8 * 8 * 8 * 8; ++n)
+        {
+            for (int rtype = SOCResourceConstants.CLAY, rest = n; rtype <= SOCResourceConstants.WOOD; ++rtype, rest >>= 3)
+                amt[rtype] = rest & 0x07;
+
+            final SOCResourceSet rs = new SOCResourceSet
+                (amt[SOCResourceConstants.CLAY], amt[SOCResourceConstants.ORE], amt[SOCResourceConstants.SHEEP],
+                 amt[SOCResourceConstants.WHEAT], amt[SOCResourceConstants.WOOD], 0);
+            final int key = SOCBankTradePlanner.packResources(rs);
+
+            for (int flags = 0; flags <= ALL_FLAGS; ++flags)
+            {
+                final int expected = oldScoreTradeOutcome(rs, flags);
+                assertEquals("score(key) for " + rs + " flags " + flags,
+                    expected, SOCBankTradePlanner.score(key, flags));
+                assertEquals("score(amounts) for " + rs + " flags " + flags,
+                    expected, SOCBankTradePlanner.score
+                        (amt[SOCResourceConstants.CLAY], amt[SOCResourceConstants.ORE], amt[SOCResourceConstants.SHEEP],
+                         amt[SOCResourceConstants.WHEAT], amt[SOCResourceConstants.WOOD], flags));
+            }
+        }
+    }
+
+    /**
+     * For random hands and trade ratios, the planner's best score must equal the best old-style score
+     * reachable by any sequence of trades, and making its planned trades in order must
+     * be affordable at each step and reach that score.
+     */
+    @Test
+    public void testPlanReachesBestScore()
+    {
+        final Random rand = new Random(SEED);
+        final SOCBankTradePlanner planner = new SOCBankTradePlanner();
+        final SOCResourceSet give = new SOCResourceSet(), get = new SOCResourceSet();
+
+        for (int i = 0; i < 2000; ++i)
+        {
+            final SOCResourceSet rs = randomHand(rand);
+            final int[] ratios = randomRatios(rand);
+            final int flags = 1 + rand.nextInt(ALL_FLAGS);
+            final String desc = "hand " + rs + " flags " + flags;
+
+            final int startScore = oldScoreTradeOutcome(rs, flags);
+            final int bestScore = bestReachableScore(rs, ratios, flags, new HashMap<Integer, Integer>());
+
+            final boolean improved = planner.plan(SOCBankTradePlanner.packResources(rs), ratios, flags);
+            assertFalse(desc, planner.wasCutOff());
+            assertEquals(desc, bestScore, planner.getBestScore());
+            assertEquals(desc, bestScore > startScore, improved);
+            if (! improved)
+            {
+                assertEquals(desc, 0, planner.getTradeCount());
+                continue;
+            }
+
+            final SOCResourceSet traded = rs.copy();
+            for (int t = 0; t < planner.getTradeCount(); ++t)
+            {
+                planner.getTrade(t, give, get);
+                assertTrue(desc + " trade " + t, traded.contains(give));
+                traded.subtract(give);
+                traded.add(get);
+            }
+            assertEquals(desc, bestScore, oldScoreTradeOutcome(traded, flags));
+        }
+    }
+
+    /**
+     * For hands, trade ratios and scoring flags recorded during {@link SOCRobotSimulator} games
+     * by {@link SOCBankTradePlannerBenchmark#recordStates(int)} with a {@link SOCRobotSimulator.TurnListener},
+     * the planner's trades must be affordable at each step and reach its best score, and that score
+     * must equal the score found by a search which is never cut off.
+     */
+    @Test
+    public void testSimulatedGameStates()
+    {
+        final SOCBankTradePlannerBenchmark bench = new SOCBankTradePlannerBenchmark();
+        bench.recordStates(2);
+        assertFalse(bench.states.isEmpty());
+
+        final SOCBankTradePlanner planner = new SOCBankTradePlanner(), exhaustive = new SOCBankTradePlanner();
+        exhaustive.setMaxNodes(1 << 20);
+        final SOCResourceSet give = new SOCResourceSet(), get = new SOCResourceSet();
+        final int[] ratios = new int[SOCResourceConstants.WOOD + 1];
+
+        for (final int[] st : bench.states)
+        {
+            final int key = st[0], flags = st[1];
+            System.arraycopy(st, 2, ratios, SOCResourceConstants.CLAY, SOCResourceConstants.WOOD);
+            final SOCResourceSet rs = new SOCResourceSet();
+            for (int rtype = SOCResourceConstants.CLAY; rtype <= SOCResourceConstants.WOOD; ++rtype)
+                rs.add(SOCBankTradePlanner.getAmount(key, rtype), rtype);
+            final String desc = "hand " + rs + " flags " + flags;
+
+            planner.plan(key, ratios, flags);
+            exhaustive.plan(key, ratios, flags);
+            assertFalse(desc, exhaustive.wasCutOff());
+            if (! planner.wasCutOff())
+                assertEquals(desc, exhaustive.getBestScore(), planner.getBestScore());
+
+            final SOCResourceSet traded = rs.copy();
+            for (int t = 0; t < planner.getTradeCount(); ++t)
+            {
+                planner.getTrade(t, give, get);
+                assertTrue(desc + " trade " + t, traded.contains(give));
+                traded.subtract(give);
+                traded.add(get);
+            }
+            assertEquals(desc, planner.getBestScore(), oldScoreTradeOutcome(traded, flags));
+        }
+    }
+
+}
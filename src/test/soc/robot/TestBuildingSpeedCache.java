@@ -0,0 +1,202 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import soc.game.SOCBoard;
+import soc.game.SOCGame;
+import soc.game.SOCPlayerNumbers;
+import soc.game.SOCResourceConstants;
+import soc.game.SOCResourceSet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCBuildingSpeedCache}: Estimates whose inputs differ (dice numbers from the player's pieces,
+ * ports, resources, target, kind of estimate) must get separate cache entries, and cached results
+ * must equal the results of a {@link SOCBuildingSpeedEstimate} which has no cache.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class TestBuildingSpeedCache
+{
+    /** Seed for random dice numbers, resources and ports, so any failure can be repeated. */
+    private static final long SEED = 20160519L;
+
+    /**
+     * Check the cache's size and hit count after a lookup.
+     * @param desc  Description for assertion messages
+     * @param cache  Cache to check
+     * @param size  Expected {@link SOCBuildingSpeedCache#size()}
+     * @param hits  Expected {@link SOCBuildingSpeedCache#getHits()}
+     */
+    private static void assertCache(final String desc, final SOCBuildingSpeedCache cache, final int size, final long hits)
+    {
+        assertEquals(desc + ": size", size, cache.size());
+        assertEquals(desc + ": hits", hits, cache.getHits());
+    }
+
+    /**
+     * Each input an estimate depends on must make a new entry when changed,
+     * and the same inputs again must be a hit.
+     */
+    @Test
+    public void testSeparateEntries()
+    {
+        final SOCBoard board = new SOCGame("test").getBoard();
+        final SOCBuildingSpeedCache cache = new SOCBuildingSpeedCache();
+        final SOCPlayerNumbers numbers = new SOCPlayerNumbers(board);
+        numbers.addNumberForResource(6, SOCResourceConstants.WHEAT, 0x33);
+        numbers.addNumberForResource(8, SOCResourceConstants.WOOD, 0x35);
+        numbers.addNumberForResource(5, SOCResourceConstants.CLAY, 0x53);
+        final SOCBuildingSpeedEstimate estimate = new SOCBuildingSpeedEstimate(numbers, cache);
+
+        final boolean[] ports = new boolean[SOCResourceConstants.WOOD + 1];
+        final SOCResourceSet resources = new SOCResourceSet(1, 0, 1, 0, 1, 0);
+
+        estimate.getEstimatesFromNowFast(resources, ports);
+        assertCache("first lookup", cache, 1, 0);
+        estimate.getEstimatesFromNowFast(resources, ports);
+        assertCache("same inputs", cache, 1, 1);
+        estimate.getEstimatesFromNowFast(resources.copy(), ports.clone());
+        assertCache("equal copies of inputs", cache, 1, 2);
+
+        // ports
+        ports[SOCBoard.MISC_PORT] = true;
+        estimate.getEstimatesFromNowFast(resources, ports);
+        assertCache("misc port", cache, 2, 2);
+        ports[SOCResourceConstants.WOOD] = true;
+        estimate.getEstimatesFromNowFast(resources, ports);
+        assertCache("wood port", cache, 3, 2);
+        ports[SOCBoard.MISC_PORT] = false;
+        ports[SOCResourceConstants.WOOD] = false;
+        estimate.getEstimatesFromNowFast(resources, ports);
+        assertCache("no ports again", cache, 3, 3);
+
+        // resources, including unknown
+        estimate.getEstimatesFromNowFast(new SOCResourceSet(1, 0, 1, 0, 2, 0), ports);
+        assertCache("more wood", cache, 4, 3);
+        estimate.getEstimatesFromNowFast(new SOCResourceSet(1, 0, 1, 0, 1, 1), ports);
+        assertCache("unknown resource", cache, 5, 3);
+
+        // kind of estimate
+        estimate.getEstimatesFromNowAccurate(resources, ports);
+        assertCache("accurate", cache, 6, 3);
+        estimate.getEstimatesFromNowAccurate(resources, ports);
+        assertCache("accurate again", cache, 6, 4);
+
+        // target and cutoff
+        estimate.calculateRollsFast(resources, SOCGame.CITY_SET, 40, ports);
+        assertCache("city", cache, 7, 4);
+        estimate.calculateRollsFast(resources, SOCGame.CARD_SET, 40, ports);
+        assertCache("card", cache, 8, 4);
+        estimate.calculateRollsFast(resources, SOCGame.CARD_SET, 20, ports);
+        assertCache("card, lower cutoff", cache, 9, 4);
+        estimate.calculateRollsFast(resources, SOCGame.CITY_SET, 40, ports);
+        assertCache("city again", cache, 9, 5);
+
+        // pieces: another estimate sharing the cache, whose player has another settlement
+        final SOCPlayerNumbers moreNumbers = new SOCPlayerNumbers(numbers);
+        moreNumbers.addNumberForResource(9, SOCResourceConstants.ORE, 0x55);
+        final SOCBuildingSpeedEstimate moreEstimate = new SOCBuildingSpeedEstimate(moreNumbers, cache);
+        moreEstimate.getEstimatesFromNowFast(resources, ports);
+        assertCache("another settlement", cache, 10, 5);
+        moreEstimate.getEstimatesFromNowAccurate(resources, ports);
+        assertCache("another settlement, accurate", cache, 11, 5);
+
+        // same rolls per resource, different resources per roll: Fast estimates don't use those, accurate ones do
+        final SOCPlayerNumbers swapped = new SOCPlayerNumbers(board);
+        swapped.addNumberForResource(8, SOCResourceConstants.WHEAT, 0x33);
+        swapped.addNumberForResource(6, SOCResourceConstants.WOOD, 0x35);
+        swapped.addNumberForResource(5, SOCResourceConstants.CLAY, 0x53);
+        final SOCBuildingSpeedEstimate swappedEstimate = new SOCBuildingSpeedEstimate(swapped, cache);
+        assertArrayEquals("rolls per resource", estimate.getRollsPerResource(), swappedEstimate.getRollsPerResource());
+        swappedEstimate.getEstimatesFromNowFast(resources, ports);
+        assertCache("swapped numbers, fast", cache, 11, 6);
+        swappedEstimate.getEstimatesFromNowAccurate(resources, ports);
+        assertCache("swapped numbers, accurate", cache, 12, 6);
+
+        // robber on a hex
+        estimate.recalculateEstimates(numbers, 0x35);
+        estimate.getEstimatesFromNowAccurate(resources, ports);
+        assertCache("robber", cache, 13, 6);
+        estimate.recalculateEstimates(numbers, -1);
+        estimate.getEstimatesFromNowAccurate(resources, ports);
+        assertCache("robber moved away", cache, 13, 7);
+
+        cache.clear();
+        assertCache("clear", cache, 0, 7);
+    }
+
+    /**
+     * For random dice numbers, ports and resources, each kind of estimate from an estimate
+     * with a cache must equal the same estimate from one without, both when first calculated
+     * and when found in the cache. A small cache is used so that entries are also dropped.
+     */
+    @Test
+    public void testCachedEqualsUncached()
+    {
+        final Random rand = new Random(SEED);
+        final SOCBoard board = new SOCGame("test").getBoard();
+        final SOCBuildingSpeedCache cache = new SOCBuildingSpeedCache(20);
+        final boolean[] ports = new boolean[SOCResourceConstants.WOOD + 1];
+        final SOCResourceSet[] targets =
+            { SOCGame.ROAD_SET, SOCGame.SETTLEMENT_SET, SOCGame.CITY_SET, SOCGame.CARD_SET };
+
+        for (int n = 0; n < 40; ++n)
+        {
+            final SOCPlayerNumbers numbers = TestBuildingSpeedEstimate.randomNumbers(board, rand);
+            final SOCBuildingSpeedEstimate cached = new SOCBuildingSpeedEstimate(numbers, cache),
+                uncached = new SOCBuildingSpeedEstimate(numbers);
+            for (int i = 0; i < ports.length; ++i)
+                ports[i] = (rand.nextInt(4) == 0);
+
+            for (int r = 0; r < 4; ++r)
+            {
+                final SOCResourceSet resources = TestBuildingSpeedEstimate.randomResources(rand, 3, 0);
+                final String desc = "numbers " + numbers + " resources " + resources + " ports " + Arrays.toString(ports);
+
+                // twice: calculated, then from the cache
+                for (int pass = 0; pass < 2; ++pass)
+                {
+                    final String pdesc = desc + " pass " + pass;
+                    assertArrayEquals(pdesc + ": fast",
+                        uncached.getEstimatesFromNowFast(resources, ports).clone(),
+                        cached.getEstimatesFromNowFast(resources, ports));
+                    assertArrayEquals(pdesc + ": accurate",
+                        uncached.getEstimatesFromNowAccurate(resources, ports).clone(),
+                        cached.getEstimatesFromNowAccurate(resources, ports));
+                    for (final SOCResourceSet target : targets)
+                        assertEquals(pdesc + ": rolls to " + target,
+                            uncached.calculateRollsFast(resources, target, 30, ports),
+                            cached.calculateRollsFast(resources, target, 30, ports));
+                }
+            }
+        }
+
+        assertTrue(cache.getHits() > 0);
+        assertTrue(cache.size() <= 20);
+    }
+
+}
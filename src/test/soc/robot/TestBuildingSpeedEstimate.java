@@ -0,0 +1,330 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.Random;
+
+import soc.game.SOCBoard;
+import soc.game.SOCGame;
+import soc.game.SOCPlayerNumbers;
+import soc.game.SOCResourceConstants;
+import soc.game.SOCResourceSet;
+import soc.util.CutoffExceededException;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCBuildingSpeedEstimate#calculateRollsAccurate(SOCResourceSet, SOCResourceSet, int, boolean[])}:
+ * Its packed-int search must give the same rolls and cutoffs as the
+ * {@code Hashtable<SOCResourceSet, Float>} search it replaced in v2.0.00, which is kept here as
+ * {@link #oldCalculateRollsAccurate(SOCResourceSet, SOCResourceSet, int, boolean[], int[], SOCResourceSet[], HashSet)}.
+ *<P>
+ * When several resource sets reach the target in the same roll, each search returns the first one it found;
+ * the old search's order came from {@code Hashtable} enumeration, so the test checks that the new search
+ * returns one of the sets which the old search found in that roll.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class TestBuildingSpeedEstimate
+{
+    /** Seed for random dice numbers, resources and ports, so any failure can be repeated. */
+    private static final long SEED = 20160512L;
+
+    /** Dice numbers which give resources: 2 - 6, 8 - 12 */
+    private static final int[] DICE_NUMBERS = { 2, 3, 4, 5, 6, 8, 9, 10, 11, 12 };
+
+    /** Each piece type's cost, as targets */
+    private static final SOCResourceSet[] PIECE_TARGETS =
+        { SOCGame.ROAD_SET, SOCGame.SETTLEMENT_SET, SOCGame.CITY_SET, SOCGame.CARD_SET, SOCGame.SHIP_SET };
+
+    /**
+     * Figure out how many rolls it would take to get the target set of resources given a starting set,
+     * the way {@link SOCBuildingSpeedEstimate#calculateRollsAccurate(SOCResourceSet, SOCResourceSet, int, boolean[])}
+     * did before v2.0.00: Each roll's possible resource sets and their probabilities are kept in a {@code Hashtable}.
+     * Debug prints have been removed and {@code firstHits} has been added; the calculation is otherwise unchanged.
+     *
+     * @param startingResources   the starting resources
+     * @param targetResources     the target resources
+     * @param cutoff              throw an exception if the total speed is greater than this
+     * @param ports               a list of port flags
+     * @param rollsPerResource    the estimate's {@link SOCBuildingSpeedEstimate#getRollsPerResource()}
+     * @param resourcesForRoll    resources gained for each dice number, indexed 2 to 12
+     * @param firstHits           If not null, each resource set which reaches the target
+     *     in the first roll where any set reaches it is added here
+     * @return the number of rolls and our resources when the target is reached
+     * @throws CutoffExceededException if estimate more than {@code cutoff} turns to obtain {@code targetResources}
+     */
+    private static SOCResSetBuildTimePair oldCalculateRollsAccurate
+        (SOCResourceSet startingResources, SOCResourceSet targetResources, int cutoff, boolean[] ports,
+         final int[] rollsPerResource, final SOCResourceSet[] resourcesForRoll, final HashSet<SOCResourceSet> firstHits)
+        throws CutoffExceededException
+    {
+        SOCResourceSet ourResources = startingResources.copy();
+        int rolls = 0;
+
+        @SuppressWarnings("unchecked")
+        Hashtable<SOCResourceSet, Float>[] resourcesOnRoll = new Hashtable[2];
+        resourcesOnRoll[0] = new Hashtable<SOCResourceSet, Float>();
+        resourcesOnRoll[1] = new Hashtable<SOCResourceSet, Float>();
+
+        int lastRoll = 0;
+        int thisRoll = 1;
+
+        resourcesOnRoll[lastRoll].put(ourResources, new Float(1.0));
+
+        boolean targetReached = ourResources.contains(targetResources);
+        SOCResourceSet targetReachedResources = null;
+        int firstHitRoll = 0;
+        float targetReachedProb = (float) 0.0;
+
+        while (!targetReached)
+        {
+            rolls++;
+
+            if (rolls > cutoff)
+                throw new CutoffExceededException();
+
+            for (int diceResult = 2; diceResult <= 12; diceResult++)
+            {
+                SOCResourceSet gainedResources = resourcesForRoll[diceResult];
+                float diceProb = SOCNumberProbabilities.FLOAT_VALUES[diceResult];
+
+                Enumeration<SOCResourceSet> lastResourcesEnum = resourcesOnRoll[lastRoll].keys();
+
+                while (lastResourcesEnum.hasMoreElements())
+                {
+                    SOCResourceSet lastResources = lastResourcesEnum.nextElement();
+                    Float lastProb = resourcesOnRoll[lastRoll].get(lastResources);
+                    SOCResourceSet newResources = lastResources.copy();
+                    newResources.add(gainedResources);
+
+                    float newProb = lastProb.floatValue() * diceProb;
+
+                    if (!newResources.contains(targetResources))
+                    {
+                        // do any possible trading with the bank/ports
+                        for (int giveResource = SOCResourceConstants.CLAY;
+                                giveResource <= SOCResourceConstants.WOOD;
+                                giveResource++)
+                        {
+                            if ((newResources.getAmount(giveResource) - targetResources.getAmount(giveResource)) > 1)
+                            {
+                                int tradeRatio;
+
+                                if (ports[giveResource])
+                                    tradeRatio = 2;
+                                else if (ports[SOCBoard.MISC_PORT])
+                                    tradeRatio = 3;
+                                else
+                                    tradeRatio = 4;
+
+                                int numTrades = (newResources.getAmount(giveResource) - targetResources.getAmount(giveResource)) / tradeRatio;
+
+                                for (int trades = 0; trades < numTrades; trades++)
+                                {
+                                    // find the most needed resource
+                                    int mostNeededResource = -1;
+
+                                    for (int resource = SOCResourceConstants.CLAY;
+                                            resource <= SOCResourceConstants.WOOD;
+                                            resource++)
+                                    {
+                                        if (newResources.getAmount(resource) < targetResources.getAmount(resource))
+                                        {
+                                            if (mostNeededResource < 0)
+                                            {
+                                                mostNeededResource = resource;
+                                            }
+                                            else
+                                            {
+                                                if (rollsPerResource[resource] > rollsPerResource[mostNeededResource])
+                                                    mostNeededResource = resource;
+                                            }
+                                        }
+                                    }
+
+                                    // make the trade
+                                    if ((mostNeededResource != -1) && (newResources.getAmount(giveResource) >= tradeRatio))
+                                    {
+                                        newResources.add(1, mostNeededResource);
+                                        newResources.subtract(tradeRatio, giveResource);
+                                    }
+
+                                    if (newResources.contains(targetResources))
+                                        break;
+                                }
+
+                                if (newResources.contains(targetResources))
+                                    break;
+                            }
+                        }
+                    }
+
+                    Float probFloat = resourcesOnRoll[thisRoll].get(newResources);
+                    float newProb2 = newProb;
+
+                    if (probFloat != null)
+                        newProb2 = probFloat.floatValue() + newProb;
+
+                    if (newResources.contains(targetResources))
+                    {
+                        targetReachedProb += newProb;
+
+                        if (targetReachedResources == null)
+                        {
+                            targetReachedResources = newResources;
+                            firstHitRoll = rolls;
+                        }
+                        if ((firstHits != null) && (rolls == firstHitRoll))
+                            firstHits.add(newResources);
+
+                        if (targetReachedProb >= 0.5)
+                            targetReached = true;
+                    }
+                    else
+                    {
+                        resourcesOnRoll[thisRoll].put(newResources, new Float(newProb2));
+                    }
+                }
+            }
+
+            int tmp = lastRoll;
+            lastRoll = thisRoll;
+            thisRoll = tmp;
+            resourcesOnRoll[thisRoll].clear();
+        }
+
+        return (new SOCResSetBuildTimePair(targetReachedResources, rolls));
+    }
+
+    /**
+     * Make random dice numbers for a player: 1 to 8 hexes with random numbers and resources.
+     * @param board  Board, for {@link SOCPlayerNumbers#SOCPlayerNumbers(SOCBoard)}
+     * @param rand  Random generator
+     * @return  the numbers
+     */
+    static SOCPlayerNumbers randomNumbers(final SOCBoard board, final Random rand)
+    {
+        final SOCPlayerNumbers numbers = new SOCPlayerNumbers(board);
+        final int nHexes = 1 + rand.nextInt(8);
+        for (int i = 0; i < nHexes; ++i)
+            numbers.addNumberForResource
+                (DICE_NUMBERS[rand.nextInt(DICE_NUMBERS.length)], SOCResourceConstants.CLAY + rand.nextInt(5), 0x33 + i);
+
+        return numbers;
+    }
+
+    /**
+     * Make a random resource set with up to {@code max} of each known type.
+     * @param rand  Random generator
+     * @param max  Maximum amount of each type
+     * @param unknown  Amount of {@link SOCResourceConstants#UNKNOWN}
+     * @return  the set
+     */
+    static SOCResourceSet randomResources(final Random rand, final int max, final int unknown)
+    {
+        return new SOCResourceSet
+            (rand.nextInt(max + 1), rand.nextInt(max + 1), rand.nextInt(max + 1),
+             rand.nextInt(max + 1), rand.nextInt(max + 1), unknown);
+    }
+
+    /**
+     * For many random dice numbers, ports, starting resources and targets (each piece's cost,
+     * and random small sets), {@code calculateRollsAccurate} must return the same rolls as the old calculation
+     * and one of the same resource sets, or throw {@link CutoffExceededException} when it does.
+     * Reuses each estimate for several calls, since its arrays are kept between calls.
+     */
+    @Test
+    public void testMatchesOldCalculation()
+    {
+        final Random rand = new Random(SEED);
+        final SOCBoard board = new SOCGame("test").getBoard();
+        final boolean[] ports = new boolean[SOCResourceConstants.WOOD + 1];
+        final SOCResourceSet[] resourcesForRoll = new SOCResourceSet[13];
+        final HashSet<SOCResourceSet> firstHits = new HashSet<SOCResourceSet>();
+        int numCompared = 0, numCutoff = 0;
+
+        for (int n = 0; n < 60; ++n)
+        {
+            final SOCPlayerNumbers numbers = randomNumbers(board, rand);
+            final SOCBuildingSpeedEstimate estimate = new SOCBuildingSpeedEstimate(numbers);
+            for (int dice = 2; dice <= 12; ++dice)
+            {
+                final SOCResourceSet rs = new SOCResourceSet();
+                for (Integer rtype : numbers.getResourcesForNumber(dice))
+                    rs.add(1, rtype.intValue());
+                resourcesForRoll[dice] = rs;
+            }
+            for (int i = 0; i < ports.length; ++i)
+                ports[i] = (rand.nextInt(4) == 0);
+
+            for (int t = 0; t < 10; ++t)
+            {
+                final SOCResourceSet target = (t < PIECE_TARGETS.length)
+                    ? PIECE_TARGETS[t]
+                    : randomResources(rand, 3, 0);
+                final SOCResourceSet start = randomResources(rand, (t % 2 == 0) ? 0 : 4, (t == 3) ? 2 : 0);
+                final int cutoff = (t < PIECE_TARGETS.length)
+                    ? SOCBuildingSpeedEstimate.DEFAULT_ROLL_LIMIT
+                    : (5 + rand.nextInt(40));
+                final String desc = "numbers " + numbers + " start " + start + " target " + target
+                    + " cutoff " + cutoff + " ports " + Arrays.toString(ports);
+
+                SOCResSetBuildTimePair expected = null, actual = null;
+                firstHits.clear();
+                try
+                {
+                    expected = oldCalculateRollsAccurate
+                        (start, target, cutoff, ports, estimate.getRollsPerResource(), resourcesForRoll, firstHits);
+                } catch (CutoffExceededException e) {}
+                try
+                {
+                    actual = estimate.calculateRollsAccurate(start, target, cutoff, ports);
+                } catch (CutoffExceededException e) {}
+
+                if (expected == null)
+                {
+                    assertNull(desc + ": should be cut off", actual);
+                    ++numCutoff;
+                    continue;
+                }
+
+                assertNotNull(desc + ": shouldn't be cut off", actual);
+                assertEquals(desc, expected.getRolls(), actual.getRolls());
+                if (expected.getResources() == null)
+                    assertNull(desc, actual.getResources());
+                else
+                    assertTrue(desc + ": resources " + actual.getResources(), firstHits.contains(actual.getResources()));
+                ++numCompared;
+            }
+        }
+
+        // make sure both outcomes were tested
+        assertTrue(numCompared > 50);
+        assertTrue(numCutoff > 10);
+    }
+
+}
@@ -0,0 +1,167 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.util;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Benchmark for {@link SortedIntMap} against the {@code TreeMap<Integer, V>} it replaced
+ * in {@link soc.robot.SOCPlayerTracker}, with the operations the tracker does most:
+ * Each iteration copies a map of a player's possible pieces (like {@code recalcWinGameETA}
+ * and {@code copyPlayerTrackers}), looks up coordinates in it, some of them absent,
+ * and iterates its values. {@link TestSortedIntMap} checks that the two kinds of map agree.
+ *<P>
+ * This is a timing harness, not a unit test, so it's kept in the test source tree
+ * but not named {@code Test*}. To run after {@code ant compile-tests}:
+ * {@code java -cp target/classes:target/test-classes soc.util.SortedIntMapBenchmark [iterations [entries [lookups]]]}
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SortedIntMapBenchmark
+{
+    /** Keys in the maps, like node or edge coordinates on a large board */
+    private final int[] keys;
+
+    /** Keys to look up, about half of them in the maps */
+    private final int[] lookups;
+
+    private final TreeMap<Integer, String> treeMap = new TreeMap<Integer, String>();
+
+    private final SortedIntMap<String> intMap = new SortedIntMap<String>();
+
+    /**
+     * Build the maps to benchmark, with the same random keys and values.
+     * @param numEntries  Number of entries in each map
+     * @param numLookups  Number of lookups per iteration
+     * @param rand  Random source for keys
+     */
+    public SortedIntMapBenchmark(final int numEntries, final int numLookups, final Random rand)
+    {
+        keys = new int[numEntries];
+        for (int i = 0; i < numEntries; ++i)
+        {
+            int key;
+            do
+            {
+                key = ((1 + rand.nextInt(0x10)) << 8) | (1 + rand.nextInt(0x14));
+            } while (intMap.containsKey(key));
+
+            keys[i] = key;
+            final String val = "0x" + Integer.toHexString(key);
+            treeMap.put(Integer.valueOf(key), val);
+            intMap.put(key, val);
+        }
+
+        lookups = new int[numLookups];
+        for (int i = 0; i < numLookups; ++i)
+            lookups[i] = (rand.nextBoolean())
+                ? keys[rand.nextInt(numEntries)]
+                : ((1 + rand.nextInt(0x10)) << 8) | (1 + rand.nextInt(0x14));
+    }
+
+    /**
+     * One iteration with {@code TreeMap}: copy, look up each of {@link #lookups}, iterate the copy's values.
+     * @return  Count of lookups found plus total value length, so the work is used
+     */
+    public int iterateTreeMap()
+    {
+        final TreeMap<Integer, String> copy = new TreeMap<Integer, String>(treeMap);
+        int n = 0;
+        for (final int key : lookups)
+            if (copy.get(Integer.valueOf(key)) != null)
+                ++n;
+        for (final String val : copy.values())
+            n += val.length();
+
+        return n;
+    }
+
+    /**
+     * Same iteration as {@link #iterateTreeMap()}, with {@link SortedIntMap}.
+     * @return  Count of lookups found plus total value length; same as {@link #iterateTreeMap()}
+     */
+    public int iterateIntMap()
+    {
+        final SortedIntMap<String> copy = new SortedIntMap<String>(intMap);
+        int n = 0;
+        for (final int key : lookups)
+            if (copy.get(key) != null)
+                ++n;
+        for (final String val : copy.values())
+            n += val.length();
+
+        return n;
+    }
+
+    /**
+     * Run the benchmark from the command line and print results.
+     * @param args  Optional: Number of timed iterations (default 200000), entries per map (default 225),
+     *     lookups per iteration (default 300)
+     */
+    public static void main(final String[] args)
+    {
+        int numIters = 200000, numEntries = 225, numLookups = 300;
+        try
+        {
+            if (args.length > 0)
+                numIters = Integer.parseInt(args[0]);
+            if (args.length > 1)
+                numEntries = Integer.parseInt(args[1]);
+            if (args.length > 2)
+                numLookups = Integer.parseInt(args[2]);
+            if ((numIters < 1) || (numEntries < 1) || (numEntries > 0x140) || (numLookups < 0))
+                throw new IllegalArgumentException();
+        } catch (IllegalArgumentException e) {
+            System.err.println("usage: java soc.util.SortedIntMapBenchmark [iterations [entries (1-320) [lookups]]]");
+            System.exit(1);
+        }
+
+        final SortedIntMapBenchmark bench = new SortedIntMapBenchmark(numEntries, numLookups, new Random(1));
+        if (bench.iterateTreeMap() != bench.iterateIntMap())
+        {
+            System.err.println("Maps disagree");
+            System.exit(1);
+        }
+
+        // warm up, then time each
+        for (int i = 0; i < 20000; ++i)
+        {
+            bench.iterateTreeMap();
+            bench.iterateIntMap();
+        }
+
+        long t0 = System.nanoTime();
+        for (int i = 0; i < numIters; ++i)
+            bench.iterateTreeMap();
+        final long treeNanos = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        for (int i = 0; i < numIters; ++i)
+            bench.iterateIntMap();
+        final long intNanos = System.nanoTime() - t0;
+
+        System.out.println(numEntries + " entries, " + numLookups + " lookups, " + numIters + " iterations:");
+        System.out.println("  TreeMap:      " + (treeNanos / numIters) + " ns/iteration");
+        System.out.println("  SortedIntMap: " + (intNanos / numIters) + " ns/iteration");
+    }
+
+}
@@ -0,0 +1,347 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2016 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.util;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SortedIntMap}: It must behave like the {@code TreeMap<Integer, V>} it replaced
+ * in {@link soc.robot.SOCPlayerTracker}, including iteration order, and handle boundary cases
+ * such as empty maps, growing past its capacity, and extreme keys.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class TestSortedIntMap
+{
+    /**
+     * Assert that a map has the same entries and order as a reference map,
+     * checked through get, containsKey, keyAt/valueAt and values().
+     * @param desc  Description for assertion messages
+     * @param expected  Reference map
+     * @param actual  Map to check
+     */
+    private static void assertSameEntries
+        (final String desc, final TreeMap<Integer, String> expected, final SortedIntMap<String> actual)
+    {
+        assertEquals(desc, expected.size(), actual.size());
+        assertEquals(desc, expected.isEmpty(), actual.isEmpty());
+        assertEquals(desc, new ArrayList<String>(expected.values()), new ArrayList<String>(actual.values()));
+        assertEquals(desc, expected.size(), actual.values().size());
+
+        int i = 0;
+        for (Map.Entry<Integer, String> e : expected.entrySet())
+        {
+            final int key = e.getKey().intValue();
+            assertEquals(desc, key, actual.keyAt(i));
+            assertSame(desc, e.getValue(), actual.valueAt(i));
+            assertSame(desc, e.getValue(), actual.get(key));
+            assertTrue(desc, actual.containsKey(key));
+            ++i;
+        }
+    }
+
+    /**
+     * Random puts, replacements and removes must give the same results as a reference {@code TreeMap},
+     * starting from a small capacity so the map grows several times.
+     */
+    @Test
+    public void testMatchesTreeMap()
+    {
+        final Random rand = new Random(16);
+        final SortedIntMap<String> map = new SortedIntMap<String>(2);
+        final TreeMap<Integer, String> expected = new TreeMap<Integer, String>();
+
+        for (int i = 0; i < 20000; ++i)
+        {
+            final int key = rand.nextInt(600) - 100;  // include some negative keys
+            final Integer k = Integer.valueOf(key);
+            final String desc = "step " + i + " key " + key;
+            switch (rand.nextInt(5))
+            {
+            case 0:
+            case 1:
+            case 2:
+                {
+                    final String val = "v" + i;
+                    assertSame(desc, expected.put(k, val), map.put(key, val));
+                }
+                break;
+            case 3:
+                assertSame(desc, expected.remove(k), map.remove(key));
+                break;
+            default:
+                assertSame(desc, expected.get(k), map.get(key));
+                assertEquals(desc, expected.containsKey(k), map.containsKey(key));
+            }
+            assertEquals(desc, expected.size(), map.size());
+
+            if ((i % 1000) == 0)
+                assertSameEntries(desc, expected, map);
+        }
+        assertSameEntries("end", expected, map);
+
+        map.clear();
+        expected.clear();
+        assertSameEntries("clear", expected, map);
+        assertNull(map.put(5, "after clear"));
+        assertEquals("after clear", map.get(5));
+    }
+
+    /**
+     * Puts in ascending, descending and interleaved key order must all iterate in ascending order,
+     * so inserting at the start, middle and end of the arrays all work.
+     */
+    @Test
+    public void testInsertionOrder()
+    {
+        final int[][] orders =
+            {
+                { 1, 2, 3, 4, 5, 6, 7, 8, 9 },
+                { 9, 8, 7, 6, 5, 4, 3, 2, 1 },
+                { 5, 1, 9, 3, 7, 2, 8, 4, 6 }
+            };
+        for (final int[] order : orders)
+        {
+            final SortedIntMap<String> map = new SortedIntMap<String>(0);
+            final TreeMap<Integer, String> expected = new TreeMap<Integer, String>();
+            for (final int key : order)
+            {
+                final String val = "v" + key;
+                map.put(key, val);
+                expected.put(Integer.valueOf(key), val);
+                assertSameEntries("insert " + key, expected, map);
+            }
+
+            // remove first, last, middle
+            for (final int key : new int[]{ 1, 9, 5 })
+            {
+                assertEquals("v" + key, map.remove(key));
+                expected.remove(Integer.valueOf(key));
+                assertSameEntries("remove " + key, expected, map);
+            }
+        }
+    }
+
+    /**
+     * Boundary cases: Empty map, absent keys, extreme keys, null values, index range, replacing a value.
+     */
+    @Test
+    public void testBoundaries()
+    {
+        final SortedIntMap<String> map = new SortedIntMap<String>();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(0));
+        assertNull(map.remove(0));
+        assertFalse(map.containsKey(0));
+        assertFalse(map.values().iterator().hasNext());
+        assertEquals("{}", map.toString());
+
+        try
+        {
+            map.keyAt(0);
+            fail("keyAt(0) of empty map should throw");
+        } catch (ArrayIndexOutOfBoundsException e) {}
+        try
+        {
+            map.valueAt(0);
+            fail("valueAt(0) of empty map should throw");
+        } catch (ArrayIndexOutOfBoundsException e) {}
+        try
+        {
+            map.put(1, null);
+            fail("put null should throw");
+        } catch (NullPointerException e) {}
+        assertTrue(map.isEmpty());
+
+        map.put(Integer.MAX_VALUE, "max");
+        map.put(Integer.MIN_VALUE, "min");
+        map.put(0, "zero");
+        map.put(-1, "minus one");
+        assertEquals(4, map.size());
+        assertEquals(Integer.MIN_VALUE, map.keyAt(0));
+        assertEquals(-1, map.keyAt(1));
+        assertEquals(0, map.keyAt(2));
+        assertEquals(Integer.MAX_VALUE, map.keyAt(3));
+        assertEquals("max", map.valueAt(3));
+        assertNull(map.get(1));
+        assertNull(map.get(Integer.MAX_VALUE - 1));
+        try
+        {
+            map.keyAt(4);
+            fail("keyAt(size) should throw");
+        } catch (ArrayIndexOutOfBoundsException e) {}
+
+        // replacing a value doesn't change size or order
+        assertEquals("zero", map.put(0, "ZERO"));
+        assertEquals(4, map.size());
+        assertEquals(0, map.keyAt(2));
+        assertEquals("ZERO", map.get(0));
+        assertEquals("{0x80000000=min, 0xffffffff=minus one, 0x0=ZERO, 0x7fffffff=max}", map.toString());
+
+        assertEquals("min", map.remove(Integer.MIN_VALUE));
+        assertEquals("max", map.remove(Integer.MAX_VALUE));
+        assertNull(map.remove(Integer.MAX_VALUE));
+        assertEquals(2, map.size());
+        assertEquals(-1, map.keyAt(0));
+    }
+
+    /**
+     * The copy constructor's map must have the same entries, share the same value objects,
+     * and be independent of the original afterwards. Also copies an empty map.
+     */
+    @Test
+    public void testCopy()
+    {
+        final SortedIntMap<String> empty = new SortedIntMap<String>(), emptyCopy = new SortedIntMap<String>(empty);
+        assertTrue(emptyCopy.isEmpty());
+        emptyCopy.put(3, "three");
+        assertTrue(empty.isEmpty());
+
+        final SortedIntMap<String> map = new SortedIntMap<String>();
+        final TreeMap<Integer, String> expected = new TreeMap<Integer, String>();
+        for (int key = 0x21; key < 0x80; key += 3)
+        {
+            final String val = "v" + key;
+            map.put(key, val);
+            expected.put(Integer.valueOf(key), val);
+        }
+
+        final SortedIntMap<String> copy = new SortedIntMap<String>(map);
+        assertSameEntries("copy", expected, copy);
+
+        // grow and change the copy; original is unchanged
+        final TreeMap<Integer, String> copyExpected = new TreeMap<Integer, String>(expected);
+        for (int key = 0x20; key < 0x90; key += 2)
+        {
+            final String val = "c" + key;
+            copy.put(key, val);
+            copyExpected.put(Integer.valueOf(key), val);
+        }
+        copy.remove(0x21);
+        copyExpected.remove(Integer.valueOf(0x21));
+        assertSameEntries("copy changed", copyExpected, copy);
+        assertSameEntries("original after copy changed", expected, map);
+
+        // change the original; copy is unchanged
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertSameEntries("copy after original cleared", copyExpected, copy);
+    }
+
+    /**
+     * The {@link SortedIntMap#values()} iterator must remove like {@code TreeMap}'s,
+     * throw the same exceptions as {@code TreeMap}'s when misused,
+     * and be fail-fast when the map is changed during iteration.
+     */
+    @Test
+    public void testValuesIterator()
+    {
+        final SortedIntMap<String> map = new SortedIntMap<String>();
+        final TreeMap<Integer, String> expected = new TreeMap<Integer, String>();
+        for (int key = 0; key < 50; ++key)
+        {
+            final String val = "v" + key;
+            map.put(key, val);
+            expected.put(Integer.valueOf(key), val);
+        }
+
+        // remove every third, including the first
+        int n = 0;
+        for (Iterator<String> it = map.values().iterator(); it.hasNext(); ++n)
+        {
+            assertEquals("v" + n, it.next());
+            if ((n % 3) == 0)
+                it.remove();
+        }
+        assertEquals(50, n);
+        for (Iterator<String> it = expected.values().iterator(); it.hasNext(); )
+            if ((Integer.parseInt(it.next().substring(1)) % 3) == 0)
+                it.remove();
+        assertSameEntries("iterator remove", expected, map);
+
+        // remove all, including the last
+        for (Iterator<String> it = map.values().iterator(); it.hasNext(); )
+        {
+            it.next();
+            it.remove();
+        }
+        assertTrue(map.isEmpty());
+
+        map.put(1, "one");
+        map.put(2, "two");
+        Iterator<String> it = map.values().iterator();
+        try
+        {
+            it.remove();
+            fail("remove before next should throw");
+        } catch (IllegalStateException e) {}
+        it.next();
+        it.remove();
+        try
+        {
+            it.remove();
+            fail("remove twice should throw");
+        } catch (IllegalStateException e) {}
+        assertEquals("two", it.next());
+        assertFalse(it.hasNext());
+        try
+        {
+            it.next();
+            fail("next at end should throw");
+        } catch (NoSuchElementException e) {}
+
+        // fail-fast on put of a new key, remove, or clear; not on replacing a value
+        map.put(5, "five");
+        it = map.values().iterator();
+        it.next();
+        map.put(5, "FIVE");
+        it.next();
+        map.put(6, "six");
+        try
+        {
+            it.next();
+            fail("next after put should throw");
+        } catch (ConcurrentModificationException e) {}
+
+        it = map.values().iterator();
+        it.next();
+        map.remove(2);
+        try
+        {
+            it.remove();
+            fail("iterator remove after map remove should throw");
+        } catch (ConcurrentModificationException e) {}
+
+        it = map.values().iterator();
+        map.clear();
+        assertFalse(it.hasNext());
+    }
+
+}